@@ -22,8 +22,6 @@ public class BorrowedItemsController {
 	/** Title for the User Dashboard page. */
 	private final String USER_DASHBOARD_TITLE = "User Dashboard";
 	
-	/** Holds all the loans from the loans file for local storage. */
-	private ArrayList<Loan> loanList;
 	/** Holds all the user's current loans. */
 	private ArrayList<Loan> userLoans = new ArrayList<>();
 	
@@ -58,11 +56,12 @@ public class BorrowedItemsController {
 	 * This method will run automatically.
 	 */
 	public void initialize() { 
-		loanList = FileHandling.getLoans();
-		username = FileHandling.getCurrentUser();
+		LibraryStore store = LibraryStore.getInstance();
+		username = store.getCurrentUser();
 		
-		for (Loan loan : loanList) {
-			if (username.equals(loan.getUsername()) && !loan.isReturned()) {
+		// Only the user's own loans are looked at.
+		for (Loan loan : store.getUserLoans(username)) {
+			if (!loan.isReturned()) {
 				userLoans.add(loan);
 				String strLoan = "Loan ID: " + loan.getLoanID() + " | "
 						+ "Checkout Date: " + loan.getCheckoutDate();
@@ -91,7 +90,7 @@ public class BorrowedItemsController {
 		txtResourceType.setText(selectedLoan.getType() + "");
 		txtCheckoutDate.setText(selectedLoan.getCheckoutDate());
 		
-		if (selectedLoan.getDueDate().isEmpty()) {
+		if (!selectedLoan.hasDueDate()) {
 			txtDueDate.setText("N/A");
 		} else {
 			txtDueDate.setText(selectedLoan.getDueDate());
@@ -29,8 +29,8 @@ public class CopySettingsController {
 	private ArrayList<Copy> copyList;
 	/** A list that holds all the overdue copies (loans). */
 	private ArrayList<Loan> overdueCopyList = new ArrayList<>();
-	/** A list that holds all the loans. */
-	private ArrayList<Loan> loanList;
+	/** The store holding the loans of each copy. */
+	private LibraryStore store;
 	
 	/** A list view to display the information of the copies. */
 	@FXML private ListView<String> lstShowCopies;
@@ -51,8 +51,8 @@ public class CopySettingsController {
 	 * with a short description. The method will be called automatically.
 	 */
 	public void initialize() {
-		copyList = FileHandling.getCopies();
-		loanList = FileHandling.getLoans();
+		store = LibraryStore.getInstance();
+		copyList = store.getCopies();
 		
 		// Show all copies.
 		for (Copy copy : copyList) {
@@ -60,18 +60,7 @@ public class CopySettingsController {
 		}
 		
 		// Store overdue copies from CURRENT loans (found by the loans).
-		for (Loan loan : loanList) {
-			if ((loan.getDueDate()).isEmpty() || loan.isReturned()) {
-				// Nothing happens...
-			} else {
-				int daysPastDueDate = Utility.daysPastDate(
-						loan.getDueDate());
-				// Will be negative if the due date is in the future.
-				if (daysPastDueDate > 0) {
-					overdueCopyList.add(loan);
-				}
-			}
-		}
+		overdueCopyList.addAll(store.getOverdueLoans());
 		// Sort the overdue copies (loans).
 		Collections.sort(overdueCopyList, Comparator.reverseOrder());
 	}
@@ -105,12 +94,12 @@ public class CopySettingsController {
 	public void showOverdueHistory(Loan selectedLoan) {
 		int copyID = selectedLoan.getCopyID();
 		
-		for (Loan loan : loanList) {
+		for (Loan loan : store.getCopyLoans(copyID)) {
 			// If it's currently borrowed.
-			if (loan.getCopyID() == copyID && !loan.isReturned()) {
+			if (!loan.isReturned()) {
 				lstShowCopyHistory.getItems().add(loan.getBorrowedDescription());
 			// If it's returned, show when it was borrowed as well.
-			} else if (loan.getCopyID() == copyID && loan.isReturned()) {
+			} else {
 				lstShowCopyHistory.getItems().add(loan.getReturnedDescription());
 				lstShowCopyHistory.getItems().add(loan.getBorrowedDescription());
 			}
@@ -124,12 +113,12 @@ public class CopySettingsController {
 	public void showHistory(Copy selectedCopy) {
 		int copyID = selectedCopy.getCopyID();
 		
-		for (Loan loan : loanList) {
+		for (Loan loan : store.getCopyLoans(copyID)) {
 			// If it's currently borrowed.
-			if (loan.getCopyID() == copyID && !loan.isReturned()) {
+			if (!loan.isReturned()) {
 				lstShowCopyHistory.getItems().add(loan.getBorrowedDescription());
 			// If it's returned, show when it was borrowed as well.
-			} else if (loan.getCopyID() == copyID && loan.isReturned()) {
+			} else {
 				lstShowCopyHistory.getItems().add(loan.getReturnedDescription());
 				lstShowCopyHistory.getItems().add(loan.getBorrowedDescription());
 			}
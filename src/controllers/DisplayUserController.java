@@ -10,7 +10,6 @@ import javafx.scene.Scene;
 import javafx.scene.control.Button;
 import javafx.scene.control.TextField;
 import javafx.scene.control.Label;
-import javafx.scene.image.Image;
 import javafx.scene.image.ImageView;
 import javafx.scene.layout.BorderPane;
 import javafx.stage.Modality;
@@ -91,6 +90,13 @@ public class DisplayUserController {
 			txtEmploymentDate.setText(((Librarian) thisUser).getEmploymentDate() + "");
 		} else {
 			txtCurrentFine.setText("£ " + thisUser.getFine()); // Show fine.
+			// Show any fines building up on overdue loans as well.
+			double accruingFine = LibraryStore.getInstance()
+					.getAccruingFine(thisUser.getUsername());
+			if (accruingFine > 0) {
+				txtCurrentFine.setText("£ " + thisUser.getFine() 
+						+ " (+ £ " + accruingFine + " accruing)");
+			}
 			// Hide librarian related details (we are viewing a member).
 			lblStaffID.setVisible(false);
 			lblEmploymentDate.setVisible(false);
@@ -100,8 +106,7 @@ public class DisplayUserController {
 		
 		//Changes image URL to a file, then converts that to an image.
 		File imageURL = new File(PROFILE_PICTURE_PATH + thisUser.getProfilePicture());
-		Image profilePicture = new Image(imageURL.toURI().toString());
-		imageProfilePicture.setImage(profilePicture);
+		ImageCache.getInstance().show(imageProfilePicture, imageURL);
 	}
 	
 	/**
@@ -9,7 +9,6 @@ import javafx.scene.control.ListView;
 import javafx.scene.control.Button;
 import javafx.scene.control.ComboBox;
 import javafx.scene.control.TextField;
-import javafx.scene.image.Image;
 import javafx.scene.image.ImageView;
 import javafx.stage.Stage;
 
@@ -21,12 +20,6 @@ import javafx.stage.Stage;
 public class EditResourceController {
 	/** The directory to the thumbnail images for the resources. */
 	private final String RESOURCE_IMAGE_PATH = "DataFiles/ResourceThumbnails/";
-	/** An array list that holds all the existing books. */
-	private ArrayList<Book> bookList;
-	/** An array list that holds all the existing DVDs. */
-	private ArrayList<DVD> dvdList;
-	/** An array list that holds all the existing laptops.*/
-	private ArrayList<Laptop> laptopList;
 	/** Keeps track of the current languages in the list view */
 	private ArrayList<String> currentLangList =  new ArrayList<String>();
 	
@@ -112,8 +105,7 @@ public class EditResourceController {
 		
 		File imageURL = new File(RESOURCE_IMAGE_PATH 
 				+ editedResource.getThumbnail());
-		Image resourceImage = new Image(imageURL.toURI().toString());
-		imageThumbnail.setImage(resourceImage);
+		ImageCache.getInstance().show(imageThumbnail, imageURL);
 		
 		switch (resourceType) {
 			case "Book":
@@ -239,7 +231,7 @@ public class EditResourceController {
 		
 		boolean bookExists = Utility.isBookExist(resourceTitle, year,
 				imageName, author, publisher, genre, 
-				language, isbn, bookList);
+				language, isbn);
 		
 		// Checks if the entered details match with an existing book.
 		if (bookExists) {
@@ -248,7 +240,6 @@ public class EditResourceController {
 		}
 		
 		Book editedBook = (Book) editedResource;
-		String oldBook = editedBook.toStringDetail();
 		
 		editedBook.setResourceTitle(resourceTitle);
 		editedBook.setYear(year);
@@ -259,8 +250,7 @@ public class EditResourceController {
 		editedBook.setISBN(isbn);
 		editedBook.setLanguage(language);
 		
-		String newBook = editedBook.toStringDetail();
-		FileHandling.editResource(oldBook, newBook, "Book");
+		LibraryStore.getInstance().editResource(editedBook);
 		handleBackButtonAction();
 	}
 	
@@ -314,8 +304,7 @@ public class EditResourceController {
 		int year = Integer.parseInt(strYear);
 		double runtime = Double.parseDouble(strRuntime);
 		boolean dvdExists = Utility.isDVDExist(resourceTitle, year, 
-				imageName, director, runtime, subLang, language, 
-				dvdList);
+				imageName, director, runtime, subLang, language);
 		
 		// Checks if the entered details match with an existing DVD.
 		if (dvdExists) {
@@ -324,7 +313,6 @@ public class EditResourceController {
 		}
 		
 		DVD editedDVD = (DVD) editedResource;
-		String oldDVD = editedDVD.toStringDetail();
 		
 		editedDVD.setResourceTitle(resourceTitle);
 		editedDVD.setYear(year);
@@ -334,8 +322,7 @@ public class EditResourceController {
 		editedDVD.setLanguage(language);
 		editedDVD.setSubLang(subLang);
 		
-		String newDVD = editedDVD.toStringDetail();
-		FileHandling.editResource(oldDVD, newDVD, "DVD");
+		LibraryStore.getInstance().editResource(editedDVD);
 		handleBackButtonAction();
 	}
 	
@@ -384,7 +371,7 @@ public class EditResourceController {
 		int year = Integer.parseInt(strYear);
 		
 		boolean laptopExists = Utility.isLaptopExist(resourceTitle, year, 
-				imageName, manufacturer, model, operatingSystem, laptopList);
+				imageName, manufacturer, model, operatingSystem);
 		
 		// Checks if the entered details match with an existing laptop.
 		if (laptopExists) {
@@ -393,7 +380,6 @@ public class EditResourceController {
 		}
 		
 		Laptop editedLaptop = (Laptop) editedResource;
-		String oldLaptop = editedLaptop.toStringDetail();
 		
 		editedLaptop.setResourceTitle(resourceTitle);
 		editedLaptop.setYear(year);
@@ -402,8 +388,7 @@ public class EditResourceController {
 		editedLaptop.setModel(model);
 		editedLaptop.setOperatingSystem(operatingSystem);
 		
-		String newLaptop = editedLaptop.toStringDetail();
-		FileHandling.editResource(oldLaptop, newLaptop, "Laptop");
+		LibraryStore.getInstance().editResource(editedLaptop);
 		handleBackButtonAction();
 	}
 	
@@ -417,8 +402,9 @@ public class EditResourceController {
 				.getSelectedIndex();
 		
 		File imageURL = resourceImageList[selectedIndex];
-		Image profilePicture = new Image(imageURL.toURI().toString());
-		imageThumbnail.setImage(profilePicture);
+		// Makes the smaller copy of the image before it's shown.
+		ImageCache.getInstance().makeThumbnails(imageURL);
+		ImageCache.getInstance().show(imageThumbnail, imageURL);
 	}
 	
 	/**
@@ -512,21 +498,6 @@ public class EditResourceController {
 		txtOperatingSystem.setText(editedLaptop.getOperatingSystem());
 	}
 	
-	/**
-	 * Sets the array lists for each resource.
-	 * Used to check if the edited resource's details matches with 
-	 * an existing resource.
-	 * @param bookList The ArrayList of all current books.
-	 * @param dvdList The ArrayList of all current DVDs.
-	 * @param laptopList The ArrayList of all current laptops.
-	 */
-	public void setResourceArrays(ArrayList<Book> bookList, 
-			ArrayList<DVD> dvdList, ArrayList<Laptop> laptopList) {
-		this.bookList = bookList;
-		this.dvdList = dvdList;
-		this.laptopList = laptopList;
-	}
-	
 	/**
 	 * Gets the resource being edited.
 	 * @return The resource being edited.
@@ -2,6 +2,7 @@ package controllers;
 
 import java.io.File;
 import java.io.IOException;
+import java.util.Collections;
 
 import data.*;
 import javafx.fxml.FXML;
@@ -10,7 +11,6 @@ import javafx.scene.Scene;
 import javafx.scene.control.Button;
 import javafx.scene.control.ComboBox;
 import javafx.scene.control.TextField;
-import javafx.scene.image.Image;
 import javafx.scene.image.ImageView;
 import javafx.scene.layout.BorderPane;
 import javafx.stage.Modality;
@@ -39,8 +39,6 @@ public class EditUserController {
 	
 	/** Local storage of the user being edited. */
 	private User editedUser;
-	/** Holds the string details of the user (before any edits). */
-	private String oldUser;
 	
 	/** Holds the files of all profile pictures. */
 	private File[] profilePictureList;
@@ -101,8 +99,6 @@ public class EditUserController {
 	public void editUser(User editedUser) {
 		// Keeps local storage of the edited user.
 		this.editedUser = editedUser;
-		// Helps fix a profile picture bug (file handling).
-		this.oldUser = editedUser.toStringDetail();
 		
 		// Displays the user's editable details on screen in the
 		// appropriate text fields.
@@ -117,8 +113,7 @@ public class EditUserController {
 		// Changes image URL to a file, then converts that to an image.
 		File imageURL = new File(PROFILE_PICTURE_PATH 
 				+ editedUser.getProfilePicture());
-		Image profilePicture = new Image(imageURL.toURI().toString());
-		imageProfilePicture.setImage(profilePicture);
+		ImageCache.getInstance().show(imageProfilePicture, imageURL);
 		
 		// Checks if a librarian is editing another user.
 		if (isEditAnotherUser()) {
@@ -141,8 +136,7 @@ public class EditUserController {
 			int selectedIndex = cmbProfilePicture.getSelectionModel()
 					.getSelectedIndex();
 			File imageURL = profilePictureList[selectedIndex];
-			Image profilePicture = new Image(imageURL.toURI().toString());
-			imageProfilePicture.setImage(profilePicture);
+			ImageCache.getInstance().show(imageProfilePicture, imageURL);
 		}
 	}
 	
@@ -211,11 +205,13 @@ public class EditUserController {
 		}
 		
 		// Validation rules applied to certain fields.
-		boolean requiredFilled = Utility.isFieldFilledUser(firstName, surname, 
-				mobileNumber, address1, city, postcode);
-		boolean hasLetter = Utility.isAlphaUser(firstName, surname, 
-				mobileNumber, address1, address2, city);
-		boolean validPostcode = Utility.isPostcodeValid(postcode);
+		Validator.Report report = Validator.validate(Validator.USER_FIELDS,
+				Collections.singletonList(new String[] {firstName, surname, 
+				mobileNumber, address1, address2, city, postcode}));
+		boolean requiredFilled = !report.hasError(0, Validator.Error.MISSING);
+		boolean hasLetter = !report.hasError(0, Validator.Error.NOT_ALPHA);
+		boolean validPostcode = !report.hasError(0, 
+				Validator.Error.INVALID_POSTCODE);
 		
 		// Shows appropriate alerts if validation has not been met.
 		if (!requiredFilled) { 
@@ -246,9 +242,6 @@ public class EditUserController {
 	public void saveUserEdits(String firstName, String surname, 
 			String mobileNumber, String address1, String address2, String city, 
 			String postcode, String profilePicture) {
-		// Create copies of the old and new profiles, then replace the old with new.
-		String oldProfile = oldUser;
-		
 		editedUser.setFirstName(firstName);
 		editedUser.setSurname(surname);
 		editedUser.setMobileNumber(mobileNumber);
@@ -258,15 +251,13 @@ public class EditUserController {
 		editedUser.setPostcode(postcode);
 		editedUser.setProfilePicture(profilePicture);
 		
-		String newProfile = editedUser.toStringDetail();
-		
 		// If the user is a librarian.
 		if (isLibrarian()) {
-			FileHandling.editProfile(oldProfile, newProfile, 1);
+			LibraryStore.getInstance().editProfile(editedUser, 1);
 			Alerts.savedUserChanges("librarian");
 		// If the user is a member.
 		} else {
-			FileHandling.editProfile(oldProfile, newProfile, 2);
+			LibraryStore.getInstance().editProfile(editedUser, 2);
 			Alerts.savedUserChanges("user");
 		}
 		handleBackButtonAction(); // Closes the window.
@@ -305,8 +296,7 @@ public class EditUserController {
 				
 				// Show it on the image view.
 				File imageURL = new File(PROFILE_PICTURE_PATH + newProfilePicture);
-				Image profilePicture = new Image(imageURL.toURI().toString());
-				imageProfilePicture.setImage(profilePicture);
+				ImageCache.getInstance().show(imageProfilePicture, imageURL);
 			}
 		}
 	}
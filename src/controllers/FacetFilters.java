@@ -0,0 +1,228 @@
+package controllers;
+
+import java.util.EnumMap;
+import java.util.List;
+import java.util.Map;
+import java.util.TreeMap;
+import java.util.function.Predicate;
+
+import data.FacetBitmap;
+import data.FacetIndex;
+import data.FacetIndex.Facet;
+import data.LibraryStore;
+import data.Resource;
+import data.Utility;
+import javafx.scene.control.CheckBox;
+import javafx.scene.control.CheckMenuItem;
+import javafx.scene.control.MenuButton;
+import javafx.scene.control.TextField;
+
+/**
+ * The FacetFilters class runs the filters of a page that lists resources:
+ * the type check boxes, the genre, language and subtitle menus, and the
+ * year range. Values ticked in the same menu are combined with OR, and
+ * the filters are combined with AND. Each check box and menu item shows
+ * how many resources it would give, counted from the facet index each
+ * time the filters change.
+ * @author William King
+ */
+public class FacetFilters {
+	/** The index the resources are filtered with. */
+	private final FacetIndex index;
+	/** The values currently selected. */
+	private final FacetIndex.Selection selection = new FacetIndex.Selection();
+	/** The check box for each type of resource, using the type as the key. */
+	private final TreeMap<String, CheckBox> typeBoxes = new TreeMap<>();
+	/** The text of each type check box, without its count. */
+	private final TreeMap<String, String> typeNames = new TreeMap<>();
+	/** The menu of each facet's values. */
+	private final EnumMap<Facet, MenuButton> menus = new EnumMap<>(Facet.class);
+	/** The text of each menu, without the number selected. */
+	private final EnumMap<Facet, String> menuNames = new EnumMap<>(Facet.class);
+	/** The text field for the earliest year. */
+	private final TextField txtYearFrom;
+	/** The text field for the latest year. */
+	private final TextField txtYearTo;
+	/** Refreshes the page's resource list after the filters change. */
+	private final Runnable onChange;
+
+	/**
+	 * Constructor for the FacetFilters class. Fills in the menus and
+	 * counts, and listens for changes to the year range.
+	 * @param cbBook The check box for books.
+	 * @param cbDVD The check box for DVDs.
+	 * @param cbLaptop The check box for laptops.
+	 * @param mbGenre The menu of genres.
+	 * @param mbLanguage The menu of languages.
+	 * @param mbSubtitles The menu of subtitle languages.
+	 * @param txtYearFrom The text field for the earliest year.
+	 * @param txtYearTo The text field for the latest year.
+	 * @param onChange Refreshes the page's resource list.
+	 */
+	public FacetFilters(CheckBox cbBook, CheckBox cbDVD, CheckBox cbLaptop,
+			MenuButton mbGenre, MenuButton mbLanguage, MenuButton mbSubtitles,
+			TextField txtYearFrom, TextField txtYearTo, Runnable onChange) {
+		this.index = LibraryStore.getInstance().getFacetIndex();
+		this.txtYearFrom = txtYearFrom;
+		this.txtYearTo = txtYearTo;
+		this.onChange = onChange;
+
+		typeBoxes.put("Book", cbBook);
+		typeBoxes.put("DVD", cbDVD);
+		typeBoxes.put("Laptop", cbLaptop);
+		for (Map.Entry<String, CheckBox> entry : typeBoxes.entrySet()) {
+			typeNames.put(entry.getKey(), entry.getValue().getText());
+		}
+		menus.put(Facet.GENRE, mbGenre);
+		menus.put(Facet.LANGUAGE, mbLanguage);
+		menus.put(Facet.SUBTITLE_LANGUAGE, mbSubtitles);
+		for (Map.Entry<Facet, MenuButton> entry : menus.entrySet()) {
+			menuNames.put(entry.getKey(), entry.getValue().getText());
+		}
+
+		txtYearFrom.textProperty().addListener((value, oldText, newText) ->
+				updateYears());
+		txtYearTo.textProperty().addListener((value, oldText, newText) ->
+				updateYears());
+		updateCounts();
+	}
+
+	/**
+	 * Updates the type filter after one of the type check boxes has been
+	 * changed. The page refreshes its own list.
+	 */
+	public void updateType() {
+		selection.clear(Facet.TYPE);
+		for (Map.Entry<String, CheckBox> entry : typeBoxes.entrySet()) {
+			if (entry.getValue().isSelected()) {
+				selection.setSelected(Facet.TYPE, entry.getKey(), true);
+			}
+		}
+		updateCounts();
+	}
+
+	/**
+	 * Updates the counts and menus after resources have been created or
+	 * edited. The page's list is left as it is.
+	 */
+	public void refresh() {
+		updateCounts();
+	}
+
+	/**
+	 * Checks if any filter other than the type is being used.
+	 * @return True if a genre, language, subtitle language or year has
+	 *         been selected.
+	 */
+	public boolean isFiltered() {
+		if (selection.hasYears()) {
+			return true;
+		}
+		for (Facet facet : menus.keySet()) {
+			if (!selection.getSelected(facet).isEmpty()) {
+				return true;
+			}
+		}
+		return false;
+	}
+
+	/**
+	 * Gets the resources matching the filters.
+	 * @return The resources, in ascending order of resource ID.
+	 */
+	public List<Resource> getResources() {
+		return index.getResources(index.match(selection));
+	}
+
+	/**
+	 * Gets a test for the resources matching the filters as they are
+	 * now, which can be used on another thread.
+	 * @return The test.
+	 */
+	public Predicate<Resource> getFilter() {
+		if (!isFiltered()) {
+			// Only the type, which doesn't need the index.
+			String[] types = selection.getSelected(Facet.TYPE)
+					.toArray(new String[0]);
+			return resource -> types.length == 0
+					|| types[0].equals(resource.getType());
+		}
+		FacetBitmap matches = index.match(selection);
+		return resource -> index.isMatch(matches, resource);
+	}
+
+	/**
+	 * Reads the year range from the text fields, then refreshes the list.
+	 * Anything that isn't a year leaves that end of the range open.
+	 */
+	private void updateYears() {
+		String from = txtYearFrom.getText().trim();
+		String to = txtYearTo.getText().trim();
+		int fromYear = Integer.MIN_VALUE;
+		int toYear = Integer.MAX_VALUE;
+		if (!from.isEmpty() && Utility.isInt(from) && from.length() <= 9) {
+			fromYear = Integer.parseInt(from);
+		}
+		if (!to.isEmpty() && Utility.isInt(to) && to.length() <= 9) {
+			toYear = Integer.parseInt(to);
+		}
+		if (fromYear == selection.getFromYear()
+				&& toYear == selection.getToYear()) {
+			return; // Nothing has changed.
+		}
+		selection.setYears(fromYear, toYear);
+		changed();
+	}
+
+	/**
+	 * Selects or clears a value in a menu, then refreshes the list.
+	 * @param facet The menu's facet.
+	 * @param value The value.
+	 * @param isSelected True if it has been ticked.
+	 */
+	private void setSelected(Facet facet, String value, boolean isSelected) {
+		selection.setSelected(facet, value, isSelected);
+		changed();
+	}
+
+	/**
+	 * Updates the counts and refreshes the page's list.
+	 */
+	private void changed() {
+		updateCounts();
+		onChange.run();
+	}
+
+	/**
+	 * Shows how many resources each type and menu value would give.
+	 */
+	private void updateCounts() {
+		TreeMap<String, Integer> typeCounts =
+				index.getCounts(Facet.TYPE, selection);
+		for (Map.Entry<String, CheckBox> entry : typeBoxes.entrySet()) {
+			Integer count = typeCounts.get(entry.getKey());
+			entry.getValue().setText(typeNames.get(entry.getKey()) + " ("
+					+ ((count == null) ? 0 : count) + ")");
+		}
+
+		for (Map.Entry<Facet, MenuButton> entry : menus.entrySet()) {
+			Facet facet = entry.getKey();
+			MenuButton menu = entry.getValue();
+			menu.getItems().clear();
+			for (Map.Entry<String, Integer> count
+					: index.getCounts(facet, selection).entrySet()) {
+				String value = count.getKey();
+				CheckMenuItem item = new CheckMenuItem(value + " ("
+						+ count.getValue() + ")");
+				item.setSelected(selection.getSelected(facet).contains(value));
+				item.setOnAction(event ->
+						setSelected(facet, value, item.isSelected()));
+				menu.getItems().add(item);
+			}
+
+			int selectedCount = selection.getSelected(facet).size();
+			menu.setText(menuNames.get(facet)
+					+ ((selectedCount == 0) ? "" : " (" + selectedCount + ")"));
+		}
+	}
+}
@@ -36,8 +36,8 @@ public class LoginController {
 	 * This method will run automatically.
 	 */
 	public void initialize() {
-		users = FileHandling.getUsers();
-		librarians = FileHandling.getLibrarians();
+		users = LibraryStore.getInstance().getUsers();
+		librarians = LibraryStore.getInstance().getLibrarians();
 	}
 	
 	/**
@@ -63,7 +63,7 @@ public class LoginController {
 			Alerts.userNotExist(username);
 		} else {
 			// Show dashboard and stores current user.
-			FileHandling.setCurrentUser(username);
+			LibraryStore.getInstance().setCurrentUser(username);
 			showDashboard(userType);
 		}
 	}
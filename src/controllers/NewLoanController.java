@@ -4,7 +4,6 @@ import java.io.IOException;
 import java.time.LocalDate;
 import java.time.LocalTime;
 import java.util.ArrayList;
-import java.util.Collections;
 import java.util.LinkedHashMap;
 
 import data.*;
@@ -26,12 +25,10 @@ public class NewLoanController {
 	/** Title for the Staff Dashboard page. */
 	private final String STAFF_DASHBOARD_TITLE = "Staff Dashboard";
 	
+	/** The store holding all the data shared between pages. */
+	private LibraryStore store;
 	/** ArrayList to store requests. */
 	private ArrayList<Request> requestList;
-	/** ArrayList to store all the loans. */
-	private ArrayList<Loan> loanList;
-	/** ArrayList to store the pending requests (unfilled, but not reserved). */
-	private ArrayList<Request> pendingRequests = new ArrayList<>();
 	/** ArrayList to store the pending (reserved) requests. */
 	private ArrayList<Request> pendingReserved = new ArrayList<>();
 	/** ArrayList to store all the copies. */
@@ -66,23 +63,18 @@ public class NewLoanController {
 	 * features and functionality for the page to work correctly.
 	 */
 	public void initialize() {
-		requestList = FileHandling.getRequests();
-		copies = FileHandling.getCopies();
-		loanList = FileHandling.getLoans();
-		Collections.sort(loanList);
-		Collections.sort(requestList);
+		store = LibraryStore.getInstance();
+		requestList = store.getRequests();
+		copies = store.getCopies();
 		
-		librarians = FileHandling.getLibrarians();
-		staffUsername = FileHandling.getCurrentUser();
+		librarians = store.getLibrarians();
+		staffUsername = store.getCurrentUser();
 		
 		for (Request request : requestList) {
 			// If it's reserved.
 			if (!request.getRequestFilled() && request.isReserved()) {
 				lstRequests.getItems().add(request.getDescription());
 				pendingReserved.add(request);
-			// If it's an unfilled non-reserved request.
-			} else if (!request.getRequestFilled()) {
-				pendingRequests.add(request);
 			}
 		}
 	}
@@ -118,7 +110,7 @@ public class NewLoanController {
 				.getSelectedIndex();
 		
 		// Fetch the details from the textfields.
-		int loanID = getLatestLoanID() + 1;
+		int loanID = store.nextLoanID();
 		int copyID = Integer.parseInt(txtCopyID.getText().trim());
 		int resourceID = Integer.parseInt(txtResourceID.getText().trim());
 		String username = txtUsername.getText().trim();
@@ -134,8 +126,8 @@ public class NewLoanController {
 		Loan newLoan = new Loan(loanID, copyID, resourceID, username, staffID, 
 				strCheckoutDate, strCheckoutTime, "", false, "", "", 0, type);
 		
-		// Checks if there's any other requests (non-reserved) for this copy.
-		boolean othersRequested = checkPendingRequests(copyID, username);
+		// Checks if there's any other requests (non-reserved) for this resource.
+		boolean othersRequested = checkPendingRequests(resourceID, username);
 		
 		// If so, get the loan duration of the copy to set the due date.
 		if (othersRequested) {
@@ -148,39 +140,25 @@ public class NewLoanController {
 			}
 		}
 		
-		// Save the loan.
-		loanList.add(newLoan);
-		String strNewLoan = newLoan.toStringDetail();
-		FileHandling.createLoan(strNewLoan);
-		
-		// Set request filled to true.
-		Request selectedRequest = pendingReserved.get(selectedIndex);
-		String oldRequest = selectedRequest.toStringDetail();
-		selectedRequest.setRequestFilled(true);
-		String newRequest = selectedRequest.toStringDetail();
-		FileHandling.editRequest(oldRequest, newRequest);
+		// Save the loan and the filled request together.
+		UnitOfWork work = store.beginWork();
+		try {
+			// Save the loan.
+			store.createLoan(newLoan);
+		
+			// Set request filled to true.
+			Request selectedRequest = pendingReserved.get(selectedIndex);
+			selectedRequest.setRequestFilled(true);
+			store.editRequest(selectedRequest);
+		} finally {
+			work.commit();
+		}
 		
 		// Alert to show that the loan has been created.
 		Alerts.loanCreated();
 		refreshNewLoan(selectedIndex); // Refresh the request list.
 	}
 	
-	/**
-	 * Fetches the ID of the latest loan.
-	 * @return ID of the latest loan.
-	 */
-	public int getLatestLoanID() {
-		int maxIndex = loanList.size() - 1;
-		
-		// If there are no loans (at all).
-		if (loanList.size() == 0) {
-			return 0;
-		} 
-		
-		int latestLoanID = loanList.get(maxIndex).getLoanID();
-		return latestLoanID;
-	}
-	
 	/**
 	 * Fetches the staff ID of the librarian authorising the loan.
 	 * @return Staff ID of the librarian.
@@ -207,21 +185,13 @@ public class NewLoanController {
 	
 	/**
 	 * Checks if there are any unfilled (non-reserved) requests that are waiting
-	 * to borrow this copy as well.
-	 * @param copyID The copy of the borrowed resource.
+	 * to borrow a copy of this resource as well.
+	 * @param resourceID The ID of the borrowed resource.
 	 * @param username The user's username.
 	 * @return True if there are any other requests for the resource.
 	 */
-	public boolean checkPendingRequests(int copyID, String username) {
-		boolean anyRequests = false;
-		
-		for (Request request : pendingRequests) {
-			if (!request.getRequestFilled() && copyID == request.getCopyID()) {
-				anyRequests = true;
-				break;
-			}
-		}
-		return anyRequests;
+	public boolean checkPendingRequests(int resourceID, String username) {
+		return store.hasWaitingRequests(resourceID);
 	}
 	
 	/**
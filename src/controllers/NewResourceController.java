@@ -2,7 +2,6 @@ package controllers;
 
 import java.io.File;
 import java.util.ArrayList;
-import java.util.Collections;
 import java.util.Random;
 
 import data.*;
@@ -12,7 +11,6 @@ import javafx.scene.control.CheckBox;
 import javafx.scene.control.ComboBox;
 import javafx.scene.control.ListView;
 import javafx.scene.control.TextField;
-import javafx.scene.image.Image;
 import javafx.scene.image.ImageView;
 import javafx.stage.Stage;
 
@@ -29,12 +27,6 @@ public class NewResourceController {
 	/** The type of resource being created. */
 	private ResourceType newResourceType = null;
 	
-	/** An array list that holds all the existing books. */
-	private ArrayList<Book> bookList;
-	/** An array list that holds all the existing DVDs. */
-	private ArrayList<DVD> dvdList;
-	/** An array list that holds all the existing laptops. */
-	private ArrayList<Laptop> laptopList;
 	/** An array list that holds all resources. */
 	private ArrayList<Resource> resourceList;
 	/** An array list that holds all the copies. */
@@ -102,8 +94,7 @@ public class NewResourceController {
 	 * This method will run automatically.
 	 */
 	public void initialize() {
-		copyList = FileHandling.getCopies();
-		Collections.sort(copyList);
+		copyList = LibraryStore.getInstance().getCopies();
 		
 		//Creates an array of all resource images.
 		File folder = new File(RESOURCE_IMAGE_PATH);
@@ -128,8 +119,9 @@ public class NewResourceController {
 				.getSelectedIndex();
 		
 		File imageURL = resourceImageList[selectedIndex];
-		Image profilePicture = new Image(imageURL.toURI().toString());
-		imageThumbnail.setImage(profilePicture);
+		// Makes the smaller copy of the image before it's shown.
+		ImageCache.getInstance().makeThumbnails(imageURL);
+		ImageCache.getInstance().show(imageThumbnail, imageURL);
 	}
 	
 	/**
@@ -341,7 +333,7 @@ public class NewResourceController {
 		
 		boolean bookExists = Utility.isBookExist(resourceTitle, year,
 				imageName, author, publisher, genre, 
-				language, isbn, bookList);
+				language, isbn);
 		
 		// Checks if the entered details match with an existing book.
 		if (bookExists) {
@@ -353,11 +345,10 @@ public class NewResourceController {
 		
 		Book newBook = new Book(resourceID, resourceTitle, year, imageName,
 				NUMBER_OF_COPIES, author, publisher, genre, isbn, language);
-		String strNewBook = newBook.toStringDetail();
 		
+		// The store also adds it to the shared bookList.
 		addCopies(resourceID, ResourceType.BOOK);
-		FileHandling.createResource(strNewBook, ResourceType.BOOK);
-		bookList.add(newBook);
+		LibraryStore.getInstance().createResource(newBook);
 		resourceList.add(newBook);
 		newResourceType = ResourceType.BOOK;
 		
@@ -412,7 +403,7 @@ public class NewResourceController {
 		int year = Integer.parseInt(strYear);
 		double runtime = Double.parseDouble(strRuntime);
 		boolean dvdExists = Utility.isDVDExist(resourceTitle, year, 
-				imageName, director, runtime, subLang, language, dvdList);
+				imageName, director, runtime, subLang, language);
 		
 		// Checks if the entered details match with an existing DVD.
 		if (dvdExists) {
@@ -424,11 +415,10 @@ public class NewResourceController {
 		
 		DVD newDVD = new DVD(resourceID, resourceTitle, year, imageName, 
 				NUMBER_OF_COPIES, director, runtime, language, subLang);
-		String strNewDVD = newDVD.toStringDetail();
 		
+		// The store also adds it to the shared dvdList.
 		addCopies(resourceID, ResourceType.DVD);
-		FileHandling.createResource(strNewDVD, ResourceType.DVD);
-		dvdList.add(newDVD);
+		LibraryStore.getInstance().createResource(newDVD);
 		resourceList.add(newDVD);
 		newResourceType = ResourceType.DVD;
 		
@@ -480,7 +470,7 @@ public class NewResourceController {
 		int year = Integer.parseInt(strYear);
 		
 		boolean laptopExists = Utility.isLaptopExist(resourceTitle, year, 
-				imageName, manufacturer, model, operatingSystem, laptopList);
+				imageName, manufacturer, model, operatingSystem);
 		
 		// Checks if the entered details match with an existing laptop.
 		if (laptopExists) {
@@ -492,11 +482,10 @@ public class NewResourceController {
 		
 		Laptop newLaptop = new Laptop(resourceID, resourceTitle, year, imageName, 
 				NUMBER_OF_COPIES, manufacturer, model, operatingSystem);
-		String strNewLaptop = newLaptop.toStringDetail();
 		
+		// The store also adds it to the shared laptopList.
 		addCopies(resourceID, ResourceType.LAPTOP);
-		FileHandling.createResource(strNewLaptop, ResourceType.LAPTOP);
-		laptopList.add(newLaptop);
+		LibraryStore.getInstance().createResource(newLaptop);
 		resourceList.add(newLaptop);
 		newResourceType = ResourceType.LAPTOP;
 		
@@ -555,26 +544,18 @@ public class NewResourceController {
 			randIndex = rand.nextInt(4);
 			loanDuration = durations[randIndex];
 			
-			String newCopy = copyID + "," + resourceID + ",true," + resourceType + 
-					"," + loanDuration + ",";
-			FileHandling.createCopy(newCopy);
+			Copy newCopy = new Copy(copyID, resourceID, true, resourceType, 
+					loanDuration);
+			LibraryStore.getInstance().createCopy(newCopy);
 		}
 	} 
 	
 	/**
-	 * Sets the array lists for each resource so that the new resource can
+	 * Sets the array list of all resources so that the new resource can
 	 * be added locally.
-	 * @param bookList The ArrayList of all current books.
-	 * @param dvdList The ArrayList of all current DVDs.
-	 * @param laptopList The ArrayList of all current laptops.
 	 * @param resourceList The ArrayList of all current resources.
 	 */
-	public void setResourceArrays(ArrayList<Book> bookList, 
-			ArrayList<DVD> dvdList, ArrayList<Laptop> laptopList, 
-			ArrayList<Resource> resourceList) {
-		this.bookList = bookList;
-		this.dvdList = dvdList;
-		this.laptopList = laptopList;
+	public void setResourceList(ArrayList<Resource> resourceList) {
 		this.resourceList = resourceList;
 	}
 	
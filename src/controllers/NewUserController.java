@@ -1,6 +1,8 @@
 package controllers;
 
+import java.nio.charset.StandardCharsets;
 import java.time.LocalDate;
+import java.util.Collections;
 import java.util.LinkedHashMap;
 
 import data.*;
@@ -75,13 +77,18 @@ public class NewUserController {
 		double fine = 0.00;
 		
 		// Validation rules applied to certain fields.
-		boolean requiredFilled = Utility.isFieldFilledUser(firstName, surname, 
-				mobileNumber, address1, city, postcode);
-		boolean hasLetter = Utility.isAlphaUser(firstName, surname, 
-				mobileNumber, address1, address2, city); 
-		boolean validPostcode = Utility.isPostcodeValid(postcode);
+		Validator.Report report = Validator.validate(Validator.USER_FIELDS,
+				Collections.singletonList(new String[] {firstName, surname, 
+				mobileNumber, address1, address2, city, postcode}));
+		boolean requiredFilled = !report.hasError(0, Validator.Error.MISSING);
+		boolean hasLetter = !report.hasError(0, Validator.Error.NOT_ALPHA);
+		boolean validPostcode = !report.hasError(0, 
+				Validator.Error.INVALID_POSTCODE);
 		boolean usernameExist = Utility.isUsernameExist(userList, 
 				librarianList, username);
+		// Loans keep the username in a fixed size slot.
+		boolean usernameTooLong = username.getBytes(StandardCharsets.UTF_8)
+				.length > User.MAX_USERNAME_BYTES;
 		
 		// Shows appropriate alerts if validation has not been met.
 		if (!requiredFilled) { 
@@ -96,6 +103,9 @@ public class NewUserController {
 		} else if (usernameExist) {
 			Alerts.usernameExists();
 			return;
+		} else if (usernameTooLong) {
+			Alerts.usernameTooLong();
+			return;
 		}
 		
 		saveUser(username, firstName, surname, mobileNumber, address1, 
@@ -119,7 +129,7 @@ public class NewUserController {
 			String mobileNumber, String address1, String address2, String city, 
 			String postcode, String profilePicture, double fine) {
 		newUsername = username;
-		String newUser = "";
+		User newUser = null;
 		int userType;
 		if (cbStaff.isSelected()) {
 			// Gets todays date in format of YYYY-MM-DD.
@@ -139,18 +149,17 @@ public class NewUserController {
 			Librarian newLibrarian = new Librarian(username, firstName, surname,
 					mobileNumber, address1, address2, city, postcode, 
 					profilePicture, fine, staffID, employmentDate);
-			newUser = newLibrarian.toStringDetail();
-			librarianList.put(username, newLibrarian);
+			newUser = newLibrarian;
 		// If it's a regular user.
 		} else {
 			userType = 2;
 			newUserType = "User";
 			User newMember = new User(username, firstName, surname, mobileNumber,
 					address1, address2, city, postcode, profilePicture, fine);
-			newUser = newMember.toStringDetail();
-			userList.put(username, newMember);
+			newUser = newMember;
 		}
-		FileHandling.createUser(newUser, userType);
+		// Also adds the user to the shared user lists.
+		LibraryStore.getInstance().createUser(newUser, userType);
 		Alerts.userCreated();
 		handleBackButtonAction();
 	}
@@ -4,7 +4,6 @@ import java.io.IOException;
 import java.time.LocalDate;
 import java.time.LocalTime;
 import java.util.ArrayList;
-import java.util.Collections;
 import java.util.LinkedHashMap;
 
 import data.*;
@@ -26,10 +25,10 @@ public class PayUserFineController {
 	/** Title for the Staff Dashboard page. */
 	private final String STAFF_DASHBOARD_TITLE = "Staff Dashboard";
 	
+	/** The store holding all the data shared between pages. */
+	private LibraryStore store;
 	/** Linked hashmap to hold all users. */
 	private LinkedHashMap<String, User> userList;
-	/** ArrayList to hold all transactions. */
-	private ArrayList<Transaction> transactions;
 	/** ArrayList to hold users who currently have outstanding fines. */
 	private ArrayList<User> finedUsers = new ArrayList<>();
 	
@@ -53,17 +52,16 @@ public class PayUserFineController {
 	 * This method will run automatically.
 	 */
 	public void initialize() {
-		userList = FileHandling.getUsers();
-		transactions = FileHandling.getTransactions();
-		Collections.sort(transactions);
+		store = LibraryStore.getInstance();
+		userList = store.getUsers();
 		
 		for (String key : userList.keySet()) {
 			User user = userList.get(key);
-			if (user.getFine() > 0) {
+			// Include fines still building up on overdue loans.
+			if (user.getFine() > 0 
+					|| store.getAccruingFine(user.getUsername()) > 0) {
 				finedUsers.add(user);
-				String strUser = "Username: " + user.getUsername() + " | "
-						+ "Fine: £" + user.getFine();
-				lstFinedUsers.getItems().add(strUser);
+				lstFinedUsers.getItems().add(getFinedUserDescription(user));
 			}
 		}
 	}
@@ -121,14 +119,18 @@ public class PayUserFineController {
 		User selectedUser = finedUsers.get(selectedIndex);
 		String username = selectedUser.getUsername();
 		
-		String oldUser = selectedUser.toStringDetail();
 		double previousFine = selectedUser.getFine();
 		double newFine = Math.round((previousFine - payment2DP) * 100.0) / 100.0;
 		selectedUser.setFine(newFine);
-		String newUser = selectedUser.toStringDetail();
 		
-		FileHandling.editProfile(oldUser, newUser, 2);
-		makePaymentTransaction(username, payment2DP);
+		// Save the new balance and the payment together.
+		UnitOfWork work = store.beginWork();
+		try {
+			store.editProfile(selectedUser, 2);
+			makePaymentTransaction(username, payment2DP);
+		} finally {
+			work.commit();
+		}
 		Alerts.paymentMade();
 		refreshPayUserFine(selectedIndex, selectedUser); 
 	}
@@ -139,7 +141,7 @@ public class PayUserFineController {
 	 * @param payment The amount of money to be paid off.
 	 */
 	public void makePaymentTransaction(String username, double payment) {
-		int transactionID = getLatestTransactionID() + 1;
+		int transactionID = store.nextTransactionID();
 		String today = LocalDate.now().toString();
 		String time = LocalTime.now().withNano(0).toString();
 		ResourceType type = null;
@@ -148,24 +150,7 @@ public class PayUserFineController {
 		// Create payment, adds fake values in non-applicable fields.
 		Transaction paymentTransaction = new Transaction(transactionID, -1, 
 				username, payment, -1, today, time, type, isFine);
-		String strPaymentTransaction = paymentTransaction.toStringDetail();
-		FileHandling.makeTransaction(strPaymentTransaction);
-	}
-	
-	/**
-	 * Fetches the ID of the latest transaction.
-	 * @return The ID of the latest transaction.
-	 */
-	public int getLatestTransactionID() {
-		int maxID;
-		
-		if (transactions.size() == 0) {
-			maxID = 0;
-		} else {
-			int maxIndex = transactions.size() - 1;
-			maxID = (transactions.get(maxIndex)).getTransactionID();
-		}
-		return maxID;
+		store.makeTransaction(paymentTransaction);
 	}
 	
 	/**
@@ -181,15 +166,32 @@ public class PayUserFineController {
 		btnPayFine.setDisable(true);
 		
 		// Remove the user if they no longer have any outstanding fines.
-		if (thisUser.getFine() == 0) {
+		if (thisUser.getFine() == 0 
+				&& store.getAccruingFine(thisUser.getUsername()) == 0) {
 			lstFinedUsers.getItems().remove(selectedIndex);
 			finedUsers.remove(selectedIndex);
 		// Otherwise update their list view value.
 		} else {
-			String strUser = "Username: " + thisUser.getUsername() + " | "
-					+ "Fine: £" + thisUser.getFine();
-			lstFinedUsers.getItems().set(selectedIndex, strUser);
+			lstFinedUsers.getItems().set(selectedIndex, 
+					getFinedUserDescription(thisUser));
+		}
+	}
+	
+	/**
+	 * Gets a short description of a user's fines for the list view. 
+	 * Fines building up on overdue loans are shown separately, as they 
+	 * can't be paid until the loans are returned.
+	 * @param user The fined user.
+	 * @return The user's username and fines.
+	 */
+	public String getFinedUserDescription(User user) {
+		String strUser = "Username: " + user.getUsername() + " | "
+				+ "Fine: £" + user.getFine();
+		double accruingFine = store.getAccruingFine(user.getUsername());
+		if (accruingFine > 0) {
+			strUser = strUser + " | Accruing: £" + accruingFine;
 		}
+		return strUser;
 	}
 	
 	/**
@@ -36,8 +36,8 @@ public class RequestedItemsController {
 	 * This method will run automatically.
 	 */
 	public void initialize() {
-		requestList = FileHandling.getRequests();
-		username = FileHandling.getCurrentUser();
+		requestList = LibraryStore.getInstance().getRequests();
+		username = LibraryStore.getInstance().getCurrentUser();
 		
 		// Get the user's pending requests.
 		for (Request request : requestList) {
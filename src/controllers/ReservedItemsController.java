@@ -38,8 +38,8 @@ public class ReservedItemsController {
 	 * This method will run automatically.
 	 */
 	public void initialize() {
-		requestList = FileHandling.getRequests();
-		username = FileHandling.getCurrentUser();
+		requestList = LibraryStore.getInstance().getRequests();
+		username = LibraryStore.getInstance().getCurrentUser();
 		
 		// Show the user's pending reserved requests.
 		for (Request request : requestList) {
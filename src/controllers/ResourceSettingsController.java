@@ -4,6 +4,7 @@ import java.io.File;
 import java.io.IOException;
 import java.util.ArrayList;
 import java.util.Collections;
+import java.util.List;
 
 import data.*;
 import javafx.fxml.FXML;
@@ -13,8 +14,8 @@ import javafx.scene.Scene;
 import javafx.scene.control.Button;
 import javafx.scene.control.CheckBox;
 import javafx.scene.control.ListView;
+import javafx.scene.control.MenuButton;
 import javafx.scene.control.TextField;
-import javafx.scene.image.Image;
 import javafx.scene.image.ImageView;
 import javafx.scene.layout.BorderPane;
 import javafx.stage.Modality;
@@ -46,6 +47,11 @@ public class ResourceSettingsController {
 	/** A list to hold all the laptops. */
 	private ArrayList<Laptop> laptopList;
 		
+	/** Runs the searches in the background as the user types. */
+	private SearchRunner searchRunner = new SearchRunner();
+	/** Filters the resources by type, genre, language, subtitle 
+	 * languages and year. */
+	private FacetFilters facetFilters;
 	/** Used to check if the resources have been searched via search box or not. */
 	private boolean isSearch;
 	
@@ -108,6 +114,19 @@ public class ResourceSettingsController {
 	/** A check box to indicate that the librarian wants 
 	 * to filter the resources to only display laptops. */
 	@FXML private CheckBox cbLaptop;
+	/** A check box to indicate that the user wants the search to 
+	 * allow for spelling mistakes. */
+	@FXML private CheckBox cbFuzzySearch;
+	/** A menu to filter the resources by genre. */
+	@FXML private MenuButton mbGenre;
+	/** A menu to filter the resources by language. */
+	@FXML private MenuButton mbLanguage;
+	/** A menu to filter the resources by subtitle language. */
+	@FXML private MenuButton mbSubtitles;
+	/** A text field for the earliest year of the resources shown. */
+	@FXML private TextField txtYearFrom;
+	/** A text field for the latest year of the resources shown. */
+	@FXML private TextField txtYearTo;
 	
 	/** A text field used to the user's input (partial info) for a resource. */
 	@FXML private TextField txtSearchResource;
@@ -118,9 +137,9 @@ public class ResourceSettingsController {
 	 */
 	public void initialize() {
 		// Gets an ArrayList for each resource.
-		bookList = FileHandling.getBooks();
-		dvdList = FileHandling.getDVDs();
-		laptopList = FileHandling.getLaptops();
+		bookList = LibraryStore.getInstance().getBooks();
+		dvdList = LibraryStore.getInstance().getDVDs();
+		laptopList = LibraryStore.getInstance().getLaptops();
 		
 		// Adds each resource to the resource ArrayList.
 		resourceList.addAll(bookList);
@@ -134,6 +153,11 @@ public class ResourceSettingsController {
 		for (Resource thisResource : resourceList) {
 			lstShowResource.getItems().add(thisResource.toString());
 		}
+		
+		// Fill in the filter menus and their counts.
+		facetFilters = new FacetFilters(cbBook, cbDVD, cbLaptop, mbGenre, 
+				mbLanguage, mbSubtitles, txtYearFrom, txtYearTo, 
+				this::handleResourceSearchAction);
 	}
 	
 	/**
@@ -215,8 +239,7 @@ public class ResourceSettingsController {
 		//Changes image URL to a file, then converts that to an image.
 		File imageURL = new File(RESOURCE_IMAGE_PATH + 
 				selectedBook.getThumbnail());
-		Image thumbnail = new Image(imageURL.toURI().toString());
-		imageThumbnail.setImage(thumbnail);
+		ImageCache.getInstance().show(imageThumbnail, imageURL);
 		
 		txtAuthor.setText(selectedBook.getAuthor());
 		txtPublisher.setText(selectedBook.getPublisher());
@@ -250,8 +273,7 @@ public class ResourceSettingsController {
 		//Changes image URL to a file, then converts that to an image.
 		File imageURL = new File(RESOURCE_IMAGE_PATH + 
 				selectedDVD.getThumbnail());
-		Image thumbnail = new Image(imageURL.toURI().toString());
-		imageThumbnail.setImage(thumbnail);
+		ImageCache.getInstance().show(imageThumbnail, imageURL);
 		
 		txtDirector.setText(selectedDVD.getDirector());
 		txtRuntime.setText(selectedDVD.getRuntime() + " minutes");
@@ -287,8 +309,7 @@ public class ResourceSettingsController {
 		//Changes image URL to a file, then converts that to an image.
 		File imageURL = new File(RESOURCE_IMAGE_PATH + 
 				selectedLaptop.getThumbnail());
-		Image thumbnail = new Image(imageURL.toURI().toString());
-		imageThumbnail.setImage(thumbnail);
+		ImageCache.getInstance().show(imageThumbnail, imageURL);
 		
 		txtManufacturer.setText(selectedLaptop.getManufacturer());
 		txtModel.setText(selectedLaptop.getModel());
@@ -374,6 +395,7 @@ public class ResourceSettingsController {
 		// Clears other check boxes if selected.
 		cbDVD.setSelected(false);
 		cbLaptop.setSelected(false);
+		facetFilters.updateType();
 		btnEditResource.setDisable(true);
 		
 		// Clears the content of the resource list if any. 
@@ -404,6 +426,7 @@ public class ResourceSettingsController {
 		// Clears other check boxes if selected.
 		cbBook.setSelected(false);
 		cbLaptop.setSelected(false);
+		facetFilters.updateType();
 		btnEditResource.setDisable(true);
 		
 		// Clears the content of the resource list if any. 
@@ -434,6 +457,7 @@ public class ResourceSettingsController {
 		// Clears other check boxes if selected.
 		cbBook.setSelected(false);
 		cbDVD.setSelected(false);
+		facetFilters.updateType();
 		btnEditResource.setDisable(true);
 		
 		// Clears the content of the resource list if any. 
@@ -462,16 +486,24 @@ public class ResourceSettingsController {
 	 */
 	public void handleResourceSearchAction() {
 		String keywords = txtSearchResource.getText().trim().toLowerCase();
-		isSearch = true;
-		searchedList.clear(); // Clear ArrayList from previous search.
-		lstShowResource.getItems().clear();
-		btnEditResource.setDisable(true);
 		
 		// Show all of appropriate resources if there's nothing in 
 		// the search bar.
 		if (keywords.isEmpty()) {
+			searchRunner.cancel(); // Stop any search still running.
+			searchedList.clear();
+			lstShowResource.getItems().clear();
+			btnEditResource.setDisable(true);
 			isSearch = false;
-			if (cbBook.isSelected()) {
+			if (facetFilters.isFiltered()) {
+				// Show the resources matching the filters, like a search.
+				List<Resource> filtered = facetFilters.getResources();
+				List<String> descriptions = new ArrayList<>();
+				for (Resource thisResource : filtered) {
+					descriptions.add(thisResource.toString());
+				}
+				showSearchResults(filtered, descriptions);
+			} else if (cbBook.isSelected()) {
 				setCBBookStatus();
 			} else if (cbDVD.isSelected()) {
 				setCBDVDStatus();
@@ -483,39 +515,29 @@ public class ResourceSettingsController {
 					lstShowResource.getItems().add(thisResource.toString());
 				}
 			}
-		} else if (cbBook.isSelected()) {
-			for (Book book : bookList) {
-				if ((book.toStringSearch()).contains(keywords)) {
-					searchedList.add(book);
-				}
-			}
-		} else if (cbDVD.isSelected()) {
-			for (DVD dvd : dvdList) {
-				if ((dvd.toStringSearch()).contains(keywords)) {
-					searchedList.add(dvd);
-				}
-			}
-		} else if (cbLaptop.isSelected()) {
-			for (Laptop laptop : laptopList) {
-				if ((laptop.toStringSearch()).contains(keywords)) {
-					searchedList.add(laptop);
-				}
-			}
-		// If the type of resource is unknown via checkbox.
 		} else {
-			for (Resource resource : resourceList) {
-				if ((resource.toStringSearch()).contains(keywords)) {
-					searchedList.add(resource);
-				}
-			}
-		}
-		
-		// Display filtered items to the resource list view. 
-		for (Resource thisResource : searchedList) {
-			lstShowResource.getItems().add(thisResource.toString());
+			// Search in the background, keeping the resources that match 
+			// the filters. The list only changes once the results are back.
+			searchRunner.search(keywords, cbFuzzySearch.isSelected(), 
+					facetFilters.getFilter(), this::showSearchResults);
 		}
 	}
 	
+	/**
+	 * Displays the resources found by a search in the resource list view.
+	 * @param found The resources found.
+	 * @param descriptions The short description of each resource found.
+	 */
+	public void showSearchResults(List<Resource> found, 
+			List<String> descriptions) {
+		isSearch = true;
+		searchedList.clear();
+		searchedList.addAll(found);
+		btnEditResource.setDisable(true);
+		// Replace the whole list in one go.
+		lstShowResource.getItems().setAll(descriptions);
+	}
+	
 	/**
 	 * Displays a page where the librarian can edit a selected resource.
 	 */
@@ -534,9 +556,6 @@ public class ResourceSettingsController {
 			// Gets the controller for the FXML file loaded.
 			EditResourceController editResource = fxmlLoader
 					.<EditResourceController> getController();
-			// Pass down the array lists.
-			editResource.setResourceArrays(bookList, dvdList, laptopList);
-			
 			// Looks at the same list (searchedList).
 			if (isSearch) {
 				Resource selectedResource = searchedList.get(selectedIndex);
@@ -571,6 +590,8 @@ public class ResourceSettingsController {
 			Resource editedResource = editResource.getEditedResource();
 			lstShowResource.getItems().set(selectedIndex, editedResource.toString());
 			displayResourceDetails(); // Refresh its other details (we know its selected).
+			// Its genre, language or year may have changed.
+			facetFilters.refresh();
 		} catch (IOException e) {
 			// Catches an IO exception such as that where the fxml
 			// file is not found.
@@ -592,8 +613,8 @@ public class ResourceSettingsController {
 			NewResourceController createResource = fxmlLoader
 					.<NewResourceController> getController();
 			
-			// Passes down the array lists (allows the local changing of them).
-			createResource.setResourceArrays(bookList, dvdList, laptopList, resourceList);
+			// Passes down the resource list (allows the local changing of it).
+			createResource.setResourceList(resourceList);
 			
 			Scene scene = new Scene(root);
 			Stage primaryStage = new Stage();
@@ -605,6 +626,7 @@ public class ResourceSettingsController {
 			// Refresh to add the new resource locally.
 			String newResourceType = createResource.getNewResourceType();
 			refreshResourceSettings(newResourceType); 
+			facetFilters.refresh();
 		} catch (IOException e) {
 			// Catches an IO exception such as that where the FXML
 			// file is not found.
@@ -38,8 +38,10 @@ public class TransactionHistoryController {
 	 * This method will run automatically.
 	 */
 	public void initialize() {
-		transactions = FileHandling.getTransactions();
-		username = FileHandling.getCurrentUser();
+		// Copied so that the shared list keeps its order.
+		transactions = new ArrayList<>(
+				LibraryStore.getInstance().getTransactions());
+		username = LibraryStore.getInstance().getCurrentUser();
 		
 		Collections.sort(transactions, Comparator.reverseOrder());
 		
@@ -59,8 +59,8 @@ public class UserDashboardController {
 	 * This method will run automatically.
 	 */
 	public void initialize() {
-		userList = FileHandling.getUsers();
-		currentUser = FileHandling.getCurrentUser();
+		userList = LibraryStore.getInstance().getUsers();
+		currentUser = LibraryStore.getInstance().getCurrentUser();
 	}
 	
 	/**
@@ -65,9 +65,9 @@ public class UserSettingsController {
 	 * This method will run automatically.
 	 */
 	public void initialize() { 
-		currentUser = FileHandling.getCurrentUser();
-		librarianList = FileHandling.getLibrarians();
-		userList = FileHandling.getUsers();
+		currentUser = LibraryStore.getInstance().getCurrentUser();
+		librarianList = LibraryStore.getInstance().getLibrarians();
+		userList = LibraryStore.getInstance().getUsers();
 		
 		// Shows only members by default.
 		for (String key : userList.keySet()) {
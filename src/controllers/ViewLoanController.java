@@ -29,12 +29,10 @@ public class ViewLoanController {
 	/** Title for the Staff Dashboard page. */
 	private final String STAFF_DASHBOARD_TITLE = "Staff Dashboard";
 	
+	/** The store holding all the data shared between pages. */
+	private LibraryStore store;
 	/** Holds all the loans from the loans file for local storage. */
 	private ArrayList<Loan> loanList;
-	/** ArrayList to hold all requests. */
-	private ArrayList<Request> requests;
-	/** A list to hold all the transactions. */
-	private ArrayList <Transaction> transactions;
 	/** A linked hashmap to hold all users. */
 	private LinkedHashMap<String, User> users;
 	/** ArrayList to hold all copies */
@@ -90,15 +88,14 @@ public class ViewLoanController {
 	 * This method will run automatically.
 	 */
 	public void initialize() { 
-		loanList = FileHandling.getLoans();
+		store = LibraryStore.getInstance();
+		loanList = store.getLoans();
 		
-		// Used to update requests (and copies if applicable).
-		requests = FileHandling.getRequests();
-		copies = FileHandling.getCopies();
+		// Used to update copies (if there are no requests).
+		copies = store.getCopies();
 		
 		// Used for adding a user's fine (if overdue).
-		transactions = FileHandling.getTransactions();
-		users = FileHandling.getUsers();
+		users = store.getUsers();
 		
 		// Populate the loan array lists (to past/current loans).
 		for (Loan loan : loanList) {
@@ -110,23 +107,18 @@ public class ViewLoanController {
 		}
 		
 		// Order the lists.
-		Collections.sort(requests);
-		Collections.sort(transactions);
 		Collections.sort(currentLoans, Comparator.reverseOrder());
 		
 		// Sort returned loans by return date. Most recent are shown first.
 		Collections.sort(pastLoans, new Comparator<Loan>() {
 			public int compare(Loan a, Loan b) {
-				// If the return dates are different, calculate days between them.
-				if (!b.getReturnDate().equals(a.getReturnDate())) {
-					String firstDate = a.getReturnDate();
-					String secondDate = b.getReturnDate();
-					return Utility.daysBetweenDates(firstDate, secondDate);
-				// Otherwise, calculate the time between them.
+				// If the return dates are different, compare the dates.
+				if (a.getReturnDay() != b.getReturnDay()) {
+					return Integer.compare(b.getReturnDay(), a.getReturnDay());
+				// Otherwise, compare the times.
 				} else {
-					String firstTime = a.getReturnTime();
-					String secondTime = b.getReturnTime();
-					return Utility.secondsBetweenTimes(firstTime, secondTime);
+					return Integer.compare(b.getReturnSecond(), 
+							a.getReturnSecond());
 				}
 			}
 		});
@@ -191,33 +183,37 @@ public class ViewLoanController {
 		// Get the returned loan.
 		Loan returnedLoan = currentLoans.get(selectedIndex);
 		
-		// Set returned to true.
-		String oldLoan = returnedLoan.toStringDetail();
-		LocalDate today = LocalDate.now();
-		LocalTime timeNow = LocalTime.now().withNano(0);
-		returnedLoan.setReturnDate(today.toString());
-		returnedLoan.setReturnTime(timeNow.toString());
-		returnedLoan.setReturned(true);
+		// Save all the changes from returning the loan together.
+		UnitOfWork work = store.beginWork();
+		try {
+			// Set returned to true.
+			LocalDate today = LocalDate.now();
+			LocalTime timeNow = LocalTime.now().withNano(0);
+			returnedLoan.setReturnDate(today.toString());
+			returnedLoan.setReturnTime(timeNow.toString());
+			returnedLoan.setReturned(true);
+		
+			// Calculate days overdue and fines if necessary.
+			returnedLoan.setDaysOverdue();
+			int daysOverdue = returnedLoan.getDaysOverdue();
+			ResourceType type = returnedLoan.getType();
+		
+			if (daysOverdue > 0) {
+				double userFine = calculateUserFine(daysOverdue, type);
+				String user = returnedLoan.getUsername();
+				addUserFine(user, userFine); // Adds the fine to the user's balance.
+				makeFineTransaction(returnedLoan, userFine, today, timeNow);
+			}
 		
-		// Calculate days overdue and fines if necessary.
-		returnedLoan.setDaysOverdue();
-		int daysOverdue = returnedLoan.getDaysOverdue();
-		ResourceType type = returnedLoan.getType();
+			// Check if there are any pending requests for the returned copy.
+			// If not then set isAvailable to TRUE.
+			checkReservedRequests(returnedLoan);
 		
-		if (daysOverdue > 0) {
-			double userFine = calculateUserFine(daysOverdue, type);
-			String user = returnedLoan.getUsername();
-			addUserFine(user, userFine); // Adds the fine to the user's balance.
-			makeFineTransaction(returnedLoan, userFine, today, timeNow);
+			// Save loan changes.
+			store.editLoan(returnedLoan);
+		} finally {
+			work.commit();
 		}
-		
-		// Check if there are any pending requests for the returned copy.
-		// If not then set isAvailable to TRUE.
-		checkReservedRequests(returnedLoan);
-		
-		// Save loan changes.
-		String newLoan = returnedLoan.toStringDetail();
-		FileHandling.editLoan(oldLoan, newLoan);
 		Alerts.loanReturned(); // Loan returned alert.
 		refreshViewLoan(selectedIndex, returnedLoan); // Refresh page.
 	}
@@ -229,34 +225,7 @@ public class ViewLoanController {
 	 * @return The total fine for the loan.
 	 */
 	public double calculateUserFine(int daysOverdue, ResourceType type) {
-		double finePerDay = 0;
-		double maxFine = 0;
-		switch (type) {
-			case BOOK:
-				// Construct a fake resource, we only need the fines.
-				Book book = new Book(-1, "", -1, "", -1, "", "", "", "", "");
-				finePerDay = book.getFinePerDay();
-				maxFine = book.getMaxFine();
-				break;
-			case DVD:
-				String[] list = new String[4];
-				DVD dvd = new DVD(-1, "", -1, "", -1, "", -1, "", list);
-				finePerDay = dvd.getFinePerDay();
-				maxFine = dvd.getMaxFine();
-				break;
-			case LAPTOP:
-				Laptop laptop = new Laptop(-1, "", -1, "", -1, "", "", "");
-				finePerDay = laptop.getFinePerDay();
-				maxFine = laptop.getMaxFine();
-				break;
-		}
-		
-		double userFine = daysOverdue * finePerDay;
-		if (userFine > maxFine) { 
-			userFine = maxFine;
-		}
-	
-		return userFine;
+		return FineAccrual.getFine(daysOverdue, type);
 	}
 	
 	/**
@@ -267,12 +236,10 @@ public class ViewLoanController {
 	public void addUserFine(String username, double fine) {
 		User finedUser = users.get(username);
 		
-		String oldUser = finedUser.toStringDetail();
 		double currentBalance = finedUser.getFine();
 		finedUser.setFine(currentBalance + fine);
-		String newUser = finedUser.toStringDetail();
 		
-		FileHandling.editProfile(oldUser, newUser, 2);
+		store.editProfile(finedUser, 2);
 	}
 	
 	/**
@@ -284,7 +251,7 @@ public class ViewLoanController {
 	 */
 	public void makeFineTransaction(Loan returnedLoan, double userFine, 
 			LocalDate today, LocalTime time) {
-		int transactionID = getMaxTransactionID() + 1;
+		int transactionID = store.nextTransactionID();
 		int resourceID = returnedLoan.getResourceID();
 		String username = returnedLoan.getUsername();
 		double amount = userFine;
@@ -299,55 +266,27 @@ public class ViewLoanController {
 				resourceID, username, amount, daysOverdue, date, timeNow, 
 				type, isFine);
 		
-		transactions.add(fineTransaction);
-		String strFineTransaction = fineTransaction.toStringDetail();
-		FileHandling.makeTransaction(strFineTransaction);
-	}
-	
-	/**
-	 * Fetches the maximum transaction ID of all current transactions.
-	 * @return The current maximum transaction ID.
-	 */
-	public int getMaxTransactionID() {
-		int maxID;
-		
-		if (transactions.size() == 0) {
-			maxID = 0;
-		} else {
-			int maxIndex = transactions.size() - 1;
-			maxID = (transactions.get(maxIndex)).getTransactionID();
-		}
-		return maxID;
+		store.makeTransaction(fineTransaction);
 	}
 	
 	/**
 	 * Checks if there are any unfilled requests that are waiting
-	 * to borrow this returned copy and makes appropriate changes
-	 * if there are.
+	 * to borrow a copy of the returned resource and gives the copy 
+	 * to the one that has waited longest if there are.
 	 * @param returnedLoan The returned loan.
 	 */
 	public void checkReservedRequests(Loan returnedLoan) {
 		int copyID = returnedLoan.getCopyID();
 		String username = returnedLoan.getUsername();
-		boolean anyRequests = false;
-		Request nextRequest = null;
 		
-		for (Request request : requests) {
-			// Find the next request for the copy (from a different user).
-			if (!request.getRequestFilled() && (copyID == request.getCopyID()) 
-					&& !username.equals(request.getUsername())) {
-				nextRequest = request;
-				anyRequests = true;
-				break;
-			}
-		}
+		// Find the request that has waited longest for any copy of the 
+		// resource (from a different user).
+		Request nextRequest = store.getNextWaitingRequest(
+				returnedLoan.getResourceID(), username);
 		
-		// Set the next request in the queue to reserved (for the copy).
-		if (anyRequests) {
-			String oldRequest = nextRequest.toStringDetail();
-			nextRequest.setReserved(true);
-			String newRequest = nextRequest.toStringDetail();
-			FileHandling.editRequest(oldRequest, newRequest);
+		// Give the returned copy to the request and reserve it.
+		if (nextRequest != null) {
+			store.reserveCopy(nextRequest, copyID);
 		// Otherwise set the copy to available.
 		} else {
 			Copy borrowedCopy = null;
@@ -358,10 +297,8 @@ public class ViewLoanController {
 				}
 			}
 			
-			String oldCopy = borrowedCopy.toStringDetail();
 			borrowedCopy.setAvailable(true);
-			String newCopy = borrowedCopy.toStringDetail();
-			FileHandling.editCopy(oldCopy, newCopy);
+			store.editCopy(borrowedCopy);
 		}
 	}
 	
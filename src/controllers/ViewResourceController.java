@@ -6,6 +6,7 @@ import java.time.LocalDate;
 import java.util.ArrayList;
 import java.util.Collections;
 import java.util.LinkedHashMap;
+import java.util.List;
 
 import data.*;
 import javafx.fxml.FXML;
@@ -15,8 +16,8 @@ import javafx.scene.Scene;
 import javafx.scene.control.Button;
 import javafx.scene.control.CheckBox;
 import javafx.scene.control.ListView;
+import javafx.scene.control.MenuButton;
 import javafx.scene.control.TextField;
-import javafx.scene.image.Image;
 import javafx.scene.image.ImageView;
 import javafx.stage.Stage;
 
@@ -32,6 +33,8 @@ public class ViewResourceController {
 	/** Title for the User Dashboard page.*/
 	private final String USER_DASHBOARD_TITLE = "User Dashboard";
 	
+	/** The store holding all the data shared between pages. */
+	private LibraryStore store;
 	/** A list to hold all the resources .*/
 	private ArrayList<Resource> resourceList = new ArrayList<Resource>();
 	/** A list to hold all the resources found in the search. */
@@ -48,15 +51,16 @@ public class ViewResourceController {
 	private ArrayList <Request> requestList;
 	/** ArrayList to hold all the pending requests for a resource. */
 	private ArrayList<Request> pendingRequests = new ArrayList<>();
-	/** A list to hold all the loans. */
-	private ArrayList<Loan> loanList;
 	/** A list to hold all the copies for the selected resource. */
 	private ArrayList<Copy> currentCopiesList = new ArrayList<Copy>();
 	/** A list to hold all the users in the system. */
 	private LinkedHashMap<String, User> userList;
-	/** ArrayList to hold all of the user's current loans. */
-	private ArrayList<Loan> userCurrentLoans = new ArrayList<>();
 	
+	/** Runs the searches in the background as the user types. */
+	private SearchRunner searchRunner = new SearchRunner();
+	/** Filters the resources by type, genre, language, subtitle 
+	 * languages and year. */
+	private FacetFilters facetFilters;
 	/** Used to check if the resources have been searched via search box or not. */
 	private boolean isSearch = false;
 	/** Holds the logged in user's username. */
@@ -119,6 +123,19 @@ public class ViewResourceController {
 	/** A check box to indicate that the user wants 
 	 * to filter the resources to only display laptops. */
 	@FXML private CheckBox cbLaptop;
+	/** A check box to indicate that the user wants the search to 
+	 * allow for spelling mistakes. */
+	@FXML private CheckBox cbFuzzySearch;
+	/** A menu to filter the resources by genre. */
+	@FXML private MenuButton mbGenre;
+	/** A menu to filter the resources by language. */
+	@FXML private MenuButton mbLanguage;
+	/** A menu to filter the resources by subtitle language. */
+	@FXML private MenuButton mbSubtitles;
+	/** A text field for the earliest year of the resources shown. */
+	@FXML private TextField txtYearFrom;
+	/** A text field for the latest year of the resources shown. */
+	@FXML private TextField txtYearTo;
 	
 	/** A button that allows the user to request a copy. */
 	@FXML private Button btnRequestCopy;
@@ -130,17 +147,18 @@ public class ViewResourceController {
 	 * The method will be called automatically.
 	 */
 	public void initialize() {
+		store = LibraryStore.getInstance();
+		
 		// Set user variables.
-		currentUsername = FileHandling.getCurrentUser();
-		userList = FileHandling.getUsers();
+		currentUsername = store.getCurrentUser();
+		userList = store.getUsers();
 		
 		// Gets an ArrayList for each resource and other relevant items.
-		bookList = FileHandling.getBooks();
-		dvdList = FileHandling.getDVDs();
-		laptopList = FileHandling.getLaptops();
-		copyList = FileHandling.getCopies();
-		requestList = FileHandling.getRequests();
-		loanList = FileHandling.getLoans();
+		bookList = store.getBooks();
+		dvdList = store.getDVDs();
+		laptopList = store.getLaptops();
+		copyList = store.getCopies();
+		requestList = store.getRequests();
 		
 		// Adds each resource to the resource ArrayList.
 		resourceList.addAll(bookList);
@@ -153,12 +171,10 @@ public class ViewResourceController {
 			lstShowResource.getItems().add(thisResource.toString());
 		}
 		
-		// Fetch the user's active loans.
-		for (Loan loan : loanList) {
-			if (currentUsername.equals(loan.getUsername()) && !loan.isReturned()) {
-				userCurrentLoans.add(loan);
-			}
-		}
+		// Fill in the filter menus and their counts.
+		facetFilters = new FacetFilters(cbBook, cbDVD, cbLaptop, mbGenre, 
+				mbLanguage, mbSubtitles, txtYearFrom, txtYearTo, 
+				this::handleResourceSearchAction);
 	}
 	
 	/**
@@ -185,69 +201,53 @@ public class ViewResourceController {
 		Copy requestedCopy = null;
 		boolean isCopyFound = false;
 		
-		// Checks if there are any copies available. 
-		for (Copy thisCopy : currentCopiesList) {
-			// Needed anyway if no copies are available.
-			resourceID = thisCopy.getResourceID(); 
-			duration = thisCopy.getLoanDuration();
-			// Checks if the user has requested to borrow this resource already.
-			boolean requested = isAlreadyRequested(currentUsername, resourceID);
-			if (requested) {
-				Alerts.alreadyRequested();
-				return;
-			} else if (thisCopy.isAvailable()) {
-				copyID = thisCopy.getCopyID();
-				requestedCopy = thisCopy;
-				isCopyFound = true;
+		// Save all the changes from making the request together.
+		UnitOfWork work = store.beginWork();
+		try {
+			// Checks if there are any copies available. 
+			for (Copy thisCopy : currentCopiesList) {
+				// Needed anyway if no copies are available.
+				resourceID = thisCopy.getResourceID(); 
+				duration = thisCopy.getLoanDuration();
+				// Checks if the user has requested to borrow this resource already.
+				boolean requested = isAlreadyRequested(currentUsername, resourceID);
+				if (requested) {
+					Alerts.alreadyRequested();
+					return;
+				} else if (thisCopy.isAvailable()) {
+					copyID = thisCopy.getCopyID();
+					requestedCopy = thisCopy;
+					isCopyFound = true;
 				
-				// Set the copy to unavailable.
-				String oldCopy = requestedCopy.toStringDetail();
-				requestedCopy.setAvailable(false);
-				String newCopy = requestedCopy.toStringDetail();
-				FileHandling.editCopy(oldCopy, newCopy);
-				break;
+					// Set the copy to unavailable.
+					requestedCopy.setAvailable(false);
+					store.editCopy(requestedCopy);
+					break;
+				}
 			}
-		}
-		
-		// Choose the copy to request if they're all unavailable.
-		int minCopyID = currentCopiesList.get(0).getCopyID();
-		int maxCopyID = currentCopiesList.get(
-				currentCopiesList.size() - 1).getCopyID();
-		boolean reserved = true; // Set to false if no available copies.
-		if (!isCopyFound) {
-			copyID = getNextLatestCopyID(resourceID, minCopyID, maxCopyID);
-			reserved = false;
-		}
 		
-		// Create request.
-		int requestID = getLatestRequestID() + 1;
-		String requestDate = LocalDate.now().toString(); 
+			// Choose the copy to request if they're all unavailable.
+			int minCopyID = currentCopiesList.get(0).getCopyID();
+			int maxCopyID = currentCopiesList.get(
+					currentCopiesList.size() - 1).getCopyID();
+			boolean reserved = true; // Set to false if no available copies.
+			if (!isCopyFound) {
+				copyID = getNextLatestCopyID(resourceID, minCopyID, maxCopyID);
+				reserved = false;
+			}
 		
-		Request newRequest = new Request(requestID, copyID, resourceID, 
-				currentUsername, requestDate, false, reserved);
-		String strNewRequest = newRequest.toStringDetail();
+			// Create request.
+			int requestID = store.nextRequestID();
+			String requestDate = LocalDate.now().toString(); 
 		
-		requestList.add(newRequest);
-		FileHandling.makeRequest(strNewRequest);
-		setLoanDueDate(isCopyFound, copyID, duration); // Set due date if necessary.
-		displayCopies(resourceID); // Refresh copies.
-	}
-	
-	/**
-	 * Fetches the ID of the most recent request.
-	 * @return ID of the most recent request.
-	 */
-	public int getLatestRequestID() {
-		int maxID;
-		
-		if (requestList.size() == 0) {
-			maxID = 0;
-		} else {
-			//Collections.sort(requestList, new SortRequests());
-			int maxIndex = requestList.size() - 1;
-			maxID = (requestList.get(maxIndex)).getRequestID();
+			Request newRequest = new Request(requestID, copyID, resourceID, 
+					currentUsername, requestDate, false, reserved);
+			store.makeRequest(newRequest);
+			setLoanDueDate(isCopyFound, copyID, duration); // Set due date if necessary.
+		} finally {
+			work.commit();
 		}
-		return maxID;
+		displayCopies(resourceID); // Refresh copies.
 	}
 	
 	/**
@@ -256,22 +256,9 @@ public class ViewResourceController {
 	 * @return Whether the user has any overdue copies or not.
 	 */
 	public boolean getOverdue() {
-		// Check if there's a due date - due dates are set 
-		// when the copy is requested.
-		// If there is, check if it's past the due date.
-		for (Loan loan : userCurrentLoans) {
-			if ((loan.getDueDate()).isEmpty()) {
-				// Nothing happens...
-			} else {
-				int daysPastDueDate = Utility.daysPastDate(
-						loan.getDueDate());
-				// Will be negative if the due date is in the future.
-				if (daysPastDueDate > 0) {
-					return true;
-				}
-			}
-		}
-		return false;
+		// Overdue loans are counted for each user as they pass their 
+		// due date, so the user's loans don't need to be checked.
+		return store.isOverdue(currentUsername);
 	}
 	
 	/**
@@ -291,11 +278,9 @@ public class ViewResourceController {
 				return true;
 			}
 		}
-		// Check loans.
-		for (Loan loan : loanList) {
-			if (username.equals(loan.getUsername()) && 
-					resourceID == loan.getResourceID() && 
-					!loan.isReturned()) {
+		// Check the resource's loans that haven't been returned.
+		for (Loan loan : store.getActiveResourceLoans(resourceID)) {
+			if (username.equals(loan.getUsername())) {
 				return true;
 			}
 		}
@@ -305,7 +290,9 @@ public class ViewResourceController {
 	/**
 	 * Fetches the copy ID of the most recently requested copy of the 
 	 * resource then calculates the next copy to be requested. 
-	 * Needed if all the copies are unavailable.
+	 * Needed if all the copies are unavailable. The copy only decides 
+	 * which loan gets a due date; the request is given whichever copy 
+	 * of the resource is returned first.
 	 * @param resourceID The ID of the requested resource.
 	 * @param minCopyID The smallest ID of the copy of the resource.
 	 * @param maxCopyID The highest ID of the copy of the resource.
@@ -358,16 +345,12 @@ public class ViewResourceController {
 		} else {
 			// Set the due date to the current loan of the resource
 			// if it doesn't have one.
-			for (Loan loan : loanList) {
-				if (!loan.isReturned() && 
-						(loan.getCopyID() == copyID) &&
-						(loan.getDueDate()).isEmpty()) {
+			for (Loan loan : store.getCopyLoans(copyID)) {
+				if (!loan.isReturned() && !loan.hasDueDate()) {
 					
 					Loan selectedLoan = loan;
-					String oldLoan = selectedLoan.toStringDetail();
 					selectedLoan.setDueDate(duration);
-					String newLoan = selectedLoan.toStringDetail();
-					FileHandling.editLoan(oldLoan, newLoan);
+					store.editLoan(selectedLoan);
 					break;
 				}
 			}
@@ -469,8 +452,7 @@ public class ViewResourceController {
 		//Changes image URL to a file, then converts that to an image.
 		File imageURL = new File(RESOURCE_IMAGE_PATH + 
 				selectedBook.getThumbnail());
-		Image thumbnail = new Image(imageURL.toURI().toString());
-		imageThumbnail.setImage(thumbnail);
+		ImageCache.getInstance().show(imageThumbnail, imageURL);
 		
 		txtAuthor.setText(selectedBook.getAuthor());
 		txtPublisher.setText(selectedBook.getPublisher());
@@ -505,8 +487,7 @@ public class ViewResourceController {
 		//Changes image URL to a file, then converts that to an image.
 		File imageURL = new File(RESOURCE_IMAGE_PATH + 
 				selectedDVD.getThumbnail());
-		Image thumbnail = new Image(imageURL.toURI().toString());
-		imageThumbnail.setImage(thumbnail);
+		ImageCache.getInstance().show(imageThumbnail, imageURL);
 		
 		txtDirector.setText(selectedDVD.getDirector());
 		txtRuntime.setText(selectedDVD.getRuntime() + " minutes");
@@ -543,8 +524,7 @@ public class ViewResourceController {
 		//Changes image URL to a file, then converts that to an image.
 		File imageURL = new File(RESOURCE_IMAGE_PATH + 
 				selectedLaptop.getThumbnail());
-		Image thumbnail = new Image(imageURL.toURI().toString());
-		imageThumbnail.setImage(thumbnail);
+		ImageCache.getInstance().show(imageThumbnail, imageURL);
 		
 		txtManufacturer.setText(selectedLaptop.getManufacturer());
 		txtModel.setText(selectedLaptop.getModel());
@@ -632,6 +612,7 @@ public class ViewResourceController {
 		// Clears other check boxes if selected.
 		cbDVD.setSelected(false);
 		cbLaptop.setSelected(false);
+		facetFilters.updateType();
 		btnRequestCopy.setDisable(true);
 		
 		// Clears the content of the resource and copy list. 
@@ -664,6 +645,7 @@ public class ViewResourceController {
 		// Clears other check boxes if selected.
 		cbBook.setSelected(false);
 		cbLaptop.setSelected(false);
+		facetFilters.updateType();
 		btnRequestCopy.setDisable(true);
 		
 		// Clears the content of the resource and copy list. 
@@ -696,6 +678,7 @@ public class ViewResourceController {
 		// Clears other check boxes if selected.
 		cbBook.setSelected(false);
 		cbDVD.setSelected(false);
+		facetFilters.updateType();
 		btnRequestCopy.setDisable(true);
 		
 		// Clears the content of the resource and copy list. 
@@ -726,18 +709,26 @@ public class ViewResourceController {
 	 */
 	public void handleResourceSearchAction() {
 		String keywords = txtSearchResource.getText().trim().toLowerCase();
-		isSearch = true;
-		searchedList.clear(); // Clear ArrayList from previous search.
-		lstShowResource.getItems().clear();
-		lstShowCopies.getItems().clear();
-		currentCopiesList.clear();
-		btnRequestCopy.setDisable(true);
 		
 		// Show all of appropriate resources if there's nothing in 
 		// the search bar.
 		if (keywords.isEmpty()) {
+			searchRunner.cancel(); // Stop any search still running.
+			searchedList.clear();
+			lstShowResource.getItems().clear();
+			lstShowCopies.getItems().clear();
+			currentCopiesList.clear();
+			btnRequestCopy.setDisable(true);
 			isSearch = false;
-			if (cbBook.isSelected()) {
+			if (facetFilters.isFiltered()) {
+				// Show the resources matching the filters, like a search.
+				List<Resource> filtered = facetFilters.getResources();
+				List<String> descriptions = new ArrayList<>();
+				for (Resource thisResource : filtered) {
+					descriptions.add(thisResource.toString());
+				}
+				showSearchResults(filtered, descriptions);
+			} else if (cbBook.isSelected()) {
 				setCBBookStatus();
 			} else if (cbDVD.isSelected()) {
 				setCBDVDStatus();
@@ -749,39 +740,31 @@ public class ViewResourceController {
 					lstShowResource.getItems().add(thisResource.toString());
 				}
 			}
-		} else if (cbBook.isSelected()) {
-			for (Book book : bookList) {
-				if ((book.toStringSearch()).contains(keywords)) {
-					searchedList.add(book);
-				}
-			}
-		} else if (cbDVD.isSelected()) {
-			for (DVD dvd : dvdList) {
-				if ((dvd.toStringSearch()).contains(keywords)) {
-					searchedList.add(dvd);
-				}
-			}
-		} else if (cbLaptop.isSelected()) {
-			for (Laptop laptop : laptopList) {
-				if ((laptop.toStringSearch()).contains(keywords)) {
-					searchedList.add(laptop);
-				}
-			}
-		// If the type of resource is unknown via checkbox.
 		} else {
-			for (Resource resource : resourceList) {
-				if ((resource.toStringSearch()).contains(keywords)) {
-					searchedList.add(resource);
-				}
-			}
-		}
-		
-		// Display filtered items to the resource list view. 
-		for (Resource thisResource : searchedList) {
-			lstShowResource.getItems().add(thisResource.toString());
+			// Search in the background, keeping the resources that match 
+			// the filters. The list only changes once the results are back.
+			searchRunner.search(keywords, cbFuzzySearch.isSelected(), 
+					facetFilters.getFilter(), this::showSearchResults);
 		}
 	}
 	
+	/**
+	 * Displays the resources found by a search in the resource list view.
+	 * @param found The resources found.
+	 * @param descriptions The short description of each resource found.
+	 */
+	public void showSearchResults(List<Resource> found, 
+			List<String> descriptions) {
+		isSearch = true;
+		searchedList.clear();
+		searchedList.addAll(found);
+		lstShowCopies.getItems().clear();
+		currentCopiesList.clear();
+		btnRequestCopy.setDisable(true);
+		// Replace the whole list in one go.
+		lstShowResource.getItems().setAll(descriptions);
+	}
+	
 	/**
 	 * Closes this page, then goes back to the User Dashboard.
 	 */
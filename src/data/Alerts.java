@@ -173,6 +173,21 @@ public class Alerts {
 		return;
 	}
 	
+	/**
+	 * An alert pop-up that tells the librarian that
+	 * the username entered is too long.
+	 */
+	public static void usernameTooLong() {
+		Alert alert = new Alert(AlertType.ERROR);
+		alert.setTitle("Error: Username Too Long.");
+		alert.setHeaderText(null);
+		alert.setContentText("The username can't be longer than " 
+				+ User.MAX_USERNAME_BYTES + " characters, please enter "
+				+ "a shorter one.");
+		alert.showAndWait();
+		return;
+	}
+	
 	/**
 	 * An alert pop-up that tells the librarian that 
 	 * the changes made causes the resource to have matching
@@ -21,6 +21,12 @@ public class Book extends Resource {
 	/** The language of the book. */
 	private String language;
 	
+	/** The fine incurred per day for a late return in GBP (£). */
+	public static final double FINE_PER_DAY = 2.00;
+	
+	/** The maximum fine this resource can incur in GBP (£). */
+	public static final double MAX_FINE = 25.00;
+	
 	/**
 	* Constructor for the Book class.
 	* @param resourceID A unique resource ID.
@@ -68,6 +74,35 @@ public class Book extends Resource {
 		return bookString;
 	}
 	
+	/**
+	 * Gets a fingerprint of the book's details, which is the same for 
+	 * any two books with the same details.
+	 * @return The fingerprint of the book's details.
+	 */
+	public long getFingerprint() {
+		return fingerprintOf(resourceTitle, year, thumbnail, author, 
+				publisher, genre, language, ISBN);
+	}
+	
+	/**
+	 * Works out the fingerprint a book with these details would have.
+	 * @param resourceTitle The book title.
+	 * @param year The year the book was released.
+	 * @param thumbnail The name of the thumbnail image.
+	 * @param author The author who wrote the book.
+	 * @param publisher The publisher of the book.
+	 * @param genre The genre of the book.
+	 * @param language The language of the book.
+	 * @param ISBN The ISBN of the book.
+	 * @return The fingerprint of the details.
+	 */
+	public static long fingerprintOf(String resourceTitle, int year, 
+			String thumbnail, String author, String publisher, String genre,
+			String language, String ISBN) {
+		return fingerprint("Book", resourceTitle, year + "", thumbnail, 
+				author, publisher, genre, language, ISBN);
+	}
+	
 	/**
 	 * Gets the author who wrote the book.
 	 * @return Author of the book.
@@ -147,4 +182,20 @@ public class Book extends Resource {
 	public void setLanguage(String language) {
 		this.language = language;
 	}
+	
+	/**
+	 * Gets the fine per day for the book.
+	 * @return The book's fine per day.
+	 */
+	public double getFinePerDay() {
+		return FINE_PER_DAY;
+	}
+	
+	/**
+	 * Gets the maximum fine for the book.
+	 * @return The book's maximum fine.
+	 */
+	public double getMaxFine() {
+		return MAX_FINE;
+	}
 }
\ No newline at end of file
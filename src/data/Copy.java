@@ -46,7 +46,7 @@ public class Copy implements Comparable<Copy> {
 	 */
 	public String toStringDetail() {
 		String strCopy = copyID + "," + resourceID + "," + isAvailable + 
-				"," + resourceType + "," + loanDuration;
+				"," + resourceType + "," + loanDuration + ",";
 		return strCopy;
 	}
 	
@@ -106,6 +106,14 @@ public class Copy implements Comparable<Copy> {
 		return resourceType;
 	}
 	
+	/**
+	 * Gets the maximum loan duration of the copy.
+	 * @return The maximum duration of the loan of this copy.
+	 */
+	public LoanDuration getLoanDurationType() {
+		return loanDuration;
+	}
+	
 	/**
 	 * Gets a short description of the Copy that's suitable to display.
 	 * @return A short description of the Copy.
@@ -18,6 +18,12 @@ public class DVD extends Resource {
 	/** List of subtitle languages the DVD has. */
 	private String[] subLang;
 	
+	/** The fine incurred per day for a late return in GBP (£). */
+	public static final double FINE_PER_DAY = 2.00;
+	
+	/** The maximum fine this resource can incur in GBP (£). */
+	public static final double MAX_FINE = 25.00;
+	
 	/**
 	 * Constructor for the DVD class.
 	 * @param resourceID A unique resource ID.
@@ -50,6 +56,42 @@ public class DVD extends Resource {
 		return dvdString.toLowerCase();
 	}
 	
+	/**
+	 * Gets a fingerprint of the DVD's details, which is the same for 
+	 * any two DVDs with the same details.
+	 * @return The fingerprint of the DVD's details.
+	 */
+	public long getFingerprint() {
+		return fingerprintOf(resourceTitle, year, thumbnail, director, 
+				runtime, subLang, language);
+	}
+	
+	/**
+	 * Works out the fingerprint a DVD with these details would have.
+	 * @param resourceTitle The DVD title.
+	 * @param year The year the DVD was released.
+	 * @param thumbnail The name of the thumbnail image.
+	 * @param director The director of the DVD.
+	 * @param runtime The runtime of the DVD in minutes.
+	 * @param subLang The subtitle languages of the DVD.
+	 * @param language The language of the DVD.
+	 * @return The fingerprint of the details.
+	 */
+	public static long fingerprintOf(String resourceTitle, int year, 
+			String thumbnail, String director, double runtime, 
+			String[] subLang, String language) {
+		String[] details = new String[7 + subLang.length];
+		details[0] = "DVD";
+		details[1] = resourceTitle;
+		details[2] = year + "";
+		details[3] = thumbnail;
+		details[4] = director;
+		details[5] = runtime + "";
+		details[6] = language;
+		System.arraycopy(subLang, 0, details, 7, subLang.length);
+		return fingerprint(details);
+	}
+	
 	/**
 	 * Gets a string of the DVD's full details for file saving.
 	 * @return String of the DVD's full details.
@@ -135,4 +177,20 @@ public class DVD extends Resource {
 	public void setSubLang(String[] subLang) {
 		this.subLang = subLang;
 	}
-}
+	
+	/**
+	 * Gets the fine per day for the DVD.
+	 * @return The DVD's fine per day.
+	 */
+	public double getFinePerDay() {
+		return FINE_PER_DAY;
+	}
+	
+	/**
+	 * Gets the maximum fine for the DVD.
+	 * @return The DVD's maximum fine.
+	 */
+	public double getMaxFine() {
+		return MAX_FINE;
+	}
+}
\ No newline at end of file
@@ -0,0 +1,483 @@
+package data;
+
+import java.util.Arrays;
+import java.util.Collection;
+import java.util.Map;
+import java.util.TreeMap;
+
+/**
+ * The FacetBitmap class holds a set of resource positions (e.g. every
+ * resource in the "Fantasy" genre) in a compressed form, like a roaring
+ * bitmap. The positions are split into parts of 65536 by their top 16
+ * bits. A part with only a few positions keeps them in a sorted array of
+ * their bottom 16 bits, and a part with lots of them keeps one bit for
+ * each of its 65536 positions. Sets can be combined with AND and OR a
+ * part at a time, and the size of an AND can be found without building it.
+ * @author William King
+ */
+public class FacetBitmap {
+	/** The most positions a part keeps in a sorted array. */
+	private static final int ARRAY_LIMIT = 4096;
+	/** The number of longs in a part kept as bits (65536 bits). */
+	private static final int BITS_LENGTH = 1024;
+
+	/** The top 16 bits of the positions in each part, in ascending order. */
+	private char[] keys = new char[4];
+	/** The bottom 16 bits of the positions in each part. Either a sorted
+	 * char array, or a long array with one bit for each position. */
+	private Object[] parts = new Object[4];
+	/** The number of positions in each part. */
+	private int[] sizes = new int[4];
+	/** The number of parts in use. */
+	private int partCount;
+
+	/**
+	 * Adds a position to the set.
+	 * @param value The position.
+	 */
+	public void add(int value) {
+		char key = (char) (value >>> 16);
+		char low = (char) value;
+		int p = findPart(key);
+		if (p < 0) {
+			p = -p - 1;
+			insertPart(p, key, new char[4], 0);
+		}
+		if (parts[p] instanceof long[]) {
+			long[] bits = (long[]) parts[p];
+			if ((bits[low >>> 6] & (1L << low)) == 0) {
+				bits[low >>> 6] |= 1L << low;
+				sizes[p]++;
+			}
+			return;
+		}
+
+		char[] values = (char[]) parts[p];
+		int pos = Arrays.binarySearch(values, 0, sizes[p], low);
+		if (pos >= 0) {
+			return;
+		}
+		pos = -pos - 1;
+		if (sizes[p] == ARRAY_LIMIT) {
+			// Too many for an array, so switch to bits.
+			long[] bits = toBits(values, sizes[p]);
+			bits[low >>> 6] |= 1L << low;
+			parts[p] = bits;
+			sizes[p]++;
+			return;
+		}
+		if (sizes[p] == values.length) {
+			values = Arrays.copyOf(values, Math.min(sizes[p] * 2, ARRAY_LIMIT));
+			parts[p] = values;
+		}
+		System.arraycopy(values, pos, values, pos + 1, sizes[p] - pos);
+		values[pos] = low;
+		sizes[p]++;
+	}
+
+	/**
+	 * Removes a position from the set.
+	 * @param value The position.
+	 */
+	public void remove(int value) {
+		int p = findPart((char) (value >>> 16));
+		if (p < 0) {
+			return;
+		}
+		char low = (char) value;
+		if (parts[p] instanceof long[]) {
+			long[] bits = (long[]) parts[p];
+			if ((bits[low >>> 6] & (1L << low)) == 0) {
+				return;
+			}
+			bits[low >>> 6] &= ~(1L << low);
+			sizes[p]--;
+			if (sizes[p] == ARRAY_LIMIT) {
+				// Few enough for an array again.
+				parts[p] = toArray(bits, sizes[p]);
+			}
+		} else {
+			char[] values = (char[]) parts[p];
+			int pos = Arrays.binarySearch(values, 0, sizes[p], low);
+			if (pos < 0) {
+				return;
+			}
+			System.arraycopy(values, pos + 1, values, pos, sizes[p] - pos - 1);
+			sizes[p]--;
+		}
+		if (sizes[p] == 0) {
+			removePart(p);
+		}
+	}
+
+	/**
+	 * Checks if a position is in the set.
+	 * @param value The position.
+	 * @return True if it's in the set, otherwise false.
+	 */
+	public boolean contains(int value) {
+		int p = findPart((char) (value >>> 16));
+		if (p < 0) {
+			return false;
+		}
+		char low = (char) value;
+		if (parts[p] instanceof long[]) {
+			return (((long[]) parts[p])[low >>> 6] & (1L << low)) != 0;
+		}
+		return Arrays.binarySearch((char[]) parts[p], 0, sizes[p], low) >= 0;
+	}
+
+	/**
+	 * Gets the number of positions in the set.
+	 * @return The number of positions.
+	 */
+	public int getCardinality() {
+		int total = 0;
+		for (int p = 0; p < partCount; p++) {
+			total += sizes[p];
+		}
+		return total;
+	}
+
+	/**
+	 * Gets the positions in the set.
+	 * @return The positions, in ascending order.
+	 */
+	public int[] toArray() {
+		int[] values = new int[getCardinality()];
+		int size = 0;
+		for (int p = 0; p < partCount; p++) {
+			int high = keys[p] << 16;
+			if (parts[p] instanceof long[]) {
+				long[] bits = (long[]) parts[p];
+				for (int i = 0; i < BITS_LENGTH; i++) {
+					long word = bits[i];
+					while (word != 0) {
+						values[size++] = high | (i << 6)
+								| Long.numberOfTrailingZeros(word);
+						word &= word - 1;
+					}
+				}
+			} else {
+				char[] lows = (char[]) parts[p];
+				for (int i = 0; i < sizes[p]; i++) {
+					values[size++] = high | lows[i];
+				}
+			}
+		}
+		return values;
+	}
+
+	/**
+	 * Makes a new set of the positions in both this set and another.
+	 * @param other The other set.
+	 * @return The positions in both sets.
+	 */
+	public FacetBitmap and(FacetBitmap other) {
+		FacetBitmap result = new FacetBitmap();
+		int i = 0;
+		int j = 0;
+		while (i < partCount && j < other.partCount) {
+			if (keys[i] < other.keys[j]) {
+				i++;
+			} else if (keys[i] > other.keys[j]) {
+				j++;
+			} else {
+				Object part = andParts(parts[i], sizes[i],
+						other.parts[j], other.sizes[j]);
+				int size = getPartSize(part);
+				if (size > 0) {
+					result.insertPart(result.partCount, keys[i], part, size);
+				}
+				i++;
+				j++;
+			}
+		}
+		return result;
+	}
+
+	/**
+	 * Counts the positions in both this set and another, without making
+	 * a new set.
+	 * @param other The other set.
+	 * @return The number of positions in both sets.
+	 */
+	public int andCardinality(FacetBitmap other) {
+		int total = 0;
+		int i = 0;
+		int j = 0;
+		while (i < partCount && j < other.partCount) {
+			if (keys[i] < other.keys[j]) {
+				i++;
+			} else if (keys[i] > other.keys[j]) {
+				j++;
+			} else {
+				total += countBoth(parts[i], sizes[i],
+						other.parts[j], other.sizes[j]);
+				i++;
+				j++;
+			}
+		}
+		return total;
+	}
+
+	/**
+	 * Makes a new set of the positions in any of some sets. Each part is
+	 * built up in bits, then turned back into an array if it's small.
+	 * @param bitmaps The sets.
+	 * @return The positions in any of the sets.
+	 */
+	public static FacetBitmap or(Collection<FacetBitmap> bitmaps) {
+		TreeMap<Character, long[]> combined = new TreeMap<>();
+		for (FacetBitmap bitmap : bitmaps) {
+			for (int p = 0; p < bitmap.partCount; p++) {
+				long[] bits = combined.get(bitmap.keys[p]);
+				if (bits == null) {
+					bits = new long[BITS_LENGTH];
+					combined.put(bitmap.keys[p], bits);
+				}
+				Object part = bitmap.parts[p];
+				if (part instanceof long[]) {
+					long[] partBits = (long[]) part;
+					for (int i = 0; i < BITS_LENGTH; i++) {
+						bits[i] |= partBits[i];
+					}
+				} else {
+					char[] values = (char[]) part;
+					for (int i = 0; i < bitmap.sizes[p]; i++) {
+						bits[values[i] >>> 6] |= 1L << values[i];
+					}
+				}
+			}
+		}
+
+		FacetBitmap result = new FacetBitmap();
+		for (Map.Entry<Character, long[]> entry : combined.entrySet()) {
+			long[] bits = entry.getValue();
+			int size = countBits(bits);
+			Object part = (size > ARRAY_LIMIT) ? bits : toArray(bits, size);
+			result.insertPart(result.partCount, entry.getKey(), part, size);
+		}
+		return result;
+	}
+
+	/**
+	 * Makes a copy of the set, which doesn't change when this one does.
+	 * @return The copy.
+	 */
+	public FacetBitmap copy() {
+		FacetBitmap result = new FacetBitmap();
+		for (int p = 0; p < partCount; p++) {
+			Object part = (parts[p] instanceof long[])
+					? ((long[]) parts[p]).clone()
+					: Arrays.copyOf((char[]) parts[p], sizes[p]);
+			result.insertPart(p, keys[p], part, sizes[p]);
+		}
+		return result;
+	}
+
+	/**
+	 * Finds the part with some top 16 bits.
+	 * @param key The top 16 bits.
+	 * @return The part's index, or (-(where it would go) - 1).
+	 */
+	private int findPart(char key) {
+		return Arrays.binarySearch(keys, 0, partCount, key);
+	}
+
+	/**
+	 * Adds a new part.
+	 * @param p Where to add it.
+	 * @param key The top 16 bits of its positions.
+	 * @param part Its positions.
+	 * @param size The number of positions in it.
+	 */
+	private void insertPart(int p, char key, Object part, int size) {
+		if (partCount == keys.length) {
+			keys = Arrays.copyOf(keys, partCount * 2);
+			parts = Arrays.copyOf(parts, partCount * 2);
+			sizes = Arrays.copyOf(sizes, partCount * 2);
+		}
+		System.arraycopy(keys, p, keys, p + 1, partCount - p);
+		System.arraycopy(parts, p, parts, p + 1, partCount - p);
+		System.arraycopy(sizes, p, sizes, p + 1, partCount - p);
+		keys[p] = key;
+		parts[p] = part;
+		sizes[p] = size;
+		partCount++;
+	}
+
+	/**
+	 * Removes an empty part.
+	 * @param p The part's index.
+	 */
+	private void removePart(int p) {
+		System.arraycopy(keys, p + 1, keys, p, partCount - p - 1);
+		System.arraycopy(parts, p + 1, parts, p, partCount - p - 1);
+		System.arraycopy(sizes, p + 1, sizes, p, partCount - p - 1);
+		partCount--;
+		parts[partCount] = null;
+	}
+
+	/**
+	 * Finds the positions in both of two parts.
+	 * @param first The first part.
+	 * @param firstSize The number of positions in the first part.
+	 * @param second The second part.
+	 * @param secondSize The number of positions in the second part.
+	 * @return The positions in both, as an array of the exact size or
+	 *         as bits.
+	 */
+	private static Object andParts(Object first, int firstSize,
+			Object second, int secondSize) {
+		if (first instanceof long[] && second instanceof long[]) {
+			long[] firstBits = (long[]) first;
+			long[] secondBits = (long[]) second;
+			long[] bits = new long[BITS_LENGTH];
+			for (int i = 0; i < BITS_LENGTH; i++) {
+				bits[i] = firstBits[i] & secondBits[i];
+			}
+			int size = countBits(bits);
+			return (size > ARRAY_LIMIT) ? bits : toArray(bits, size);
+		} else if (first instanceof long[]) {
+			return andParts(second, secondSize, first, firstSize);
+		}
+
+		char[] values = (char[]) first;
+		char[] found = new char[firstSize];
+		int size = 0;
+		if (second instanceof long[]) {
+			long[] bits = (long[]) second;
+			for (int i = 0; i < firstSize; i++) {
+				if ((bits[values[i] >>> 6] & (1L << values[i])) != 0) {
+					found[size++] = values[i];
+				}
+			}
+		} else {
+			char[] others = (char[]) second;
+			int i = 0;
+			int j = 0;
+			while (i < firstSize && j < secondSize) {
+				if (values[i] < others[j]) {
+					i++;
+				} else if (values[i] > others[j]) {
+					j++;
+				} else {
+					found[size++] = values[i];
+					i++;
+					j++;
+				}
+			}
+		}
+		return Arrays.copyOf(found, size);
+	}
+
+	/**
+	 * Counts the positions in both of two parts.
+	 * @param first The first part.
+	 * @param firstSize The number of positions in the first part.
+	 * @param second The second part.
+	 * @param secondSize The number of positions in the second part.
+	 * @return The number of positions in both.
+	 */
+	private static int countBoth(Object first, int firstSize,
+			Object second, int secondSize) {
+		if (first instanceof long[] && second instanceof long[]) {
+			long[] firstBits = (long[]) first;
+			long[] secondBits = (long[]) second;
+			int count = 0;
+			for (int i = 0; i < BITS_LENGTH; i++) {
+				count += Long.bitCount(firstBits[i] & secondBits[i]);
+			}
+			return count;
+		} else if (first instanceof long[]) {
+			return countBoth(second, secondSize, first, firstSize);
+		}
+
+		char[] values = (char[]) first;
+		int count = 0;
+		if (second instanceof long[]) {
+			long[] bits = (long[]) second;
+			for (int i = 0; i < firstSize; i++) {
+				if ((bits[values[i] >>> 6] & (1L << values[i])) != 0) {
+					count++;
+				}
+			}
+		} else {
+			char[] others = (char[]) second;
+			int i = 0;
+			int j = 0;
+			while (i < firstSize && j < secondSize) {
+				if (values[i] < others[j]) {
+					i++;
+				} else if (values[i] > others[j]) {
+					j++;
+				} else {
+					count++;
+					i++;
+					j++;
+				}
+			}
+		}
+		return count;
+	}
+
+	/**
+	 * Gets the number of positions in a part made by andParts.
+	 * @param part The part.
+	 * @return The number of positions.
+	 */
+	private static int getPartSize(Object part) {
+		if (part instanceof long[]) {
+			return countBits((long[]) part);
+		}
+		return ((char[]) part).length;
+	}
+
+	/**
+	 * Counts the bits that are set.
+	 * @param bits The bits.
+	 * @return The number of bits set.
+	 */
+	private static int countBits(long[] bits) {
+		int count = 0;
+		for (long word : bits) {
+			count += Long.bitCount(word);
+		}
+		return count;
+	}
+
+	/**
+	 * Turns a sorted array part into bits.
+	 * @param values The sorted bottom 16 bits of the positions.
+	 * @param size The number of positions.
+	 * @return The bits.
+	 */
+	private static long[] toBits(char[] values, int size) {
+		long[] bits = new long[BITS_LENGTH];
+		for (int i = 0; i < size; i++) {
+			bits[values[i] >>> 6] |= 1L << values[i];
+		}
+		return bits;
+	}
+
+	/**
+	 * Turns a part kept as bits into a sorted array.
+	 * @param bits The bits.
+	 * @param size The number of bits set.
+	 * @return The sorted bottom 16 bits of the positions.
+	 */
+	private static char[] toArray(long[] bits, int size) {
+		char[] values = new char[size];
+		int count = 0;
+		for (int i = 0; i < BITS_LENGTH; i++) {
+			long word = bits[i];
+			while (word != 0) {
+				values[count++] = (char) ((i << 6)
+						+ Long.numberOfTrailingZeros(word));
+				word &= word - 1;
+			}
+		}
+		return values;
+	}
+}
@@ -0,0 +1,314 @@
+package data;
+
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.EnumMap;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.TreeMap;
+
+/**
+ * The FacetIndex class filters the resources by their type, genre,
+ * language, subtitle languages and year without looking through them.
+ * Each resource is given a position, and each value of each facet (e.g.
+ * the genre "Fantasy") has a FacetBitmap of the positions of the
+ * resources with that value. Values selected in the same facet are
+ * combined with OR, and the facets are combined with AND. The number of
+ * resources each value would give is counted from the bitmaps too.
+ * @author William King
+ */
+public class FacetIndex {
+	/**
+	 * The details the resources can be filtered by (other than the year,
+	 * which is filtered by a range).
+	 */
+	public enum Facet {
+		/** Book, DVD or Laptop. */
+		TYPE,
+		/** The genre of a book. */
+		GENRE,
+		/** The language of a book or DVD. */
+		LANGUAGE,
+		/** The subtitle languages of a DVD. */
+		SUBTITLE_LANGUAGE
+	}
+
+	/** Every indexed resource, by its position. */
+	private final ArrayList<Resource> byOrdinal = new ArrayList<>();
+	/** The position of each resource, using the resource ID as the key. */
+	private final HashMap<Integer, Integer> ordinals = new HashMap<>();
+	/** The resources with each value of each facet, using the value as
+	 * the key. */
+	private final EnumMap<Facet, TreeMap<String, FacetBitmap>> values =
+			new EnumMap<>(Facet.class);
+	/** The resources from each year, using the year as the key. */
+	private final TreeMap<Integer, FacetBitmap> years = new TreeMap<>();
+	/** The bitmaps each resource was added to, by its position, so it
+	 * can be taken out of them when it's edited. */
+	private final ArrayList<List<FacetBitmap>> bitmapsByOrdinal =
+			new ArrayList<>();
+	/** Every resource. */
+	private final FacetBitmap all = new FacetBitmap();
+
+	/**
+	 * Constructor for the FacetIndex class. Indexes the resources in
+	 * ascending order of resource ID, so the positions are in the same
+	 * order as the resource lists.
+	 * @param resources All the resources.
+	 */
+	public FacetIndex(Collection<? extends Resource> resources) {
+		for (Facet facet : Facet.values()) {
+			values.put(facet, new TreeMap<>());
+		}
+		ArrayList<Resource> sorted = new ArrayList<>(resources);
+		sorted.sort(null);
+		for (Resource resource : sorted) {
+			update(resource);
+		}
+	}
+
+	/**
+	 * Adds a new resource to the index, or updates an edited one.
+	 * @param resource The new or edited resource.
+	 */
+	public synchronized void update(Resource resource) {
+		Integer ordinal = ordinals.get(resource.getResourceID());
+		if (ordinal == null) {
+			ordinal = byOrdinal.size();
+			ordinals.put(resource.getResourceID(), ordinal);
+			byOrdinal.add(resource);
+			bitmapsByOrdinal.add(new ArrayList<>());
+			all.add(ordinal);
+		}
+		List<FacetBitmap> bitmaps = bitmapsByOrdinal.get(ordinal);
+		for (FacetBitmap bitmap : bitmaps) {
+			bitmap.remove(ordinal);
+		}
+		bitmaps.clear();
+
+		addValue(bitmaps, ordinal, Facet.TYPE, resource.getType());
+		switch (resource.getType()) {
+			case "Book":
+				Book book = (Book) resource;
+				addValue(bitmaps, ordinal, Facet.GENRE, book.getGenre());
+				addValue(bitmaps, ordinal, Facet.LANGUAGE, book.getLanguage());
+				break;
+			case "DVD":
+				DVD dvd = (DVD) resource;
+				addValue(bitmaps, ordinal, Facet.LANGUAGE, dvd.getLanguage());
+				for (String language : dvd.getSubLang()) {
+					addValue(bitmaps, ordinal, Facet.SUBTITLE_LANGUAGE,
+							language);
+				}
+				break;
+		}
+		FacetBitmap year = years.get(resource.getYear());
+		if (year == null) {
+			year = new FacetBitmap();
+			years.put(resource.getYear(), year);
+		}
+		year.add(ordinal);
+		bitmaps.add(year);
+	}
+
+	/**
+	 * Finds the resources matching the selected values.
+	 * @param selection The selected values.
+	 * @return The positions of the matching resources. Doesn't change
+	 *         when the index does.
+	 */
+	public synchronized FacetBitmap match(Selection selection) {
+		return match(selection, null);
+	}
+
+	/**
+	 * Counts how many resources there would be with each value of a
+	 * facet, if it was the only value selected in that facet (the other
+	 * facets stay as they are).
+	 * @param facet The facet.
+	 * @param selection The selected values.
+	 * @return The number of resources for each value, in alphabetical
+	 *         order of value.
+	 */
+	public synchronized TreeMap<String, Integer> getCounts(Facet facet,
+			Selection selection) {
+		FacetBitmap others = match(selection, facet);
+		TreeMap<String, Integer> counts = new TreeMap<>();
+		for (Map.Entry<String, FacetBitmap> entry
+				: values.get(facet).entrySet()) {
+			counts.put(entry.getKey(), others.andCardinality(entry.getValue()));
+		}
+		return counts;
+	}
+
+	/**
+	 * Gets the resources at some positions.
+	 * @param matches The positions, from match.
+	 * @return The resources, in ascending order of resource ID.
+	 */
+	public synchronized List<Resource> getResources(FacetBitmap matches) {
+		int[] positions = matches.toArray();
+		ArrayList<Resource> found = new ArrayList<>(positions.length);
+		for (int ordinal : positions) {
+			found.add(byOrdinal.get(ordinal));
+		}
+		return found;
+	}
+
+	/**
+	 * Checks if a resource is one of the matches. Can be called from
+	 * any thread.
+	 * @param matches The positions, from match.
+	 * @param resource The resource.
+	 * @return True if the resource matches, otherwise false.
+	 */
+	public synchronized boolean isMatch(FacetBitmap matches,
+			Resource resource) {
+		Integer ordinal = ordinals.get(resource.getResourceID());
+		return ordinal != null && matches.contains(ordinal);
+	}
+
+	/**
+	 * Finds the resources matching the selected values, leaving out one
+	 * facet.
+	 * @param selection The selected values.
+	 * @param skipped The facet to leave out, or null.
+	 * @return The positions of the matching resources.
+	 */
+	private FacetBitmap match(Selection selection, Facet skipped) {
+		FacetBitmap found = all;
+		for (Facet facet : Facet.values()) {
+			HashSet<String> selected = selection.getSelected(facet);
+			if (facet != skipped && !selected.isEmpty()) {
+				ArrayList<FacetBitmap> bitmaps = new ArrayList<>();
+				for (String value : selected) {
+					FacetBitmap bitmap = values.get(facet).get(value);
+					if (bitmap != null) {
+						bitmaps.add(bitmap);
+					}
+				}
+				found = found.and(FacetBitmap.or(bitmaps));
+			}
+		}
+		if (selection.hasYears()) {
+			found = found.and(FacetBitmap.or(years.subMap(
+					selection.getFromYear(), true,
+					selection.getToYear(), true).values()));
+		}
+		// Never hand out a bitmap the index will change.
+		return (found == all) ? all.copy() : found;
+	}
+
+	/**
+	 * Adds a resource to the bitmap of one of its values.
+	 * @param bitmaps The bitmaps the resource has been added to.
+	 * @param ordinal The position of the resource.
+	 * @param facet The facet.
+	 * @param value The value. Empty values are skipped.
+	 */
+	private void addValue(List<FacetBitmap> bitmaps, int ordinal,
+			Facet facet, String value) {
+		if (value == null || value.trim().isEmpty()) {
+			return;
+		}
+		value = value.trim();
+		FacetBitmap bitmap = values.get(facet).get(value);
+		if (bitmap == null) {
+			bitmap = new FacetBitmap();
+			values.get(facet).put(value, bitmap);
+		}
+		bitmap.add(ordinal);
+		bitmaps.add(bitmap);
+	}
+
+	/**
+	 * The Selection class holds the values selected in each facet and
+	 * the range of years selected.
+	 */
+	public static class Selection {
+		/** The values selected in each facet. */
+		private final EnumMap<Facet, HashSet<String>> selected =
+				new EnumMap<>(Facet.class);
+		/** The earliest year selected. */
+		private int fromYear = Integer.MIN_VALUE;
+		/** The latest year selected. */
+		private int toYear = Integer.MAX_VALUE;
+
+		/**
+		 * Constructor for the Selection class. Nothing is selected.
+		 */
+		public Selection() {
+			for (Facet facet : Facet.values()) {
+				selected.put(facet, new HashSet<>());
+			}
+		}
+
+		/**
+		 * Selects or clears a value.
+		 * @param facet The facet.
+		 * @param value The value.
+		 * @param isSelected True to select it, false to clear it.
+		 */
+		public void setSelected(Facet facet, String value,
+				boolean isSelected) {
+			if (isSelected) {
+				selected.get(facet).add(value);
+			} else {
+				selected.get(facet).remove(value);
+			}
+		}
+
+		/**
+		 * Clears every value of a facet.
+		 * @param facet The facet.
+		 */
+		public void clear(Facet facet) {
+			selected.get(facet).clear();
+		}
+
+		/**
+		 * Gets the values selected in a facet.
+		 * @param facet The facet.
+		 * @return The selected values.
+		 */
+		public HashSet<String> getSelected(Facet facet) {
+			return selected.get(facet);
+		}
+
+		/**
+		 * Sets the range of years. Either end can be left open.
+		 * @param fromYear The earliest year, or Integer.MIN_VALUE.
+		 * @param toYear The latest year, or Integer.MAX_VALUE.
+		 */
+		public void setYears(int fromYear, int toYear) {
+			this.fromYear = fromYear;
+			this.toYear = Math.max(fromYear, toYear);
+		}
+
+		/**
+		 * Gets the earliest year selected.
+		 * @return The earliest year, or Integer.MIN_VALUE.
+		 */
+		public int getFromYear() {
+			return fromYear;
+		}
+
+		/**
+		 * Gets the latest year selected.
+		 * @return The latest year, or Integer.MAX_VALUE.
+		 */
+		public int getToYear() {
+			return toYear;
+		}
+
+		/**
+		 * Checks if a range of years has been selected.
+		 * @return True if either end of the range is set.
+		 */
+		public boolean hasYears() {
+			return fromYear != Integer.MIN_VALUE || toYear != Integer.MAX_VALUE;
+		}
+	}
+}
@@ -1,16 +1,20 @@
 package data;
 
-import java.io.BufferedReader;
-import java.io.BufferedWriter;
+import java.io.ByteArrayInputStream;
 import java.io.File;
 import java.io.FileNotFoundException;
 import java.io.FileWriter;
-import java.io.FileReader;
 import java.io.IOException;
-import java.io.PrintWriter;
+import java.io.InputStream;
+import java.nio.ByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.file.Paths;
+import java.nio.file.StandardOpenOption;
 import java.util.ArrayList;
+import java.util.Collections;
 import java.util.LinkedHashMap;
-import java.util.Scanner;
+import java.util.Map;
+import java.util.concurrent.ForkJoinTask;
 
 /**
  * The FileReader class holds all file reading related methods. 
@@ -19,6 +23,32 @@ import java.util.Scanner;
 public class FileHandling {
 	/** File location of the data files. */
 	private final static String DATA_FILE_PATH = "DataFiles/";
+	/** The resource types, used to read them from the data files. */
+	private final static ResourceType[] RESOURCE_TYPES = ResourceType.values();
+	/** The loan durations, used to read them from the data files. */
+	private final static LoanDuration[] LOAN_DURATIONS = LoanDuration.values();
+	/** Whether copies and loans are stored in fixed width files 
+	 * (Copy.dat and Loan.dat), set with -Dtawelib.fixedWidth=true. */
+	private final static boolean FIXED_WIDTH = 
+			Boolean.getBoolean("tawelib.fixedWidth");
+	/** The length of a date (YYYY-MM-DD) in a fixed width loan. */
+	private final static int DATE_BYTES = 10;
+	/** The length of a time (HH:MM:SS) in a fixed width loan. */
+	private final static int TIME_BYTES = 8;
+	
+	/** The size (in bytes) of each chunk when a large data file is read
+	 * in parallel. Files smaller than two chunks are read in one go. */
+	private final static long CHUNK_SIZE = 4 * 1024 * 1024;
+	
+	/** The data files that have a journal. */
+	private final static String[] JOURNALED_FILE_NAMES = {"User.txt", 
+			"Librarian.txt", "Book.txt", "DVD.txt", "Laptop.txt", "Copy.txt", 
+			"Request.txt", "Loan.txt", "Transaction.txt"};
+	
+	/** The fixed width file holding the copies. */
+	private static FixedWidthFile<Copy> copyFile;
+	/** The fixed width file holding the loans. */
+	private static FixedWidthFile<Loan> loanFile;
 	
 	/**
 	 * Saves the username of the currently logged in user to a text file.
@@ -42,20 +72,14 @@ public class FileHandling {
 	 * @return The current user's username.
 	 */
 	public static String getCurrentUser() {
-		String currentUser = "";
 		String filePath = DATA_FILE_PATH + "CurrentUser.txt";
-		File inputFile = new File(filePath);
-		Scanner in = null;
+		RecordReader in = openRecordReader(filePath);
 		
-		try {
-			// Opens the file for reading
-			in = new Scanner(inputFile);
-		// Catch an exception if the file does not exist and exit the program.
-		} catch (FileNotFoundException e) {
-			System.out.println("Cannot open " + filePath);
-			System.exit(-1);
+		String currentUser = "";
+		if (in.hasNextRecord()) {
+			currentUser = in.nextString();
 		}
-		currentUser = in.next();
+		in.close();
 		return currentUser;
 	}
 	
@@ -65,130 +89,102 @@ public class FileHandling {
 	 * @return LinkedHashMap of all users in the system.
 	 */
 	public static LinkedHashMap<String, User> getUsers() {
-		String filePath = DATA_FILE_PATH + "User.txt";
-		File inputFile = new File(filePath);
-		Scanner in = null;
-		
-		try {
-			// Opens the file for reading
-			in = new Scanner(inputFile);
-		// Catch an exception if the file does not exist and exit the program.
-		} catch (FileNotFoundException e) {
-			System.out.println("Cannot open " + filePath);
-			System.exit(-1);
-		}
-		
-		in.useDelimiter(",");
 		// Read each user and store them in a linked hashmap.
 		// The key is the username.
 		LinkedHashMap<String, User> users = new LinkedHashMap<>();
-		while (in.hasNextLine()) {
-			String username = in.next();
-			String firstName = in.next();
-			String surname = in.next();
-			String mobileNumber = in.next();
-			String address1 = in.next();
-			String address2 = in.next();
-			String city = in.next();
-			String postcode = in.next();
-			String profilePicture = in.next();
-			double fine = in.nextDouble();
-			User user = new User(username, firstName, surname, mobileNumber,
-					address1, address2, city, postcode, profilePicture, fine); 
-			users.put(username, user);
-			in.nextLine(); // Needed if you change delimiter.
+		for (User user : readRecords("User.txt", FileHandling::readUser)) {
+			users.put(user.getUsername(), user);
 		}
-		in.close();
 		return users;
 	}
 	
+	/**
+	 * Reads a user from a data file.
+	 * @param in The reader positioned at the user's record.
+	 * @return The user.
+	 */
+	private static User readUser(RecordReader in) {
+		String username = in.nextString();
+		String firstName = in.nextString();
+		String surname = in.nextString();
+		String mobileNumber = in.nextString();
+		String address1 = in.nextString();
+		String address2 = in.nextString();
+		String city = in.nextString();
+		String postcode = in.nextString();
+		String profilePicture = in.nextString();
+		double fine = in.nextDouble();
+		return new User(username, firstName, surname, mobileNumber,
+				address1, address2, city, postcode, profilePicture, fine); 
+	}
+	
 	/**
 	 * Fetches all the current librarians in the system and stores
 	 * them in a Linked Hashmap.
 	 * @return LinkedHashmap of all librarians in the system.
 	 */
 	public static LinkedHashMap<String, Librarian> getLibrarians() {
-		String filePath = DATA_FILE_PATH + "Librarian.txt";
-		File inputFile = new File(filePath);
-		Scanner in = null;
-		
-		try {
-			// Opens the file for reading.
-			in = new Scanner(inputFile);	
-		// Catch an exception if the file does not exist and exit the program.
-		} catch (FileNotFoundException e) {
-			System.out.println("Cannot open " + filePath);
-			System.exit(-1);
-		}
-		
-		in.useDelimiter(",");
 		// Read each librarian and store them in a linked hashmap.
 		LinkedHashMap<String, Librarian> librarians = new LinkedHashMap<>();
-		while (in.hasNextLine()) {
-			String username = in.next();
-			String firstName = in.next();
-			String surname = in.next();
-			String mobileNumber = in.next();
-			String address1 = in.next();
-			String address2 = in.next();
-			String city = in.next();
-			String postcode = in.next();
-			String profilePicture = in.next();
-			double fine = in.nextDouble();
-			int staffID = in.nextInt();
-			String employmentDate = in.next();
-			Librarian librarian = new Librarian(username, firstName, surname, 
-					mobileNumber, address1, address2, city, postcode, 
-					profilePicture, fine, staffID, employmentDate); 
-			librarians.put(username, librarian);
-			in.nextLine(); // Needed if you change delimiter.
+		for (Librarian librarian : readRecords("Librarian.txt", 
+				FileHandling::readLibrarian)) {
+			librarians.put(librarian.getUsername(), librarian);
 		}
-		in.close();
 		return librarians;
 	}
 	
+	/**
+	 * Reads a librarian from a data file.
+	 * @param in The reader positioned at the librarian's record.
+	 * @return The librarian.
+	 */
+	private static Librarian readLibrarian(RecordReader in) {
+		String username = in.nextString();
+		String firstName = in.nextString();
+		String surname = in.nextString();
+		String mobileNumber = in.nextString();
+		String address1 = in.nextString();
+		String address2 = in.nextString();
+		String city = in.nextString();
+		String postcode = in.nextString();
+		String profilePicture = in.nextString();
+		double fine = in.nextDouble();
+		int staffID = in.nextInt();
+		String employmentDate = in.nextString();
+		return new Librarian(username, firstName, surname, 
+				mobileNumber, address1, address2, city, postcode, 
+				profilePicture, fine, staffID, employmentDate); 
+	}
+	
 	/**
 	 * Fetches all the books in the system and stores
 	 * them in an ArrayList.
 	 * @return ArrayList of all books in the system.
 	 */
 	public static ArrayList<Book> getBooks() {
-		String filePath = DATA_FILE_PATH + "Book.txt";
-		File inputFile = new File(filePath);
-		Scanner in = null;
+		return readRecords("Book.txt", FileHandling::readBook);
+	}
+	
+	/**
+	 * Reads a book from a data file.
+	 * @param in The reader positioned at the book's record.
+	 * @return The book.
+	 */
+	private static Book readBook(RecordReader in) {
+		int resourceID = in.nextInt();
+		String resourceTitle = in.nextString();
+		int year = in.nextInt();
+		String thumbnail = in.nextString();
+		int numberOfCopies = in.nextInt();
 		
-		try {
-			// Opens the file for reading.
-			in = new Scanner(inputFile);	
-		// Catch an exception if the file does not exist and exit the program.
-		} catch (FileNotFoundException e) {
-			System.out.println("Cannot open " + filePath);
-			System.exit(-1);
-		}
+		String author = in.nextString();
+		String publisher = in.nextString();
+		String genre = in.nextString();
+		String ISBN = in.nextString();
+		String language = in.nextString();
 		
-		in.useDelimiter(",");
-		// Read each book and store them in an ArrayList.
-		ArrayList<Book> books = new ArrayList<>();
-		while (in.hasNextLine()) {
-			int resourceID = in.nextInt();
-			String resourceTitle = in.next();
-			int year = in.nextInt();
-			String thumbnail = in.next();
-			int numberOfCopies = in.nextInt();
-			
-			String author = in.next();
-			String publisher = in.next();
-			String genre = in.next();
-			String ISBN = in.next();
-			String language = in.next();
-			
-			Book book = new Book(resourceID, resourceTitle, year, thumbnail,
-					numberOfCopies, author, publisher, genre, ISBN, language); 
-			books.add(book);
-			in.nextLine(); // Needed if you change delimiter.
-		}
-		in.close();
-		return books;
+		return new Book(resourceID, resourceTitle, year, thumbnail,
+				numberOfCopies, author, publisher, genre, ISBN, language); 
 	}
 	
 	/**
@@ -197,87 +193,30 @@ public class FileHandling {
 	 * @return ArrayList of all DVDs in the system.
 	 */
 	public static ArrayList<DVD> getDVDs() {
-		String filePath = DATA_FILE_PATH + "DVD.txt";
-		File inputFile = new File(filePath);
-		Scanner in = null;
-		
-		try {
-			// Opens the file for reading.
-			in = new Scanner(inputFile);	
-		// Catch an exception if the file does not exist and exit the program.
-		} catch (FileNotFoundException e) {
-			System.out.println("Cannot open " + filePath);
-			System.exit(-1);
-		}
-		
-		in.useDelimiter(",");
-		// Read each DVD and store them in an ArrayList.
-		ArrayList<DVD> dvds = new ArrayList<>();
-		while (in.hasNextLine()) {
-			int resourceID = in.nextInt();
-			String resourceTitle = in.next();
-			int year = in.nextInt();
-			String thumbnail = in.next();
-			int numberOfCopies = in.nextInt();
-			
-			String director = in.next();
-			double runtime= in.nextDouble();
-			String language = in.next();
-			String[] subLang = {};
-			
-			// Checks if the DVD has any subtitle language options.
-			if (in.hasNext()) {
-				String langSet = in.next();
-				subLang = addLanguages(langSet); 
-			}
-				
-			DVD dvd = new DVD(resourceID, resourceTitle, year, thumbnail,
-					numberOfCopies, director, runtime, language, subLang); 
-			dvds.add(dvd);
-			in.nextLine(); // Needed if you change delimiter.
-		}
-		in.close();
-		return dvds;
+		return readRecords("DVD.txt", FileHandling::readDVD);
 	}
 	
 	/**
-	 * Method to read in the individual subtitle language options that
-	 * the DVD provides.
-	 * @param langSet The string that holds the languages.
-	 * @return String array of subtitle languages.
+	 * Reads a DVD from a data file.
+	 * @param in The reader positioned at the DVD's record.
+	 * @return The DVD.
 	 */
-	private static String[] addLanguages(String langSet) {
-		// Scanner to read individual languages.
-		Scanner readLang = new Scanner(langSet);
-		int numOfLanguages = 0;
-		
-		// Delimiter change to read individual languages.
-		readLang.useDelimiter(";");
+	private static DVD readDVD(RecordReader in) {
+		int resourceID = in.nextInt();
+		String resourceTitle = in.nextString();
+		int year = in.nextInt();
+		String thumbnail = in.nextString();
+		int numberOfCopies = in.nextInt();
 		
-		// Reads through each language to check how many there are.
-		while (readLang.hasNext()) {
-			numOfLanguages++;
-			readLang.next();
-		}
-		
-		// Closes the file stream after reading all the languages.
-		readLang.close();
-		
-		String[] subLang = new String[numOfLanguages];
-		
-		// readLang is redeclared so that its contents can be inserted 
-		// into the array. (.next() was used on it earlier).
-		readLang = new Scanner(langSet);
-		readLang.useDelimiter(";");
-		
-		// Insert the languages into the array.
-		for (int i = 0; i < numOfLanguages; i++) {
-			String language = readLang.next();
-			subLang[i] = language;
-		}
-		
-		readLang.close();
-		return subLang;   
+		String director = in.nextString();
+		double runtime= in.nextDouble();
+		String language = in.nextString();
+		// The subtitle languages are stored as 'lang;lang;lang'.
+		// It's empty if the DVD doesn't have any subtitles.
+		String[] subLang = in.nextStringList(';');
+			
+		return new DVD(resourceID, resourceTitle, year, thumbnail,
+				numberOfCopies, director, runtime, language, subLang); 
 	}
 	
 	/**
@@ -286,40 +225,27 @@ public class FileHandling {
 	 * @return ArrayList of all laptops in the system.
 	 */
 	public static ArrayList<Laptop> getLaptops() {
-		String filePath = DATA_FILE_PATH + "Laptop.txt";
-		File inputFile = new File(filePath);
-		Scanner in = null;
+		return readRecords("Laptop.txt", FileHandling::readLaptop);
+	}
+	
+	/**
+	 * Reads a laptop from a data file.
+	 * @param in The reader positioned at the laptop's record.
+	 * @return The laptop.
+	 */
+	private static Laptop readLaptop(RecordReader in) {
+		int resourceID = in.nextInt();
+		String resourceTitle = in.nextString();
+		int year = in.nextInt();
+		String thumbnail = in.nextString();
+		int numberOfCopies = in.nextInt();
 		
-		try {
-			// Opens the file for reading.
-			in = new Scanner(inputFile);	
-		// Catch an exception if the file does not exist and exit the program.
-		} catch (FileNotFoundException e) {
-			System.out.println("Cannot open " + filePath);
-			System.exit(-1);
-		}
+		String manufacturer = in.nextString();
+		String model = in.nextString();
+		String operatingSystem = in.nextString();
 		
-		in.useDelimiter(",");
-		// Read each laptop and store them in an ArrayList.
-		ArrayList<Laptop> laptops = new ArrayList<>();
-		while (in.hasNextLine()) {
-			int resourceID = in.nextInt();
-			String resourceTitle = in.next();
-			int year = in.nextInt();
-			String thumbnail = in.next();
-			int numberOfCopies = in.nextInt();
-			
-			String manufacturer = in.next();
-			String model = in.next();
-			String operatingSystem = in.next();
-			
-			Laptop laptop = new Laptop(resourceID, resourceTitle, year, thumbnail,
-					numberOfCopies, manufacturer, model, operatingSystem); 
-			laptops.add(laptop);
-			in.nextLine(); // Needed if you change delimiter.
-		}
-		in.close();
-		return laptops;
+		return new Laptop(resourceID, resourceTitle, year, thumbnail,
+				numberOfCopies, manufacturer, model, operatingSystem); 
 	}
 	
 	/**
@@ -328,64 +254,25 @@ public class FileHandling {
 	 * @return ArrayList of all copies in the system.
 	 */
 	public static ArrayList<Copy> getCopies() {
-		String filePath = DATA_FILE_PATH + "Copy.txt";
-		File inputFile = new File(filePath);
-		Scanner in = null;
-		
-		try {
-			// Opens the file for reading.
-			in = new Scanner(inputFile);	
-		// Catch an exception if the file does not exist and exit the program.
-		} catch (FileNotFoundException e) {
-			System.out.println("Cannot open " + filePath);
-			System.exit(-1);
+		if (FIXED_WIDTH) {
+			return readFixedWidth(getCopyFile());
 		}
-		
-		in.useDelimiter(",");
-		// Read each copy and store them in an ArrayList.
-		ArrayList<Copy> copies = new ArrayList<>();
-		while (in.hasNextLine()) {
-			int copyID = in.nextInt();
-			int resourceID = in.nextInt();
-			boolean isAvailable = in.nextBoolean();
-			String strType = in.next();
-			String strLoanDuration = in.next();
-			
-			ResourceType resourceType = null;
-			switch (strType) {
-				case "BOOK":
-					resourceType = ResourceType.BOOK;
-					break;
-				case "DVD":
-					resourceType = ResourceType.DVD;
-					break;
-				case "LAPTOP":
-					resourceType = ResourceType.LAPTOP;
-					break;
-			}
-			
-			LoanDuration duration = null;
-			switch (strLoanDuration) {
-				case "DAY":
-					duration = LoanDuration.DAY;
-					break;
-				case "WEEK":
-					duration = LoanDuration.WEEK;
-					break;
-				case "TWO_WEEK":
-					duration = LoanDuration.TWO_WEEK;
-					break;
-				case "FOUR_WEEK":
-					duration = LoanDuration.FOUR_WEEK;
-					break;
-			}
-		
-			Copy copy = new Copy(copyID, resourceID, isAvailable, resourceType, duration); 
-			copies.add(copy);
-			in.nextLine(); // Needed if you change delimiter.
-		}
-		in.close();
-		return copies;
+		warnIfFixedWidthNewer("Copy.dat", "Copy.txt");
+		return readRecords("Copy.txt", FileHandling::readCopy);
+	}
+	
+	/**
+	 * Reads a copy from a data file.
+	 * @param in The reader positioned at the copy's record.
+	 * @return The copy.
+	 */
+	private static Copy readCopy(RecordReader in) {
+		int copyID = in.nextInt();
+		int resourceID = in.nextInt();
+		boolean isAvailable = in.nextBoolean();
+		ResourceType resourceType = in.nextEnum(RESOURCE_TYPES);
+		LoanDuration duration = in.nextEnum(LOAN_DURATIONS);
+		return new Copy(copyID, resourceID, isAvailable, resourceType, duration); 
 	}
 	
 	/**
@@ -393,404 +280,359 @@ public class FileHandling {
 	 * @return An ArrayList of all the requests.
 	 */
 	public static ArrayList<Request> getRequests() {
-		String filePath = DATA_FILE_PATH + "Request.txt";
-		File inputFile = new File(filePath);
-		Scanner in = null;
+		return readRecords("Request.txt", FileHandling::readRequest);
+	}
+	
+	/**
+	 * Reads a request from a data file.
+	 * @param in The reader positioned at the request's record.
+	 * @return The request.
+	 */
+	private static Request readRequest(RecordReader in) {
+		int requestID = in.nextInt();
+		int copyID = in.nextInt();
+		int resourceID = in.nextInt();
+		String username = in.nextString();
+		String requestDate = in.nextString();
+		boolean requestFilled = in.nextBoolean();
+		boolean reserved = in.nextBoolean();
 		
-		try {
-			// Opens the file for reading.
-			in = new Scanner(inputFile);	
-		// Catch an exception if the file does not exist and exit the program.
-		} catch (FileNotFoundException e) {
-			System.out.println("Cannot open " + filePath);
-			System.exit(-1);
+		return new Request(requestID, copyID, resourceID, 
+				username, requestDate, requestFilled, reserved);
+	}
+	
+	/**
+	 * Fetches all the loans in the system and stores them in an ArrayList.
+	 * @return An ArrayList of all the loans.
+	 */
+	public static ArrayList<Loan> getLoans() {
+		if (FIXED_WIDTH) {
+			return readFixedWidth(getLoanFile());
 		}
+		warnIfFixedWidthNewer("Loan.dat", "Loan.txt");
+		return readRecords("Loan.txt", FileHandling::readLoan);
+	}
+	
+	/**
+	 * Reads a loan from a data file.
+	 * @param in The reader positioned at the loan's record.
+	 * @return The loan.
+	 */
+	private static Loan readLoan(RecordReader in) {
+		int loanID = in.nextInt();
+		int copyID = in.nextInt();
+		int resourceID = in.nextInt();
+		String username = in.nextString();
+		int staffID = in.nextInt();
+		String checkoutDate = in.nextString();
+		String checkoutTime = in.nextString();
+		String dueDate = in.nextString();
+		
+		boolean returned = in.nextBoolean();
+		String returnDate = in.nextString();
+		String returnTime = in.nextString();
+		int daysOverdue = in.nextInt();
+		ResourceType resourceType = in.nextEnum(RESOURCE_TYPES);
+		
+		return new Loan(loanID, copyID, resourceID, username,
+				staffID, checkoutDate, checkoutTime, dueDate, returned, 
+				returnDate, returnTime, daysOverdue, resourceType);
+	}
+	
+	/**
+	 * Fetches all the transactions in the system and stores 
+	 * them in an ArrayList.
+	 * @return An ArrayList of all the transaction.
+	 */
+	public static ArrayList<Transaction> getTransactions() {
+		return readRecords("Transaction.txt", FileHandling::readTransaction);
+	}
+	
+	/**
+	 * Reads a transaction from a data file.
+	 * @param in The reader positioned at the transaction's record.
+	 * @return The transaction.
+	 */
+	private static Transaction readTransaction(RecordReader in) {
+		int transactionID = in.nextInt();
+		int resourceID = in.nextInt();
+		String username = in.nextString();
+		double amount = in.nextDouble();
+		
+		int daysOverdue = in.nextInt();
+		String date = in.nextString();
+		String time = in.nextString();
+		ResourceType resourceType = in.nextEnum(RESOURCE_TYPES);
+		boolean isFine = in.nextBoolean();
+		
+		return new Transaction(transactionID, resourceID, username, amount, 
+				daysOverdue, date, time, resourceType, isFine);
+	}
+	
+	/**
+	 * Reads a single record from a data file.
+	 * @param <T> The type of record.
+	 */
+	private interface RecordParser<T> {
+		/**
+		 * Reads the fields of the current record.
+		 * @param in The reader positioned at the record.
+		 * @return The record.
+		 */
+		T parse(RecordReader in);
+	}
+	
+	/**
+	 * Reads all the records of a data file, using the latest version 
+	 * of any records in the data file's journal. Large data files are 
+	 * split into chunks that are read at the same time.
+	 * @param <T> The type of record.
+	 * @param fileName The name of the data file.
+	 * @param parser Reads each record.
+	 * @return An ArrayList of all the records.
+	 */
+	private static <T> ArrayList<T> readRecords(String fileName, 
+			RecordParser<T> parser) {
+		String filePath = DATA_FILE_PATH + fileName;
+		LinkedHashMap<String, String> changes = 
+				Journal.forFile(filePath).getChanges();
 		
-		in.useDelimiter(",");
-		// Read each request and store them in an ArrayList.
-		ArrayList<Request> requests = new ArrayList<>();
-		while (in.hasNextLine()) {
-			int requestID = in.nextInt();
-			int copyID = in.nextInt();
-			int resourceID = in.nextInt();
-			String username = in.next();
-			String requestDate = in.next();
-			boolean requestFilled = in.nextBoolean();
-			boolean reserved = in.nextBoolean();
+		ArrayList<T> records;
+		if (new File(filePath).length() < 2 * CHUNK_SIZE) {
+			records = readChunk(openRecordReader(filePath), changes, 
+					filePath, parser);
+		} else {
+			records = readChunks(filePath, changes, parser);
+		}
+		
+		// Anything left in the journal is a new record.
+		for (String record : changes.values()) {
+			records.add(parseRecord(record, filePath, parser));
+		}
+		return records;
+	}
+	
+	/**
+	 * Reads the records from a reader, using the latest version of any
+	 * records in the journal. The journal records that are used are
+	 * removed from the changes.
+	 * @param <T> The type of record.
+	 * @param in The reader (closed once all the records are read).
+	 * @param changes The records in the journal, using their ID as the key.
+	 * @param filePath The path of the data file.
+	 * @param parser Reads each record.
+	 * @return An ArrayList of the records.
+	 */
+	private static <T> ArrayList<T> readChunk(RecordReader in, 
+			Map<String, String> changes, String filePath, 
+			RecordParser<T> parser) {
+		ArrayList<T> records = new ArrayList<>();
+		while (in.hasNextRecord()) {
+			// Records changed in the journal are read from there instead.
+			String changed = null;
+			if (!changes.isEmpty()) {
+				changed = changes.remove(in.getRecordKey());
+			}
 			
-			Request request = new Request(requestID, copyID, resourceID, 
-					username, requestDate, requestFilled, reserved);
-			requests.add(request);
-			in.nextLine(); // Needed if you change delimiter.
+			if (changed == null) {
+				records.add(parser.parse(in));
+			} else {
+				records.add(parseRecord(changed, filePath, parser));
+			}
 		}
 		in.close();
-		return requests;
+		return records;
 	}
 	
 	/**
-	 * Fetches all the loans in the system and stores them in an ArrayList.
-	 * @return An ArrayList of all the loans.
+	 * Reads a large data file by splitting it into chunks (each ending 
+	 * at the end of a line) and reading them at the same time on the 
+	 * fork join pool. The records are kept in the order of the file.
+	 * @param <T> The type of record.
+	 * @param filePath The path of the data file.
+	 * @param changes The records in the journal, using their ID as the key.
+	 * @param parser Reads each record.
+	 * @return An ArrayList of all the records in the data file.
 	 */
-	public static ArrayList<Loan> getLoans() {
-		String filePath = DATA_FILE_PATH + "Loan.txt";
-		File inputFile = new File(filePath);
-		Scanner in = null;
+	private static <T> ArrayList<T> readChunks(String filePath, 
+			LinkedHashMap<String, String> changes, RecordParser<T> parser) {
+		ArrayList<T> records = new ArrayList<>();
+		// The chunks share the journal records, so they are locked.
+		Map<String, String> sharedChanges = 
+				Collections.synchronizedMap(changes);
 		
-		try {
-			// Opens the file for reading.
-			in = new Scanner(inputFile);	
-		// Catch an exception if the file does not exist and exit the program.
-		} catch (FileNotFoundException e) {
-			System.out.println("Cannot open " + filePath);
+		try (FileChannel channel = FileChannel.open(Paths.get(filePath), 
+				StandardOpenOption.READ)) {
+			ArrayList<Long> bounds = getChunkBounds(channel);
+			ArrayList<ForkJoinTask<ArrayList<T>>> tasks = new ArrayList<>();
+			for (int i = 0; i + 1 < bounds.size(); i++) {
+				RecordReader in = new RecordReader(new ChunkInputStream(
+						channel, bounds.get(i), bounds.get(i + 1)), filePath);
+				tasks.add(ForkJoinTask.adapt(() -> 
+						readChunk(in, sharedChanges, filePath, parser)));
+			}
+			
+			ForkJoinTask.invokeAll(tasks);
+			for (ForkJoinTask<ArrayList<T>> task : tasks) {
+				records.addAll(task.join());
+			}
+		} catch (IOException e) {
+			System.out.println("Cannot read " + filePath);
 			System.exit(-1);
 		}
+		return records;
+	}
+	
+	/**
+	 * Finds where each chunk of a data file starts. Each chunk is about 
+	 * CHUNK_SIZE bytes, moved on to just after the end of a line.
+	 * @param channel The open data file.
+	 * @return The start of each chunk, followed by the end of the file.
+	 * @throws IOException If the file can't be read.
+	 */
+	private static ArrayList<Long> getChunkBounds(FileChannel channel) 
+			throws IOException {
+		long size = channel.size();
+		ArrayList<Long> bounds = new ArrayList<>();
+		bounds.add(0L);
 		
-		in.useDelimiter(",");
-		// Read each loan and store them in an ArrayList.
-		ArrayList<Loan> loans = new ArrayList<>();
-		while (in.hasNextLine()) {
-			int loanID = in.nextInt();
-			int copyID = in.nextInt();
-			int resourceID = in.nextInt();
-			String username = in.next();
-			int staffID = in.nextInt();
-			String checkoutDate = in.next();
-			String checkoutTime = in.next();
-			String dueDate = in.next();
-			
-			boolean returned = in.nextBoolean();
-			String returnDate = in.next();
-			String returnTime = in.next();
-			int daysOverdue = in.nextInt();
-			String strType = in.next();
-			
-			ResourceType resourceType = null;
-			switch (strType) {
-				case "BOOK":
-					resourceType = ResourceType.BOOK;
-					break;
-				case "DVD":
-					resourceType = ResourceType.DVD;
-					break;
-				case "LAPTOP":
-					resourceType = ResourceType.LAPTOP;
+		ByteBuffer buffer = ByteBuffer.allocate(4096);
+		long position = CHUNK_SIZE;
+		while (position < size) {
+			// Look for the end of the line the chunk would end in.
+			long lineEnd = -1;
+			while (lineEnd < 0 && position < size) {
+				buffer.clear();
+				int read = channel.read(buffer, position);
+				if (read <= 0) {
 					break;
+				}
+				for (int i = 0; i < read; i++) {
+					if (buffer.get(i) == '\n') {
+						lineEnd = position + i;
+						break;
+					}
+				}
+				if (lineEnd < 0) {
+					position += read;
+				}
 			}
-			
-			Loan loan = new Loan(loanID, copyID, resourceID, username,
-					staffID, checkoutDate, checkoutTime, dueDate, returned, 
-					returnDate, returnTime, daysOverdue, resourceType);
-			loans.add(loan);
-			in.nextLine(); // Needed if you change delimiter.
+			if (lineEnd < 0 || lineEnd + 1 >= size) {
+				break;
+			}
+			bounds.add(lineEnd + 1);
+			position = lineEnd + 1 + CHUNK_SIZE;
 		}
+		bounds.add(size);
+		return bounds;
+	}
+	
+	/**
+	 * Reads a record taken from a journal.
+	 * @param <T> The type of record.
+	 * @param record The details of the record.
+	 * @param filePath The path of the data file.
+	 * @param parser Reads the record.
+	 * @return The record.
+	 */
+	private static <T> T parseRecord(String record, String filePath, 
+			RecordParser<T> parser) {
+		RecordReader in = new RecordReader(
+				new ByteArrayInputStream(record.getBytes()), filePath);
+		in.hasNextRecord();
+		T parsed = parser.parse(in);
 		in.close();
-		return loans;
+		return parsed;
 	}
 	
 	/**
-	 * Fetches all the transactions in the system and stores 
-	 * them in an ArrayList.
-	 * @return An ArrayList of all the transaction.
+	 * Opens a data file so its records can be read.
+	 * @param filePath The path of the data file.
+	 * @return The reader for the data file.
 	 */
-	public static ArrayList<Transaction> getTransactions() {
-		String filePath = DATA_FILE_PATH + "Transaction.txt";
-		File inputFile = new File(filePath);
-		Scanner in = null;
-		
+	private static RecordReader openRecordReader(String filePath) {
+		RecordReader in = null;
 		try {
 			// Opens the file for reading.
-			in = new Scanner(inputFile);	
+			in = new RecordReader(filePath);
 		// Catch an exception if the file does not exist and exit the program.
 		} catch (FileNotFoundException e) {
 			System.out.println("Cannot open " + filePath);
 			System.exit(-1);
 		}
-		
-		in.useDelimiter(",");
-		// Read each transaction and store them in an ArrayList.
-		ArrayList<Transaction> transactions = new ArrayList<>();
-		while (in.hasNextLine()) {
-			int transactionID = in.nextInt();
-			int resourceID = in.nextInt();
-			String username = in.next();
-			double amount = in.nextDouble();
-			
-			int daysOverdue = in.nextInt();
-			String date = in.next();
-			String time = in.next();
-			String strType = in.next();
-			boolean isFine = in.nextBoolean();
-			
-			ResourceType resourceType = null;
-			switch (strType) {
-				case "BOOK":
-					resourceType = ResourceType.BOOK;
-					break;
-				case "DVD":
-					resourceType = ResourceType.DVD;
-					break;
-				case "LAPTOP":
-					resourceType = ResourceType.LAPTOP;
-					break;
-			}
-			
-			Transaction transaction = new Transaction(transactionID, 
-					resourceID, username, amount, daysOverdue, date, time, 
-					resourceType, isFine);
-			transactions.add(transaction);
-			in.nextLine(); // Needed if you change delimiter.
-		}
-		in.close();
-		return transactions;
+		return in;
 	}
 	
 	/**
 	 * Edits an existing profile's details. 
-	 * @param oldProfile The string holding details of the old profile.
 	 * @param newProfile The string holding details of the new profile.
 	 * @param userType Integer showing whether the user is staff or a member.
 	 */
-	public static void editProfile(String oldProfile, String newProfile, 
-			int userType) {
-		// Edits are made by replacing the details of the previous 
-		// profile with the new one.
-		String filePath = "";
-		
+	public static void editProfile(String newProfile, int userType) {
+		// Edits are added to the journal, which replaces the old profile 
+		// with the same username when the file is read.
 		switch (userType) {
 			case 1:
-				filePath = DATA_FILE_PATH + "Librarian.txt";
+				saveRecord("Librarian.txt", newProfile);
 				break;
 			case 2:
-				filePath = DATA_FILE_PATH + "User.txt";
+				saveRecord("User.txt", newProfile);
 				break;
 		}
-		
-		File inputFile = new File(filePath);
-		BufferedReader reader = null;
-		FileWriter writer = null;
-		String oldContent = "";
-		
-		try {
-			reader = new BufferedReader(new FileReader(inputFile));
-		// Catch an exception if the file does not exist and exit the program.
-		} catch (FileNotFoundException e) {
-			System.out.println("Cannot open " + filePath);
-			System.exit(-1);
-		}
-		
-		try {
-			// Uses buffer to write old file contents to a string.
-			String line = reader.readLine();
-			while (line != null) {
-				oldContent = oldContent + line + System.lineSeparator();
-				line = reader.readLine();
-			}
-			// Replace old profile with the new one within the textfile.
-			String newContent = oldContent.replace(oldProfile, newProfile);
-			
-			writer = new FileWriter(filePath);
-			writer.write(newContent);
-			reader.close();
-			writer.flush();
-			writer.close();
-		} catch (IOException e) {
-			// Catches an IO exception when the file can't 
-			// be written.
-			e.printStackTrace();
-			System.exit(-1);
-		}
 	}
 	
 	/**
 	 * Edits an existing resource's details.
-	 * @param oldResource The string description of the old resource.
 	 * @param newResource The string description of the edits made to the resource.
 	 * @param resourceType The type of resource edited.
 	 */
-	public static void editResource(String oldResource, String newResource, 
-			String resourceType) {
-		// Edits are made by replacing the details of the previous 
-		// resource with the new one.
-		String filePath = "";
-		
+	public static void editResource(String newResource, String resourceType) {
+		// Edits are added to the journal, which replaces the old 
+		// resource with the same ID when the file is read.
 		switch (resourceType) {
 			case "Book":
-				filePath = DATA_FILE_PATH + "Book.txt";
+				saveRecord("Book.txt", newResource);
 				break;
 			case "DVD":
-				filePath = DATA_FILE_PATH + "DVD.txt";
+				saveRecord("DVD.txt", newResource);
 				break;
 			case "Laptop":
-				filePath = DATA_FILE_PATH + "Laptop.txt";
+				saveRecord("Laptop.txt", newResource);
 				break;
 		}
 		
-		File inputFile = new File(filePath);
-		BufferedReader reader = null;
-		FileWriter writer = null;
-		String oldContent = "";
-		
-		try {
-			reader = new BufferedReader(new FileReader(inputFile));
-		// Catch an exception if the file does not exist and exit the program.
-		} catch (FileNotFoundException e) {
-			System.out.println("Cannot open " + filePath);
-			System.exit(-1);
-		}
-		
-		try {
-			// Uses buffer to write old file contents to a string.
-			String line = reader.readLine();
-			while (line != null) {
-				oldContent = oldContent + line + System.lineSeparator();
-				line = reader.readLine();
-			}
-			// Replace old resource with the new one within the textfile.
-			String newContent = oldContent.replace(oldResource, newResource);
-			writer = new FileWriter(filePath);
-			writer.write(newContent);
-			reader.close();
-			writer.flush();
-			writer.close();
-		} catch (IOException e) {
-			// Catches an IO exception when the file can't 
-			// be written.
-			e.printStackTrace();
-			System.exit(-1);
-		}
-		
 		Alerts.savedResourceChanges();
 	}
 	
 	/**
 	 * Edits an existing copy's details.
-	 * @param oldCopy The string details of the old copy.
-	 * @param newCopy The string details of the edited copy.
-	 */
-	public static void editCopy(String oldCopy, String newCopy) {
-		// Edits are made by replacing the details of the previous 
-		// copy with the new one.
-		String filePath = DATA_FILE_PATH + "Copy.txt";
-		File inputFile = new File(filePath);
-		BufferedReader reader = null;
-		FileWriter writer = null;
-		String oldContent = "";
-		
-		try {
-			reader = new BufferedReader(new FileReader(inputFile));
-		// Catch an exception if the file does not exist and exit the program.
-		} catch (FileNotFoundException e) {
-			System.out.println("Cannot open " + filePath);
-			System.exit(-1);
-		}
-		
-		try {
-			// Uses buffer to write old file contents to a string.
-			String line = reader.readLine();
-			while (line != null) {
-				oldContent = oldContent + line + System.lineSeparator();
-				line = reader.readLine();
-			}
-			// Replace old copy with the new one within the textfile.
-			String newContent = oldContent.replace(oldCopy, newCopy);
-			writer = new FileWriter(filePath);
-			writer.write(newContent);
-			reader.close();
-			writer.flush();
-			writer.close();
-		} catch (IOException e) {
-			// Catches an IO exception when the file can't 
-			// be written.
-			e.printStackTrace();
-			System.exit(-1);
+	 * @param newCopy The edited copy.
+	 */
+	public static void editCopy(Copy newCopy) {
+		if (FIXED_WIDTH) {
+			writeFixedWidth(getCopyFile(), newCopy);
+		} else {
+			saveRecord("Copy.txt", newCopy.toStringDetail());
 		}
 	}
 	
 	/**
 	 * Edit an existing request's details.
-	 * @param oldRequest The string details of the old request.
 	 * @param newRequest The string details of the edited request.
 	 */
-	public static void editRequest(String oldRequest, String newRequest) {
-		// Edits are made by replacing the details of the previous 
-		// request with the new one.
-		String filePath = DATA_FILE_PATH + "Request.txt";
-		File inputFile = new File(filePath);
-		BufferedReader reader = null;
-		FileWriter writer = null;
-		String oldContent = "";
-		
-		try {
-			reader = new BufferedReader(new FileReader(inputFile));
-		// Catch an exception if the file does not exist and exit the program.
-		} catch (FileNotFoundException e) {
-			System.out.println("Cannot open " + filePath);
-			System.exit(-1);
-		}
-		
-		try {
-			// Uses buffer to write old file contents to a string.
-			String line = reader.readLine();
-			while (line != null) {
-				oldContent = oldContent + line + System.lineSeparator();
-				line = reader.readLine();
-			}
-			// Replace old request with the new one within the textfile.
-			String newContent = oldContent.replace(oldRequest, newRequest);
-			writer = new FileWriter(filePath);
-			writer.write(newContent);
-			reader.close();
-			writer.flush();
-			writer.close();
-		} catch (IOException e) {
-			// Catches an IO exception when the file can't 
-			// be written.
-			e.printStackTrace();
-			System.exit(-1);
-		}
+	public static void editRequest(String newRequest) {
+		saveRecord("Request.txt", newRequest);
 	}
 	
 	/**
 	 * Edits an existing loan's details.
-	 * @param oldLoan The string details of the old loan.
-	 * @param newLoan The string details of the edited loan.
-	 */
-	public static void editLoan(String oldLoan, String newLoan) {
-		// Edits are made by replacing the details of the previous
-		// loan with the new one.
-		String filePath = DATA_FILE_PATH + "Loan.txt";
-		File inputFile = new File(filePath);
-		BufferedReader reader = null;
-		FileWriter writer = null;
-		String oldContent = "";
-		
-		try {
-			reader = new BufferedReader(new FileReader(inputFile));
-		// Catch an exception if the file does not exist and exit the program.
-		} catch (FileNotFoundException e) {
-			System.out.println("Cannot open " + filePath);
-			System.exit(-1);
-		}
-		
-		try {
-			// Uses buffer to write old file contents to a string.
-			String line = reader.readLine();
-			while (line != null) {
-				oldContent = oldContent + line + System.lineSeparator();
-				line = reader.readLine();
-			}
-			// Replace old loan with the new one within the textfile.
-			String newContent = oldContent.replace(oldLoan, newLoan);
-			writer = new FileWriter(filePath);
-			writer.write(newContent);
-			reader.close();
-			writer.flush();
-			writer.close();
-		} catch (IOException e) {
-			// Catches an IO exception when the file can't 
-			// be written.
-			e.printStackTrace();
-			System.exit(-1);
+	 * @param newLoan The edited loan.
+	 */
+	public static void editLoan(Loan newLoan) {
+		if (FIXED_WIDTH) {
+			writeFixedWidth(getLoanFile(), newLoan);
+		} else {
+			saveRecord("Loan.txt", newLoan.toStringDetail());
 		}
 	}
 	
@@ -800,62 +642,22 @@ public class FileHandling {
 	 * @param userType Integer showing whether the user is staff or a member.
 	 */
 	public static void createUser(String newUser, int userType) {
-		String filePath = "";
 		switch (userType) {
 			case 1:
-				filePath = DATA_FILE_PATH + "Librarian.txt";
+				saveRecord("Librarian.txt", newUser);
 				break;
 			case 2:
-				filePath = DATA_FILE_PATH + "User.txt";
+				saveRecord("User.txt", newUser);
 				break;
 		}
-		
-		File file = null;
-		FileWriter fileWriter = null;
-		BufferedWriter buffWriter = null;
-		PrintWriter printWriter = null;
-		
-		try { 
-			file = new File(filePath);
-			fileWriter = new FileWriter(file, true);
-			buffWriter = new BufferedWriter(fileWriter);
-			printWriter = new PrintWriter(buffWriter);
-			
-			// Writes the user then adds a new line.
-			printWriter.print(newUser);
-			printWriter.println("");
-			printWriter.close();
-		} catch (IOException e) {
-			System.out.println("Cannot write to " + filePath);
-			System.exit(-1);
-		}
 	}
 	
 	/**
 	 * Creates a new copy.
-	 * @param newCopy The details of the new copy.
-	 */
-	public static void createCopy(String newCopy) {
-		String filePath = DATA_FILE_PATH + "Copy.txt";
-		File file = null;
-		FileWriter fileWriter = null;
-		BufferedWriter buffWriter = null;
-		PrintWriter printWriter = null;
-		
-		try { 
-			file = new File(filePath);
-			fileWriter = new FileWriter(file, true);
-			buffWriter = new BufferedWriter(fileWriter);
-			printWriter = new PrintWriter(buffWriter);
-			
-			// Writes the copy then adds a new line. 
-			printWriter.print(newCopy);
-			printWriter.println("");
-			printWriter.close();
-		} catch (IOException e) {
-			System.out.println("Cannot write to " + filePath); 
-			System.exit(-1);
-		}
+	 * @param newCopy The new copy.
+	 */
+	public static void createCopy(Copy newCopy) {
+		editCopy(newCopy);
 	}
 	
 	/**
@@ -865,36 +667,15 @@ public class FileHandling {
 	 */
 	public static void createResource(String newResource, 
 			ResourceType resourceType) {
-		String filePath = "";
 		switch (resourceType) {
 			case BOOK:
-				filePath = DATA_FILE_PATH + "Book.txt";
+				saveRecord("Book.txt", newResource);
 				break;
 			case DVD:
-				filePath = DATA_FILE_PATH + "DVD.txt";
+				saveRecord("DVD.txt", newResource);
 				break;
 			case LAPTOP:
-				filePath = DATA_FILE_PATH + "Laptop.txt";
-		}
-		
-		File file = null;
-		FileWriter fileWriter = null;
-		BufferedWriter buffWriter = null;
-		PrintWriter printWriter = null;
-		
-		try { 
-			file = new File(filePath);
-			fileWriter = new FileWriter(file, true);
-			buffWriter = new BufferedWriter(fileWriter);
-			printWriter = new PrintWriter(buffWriter);
-			
-			// Writes the resource then adds a new line.
-			printWriter.print(newResource);
-			printWriter.println("");
-			printWriter.close();
-		} catch (IOException e) {
-			System.out.println("Cannot write to " + filePath);
-			System.exit(-1);
+				saveRecord("Laptop.txt", newResource);
 		}
 	}
 	
@@ -903,80 +684,419 @@ public class FileHandling {
 	 * @param newRequest The details of the request.
 	 */
 	public static void makeRequest(String newRequest) {
-		String filePath = DATA_FILE_PATH + "Request.txt";
-		File file = null;
-		FileWriter fileWriter = null;
-		BufferedWriter buffWriter = null;
-		PrintWriter printWriter = null;
-		
-		try { 
-			file = new File(filePath);
-			fileWriter = new FileWriter(file, true);
-			buffWriter = new BufferedWriter(fileWriter);
-			printWriter = new PrintWriter(buffWriter);
-			
-			// Writes the request then adds a new line.
-			printWriter.print(newRequest);
-			printWriter.println("");
-			printWriter.close();
+		saveRecord("Request.txt", newRequest);
+	}
+	
+	/**
+	 * Creates a new loan.
+	 * @param newLoan The new loan.
+	 */
+	public static void createLoan(Loan newLoan) {
+		editLoan(newLoan);
+	}
+	
+	/**
+	 * Creates a new transaction.
+	 * @param newTransaction The details of the transaction.
+	 */
+	public static void makeTransaction(String newTransaction) {
+		saveRecord("Transaction.txt", newTransaction);
+	}
+	
+	/**
+	 * Folds any changes left in the journals back into the data files, 
+	 * in the background.
+	 */
+	public static void compactJournals() {
+		for (String fileName : JOURNALED_FILE_NAMES) {
+			Journal.forFile(DATA_FILE_PATH + fileName).scheduleCompact();
+		}
+	}
+	
+	/**
+	 * Saves a new or edited record by adding it to the data file's 
+	 * journal. Only the record is written, not the whole file. The record
+	 * is saved in the background by the Persister.
+	 * @param fileName The name of the data file.
+	 * @param record The details of the record.
+	 */
+	private static void saveRecord(String fileName, String record) {
+		Journal journal = Journal.forFile(DATA_FILE_PATH + fileName);
+		// Joins the current unit of work, if one has been started.
+		UnitOfWork work = UnitOfWork.begin();
+		try {
+			work.add(journal, record);
+		} finally {
+			work.commit();
+		}
+	}
+	
+	/**
+	 * Waits until all the changes made so far are saved in the data files.
+	 */
+	public static void flushChanges() {
+		Persister.flush();
+	}
+	
+	/**
+	 * Opens a sequence that hands out new IDs, saved in Sequence.txt.
+	 * @param name The name of the sequence (e.g. Loan).
+	 * @param lastID The highest ID already used by the records.
+	 * @return The sequence.
+	 */
+	public static IdSequence openIdSequence(String name, int lastID) {
+		return new IdSequence(DATA_FILE_PATH + "Sequence.txt", name, lastID);
+	}
+	
+	/**
+	 * Fetches the snapshot of all the data files, if it's still up to date.
+	 * @return The snapshot, or null if there isn't an up to date one.
+	 */
+	public static Snapshot getSnapshot() {
+		String filePath = DATA_FILE_PATH + "Snapshot.bin";
+		Snapshot snapshot = null;
+		try {
+			snapshot = Snapshot.read(filePath, getSnapshotSources());
 		} catch (IOException e) {
+			// The text files are read instead.
+			System.out.println("Cannot read " + filePath);
+		}
+		return snapshot;
+	}
+	
+	/**
+	 * Saves a snapshot of all the data files, so they can be loaded 
+	 * quickly next time.
+	 * @param snapshot The snapshot of all the data.
+	 */
+	public static void saveSnapshot(Snapshot snapshot) {
+		String filePath = DATA_FILE_PATH + "Snapshot.bin";
+		try {
+			snapshot.write(filePath, getSnapshotSources());
+		} catch (IOException | RuntimeException e) {
+			// Not having a snapshot only makes the next start slower.
 			System.out.println("Cannot write to " + filePath);
-			System.exit(-1);
 		}
 	}
 	
 	/**
-	 * Creates a new loan.
-	 * @param newLoan The details of the loan.
-	 */
-	public static void createLoan(String newLoan) {
-		String filePath = DATA_FILE_PATH + "Loan.txt";
-		File file = null;
-		FileWriter fileWriter = null;
-		BufferedWriter buffWriter = null;
-		PrintWriter printWriter = null;
-		
-		try { 
-			file = new File(filePath);
-			fileWriter = new FileWriter(file, true);
-			buffWriter = new BufferedWriter(fileWriter);
-			printWriter = new PrintWriter(buffWriter);
-			
-			// Writes the loan then adds a new line.
-			printWriter.print(newLoan);
-			printWriter.println("");
-			printWriter.close();
+	 * Gets every file that the data is read from, so the snapshot can 
+	 * tell if any of them have changed.
+	 * @return The data files, their journals and fixed width files.
+	 */
+	private static File[] getSnapshotSources() {
+		ArrayList<File> sources = new ArrayList<>();
+		for (String fileName : JOURNALED_FILE_NAMES) {
+			String filePath = DATA_FILE_PATH + fileName;
+			sources.add(new File(filePath));
+			sources.add(new File(filePath + ".journal"));
+			sources.add(new File(filePath + ".compacting"));
+		}
+		if (FIXED_WIDTH) {
+			sources.add(new File(DATA_FILE_PATH + "Copy.dat"));
+			sources.add(new File(DATA_FILE_PATH + "Loan.dat"));
+		}
+		return sources.toArray(new File[0]);
+	}
+	
+	/**
+	 * Warns if a fixed width file has changes that its text data file
+	 * doesn't. The text files aren't updated while the fixed width files
+	 * are being used, so going back to the text files loses those changes.
+	 * @param fileName The name of the fixed width file.
+	 * @param textFileName The name of the text data file.
+	 */
+	private static void warnIfFixedWidthNewer(String fileName, 
+			String textFileName) {
+		File fixedWidth = new File(DATA_FILE_PATH + fileName);
+		File text = new File(DATA_FILE_PATH + textFileName);
+		if (fixedWidth.lastModified() > text.lastModified()) {
+			System.out.println("Warning: " + fileName + " has changes that "
+					+ textFileName + " doesn't. Run with "
+					+ "-Dtawelib.fixedWidth=true to use them.");
+		}
+	}
+	
+	/**
+	 * Gets the fixed width file holding the copies, opening it if needed. 
+	 * The first time it's used, it's filled with the copies in Copy.txt.
+	 * @return The copy file.
+	 */
+	private static synchronized FixedWidthFile<Copy> getCopyFile() {
+		if (copyFile == null) {
+			copyFile = openFixedWidth("Copy.dat", new CopyLayout(), 
+					"Copy.txt", FileHandling::readCopy);
+		}
+		return copyFile;
+	}
+	
+	/**
+	 * Gets the fixed width file holding the loans, opening it if needed. 
+	 * The first time it's used, it's filled with the loans in Loan.txt.
+	 * @return The loan file.
+	 */
+	private static synchronized FixedWidthFile<Loan> getLoanFile() {
+		if (loanFile == null) {
+			loanFile = openFixedWidth("Loan.dat", new LoanLayout(), 
+					"Loan.txt", FileHandling::readLoan);
+		}
+		return loanFile;
+	}
+	
+	/**
+	 * Opens a fixed width data file. If it's empty, it's filled with the 
+	 * records from the text data file.
+	 * @param <T> The type of record.
+	 * @param fileName The name of the fixed width file.
+	 * @param layout The layout of the records.
+	 * @param textFileName The name of the text data file.
+	 * @param parser Reads each record of the text data file.
+	 * @return The fixed width file.
+	 */
+	private static <T> FixedWidthFile<T> openFixedWidth(String fileName, 
+			FixedWidthFile.Layout<T> layout, String textFileName, 
+			RecordParser<T> parser) {
+		String filePath = DATA_FILE_PATH + fileName;
+		FixedWidthFile<T> file = null;
+		try {
+			file = new FixedWidthFile<>(filePath, layout);
+			if (file.isEmpty()) {
+				for (T record : readRecords(textFileName, parser)) {
+					file.write(record);
+				}
+			}
 		} catch (IOException e) {
-			System.out.println("Cannot write to " + filePath);
+			System.out.println("Cannot open " + filePath);
 			System.exit(-1);
 		}
+		return file;
 	}
 	
 	/**
-	 * Creates a new transaction.
-	 * @param newTransaction The details of the transaction.
+	 * Reads all the records from a fixed width data file.
+	 * @param <T> The type of record.
+	 * @param file The fixed width file.
+	 * @return An ArrayList of all the records.
 	 */
-	public static void makeTransaction(String newTransaction) {
-		String filePath = DATA_FILE_PATH + "Transaction.txt";
-		File file = null;
-		FileWriter fileWriter = null;
-		BufferedWriter buffWriter = null;
-		PrintWriter printWriter = null;
-		
-		try { 
-			file = new File(filePath);
-			fileWriter = new FileWriter(file, true);
-			buffWriter = new BufferedWriter(fileWriter);
-			printWriter = new PrintWriter(buffWriter);
-			
-			// Writes the transaction then adds a new line.
-			printWriter.print(newTransaction);
-			printWriter.println("");
-			printWriter.close();
+	private static <T> ArrayList<T> readFixedWidth(FixedWidthFile<T> file) {
+		ArrayList<T> records = null;
+		try {
+			records = file.readAll();
 		} catch (IOException e) {
-			System.out.println("Cannot write to " + filePath);
+			System.out.println("Cannot read " + file.getFilePath());
 			System.exit(-1);
 		}
+		return records;
+	}
+	
+	/**
+	 * Saves a new or edited record in a fixed width data file. Only the 
+	 * bytes of that record are written (in the background, by the 
+	 * Persister).
+	 * @param <T> The type of record.
+	 * @param file The fixed width file.
+	 * @param record The record.
+	 */
+	private static <T> void writeFixedWidth(FixedWidthFile<T> file, T record) {
+		// Joins the current unit of work, if one has been started.
+		UnitOfWork work = UnitOfWork.begin();
+		try {
+			work.add(file, record);
+		} finally {
+			work.commit();
+		}
+	}
+	
+	/**
+	 * Reads one chunk of a data file as a stream of bytes.
+	 */
+	private static class ChunkInputStream extends InputStream {
+		/** The open data file (shared by all the chunks). */
+		private final FileChannel channel;
+		/** The position of the next byte to read. */
+		private long position;
+		/** The position of the end of the chunk. */
+		private final long end;
+		
+		/**
+		 * Constructor for the ChunkInputStream class.
+		 * @param channel The open data file.
+		 * @param start The position of the start of the chunk.
+		 * @param end The position of the end of the chunk.
+		 */
+		public ChunkInputStream(FileChannel channel, long start, long end) {
+			this.channel = channel;
+			this.position = start;
+			this.end = end;
+		}
+		
+		/**
+		 * Reads a single byte.
+		 * @return The byte, or -1 at the end of the chunk.
+		 * @throws IOException If the file can't be read.
+		 */
+		@Override
+		public int read() throws IOException {
+			byte[] single = new byte[1];
+			return (read(single, 0, 1) < 0) ? -1 : (single[0] & 0xFF);
+		}
+		
+		/**
+		 * Reads bytes into an array.
+		 * @param bytes The array to fill.
+		 * @param offset Where to start filling the array.
+		 * @param length The most bytes to read.
+		 * @return The number of bytes read, or -1 at the end of the chunk.
+		 * @throws IOException If the file can't be read.
+		 */
+		@Override
+		public int read(byte[] bytes, int offset, int length) 
+				throws IOException {
+			if (position >= end) {
+				return -1;
+			}
+			int wanted = (int) Math.min(length, end - position);
+			// Positional reads let the chunks share the channel.
+			int read = channel.read(ByteBuffer.wrap(bytes, offset, wanted), 
+					position);
+			if (read > 0) {
+				position += read;
+			}
+			return read;
+		}
+		
+		/**
+		 * Does nothing, as the channel is closed once all chunks are read.
+		 */
+		@Override
+		public void close() {
+		}
+	}
+	
+	/**
+	 * The layout of a copy in Copy.dat.
+	 */
+	private static class CopyLayout implements FixedWidthFile.Layout<Copy> {
+		/**
+		 * Gets the size of a copy (copy ID, resource ID, available, 
+		 * resource type, loan duration).
+		 * @return The number of bytes a copy takes up.
+		 */
+		public int getRecordSize() {
+			return 4 + 4 + 1 + 1 + 1;
+		}
+		
+		/**
+		 * Gets the ID of a copy.
+		 * @param copy The copy.
+		 * @return The copy ID.
+		 */
+		public int getID(Copy copy) {
+			return copy.getCopyID();
+		}
+		
+		/**
+		 * Writes a copy into the buffer.
+		 * @param copy The copy.
+		 * @param buffer The buffer to write to.
+		 */
+		public void write(Copy copy, ByteBuffer buffer) {
+			buffer.putInt(copy.getCopyID());
+			buffer.putInt(copy.getResourceID());
+			buffer.put((byte) (copy.isAvailable() ? 1 : 0));
+			FixedWidthFile.putEnum(buffer, copy.getResourceType());
+			FixedWidthFile.putEnum(buffer, copy.getLoanDurationType());
+		}
+		
+		/**
+		 * Reads a copy from the buffer.
+		 * @param buffer The buffer to read from.
+		 * @return The copy.
+		 */
+		public Copy read(ByteBuffer buffer) {
+			int copyID = buffer.getInt();
+			int resourceID = buffer.getInt();
+			boolean isAvailable = buffer.get() != 0;
+			ResourceType resourceType = 
+					FixedWidthFile.getEnum(buffer, RESOURCE_TYPES);
+			LoanDuration duration = 
+					FixedWidthFile.getEnum(buffer, LOAN_DURATIONS);
+			return new Copy(copyID, resourceID, isAvailable, resourceType, 
+					duration);
+		}
+	}
+	
+	/**
+	 * The layout of a loan in Loan.dat.
+	 */
+	private static class LoanLayout implements FixedWidthFile.Layout<Loan> {
+		/**
+		 * Gets the size of a loan. Strings take up one extra byte 
+		 * for their length.
+		 * @return The number of bytes a loan takes up.
+		 */
+		public int getRecordSize() {
+			return 4 + 4 + 4 + (1 + User.MAX_USERNAME_BYTES) + 4 
+					+ (1 + DATE_BYTES) + (1 + TIME_BYTES) + (1 + DATE_BYTES) 
+					+ 1 + (1 + DATE_BYTES) + (1 + TIME_BYTES) + 4 + 1;
+		}
+		
+		/**
+		 * Gets the ID of a loan.
+		 * @param loan The loan.
+		 * @return The loan ID.
+		 */
+		public int getID(Loan loan) {
+			return loan.getLoanID();
+		}
+		
+		/**
+		 * Writes a loan into the buffer.
+		 * @param loan The loan.
+		 * @param buffer The buffer to write to.
+		 */
+		public void write(Loan loan, ByteBuffer buffer) {
+			buffer.putInt(loan.getLoanID());
+			buffer.putInt(loan.getCopyID());
+			buffer.putInt(loan.getResourceID());
+			FixedWidthFile.putString(buffer, loan.getUsername(), 
+					User.MAX_USERNAME_BYTES);
+			buffer.putInt(loan.getStaffID());
+			FixedWidthFile.putString(buffer, loan.getCheckoutDate(), DATE_BYTES);
+			FixedWidthFile.putString(buffer, loan.getCheckoutTime(), TIME_BYTES);
+			FixedWidthFile.putString(buffer, loan.getDueDate(), DATE_BYTES);
+			buffer.put((byte) (loan.isReturned() ? 1 : 0));
+			FixedWidthFile.putString(buffer, loan.getReturnDate(), DATE_BYTES);
+			FixedWidthFile.putString(buffer, loan.getReturnTime(), TIME_BYTES);
+			buffer.putInt(loan.getDaysOverdue());
+			FixedWidthFile.putEnum(buffer, loan.getType());
+		}
+		
+		/**
+		 * Reads a loan from the buffer.
+		 * @param buffer The buffer to read from.
+		 * @return The loan.
+		 */
+		public Loan read(ByteBuffer buffer) {
+			int loanID = buffer.getInt();
+			int copyID = buffer.getInt();
+			int resourceID = buffer.getInt();
+			String username = FixedWidthFile.getString(buffer, 
+					User.MAX_USERNAME_BYTES);
+			int staffID = buffer.getInt();
+			String checkoutDate = FixedWidthFile.getString(buffer, DATE_BYTES);
+			String checkoutTime = FixedWidthFile.getString(buffer, TIME_BYTES);
+			String dueDate = FixedWidthFile.getString(buffer, DATE_BYTES);
+			boolean returned = buffer.get() != 0;
+			String returnDate = FixedWidthFile.getString(buffer, DATE_BYTES);
+			String returnTime = FixedWidthFile.getString(buffer, TIME_BYTES);
+			int daysOverdue = buffer.getInt();
+			ResourceType resourceType = 
+					FixedWidthFile.getEnum(buffer, RESOURCE_TYPES);
+			return new Loan(loanID, copyID, resourceID, username,
+					staffID, checkoutDate, checkoutTime, dueDate, returned, 
+					returnDate, returnTime, daysOverdue, resourceType);
+		}
 	}
 	
 	/**
@@ -0,0 +1,139 @@
+package data;
+
+import java.util.HashMap;
+import java.util.Map;
+import java.util.concurrent.ForkJoinPool;
+import java.util.concurrent.RecursiveTask;
+
+/**
+ * The FineAccrual class works out the fines that users are building up on
+ * loans that are overdue but haven't been returned yet. Fines are only
+ * added to a user's balance when the loan is returned, so these are kept
+ * separately as provisional totals. The overdue loans are split into
+ * parts that are added up at the same time on the fork join pool, and
+ * the totals for each part are then combined.
+ * @author William King
+ */
+public class FineAccrual {
+	/** The most loans added up by one task before it's split. */
+	private static final int PART_SIZE = 16 * 1024;
+	/** The fine per day of each type of resource, by its position in
+	 * ResourceType. */
+	private static final double[] FINE_PER_DAY =
+			new double[ResourceType.values().length];
+	/** The maximum fine of each type of resource, by its position in
+	 * ResourceType. */
+	private static final double[] MAX_FINE =
+			new double[ResourceType.values().length];
+
+	static {
+		FINE_PER_DAY[ResourceType.LAPTOP.ordinal()] = Laptop.FINE_PER_DAY;
+		MAX_FINE[ResourceType.LAPTOP.ordinal()] = Laptop.MAX_FINE;
+		FINE_PER_DAY[ResourceType.DVD.ordinal()] = DVD.FINE_PER_DAY;
+		MAX_FINE[ResourceType.DVD.ordinal()] = DVD.MAX_FINE;
+		FINE_PER_DAY[ResourceType.BOOK.ordinal()] = Book.FINE_PER_DAY;
+		MAX_FINE[ResourceType.BOOK.ordinal()] = Book.MAX_FINE;
+	}
+
+	/**
+	 * Calculates the fine for a loan, based on the type of resource.
+	 * @param daysOverdue Number of days overdue.
+	 * @param type The type of resource.
+	 * @return The fine for the loan, up to the resource's maximum fine.
+	 */
+	public static double getFine(int daysOverdue, ResourceType type) {
+		if (type == null || daysOverdue <= 0) {
+			return 0;
+		}
+		double fine = daysOverdue * FINE_PER_DAY[type.ordinal()];
+		return Math.min(fine, MAX_FINE[type.ordinal()]);
+	}
+
+	/**
+	 * Adds up the fines each user has built up on their overdue loans.
+	 * @param overdueLoans The loans that are overdue and not returned.
+	 * @param today The day to work out the fines on (days since
+	 *        1970-01-01).
+	 * @return The provisional fine of each user, using the username as
+	 *         the key. Users without any aren't in the map.
+	 */
+	public static HashMap<String, Double> accrue(Loan[] overdueLoans,
+			int today) {
+		HashMap<String, Double> totals = ForkJoinPool.commonPool().invoke(
+				new AccrualTask(overdueLoans, 0, overdueLoans.length, today));
+		// Round each total to 2 decimal places.
+		for (Map.Entry<String, Double> entry : totals.entrySet()) {
+			entry.setValue(Math.round(entry.getValue() * 100.0) / 100.0);
+		}
+		return totals;
+	}
+
+	/**
+	 * The AccrualTask class adds up the fines of one part of the overdue
+	 * loans, splitting it in half if it's too big.
+	 */
+	private static class AccrualTask
+			extends RecursiveTask<HashMap<String, Double>> {
+		/** The version of the class, as RecursiveTask is serializable. */
+		private static final long serialVersionUID = 1L;
+		/** The overdue loans. */
+		private final Loan[] loans;
+		/** The position of the first loan in this part. */
+		private final int start;
+		/** The position after the last loan in this part. */
+		private final int end;
+		/** The day to work out the fines on. */
+		private final int today;
+
+		/**
+		 * Constructor for the AccrualTask class.
+		 * @param loans The overdue loans.
+		 * @param start The position of the first loan in this part.
+		 * @param end The position after the last loan in this part.
+		 * @param today The day to work out the fines on.
+		 */
+		AccrualTask(Loan[] loans, int start, int end, int today) {
+			this.loans = loans;
+			this.start = start;
+			this.end = end;
+			this.today = today;
+		}
+
+		/**
+		 * Adds up the fines of each user in this part.
+		 * @return The total fine of each user in this part.
+		 */
+		@Override
+		protected HashMap<String, Double> compute() {
+			if (end - start > PART_SIZE) {
+				int middle = (start + end) >>> 1;
+				AccrualTask left = new AccrualTask(loans, start, middle, today);
+				left.fork();
+				HashMap<String, Double> totals =
+						new AccrualTask(loans, middle, end, today).compute();
+				HashMap<String, Double> leftTotals = left.join();
+
+				// Add the smaller map into the bigger one.
+				if (leftTotals.size() > totals.size()) {
+					HashMap<String, Double> swap = totals;
+					totals = leftTotals;
+					leftTotals = swap;
+				}
+				for (Map.Entry<String, Double> entry : leftTotals.entrySet()) {
+					totals.merge(entry.getKey(), entry.getValue(), Double::sum);
+				}
+				return totals;
+			}
+
+			HashMap<String, Double> totals = new HashMap<>();
+			for (int i = start; i < end; i++) {
+				Loan loan = loans[i];
+				double fine = getFine(today - loan.getDueDay(), loan.getType());
+				if (fine > 0) {
+					totals.merge(loan.getUsername(), fine, Double::sum);
+				}
+			}
+			return totals;
+		}
+	}
+}
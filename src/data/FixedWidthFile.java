@@ -0,0 +1,293 @@
+package data;
+
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Paths;
+import java.nio.file.StandardOpenOption;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+
+/**
+ * The FixedWidthFile class stores records in a binary file where every
+ * record takes up the same number of bytes. The position of each record
+ * is kept in an index (by its ID), so an edited record is written
+ * straight over the old one without touching the rest of the file.
+ * @author William King
+ * @param <T> The type of record stored in the file.
+ */
+public class FixedWidthFile<T> {
+	/** Marks the start of a fixed width data file. */
+	private static final int MAGIC = 0x54574C46;
+	/** The size of the header at the start of the file (magic, record size). */
+	private static final int HEADER_SIZE = 8;
+
+	/**
+	 * The Layout interface describes how a record is stored in the file.
+	 * @param <T> The type of record.
+	 */
+	public interface Layout<T> {
+		/**
+		 * Gets the number of bytes every record takes up.
+		 * @return The size of a record.
+		 */
+		int getRecordSize();
+
+		/**
+		 * Gets the ID of a record. The ID must be the first field written
+		 * (as an int), so the index can be built without reading the
+		 * whole record.
+		 * @param record The record.
+		 * @return The ID used to find the record in the file.
+		 */
+		int getID(T record);
+
+		/**
+		 * Writes a record into the buffer.
+		 * @param record The record to write.
+		 * @param buffer The buffer, with room for one record.
+		 */
+		void write(T record, ByteBuffer buffer);
+
+		/**
+		 * Reads a record from the buffer.
+		 * @param buffer The buffer, positioned at the record.
+		 * @return The record.
+		 */
+		T read(ByteBuffer buffer);
+	}
+
+	/** The layout of the records. */
+	private final Layout<T> layout;
+	/** The path of the file. */
+	private final String filePath;
+	/** The open file. */
+	private final FileChannel channel;
+	/** The position of each record in the file, using its ID as the key. */
+	private final HashMap<Integer, Long> offsets = new HashMap<>();
+	/** The position in the file where the next new record is added. */
+	private long end;
+
+	/**
+	 * Constructor for the FixedWidthFile class. Opens the file (creating
+	 * it if it doesn't exist).
+	 * @param filePath The path of the file.
+	 * @param layout The layout of the records.
+	 * @throws IOException If the file can't be opened, or it holds
+	 *         records with a different layout.
+	 */
+	public FixedWidthFile(String filePath, Layout<T> layout)
+			throws IOException {
+		this.filePath = filePath;
+		this.layout = layout;
+		this.channel = FileChannel.open(Paths.get(filePath),
+				StandardOpenOption.CREATE, StandardOpenOption.READ,
+				StandardOpenOption.WRITE);
+
+		ByteBuffer header = ByteBuffer.allocate(HEADER_SIZE);
+		if (channel.size() == 0) {
+			header.putInt(MAGIC).putInt(layout.getRecordSize()).flip();
+			channel.write(header, 0);
+		} else {
+			channel.read(header, 0);
+			header.flip();
+			if (header.remaining() < HEADER_SIZE || header.getInt() != MAGIC
+					|| header.getInt() != layout.getRecordSize()) {
+				channel.close();
+				throw new IOException(filePath
+						+ " is not in the expected fixed width layout");
+			}
+		}
+		// Ignore any record that was only partly written.
+		long records = (channel.size() - HEADER_SIZE) / layout.getRecordSize();
+		end = HEADER_SIZE + records * layout.getRecordSize();
+		buildIndex();
+	}
+
+	/**
+	 * Checks if the file has no records.
+	 * @return True if the file is empty, otherwise false.
+	 */
+	public boolean isEmpty() {
+		return end == HEADER_SIZE;
+	}
+
+	/**
+	 * Reads all the records in the file.
+	 * @return An ArrayList of all the records.
+	 * @throws IOException If the file can't be read.
+	 */
+	public synchronized ArrayList<T> readAll() throws IOException {
+		int recordSize = layout.getRecordSize();
+		ArrayList<T> records = new ArrayList<>();
+
+		// Read many records at a time.
+		ByteBuffer buffer = ByteBuffer.allocate(recordSize * 4096);
+		long position = HEADER_SIZE;
+		while (position < end) {
+			readChunk(buffer, position);
+			while (buffer.remaining() >= recordSize) {
+				int start = buffer.position();
+				records.add(layout.read(buffer));
+				buffer.position(start + recordSize);
+			}
+			position += buffer.limit();
+		}
+		return records;
+	}
+
+	/**
+	 * Builds the index of where each record is, by reading the ID at the
+	 * start of each record.
+	 * @throws IOException If the file can't be read.
+	 */
+	private void buildIndex() throws IOException {
+		int recordSize = layout.getRecordSize();
+		ByteBuffer buffer = ByteBuffer.allocate(recordSize * 4096);
+		long position = HEADER_SIZE;
+		while (position < end) {
+			readChunk(buffer, position);
+			for (int start = 0; start + recordSize <= buffer.limit();
+					start += recordSize) {
+				offsets.put(buffer.getInt(start), position + start);
+			}
+			position += buffer.limit();
+		}
+	}
+
+	/**
+	 * Fills the buffer with the records starting at a position in the file.
+	 * @param buffer The buffer to fill (a whole number of records long).
+	 * @param position The position in the file to read from.
+	 * @throws IOException If the file can't be read.
+	 */
+	private void readChunk(ByteBuffer buffer, long position)
+			throws IOException {
+		buffer.clear();
+		buffer.limit((int) Math.min(buffer.capacity(), end - position));
+		while (buffer.hasRemaining()) {
+			if (channel.read(buffer, position + buffer.position()) < 0) {
+				break;
+			}
+		}
+		buffer.flip();
+	}
+
+	/**
+	 * Saves a record. An existing record is written over in place,
+	 * otherwise it's added to the end of the file.
+	 * @param record The record to save.
+	 * @throws IOException If the file can't be written.
+	 */
+	public void write(T record) throws IOException {
+		ArrayList<byte[]> records = new ArrayList<>();
+		records.add(encode(record));
+		writeEncoded(records, false);
+	}
+
+	/**
+	 * Turns a record into the bytes that are stored in the file. This
+	 * lets a record be saved later without it changing in the meantime.
+	 * @param record The record.
+	 * @return The bytes of the record.
+	 */
+	public byte[] encode(T record) {
+		// Unused space in the record is left as zeros.
+		ByteBuffer buffer = ByteBuffer.allocate(layout.getRecordSize());
+		layout.write(record, buffer);
+		return buffer.array();
+	}
+
+	/**
+	 * Saves records that have already been turned into bytes. Each one
+	 * is written over the record with the same ID, or added to the end.
+	 * @param records The bytes of each record.
+	 * @param sync Whether to wait until the records are stored on disk.
+	 * @throws IOException If the file can't be written.
+	 */
+	public synchronized void writeEncoded(List<byte[]> records, boolean sync)
+			throws IOException {
+		for (byte[] record : records) {
+			// The ID is always the first field.
+			int id = ByteBuffer.wrap(record).getInt();
+			Long offset = offsets.get(id);
+			if (offset == null) {
+				offset = end;
+				end += layout.getRecordSize();
+				offsets.put(id, offset);
+			}
+
+			ByteBuffer buffer = ByteBuffer.wrap(record);
+			while (buffer.hasRemaining()) {
+				channel.write(buffer, offset + buffer.position());
+			}
+		}
+		if (sync) {
+			channel.force(false);
+		}
+	}
+
+	/**
+	 * Gets the path of the file.
+	 * @return The file path.
+	 */
+	public String getFilePath() {
+		return filePath;
+	}
+
+	/**
+	 * Writes a string into a field of a fixed size. The field holds the
+	 * length of the string followed by its bytes.
+	 * @param buffer The buffer to write to.
+	 * @param text The string to write.
+	 * @param maxBytes The most bytes the string can take up.
+	 */
+	public static void putString(ByteBuffer buffer, String text, int maxBytes) {
+		byte[] bytes = text.getBytes(StandardCharsets.UTF_8);
+		if (bytes.length > maxBytes) {
+			throw new IllegalArgumentException("'" + text
+					+ "' is longer than " + maxBytes + " bytes");
+		}
+		buffer.put((byte) bytes.length);
+		buffer.put(bytes);
+		buffer.position(buffer.position() + (maxBytes - bytes.length));
+	}
+
+	/**
+	 * Reads a string from a field of a fixed size.
+	 * @param buffer The buffer to read from.
+	 * @param maxBytes The most bytes the string can take up.
+	 * @return The string.
+	 */
+	public static String getString(ByteBuffer buffer, int maxBytes) {
+		int length = buffer.get() & 0xFF;
+		String text = new String(buffer.array(),
+				buffer.arrayOffset() + buffer.position(), length,
+				StandardCharsets.UTF_8);
+		buffer.position(buffer.position() + maxBytes);
+		return text;
+	}
+
+	/**
+	 * Writes an enum value as a single byte (-1 if it's null).
+	 * @param buffer The buffer to write to.
+	 * @param value The enum value.
+	 */
+	public static void putEnum(ByteBuffer buffer, Enum<?> value) {
+		buffer.put((byte) (value == null ? -1 : value.ordinal()));
+	}
+
+	/**
+	 * Reads an enum value stored as a single byte.
+	 * @param <E> The type of enum.
+	 * @param buffer The buffer to read from.
+	 * @param values All of the enum's values.
+	 * @return The enum value, or null if none was stored.
+	 */
+	public static <E extends Enum<E>> E getEnum(ByteBuffer buffer, E[] values) {
+		int ordinal = buffer.get();
+		return (ordinal < 0 || ordinal >= values.length) ? null : values[ordinal];
+	}
+}
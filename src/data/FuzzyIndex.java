@@ -0,0 +1,338 @@
+package data;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collection;
+import java.util.Comparator;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.List;
+import java.util.PriorityQueue;
+import java.util.function.Predicate;
+
+/**
+ * The FuzzyIndex class finds resources by their title and author (or
+ * director) even when the search is misspelt (e.g. "Horid Henry"). Each
+ * title and author is split into trigrams (every run of three letters),
+ * and each trigram has a list of the resources it appears in. A search
+ * counts how many of its trigrams each resource shares, takes the
+ * resources sharing the most, then ranks them by how many letters would
+ * have to change for the search words to match their words.
+ * @author William King
+ */
+public class FuzzyIndex {
+	/** The most resources found by one search. */
+	public static final int MAX_RESULTS = 100;
+	/** The most resources that are ranked by edit distance. */
+	private static final int MAX_CANDIDATES = 500;
+	/** The share of the search's trigrams a resource needs to have to be
+	 * a candidate. */
+	private static final double MIN_SHARED = 0.25;
+	/** The smallest number of resources a trigram has to appear in to be
+	 * treated as a common one. */
+	private static final int COMMON_SIZE = 1024;
+
+	/** The resources each trigram appears in, by their position in
+	 * byOrdinal. */
+	private final HashMap<Long, PostingList> trigrams = new HashMap<>();
+	/** Every indexed resource, in the order they were added. */
+	private final ArrayList<Resource> byOrdinal = new ArrayList<>();
+	/** The words of each resource's title and author, by position. */
+	private final ArrayList<String[]> wordsByOrdinal = new ArrayList<>();
+	/** The trigrams each resource was indexed under, by position. */
+	private final ArrayList<long[]> trigramsByOrdinal = new ArrayList<>();
+	/** The position of each resource, using the resource ID as the key. */
+	private final HashMap<Integer, Integer> ordinals = new HashMap<>();
+	/** The number of trigrams each resource shares with the search,
+	 * kept between searches so it doesn't need to be created each time. */
+	private int[] sharedCounts = new int[0];
+
+	/**
+	 * Constructor for the FuzzyIndex class. Indexes the resources.
+	 * @param resources All the resources.
+	 */
+	public FuzzyIndex(Collection<? extends Resource> resources) {
+		for (Resource resource : resources) {
+			update(resource);
+		}
+	}
+
+	/**
+	 * Adds a new resource to the index, or updates an edited one.
+	 * @param resource The new or edited resource.
+	 */
+	public synchronized void update(Resource resource) {
+		Integer ordinal = ordinals.get(resource.getResourceID());
+		if (ordinal == null) {
+			ordinal = byOrdinal.size();
+			ordinals.put(resource.getResourceID(), ordinal);
+			byOrdinal.add(resource);
+			wordsByOrdinal.add(null);
+			trigramsByOrdinal.add(new long[0]);
+		}
+		for (long trigram : trigramsByOrdinal.get(ordinal)) {
+			PostingList list = trigrams.get(trigram);
+			list.remove(ordinal);
+			if (list.size == 0) {
+				trigrams.remove(trigram);
+			}
+		}
+
+		String text = getText(resource);
+		long[] resourceTrigrams = getTrigrams(text);
+		for (long trigram : resourceTrigrams) {
+			PostingList list = trigrams.get(trigram);
+			if (list == null) {
+				list = new PostingList();
+				trigrams.put(trigram, list);
+			}
+			list.add(ordinal);
+		}
+		wordsByOrdinal.set(ordinal, text.split(" "));
+		trigramsByOrdinal.set(ordinal, resourceTrigrams);
+	}
+
+	/**
+	 * Finds the resources whose title or author is closest to a search.
+	 * @param query The words to search for (may be misspelt).
+	 * @param filter Which resources can be found (e.g. only books). It's
+	 *        tested before the candidates are cut down, so resources it
+	 *        leaves out never take the place of ones it keeps.
+	 * @return The closest resources, best match first.
+	 */
+	public synchronized List<Resource> search(String query,
+			Predicate<Resource> filter) {
+		String text = normalise(query);
+		long[] queryTrigrams = getTrigrams(text);
+		ArrayList<Resource> found = new ArrayList<>();
+		if (queryTrigrams.length == 0) {
+			return found;
+		}
+
+		// Count the trigrams each resource shares with the search.
+		if (sharedCounts.length < byOrdinal.size()) {
+			sharedCounts = new int[byOrdinal.size() + 1024];
+		}
+		int[] counts = sharedCounts;
+		int[] touched = new int[64];
+		int touchedSize = 0;
+		ArrayList<PostingList> lists = new ArrayList<>();
+		for (long trigram : queryTrigrams) {
+			PostingList list = trigrams.get(trigram);
+			if (list != null) {
+				lists.add(list);
+			}
+		}
+		// Rare trigrams first. Very common ones (e.g. "the") don't pick
+		// out anything new, they only add to the resources already found.
+		lists.sort(Comparator.comparingInt(list -> list.size));
+		int common = Math.max(COMMON_SIZE, byOrdinal.size() / 50);
+		for (PostingList list : lists) {
+			if (list.size <= common || touchedSize == 0) {
+				for (int i = 0; i < list.size; i++) {
+					if (counts[list.ids[i]]++ == 0) {
+						if (touchedSize == touched.length) {
+							touched = Arrays.copyOf(touched, touchedSize * 2);
+						}
+						touched[touchedSize++] = list.ids[i];
+					}
+				}
+			} else {
+				for (int i = 0; i < touchedSize; i++) {
+					if (Arrays.binarySearch(list.ids, 0, list.size,
+							touched[i]) >= 0) {
+						counts[touched[i]]++;
+					}
+				}
+			}
+		}
+
+		// Keep the resources sharing the most trigrams.
+		int minShared = Math.max(1,
+				(int) Math.ceil(queryTrigrams.length * MIN_SHARED));
+		PriorityQueue<int[]> candidates = new PriorityQueue<>(
+				Comparator.comparingInt((int[] candidate) -> candidate[1]));
+		for (int i = 0; i < touchedSize; i++) {
+			int ordinal = touched[i];
+			int count = counts[ordinal];
+			counts[ordinal] = 0; // Ready for the next search.
+			// The filter is only tested on resources good enough to be
+			// a candidate.
+			if (count >= minShared && (candidates.size() < MAX_CANDIDATES
+					|| count > candidates.peek()[1])
+					&& filter.test(byOrdinal.get(ordinal))) {
+				candidates.add(new int[] {ordinal, count});
+				if (candidates.size() > MAX_CANDIDATES) {
+					candidates.poll();
+				}
+			}
+		}
+
+		// Rank the candidates by how far their words are from the search.
+		String[] queryWords = text.split(" ");
+		ArrayList<int[]> ranked = new ArrayList<>();
+		for (int[] candidate : candidates) {
+			int distance = getDistance(queryWords,
+					wordsByOrdinal.get(candidate[0]));
+			if (distance >= 0) {
+				ranked.add(new int[] {candidate[0], candidate[1], distance});
+			}
+		}
+		ranked.sort(Comparator.comparingInt((int[] match) -> match[2])
+				.thenComparing(Comparator.comparingInt(
+						(int[] match) -> match[1]).reversed())
+				.thenComparingInt(match -> match[0]));
+
+		for (int i = 0; i < ranked.size() && i < MAX_RESULTS; i++) {
+			found.add(byOrdinal.get(ranked.get(i)[0]));
+		}
+		return found;
+	}
+
+	/**
+	 * Gets the total number of letters that would have to change for
+	 * each search word to match one of a resource's words. The last
+	 * search word can also match the start of a word, as it may still be
+	 * being typed.
+	 * @param queryWords The words of the search.
+	 * @param words The words of the resource's title and author.
+	 * @return The total distance, or -1 if any search word is too far
+	 *         from all of the resource's words.
+	 */
+	private static int getDistance(String[] queryWords, String[] words) {
+		int total = 0;
+		for (int q = 0; q < queryWords.length; q++) {
+			String queryWord = queryWords[q];
+			boolean isLast = (q == queryWords.length - 1);
+			int allowed = getAllowedDistance(queryWord);
+			int best = allowed + 1;
+			for (int i = 0; i < words.length && best > 0; i++) {
+				best = Math.min(best, editDistance(queryWord, words[i], best));
+				if (isLast && words[i].length() > queryWord.length()) {
+					String start = words[i].substring(0, queryWord.length());
+					best = Math.min(best, editDistance(queryWord, start, best));
+				}
+			}
+			if (best > allowed) {
+				return -1;
+			}
+			total += best;
+		}
+		return total;
+	}
+
+	/**
+	 * Gets how many mistakes are allowed in a search word. Short words
+	 * have to match exactly.
+	 * @param word The search word.
+	 * @return The number of letters that can be wrong.
+	 */
+	private static int getAllowedDistance(String word) {
+		if (word.length() <= 3) {
+			return 0;
+		} else if (word.length() <= 6) {
+			return 1;
+		}
+		return 2;
+	}
+
+	/**
+	 * Gets the number of letters that have to be added, removed, changed
+	 * or swapped with the next letter to turn one word into another.
+	 * @param first The first word.
+	 * @param second The second word.
+	 * @param limit Stops counting once the distance reaches this.
+	 * @return The distance, or the limit if it's at least the limit.
+	 */
+	private static int editDistance(String first, String second, int limit) {
+		if (Math.abs(first.length() - second.length()) >= limit) {
+			return limit;
+		}
+		int[] twoBack = new int[second.length() + 1];
+		int[] previous = new int[second.length() + 1];
+		int[] current = new int[second.length() + 1];
+		for (int j = 0; j <= second.length(); j++) {
+			previous[j] = j;
+		}
+		int previousBest = 0;
+		for (int i = 1; i <= first.length(); i++) {
+			current[0] = i;
+			int rowBest = current[0];
+			for (int j = 1; j <= second.length(); j++) {
+				int cost = (first.charAt(i - 1) == second.charAt(j - 1)) ? 0 : 1;
+				current[j] = Math.min(Math.min(current[j - 1] + 1,
+						previous[j] + 1), previous[j - 1] + cost);
+				// Two letters swapped around count as one mistake.
+				if (i > 1 && j > 1 && first.charAt(i - 1) == second.charAt(j - 2)
+						&& first.charAt(i - 2) == second.charAt(j - 1)) {
+					current[j] = Math.min(current[j], twoBack[j - 2] + 1);
+				}
+				rowBest = Math.min(rowBest, current[j]);
+			}
+			// A swap can only reach back one row, so once two rows in a
+			// row are over the limit the rest will be too.
+			if (rowBest >= limit && previousBest >= limit) {
+				return limit;
+			}
+			previousBest = rowBest;
+			int[] oldest = twoBack;
+			twoBack = previous;
+			previous = current;
+			current = oldest;
+		}
+		return Math.min(previous[second.length()], limit);
+	}
+
+	/**
+	 * Gets the text a resource is indexed under: its title, then its
+	 * author (books) or director (DVDs).
+	 * @param resource The resource.
+	 * @return The words in lower case, separated by single spaces.
+	 */
+	private static String getText(Resource resource) {
+		String text = resource.getResourceTitle();
+		switch (resource.getType()) {
+			case "Book":
+				text = text + " " + ((Book) resource).getAuthor();
+				break;
+			case "DVD":
+				text = text + " " + ((DVD) resource).getDirector();
+				break;
+		}
+		return normalise(text);
+	}
+
+	/**
+	 * Turns some text into lower case words separated by single spaces.
+	 * @param text The text.
+	 * @return The normalised text.
+	 */
+	private static String normalise(String text) {
+		return String.join(" ", SearchIndex.split(text));
+	}
+
+	/**
+	 * Gets the distinct trigrams of some text. A space is added to each
+	 * end so the start and end of the text count for more.
+	 * @param text The normalised text.
+	 * @return The trigrams, each stored as three 16 bit characters.
+	 */
+	private static long[] getTrigrams(String text) {
+		if (text.isEmpty()) {
+			return new long[0];
+		}
+		String padded = " " + text + " ";
+		HashSet<Long> found = new HashSet<>();
+		for (int i = 0; i + 3 <= padded.length(); i++) {
+			found.add(((long) padded.charAt(i) << 32)
+					| ((long) padded.charAt(i + 1) << 16)
+					| padded.charAt(i + 2));
+		}
+		long[] result = new long[found.size()];
+		int i = 0;
+		for (long trigram : found) {
+			result[i++] = trigram;
+		}
+		return result;
+	}
+}
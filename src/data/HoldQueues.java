@@ -0,0 +1,176 @@
+package data;
+
+import java.util.ArrayDeque;
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.HashMap;
+import java.util.List;
+import java.util.PriorityQueue;
+
+/**
+ * The HoldQueues class keeps track of the unfilled requests, so finding
+ * the next request doesn't need to look through every request ever made.
+ * Each copy has a queue of its unfilled requests, in the order they were
+ * made. Each resource also has a waiting list of the requests that
+ * haven't been given a copy yet, ordered by when they were made. When
+ * any copy of the resource is returned, it goes to the request at the
+ * front of the waiting list. The queues are built from the requests when
+ * the system starts and kept up to date by the store.
+ * @author William King
+ */
+public class HoldQueues {
+	/** Orders requests by when they were made (earliest first). */
+	private static final Comparator<Request> REQUEST_TIME_ORDER =
+			Comparator.comparingInt(Request::getRequestDay)
+			.thenComparingInt(Request::getRequestID);
+
+	/** The unfilled requests of each copy, using the copy ID as the key. */
+	private final HashMap<Integer, ArrayDeque<Request>> copyQueues =
+			new HashMap<>();
+	/** The requests waiting for a copy of each resource, using the
+	 * resource ID as the key. */
+	private final HashMap<Integer, PriorityQueue<Request>> waitingLists =
+			new HashMap<>();
+
+	/**
+	 * Constructor for the HoldQueues class. Adds the unfilled requests
+	 * to the queues.
+	 * @param requests All the requests, in ascending order of request ID.
+	 */
+	public HoldQueues(List<Request> requests) {
+		for (Request request : requests) {
+			add(request);
+		}
+	}
+
+	/**
+	 * Adds a new request to the back of its copy's queue, unless it has
+	 * already been filled. If it isn't reserved, it's also added to the
+	 * resource's waiting list.
+	 * @param request The new request.
+	 */
+	public void add(Request request) {
+		if (request.getRequestFilled()) {
+			return;
+		}
+		addToCopyQueue(request);
+
+		if (!request.isReserved()) {
+			PriorityQueue<Request> waiting =
+					waitingLists.get(request.getResourceID());
+			if (waiting == null) {
+				waiting = new PriorityQueue<>(REQUEST_TIME_ORDER);
+				waitingLists.put(request.getResourceID(), waiting);
+			}
+			waiting.add(request);
+		}
+	}
+
+	/**
+	 * Updates the queues after a request has been edited. A filled
+	 * request is taken out of its copy's queue, and a reserved request
+	 * is taken out of the resource's waiting list.
+	 * @param request The edited request.
+	 */
+	public void update(Request request) {
+		if (request.getRequestFilled()) {
+			removeFromCopyQueue(request);
+		}
+		if (request.getRequestFilled() || request.isReserved()) {
+			PriorityQueue<Request> waiting =
+					waitingLists.get(request.getResourceID());
+			// Requests usually leave from the front, where removing is quick.
+			if (waiting != null && waiting.remove(request)
+					&& waiting.isEmpty()) {
+				waitingLists.remove(request.getResourceID());
+			}
+		}
+	}
+
+	/**
+	 * Moves a request to the queue of the copy it has been given.
+	 * @param request The request.
+	 * @param copyID The ID of the copy given to the request.
+	 */
+	public void moveToCopy(Request request, int copyID) {
+		removeFromCopyQueue(request);
+		request.setCopyID(copyID);
+		addToCopyQueue(request);
+	}
+
+	/**
+	 * Gets the request that has been waiting the longest for a copy of
+	 * a resource, skipping any made by the given user.
+	 * @param resourceID The ID of the resource.
+	 * @param username The user to skip (e.g. the user returning a copy).
+	 * @return The next request, or null if there are none.
+	 */
+	public Request getNextWaitingRequest(int resourceID, String username) {
+		PriorityQueue<Request> waiting = waitingLists.get(resourceID);
+		if (waiting == null) {
+			return null;
+		}
+
+		Request next = waiting.peek();
+		if (next != null && username.equals(next.getUsername())) {
+			// Take requests off the front until one from another user
+			// is found, then put them back.
+			ArrayList<Request> skipped = new ArrayList<>();
+			next = null;
+			while (next == null && !waiting.isEmpty()) {
+				Request request = waiting.poll();
+				skipped.add(request);
+				if (!username.equals(request.getUsername())) {
+					next = request;
+				}
+			}
+			waiting.addAll(skipped);
+		}
+		return next;
+	}
+
+	/**
+	 * Checks if any requests are waiting for a copy of a resource.
+	 * @param resourceID The ID of the resource.
+	 * @return True if there are any waiting requests, otherwise false.
+	 */
+	public boolean hasWaitingRequests(int resourceID) {
+		return waitingLists.containsKey(resourceID);
+	}
+
+	/**
+	 * Gets the number of unfilled requests for a copy.
+	 * @param copyID The ID of the copy.
+	 * @return The length of the copy's queue.
+	 */
+	public int getQueueLength(int copyID) {
+		ArrayDeque<Request> queue = copyQueues.get(copyID);
+		return (queue == null) ? 0 : queue.size();
+	}
+
+	/**
+	 * Adds a request to the back of its copy's queue.
+	 * @param request The request.
+	 */
+	private void addToCopyQueue(Request request) {
+		ArrayDeque<Request> queue = copyQueues.get(request.getCopyID());
+		if (queue == null) {
+			queue = new ArrayDeque<>();
+			copyQueues.put(request.getCopyID(), queue);
+		}
+		queue.addLast(request);
+	}
+
+	/**
+	 * Takes a request out of its copy's queue.
+	 * @param request The request.
+	 */
+	private void removeFromCopyQueue(Request request) {
+		ArrayDeque<Request> queue = copyQueues.get(request.getCopyID());
+		// Requests are usually filled in order, so it's often the first.
+		if (queue != null && queue.removeFirstOccurrence(request)
+				&& queue.isEmpty()) {
+			copyQueues.remove(request.getCopyID());
+		}
+	}
+}
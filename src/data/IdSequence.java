@@ -0,0 +1,163 @@
+package data;
+
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.channels.FileLock;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Paths;
+import java.nio.file.StandardOpenOption;
+import java.util.LinkedHashMap;
+import java.util.Map;
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * The IdSequence class hands out new IDs for one type of record (e.g.
+ * loans). IDs are reserved in blocks, and the end of the latest block is
+ * saved in a small sequence file shared by all the sequences. Handing out
+ * an ID inside the block only needs a counter to be increased, so the
+ * record lists don't need to be looked at. The sequence file is locked
+ * while a block is reserved, so two systems using the same data files
+ * never get the same ID. IDs left over in a block when the system closes
+ * are skipped.
+ * @author William King
+ */
+public class IdSequence {
+	/** The number of IDs reserved at a time. */
+	private static final int BLOCK_SIZE = 100;
+	/** Only one block is reserved at a time in this system, as the file
+	 * can't be locked twice by the same program. */
+	private static final Object fileLock = new Object();
+
+	/** The path of the sequence file. */
+	private final String filePath;
+	/** The name of the sequence in the file (e.g. Loan). */
+	private final String name;
+	/** The next ID to hand out. */
+	private final AtomicLong nextID;
+	/** The end of the reserved block (the first ID that isn't reserved). */
+	private volatile long limit;
+
+	/**
+	 * Constructor for the IdSequence class. No IDs are reserved until
+	 * the first one is needed.
+	 * @param filePath The path of the sequence file.
+	 * @param name The name of the sequence in the file.
+	 * @param lastID The highest ID already used by the records.
+	 */
+	public IdSequence(String filePath, String name, int lastID) {
+		this.filePath = filePath;
+		this.name = name;
+		this.nextID = new AtomicLong(lastID + 1L);
+		this.limit = lastID + 1L;
+	}
+
+	/**
+	 * Gets a new ID that hasn't been used before.
+	 * @return The new ID.
+	 */
+	public int next() {
+		while (true) {
+			long id = nextID.get();
+			if (id < limit) {
+				if (nextID.compareAndSet(id, id + 1)) {
+					return (int) id;
+				}
+			} else {
+				reserveBlock(id);
+			}
+		}
+	}
+
+	/**
+	 * Reserves the next block of IDs, unless another thread already has.
+	 * @param id The ID that was outside the reserved block.
+	 */
+	private void reserveBlock(long id) {
+		synchronized (fileLock) {
+			if (id < limit) {
+				return;
+			}
+			try (FileChannel channel = FileChannel.open(Paths.get(filePath),
+					StandardOpenOption.CREATE, StandardOpenOption.READ,
+					StandardOpenOption.WRITE)) {
+				FileLock lock = channel.lock();
+				try {
+					LinkedHashMap<String, Long> sequences = 
+							readSequences(channel);
+					// Another system may have reserved IDs past this one.
+					Long saved = sequences.get(name);
+					long start = Math.max(id, (saved == null) ? 0 : saved);
+					sequences.put(name, start + BLOCK_SIZE);
+					writeSequences(channel, sequences);
+
+					// No thread can take an ID until the new limit is set.
+					nextID.set(start);
+					limit = start + BLOCK_SIZE;
+				} finally {
+					lock.release();
+				}
+			} catch (IOException e) {
+				System.out.println("Cannot write to " + filePath);
+				System.exit(-1);
+			}
+		}
+	}
+
+	/**
+	 * Reads the end of the reserved block of each sequence in the file.
+	 * Each line holds the name of a sequence, then the end of its block.
+	 * @param channel The open sequence file.
+	 * @return The end of each block, using the name of the sequence as
+	 *         the key.
+	 * @throws IOException If the file can't be read.
+	 */
+	private static LinkedHashMap<String, Long> readSequences(
+			FileChannel channel) throws IOException {
+		ByteBuffer buffer = ByteBuffer.allocate((int) channel.size());
+		while (buffer.hasRemaining()) {
+			if (channel.read(buffer, buffer.position()) < 0) {
+				break;
+			}
+		}
+		String text = new String(buffer.array(), 0, buffer.position(),
+				StandardCharsets.UTF_8);
+
+		LinkedHashMap<String, Long> sequences = new LinkedHashMap<>();
+		for (String line : text.split("\n")) {
+			String[] fields = line.trim().split(",");
+			if (fields.length >= 2) {
+				sequences.put(fields[0], Long.parseLong(fields[1]));
+			}
+		}
+		return sequences;
+	}
+
+	/**
+	 * Writes the end of the reserved block of each sequence to the file
+	 * and syncs it to disk.
+	 * @param channel The open sequence file.
+	 * @param sequences The end of each block, using the name of the
+	 *        sequence as the key.
+	 * @throws IOException If the file can't be written.
+	 */
+	private static void writeSequences(FileChannel channel,
+			LinkedHashMap<String, Long> sequences) throws IOException {
+		ByteArrayOutputStream output = new ByteArrayOutputStream();
+		for (Map.Entry<String, Long> entry : sequences.entrySet()) {
+			String line = entry.getKey() + "," + entry.getValue() + ","
+					+ System.lineSeparator();
+			output.write(line.getBytes(StandardCharsets.UTF_8));
+		}
+
+		// The values only grow, so writing over the old ones first means
+		// the file is never left shorter than a whole record.
+		ByteBuffer buffer = ByteBuffer.wrap(output.toByteArray());
+		while (buffer.hasRemaining()) {
+			channel.write(buffer, buffer.position());
+		}
+		channel.truncate(buffer.limit());
+		channel.force(false);
+	}
+}
@@ -0,0 +1,187 @@
+package data;
+
+import java.io.File;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.Iterator;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+
+import javafx.application.Platform;
+import javafx.scene.image.Image;
+import javafx.scene.image.ImageView;
+import javafx.scene.image.WritableImage;
+import javafx.scene.paint.Color;
+
+/**
+ * The ImageCache class shows resource thumbnails and profile pictures
+ * without decoding the same file again each time it's shown. Images are
+ * decoded on a background thread at the size of the image view they are
+ * shown in (rather than at full size), from the smaller copies made by
+ * Thumbnails when there are some, and a grey placeholder is shown while
+ * they load. The decoded images are kept until they go over a
+ * memory budget (-Dtawelib.imageCacheBytes, default 32 MB), at which
+ * point the least recently shown ones are dropped. All methods must be
+ * called on the JavaFX thread.
+ * @author William King
+ */
+public class ImageCache {
+	/** The most bytes of decoded images kept. */
+	private static final long BUDGET_BYTES =
+			Long.getLong("tawelib.imageCacheBytes", 32L * 1024 * 1024);
+	/** The property of an image view that holds the image it's waiting
+	 * for. */
+	private static final String WANTED_KEY = "tawelib.wantedImage";
+	/** The only instance of the class. */
+	private static ImageCache instance = null;
+	/** The thread that decodes the images. */
+	private static final ExecutorService executor =
+			Executors.newSingleThreadExecutor(task -> {
+				Thread thread = new Thread(task, "Image Loader");
+				thread.setDaemon(true);
+				return thread;
+			});
+
+	/** The decoded images, least recently shown first. */
+	private final LinkedHashMap<String, Image> images =
+			new LinkedHashMap<>(16, 0.75f, true);
+	/** The image views waiting for each image being decoded. */
+	private final HashMap<String, List<ImageView>> loading = new HashMap<>();
+	/** The number of bytes the decoded images take up. */
+	private long usedBytes = 0;
+	/** Shown while an image loads. */
+	private Image placeholder = null;
+
+	/**
+	 * Constructor for the ImageCache class. Use getInstance instead.
+	 */
+	private ImageCache() {
+	}
+
+	/**
+	 * Gets the image cache.
+	 * @return The only instance of the class.
+	 */
+	public static ImageCache getInstance() {
+		if (instance == null) {
+			instance = new ImageCache();
+		}
+		return instance;
+	}
+
+	/**
+	 * Shows an image file in an image view. If the image has already been
+	 * decoded at the view's size it's shown straight away, otherwise the
+	 * placeholder is shown until it has been decoded.
+	 * @param view The image view (its fit width and height are used as
+	 *        the size to decode at).
+	 * @param file The image file.
+	 */
+	public void show(ImageView view, File file) {
+		double width = view.getFitWidth();
+		double height = view.getFitHeight();
+		String key = file.getPath() + "@" + width + "x" + height;
+		view.getProperties().put(WANTED_KEY, key);
+
+		Image image = images.get(key);
+		if (image != null) {
+			view.setImage(image);
+			return;
+		}
+		view.setImage(getPlaceholder());
+
+		List<ImageView> waiting = loading.get(key);
+		if (waiting != null) {
+			// Already being decoded for another view.
+			if (!waiting.contains(view)) {
+				waiting.add(view);
+			}
+			return;
+		}
+		waiting = new ArrayList<>();
+		waiting.add(view);
+		loading.put(key, waiting);
+		executor.execute(() -> {
+			String url = Thumbnails.getCopy(file, width, height).toURI()
+					.toString();
+			Image decoded = new Image(url, width, height, true, true, false);
+			Platform.runLater(() -> loaded(key, decoded));
+		});
+	}
+
+	/**
+	 * Makes the smaller copy of a resource thumbnail image on the
+	 * background thread. Images shown after this are decoded from the
+	 * copy.
+	 * @param file The image file.
+	 */
+	public void makeThumbnails(File file) {
+		executor.execute(() -> Thumbnails.generate(file));
+	}
+
+	/**
+	 * Stores a decoded image and shows it in the views still waiting for
+	 * it.
+	 * @param key The file and size the image was decoded at.
+	 * @param image The decoded image.
+	 */
+	private void loaded(String key, Image image) {
+		List<ImageView> waiting = loading.remove(key);
+		if (image.isError()) {
+			// Leave the placeholder, and try again next time.
+			System.out.println("Cannot load image " + key);
+			return;
+		}
+		add(key, image);
+		for (ImageView view : waiting) {
+			// The view may have moved on to another image.
+			if (key.equals(view.getProperties().get(WANTED_KEY))) {
+				view.setImage(image);
+			}
+		}
+	}
+
+	/**
+	 * Adds a decoded image, dropping the least recently shown images
+	 * until they fit in the budget.
+	 * @param key The file and size the image was decoded at.
+	 * @param image The decoded image.
+	 */
+	private void add(String key, Image image) {
+		images.put(key, image);
+		usedBytes += getBytes(image);
+		Iterator<Map.Entry<String, Image>> oldest =
+				images.entrySet().iterator();
+		// Always keep the newest image, even if it's over the budget.
+		while (usedBytes > BUDGET_BYTES && images.size() > 1) {
+			usedBytes -= getBytes(oldest.next().getValue());
+			oldest.remove();
+		}
+	}
+
+	/**
+	 * Gets roughly how much memory a decoded image takes up.
+	 * @param image The image.
+	 * @return The number of bytes (4 for each pixel).
+	 */
+	private static long getBytes(Image image) {
+		return (long) image.getWidth() * (long) image.getHeight() * 4;
+	}
+
+	/**
+	 * Gets the placeholder shown while an image loads: a single grey
+	 * pixel, stretched to the size of the view.
+	 * @return The placeholder.
+	 */
+	private Image getPlaceholder() {
+		if (placeholder == null) {
+			WritableImage grey = new WritableImage(1, 1);
+			grey.getPixelWriter().setColor(0, 0, Color.LIGHTGREY);
+			placeholder = grey;
+		}
+		return placeholder;
+	}
+}
@@ -0,0 +1,220 @@
+package data;
+
+import java.io.BufferedReader;
+import java.io.BufferedWriter;
+import java.io.File;
+import java.io.FileOutputStream;
+import java.io.FileReader;
+import java.io.IOException;
+import java.io.OutputStreamWriter;
+import java.io.PrintWriter;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+
+/**
+ * The Journal class holds the changes made to a data file.
+ * Instead of rewriting the whole data file, each new or edited record is
+ * added to the end of the data file's journal. When the data file is read,
+ * the latest version of each record (matched by its ID, the first field)
+ * is used. Once the journal gets large enough, it's folded back into the
+ * data file in the background.
+ * @author William King
+ */
+public class Journal {
+	/** The number of records in a journal before it's folded back in. */
+	private static final int COMPACT_THRESHOLD = 500;
+	/** The journals of each data file, using the file path as the key. */
+	private static final HashMap<String, Journal> journals = new HashMap<>();
+	/** The background thread that folds the journals into the data files. */
+	private static final ExecutorService compactor =
+			Executors.newSingleThreadExecutor(runnable -> {
+				Thread thread = new Thread(runnable, "Journal compactor");
+				thread.setDaemon(true);
+				return thread;
+			});
+
+	/** The path of the data file. */
+	private final String filePath;
+	/** The journal that new changes are added to. */
+	private final File journalFile;
+	/** The journal that is being folded into the data file. */
+	private final File compactingFile;
+	/** The number of records added to the journal. */
+	private int pendingRecords;
+	/** Whether the compactor has been asked to fold the journal. */
+	private boolean compactScheduled;
+
+	/**
+	 * Constructor for the Journal class.
+	 * @param filePath The path of the data file.
+	 */
+	private Journal(String filePath) {
+		this.filePath = filePath;
+		this.journalFile = new File(filePath + ".journal");
+		this.compactingFile = new File(filePath + ".compacting");
+	}
+
+	/**
+	 * Gets the journal of a data file.
+	 * @param filePath The path of the data file.
+	 * @return The data file's journal.
+	 */
+	public static synchronized Journal forFile(String filePath) {
+		Journal journal = journals.get(filePath);
+		if (journal == null) {
+			journal = new Journal(filePath);
+			journals.put(filePath, journal);
+		}
+		return journal;
+	}
+
+	/**
+	 * Adds a new or edited record to the end of the journal.
+	 * @param record The details of the record.
+	 */
+	public void append(String record) {
+		ArrayList<String> records = new ArrayList<>();
+		records.add(record);
+		appendAll(records, false);
+	}
+
+	/**
+	 * Adds new or edited records to the end of the journal in one write.
+	 * @param records The details of each record.
+	 * @param sync Whether to wait until the records are stored on disk.
+	 */
+	public synchronized void appendAll(List<String> records, boolean sync) {
+		try {
+			FileOutputStream output = new FileOutputStream(journalFile, true);
+			PrintWriter printWriter = new PrintWriter(new BufferedWriter(
+					new OutputStreamWriter(output)));
+			// Writes each record then adds a new line.
+			for (String record : records) {
+				printWriter.print(record);
+				printWriter.println("");
+			}
+			printWriter.flush();
+			if (sync) {
+				output.getFD().sync();
+			}
+			printWriter.close();
+		} catch (IOException e) {
+			System.out.println("Cannot write to " + journalFile.getPath());
+			System.exit(-1);
+		}
+
+		pendingRecords += records.size();
+		if (pendingRecords >= COMPACT_THRESHOLD) {
+			scheduleCompact();
+		}
+	}
+
+	/**
+	 * Gets the latest version of each record that has been changed
+	 * since the data file was last written.
+	 * @return The records in the order they were first changed, using
+	 *         their ID as the key.
+	 */
+	public synchronized LinkedHashMap<String, String> getChanges() {
+		LinkedHashMap<String, String> changes = new LinkedHashMap<>();
+		// Changes still being folded in are older than the journal.
+		readRecords(compactingFile, changes);
+		pendingRecords = readRecords(journalFile, changes);
+		return changes;
+	}
+
+	/**
+	 * Gets the ID of a record (its first field).
+	 * @param record The details of the record.
+	 * @return The ID of the record.
+	 */
+	public static String getKey(String record) {
+		int end = record.indexOf(',');
+		return (end < 0) ? record : record.substring(0, end);
+	}
+
+	/**
+	 * Asks the compactor to fold the journal into the data file, unless
+	 * it has already been asked to.
+	 */
+	public synchronized void scheduleCompact() {
+		if (!compactScheduled && (journalFile.exists()
+				|| compactingFile.exists())) {
+			compactScheduled = true;
+			compactor.execute(this::compact);
+		}
+	}
+
+	/**
+	 * Folds the journal into the data file. The journal is moved aside
+	 * first, so new changes can still be added while the data file is
+	 * being written. The new data file is written to a temporary file,
+	 * then swapped in.
+	 */
+	private void compact() {
+		synchronized (this) {
+			compactScheduled = false;
+			// A journal left from an earlier compaction is finished first.
+			if (!compactingFile.exists()) {
+				if (!journalFile.exists()) {
+					return;
+				}
+				if (!journalFile.renameTo(compactingFile)) {
+					System.out.println("Cannot move " + journalFile.getPath());
+					return;
+				}
+				pendingRecords = 0;
+			}
+		}
+
+		LinkedHashMap<String, String> changes = new LinkedHashMap<>();
+		readRecords(compactingFile, changes);
+
+		try {
+			File tempFile = RecordRewriter.writeTemp(filePath, changes);
+			synchronized (this) {
+				RecordRewriter.swap(tempFile, filePath);
+				compactingFile.delete();
+			}
+		} catch (IOException e) {
+			// The journal is kept, so it's tried again next time.
+			System.out.println("Cannot compact " + filePath);
+			new File(filePath + ".tmp").delete();
+		}
+	}
+
+	/**
+	 * Reads the records of a journal, keeping the latest version of each.
+	 * A record that was cut short (e.g. by a crash) is ignored.
+	 * @param file The journal to read.
+	 * @param changes The records read so far, using their ID as the key.
+	 * @return The number of records read.
+	 */
+	private int readRecords(File file, LinkedHashMap<String, String> changes) {
+		if (!file.exists()) {
+			return 0;
+		}
+
+		int count = 0;
+		try {
+			BufferedReader reader = new BufferedReader(new FileReader(file));
+			String line = reader.readLine();
+			while (line != null) {
+				if (line.endsWith(",")) {
+					changes.put(getKey(line), line);
+					count++;
+				}
+				line = reader.readLine();
+			}
+			reader.close();
+		} catch (IOException e) {
+			System.out.println("Cannot read " + file.getPath());
+			System.exit(-1);
+		}
+		return count;
+	}
+}
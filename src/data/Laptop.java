@@ -16,10 +16,10 @@ public class Laptop extends Resource {
 	private String operatingSystem;
 	
 	/** The fine incurred per day for a late return in GBP (£). */
-	private final double FINE_PER_DAY = 10.00;
+	public static final double FINE_PER_DAY = 10.00;
 	
 	/** The maximum fine this resource can incur in GBP (£). */
-	private final double MAX_FINE = 100.00;
+	public static final double MAX_FINE = 100.00;
 	
 	/**
 	 * Constructor for the Laptop class.
@@ -53,6 +53,33 @@ public class Laptop extends Resource {
 		return laptopString.toLowerCase();
 	}
 	
+	/**
+	 * Gets a fingerprint of the laptop's details, which is the same for 
+	 * any two laptops with the same details.
+	 * @return The fingerprint of the laptop's details.
+	 */
+	public long getFingerprint() {
+		return fingerprintOf(resourceTitle, year, thumbnail, manufacturer, 
+				model, operatingSystem);
+	}
+	
+	/**
+	 * Works out the fingerprint a laptop with these details would have.
+	 * @param resourceTitle The laptop title.
+	 * @param year The year the laptop was released.
+	 * @param thumbnail The name of the thumbnail image.
+	 * @param manufacturer The manufacturer of the laptop.
+	 * @param model The model of the laptop.
+	 * @param operatingSystem The operating system of the laptop.
+	 * @return The fingerprint of the details.
+	 */
+	public static long fingerprintOf(String resourceTitle, int year, 
+			String thumbnail, String manufacturer, String model, 
+			String operatingSystem) {
+		return fingerprint("Laptop", resourceTitle, year + "", thumbnail, 
+				manufacturer, model, operatingSystem);
+	}
+	
 	/**
 	 * Gets a string of the laptop's full details for file saving.
 	 * @return String of the laptop's full details.
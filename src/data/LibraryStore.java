@@ -0,0 +1,731 @@
+package data;
+
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.concurrent.ForkJoinTask;
+
+/**
+ * The LibraryStore class holds the in-memory copy of every data file.
+ * The data files are loaded once when the system starts and all the pages
+ * share the same lists, so navigating between pages doesn't read any files.
+ * Any changes are made through the store, which updates the lists and
+ * writes the change to the data files.
+ * @author William King
+ */
+public class LibraryStore {
+	/** The single instance of the store used by the whole system. */
+	private static LibraryStore instance;
+
+	/** All the users in the system, using their username as the key. */
+	private LinkedHashMap<String, User> users;
+	/** All the librarians in the system, using their username as the key. */
+	private LinkedHashMap<String, Librarian> librarians;
+	/** All the books in the system. */
+	private ArrayList<Book> books;
+	/** All the DVDs in the system. */
+	private ArrayList<DVD> dvds;
+	/** All the laptops in the system. */
+	private ArrayList<Laptop> laptops;
+	/** All the copies in the system (ascending order of copy ID). */
+	private ArrayList<Copy> copies;
+	/** All the requests in the system (ascending order of request ID). */
+	private ArrayList<Request> requests;
+	/** All the loans in the system (ascending order of loan ID). */
+	private ArrayList<Loan> loans;
+	/** All the transactions in the system (ascending order of
+	 * transaction ID). */
+	private ArrayList<Transaction> transactions;
+	/** Finds loans by their username, copy ID or resource ID. */
+	private LoanIndex loanIndex;
+	/** The unfilled requests waiting for each copy. */
+	private HoldQueues holdQueues;
+	/** Finds the overdue loans and the users who have them. */
+	private OverdueTracker overdueTracker;
+	/** The fines users are building up on overdue loans that haven't
+	 * been returned, using the username as the key. */
+	private HashMap<String, Double> accruingFines = new HashMap<>();
+	/** The day (days since 1970-01-01) the accruing fines were worked
+	 * out on. */
+	private int accruedDay = Utility.NO_DATE;
+	/** Finds resources by the words in their details. Built the first
+	 * time a search is made. */
+	private SearchIndex searchIndex;
+	/** Finds resources by their title and author, allowing for spelling
+	 * mistakes. Built the first time a search like this is made. */
+	private FuzzyIndex fuzzyIndex;
+	/** Filters resources by their type, genre, language, subtitle
+	 * languages and year. Built the first time it's needed. */
+	private FacetIndex facetIndex;
+	/** The resources with each fingerprint, so duplicates can be found
+	 * without looking through every resource. Built the first time it's
+	 * needed. */
+	private HashMap<Long, ArrayList<Resource>> fingerprints;
+	/** The fingerprint each resource was added under, using the resource
+	 * ID as the key, so it can be moved when the resource is edited. */
+	private HashMap<Integer, Long> fingerprintsByID;
+	/** Hands out the IDs of new loans. */
+	private IdSequence loanIDs;
+	/** Hands out the IDs of new requests. */
+	private IdSequence requestIDs;
+	/** Hands out the IDs of new transactions. */
+	private IdSequence transactionIDs;
+	/** The username of the currently logged in user. */
+	private String currentUser;
+
+	/**
+	 * Constructor for the LibraryStore class. Loads all the data files.
+	 */
+	private LibraryStore() {
+		long startTime = System.nanoTime();
+		Snapshot snapshot = FileHandling.getSnapshot();
+		if (snapshot != null) {
+			users = snapshot.getUsers();
+			librarians = snapshot.getLibrarians();
+			books = snapshot.getBooks();
+			dvds = snapshot.getDVDs();
+			laptops = snapshot.getLaptops();
+			copies = snapshot.getCopies();
+			requests = snapshot.getRequests();
+			loans = snapshot.getLoans();
+			transactions = snapshot.getTransactions();
+			System.out.printf("Loaded snapshot in %d ms%n",
+					(System.nanoTime() - startTime) / 1000000);
+		} else {
+			loadDataFiles();
+			System.out.printf("Loaded %.2f MB of data in %d ms (parsed at "
+					+ "%.1f MB/s)%n",
+					RecordReader.getTotalBytes() / (1024.0 * 1024.0),
+					(System.nanoTime() - startTime) / 1000000,
+					RecordReader.getThroughput());
+		}
+		currentUser = FileHandling.getCurrentUser();
+
+		// New records are always added to the end with the next ID,
+		// so the lists only need to be sorted once.
+		Collections.sort(copies);
+		Collections.sort(requests);
+		Collections.sort(loans);
+		Collections.sort(transactions);
+
+		loanIndex = new LoanIndex(loans);
+		holdQueues = new HoldQueues(requests);
+		overdueTracker = new OverdueTracker(loanIndex.getActiveLoans());
+
+		// New IDs carry on from the highest ID in each list.
+		loanIDs = FileHandling.openIdSequence("Loan", loans.isEmpty()
+				? 0 : loans.get(loans.size() - 1).getLoanID());
+		requestIDs = FileHandling.openIdSequence("Request", requests.isEmpty()
+				? 0 : requests.get(requests.size() - 1).getRequestID());
+		transactionIDs = FileHandling.openIdSequence("Transaction",
+				transactions.isEmpty() ? 0 : transactions.get(
+				transactions.size() - 1).getTransactionID());
+
+		// Fold any changes left in the journals back into the data files.
+		FileHandling.compactJournals();
+	}
+
+	/**
+	 * Loads all the data files at the same time on the fork join pool,
+	 * as none of them depend on each other.
+	 */
+	private void loadDataFiles() {
+		ForkJoinTask<LinkedHashMap<String, User>> usersTask =
+				ForkJoinTask.adapt(FileHandling::getUsers).fork();
+		ForkJoinTask<LinkedHashMap<String, Librarian>> librariansTask =
+				ForkJoinTask.adapt(FileHandling::getLibrarians).fork();
+		ForkJoinTask<ArrayList<Book>> booksTask =
+				ForkJoinTask.adapt(FileHandling::getBooks).fork();
+		ForkJoinTask<ArrayList<DVD>> dvdsTask =
+				ForkJoinTask.adapt(FileHandling::getDVDs).fork();
+		ForkJoinTask<ArrayList<Laptop>> laptopsTask =
+				ForkJoinTask.adapt(FileHandling::getLaptops).fork();
+		ForkJoinTask<ArrayList<Copy>> copiesTask =
+				ForkJoinTask.adapt(FileHandling::getCopies).fork();
+		ForkJoinTask<ArrayList<Request>> requestsTask =
+				ForkJoinTask.adapt(FileHandling::getRequests).fork();
+		ForkJoinTask<ArrayList<Loan>> loansTask =
+				ForkJoinTask.adapt(FileHandling::getLoans).fork();
+		ForkJoinTask<ArrayList<Transaction>> transactionsTask =
+				ForkJoinTask.adapt(FileHandling::getTransactions).fork();
+
+		users = usersTask.join();
+		librarians = librariansTask.join();
+		books = booksTask.join();
+		dvds = dvdsTask.join();
+		laptops = laptopsTask.join();
+		copies = copiesTask.join();
+		requests = requestsTask.join();
+		loans = loansTask.join();
+		transactions = transactionsTask.join();
+	}
+
+	/**
+	 * Gets the store, loading the data files if it's the first time
+	 * the store is used.
+	 * @return The store shared by the whole system.
+	 */
+	public static synchronized LibraryStore getInstance() {
+		if (instance == null) {
+			instance = new LibraryStore();
+		}
+		return instance;
+	}
+
+	/**
+	 * Starts collecting the changes made by one action, so they're all 
+	 * saved together when the work is committed.
+	 * @return The unit of work to commit once the action is finished.
+	 */
+	public UnitOfWork beginWork() {
+		return UnitOfWork.begin();
+	}
+
+	/**
+	 * Gets the ID for a new loan.
+	 * @return A loan ID that hasn't been used before.
+	 */
+	public int nextLoanID() {
+		return loanIDs.next();
+	}
+
+	/**
+	 * Gets the ID for a new request.
+	 * @return A request ID that hasn't been used before.
+	 */
+	public int nextRequestID() {
+		return requestIDs.next();
+	}
+
+	/**
+	 * Gets the ID for a new transaction.
+	 * @return A transaction ID that hasn't been used before.
+	 */
+	public int nextTransactionID() {
+		return transactionIDs.next();
+	}
+
+	/**
+	 * Saves a snapshot of all the data, so the next start doesn't need 
+	 * to parse the data files.
+	 */
+	public void saveSnapshot() {
+		FileHandling.saveSnapshot(new Snapshot(users, librarians, books, dvds,
+				laptops, copies, requests, loans, transactions));
+	}
+
+	/**
+	 * Gets all the users in the system.
+	 * @return LinkedHashMap of all users in the system.
+	 */
+	public LinkedHashMap<String, User> getUsers() {
+		return users;
+	}
+
+	/**
+	 * Gets all the librarians in the system.
+	 * @return LinkedHashMap of all librarians in the system.
+	 */
+	public LinkedHashMap<String, Librarian> getLibrarians() {
+		return librarians;
+	}
+
+	/**
+	 * Gets all the books in the system.
+	 * @return ArrayList of all books in the system.
+	 */
+	public ArrayList<Book> getBooks() {
+		return books;
+	}
+
+	/**
+	 * Gets all the DVDs in the system.
+	 * @return ArrayList of all DVDs in the system.
+	 */
+	public ArrayList<DVD> getDVDs() {
+		return dvds;
+	}
+
+	/**
+	 * Gets all the laptops in the system.
+	 * @return ArrayList of all laptops in the system.
+	 */
+	public ArrayList<Laptop> getLaptops() {
+		return laptops;
+	}
+
+	/**
+	 * Gets all the copies in the system.
+	 * @return ArrayList of all copies in ascending order of copy ID.
+	 */
+	public ArrayList<Copy> getCopies() {
+		return copies;
+	}
+
+	/**
+	 * Gets all the requests in the system.
+	 * @return ArrayList of all requests in ascending order of request ID.
+	 */
+	public ArrayList<Request> getRequests() {
+		return requests;
+	}
+
+	/**
+	 * Gets all the loans in the system.
+	 * @return ArrayList of all loans in ascending order of loan ID.
+	 */
+	public ArrayList<Loan> getLoans() {
+		return loans;
+	}
+
+	/**
+	 * Gets the search index, building it the first time it's needed.
+	 * @return The search index.
+	 */
+	public synchronized SearchIndex getSearchIndex() {
+		if (searchIndex == null) {
+			searchIndex = new SearchIndex(getAllResources());
+		}
+		return searchIndex;
+	}
+
+	/**
+	 * Gets the index for searches with spelling mistakes, building it the
+	 * first time it's needed.
+	 * @return The fuzzy search index.
+	 */
+	public synchronized FuzzyIndex getFuzzyIndex() {
+		if (fuzzyIndex == null) {
+			fuzzyIndex = new FuzzyIndex(getAllResources());
+		}
+		return fuzzyIndex;
+	}
+
+	/**
+	 * Gets the facet index, building it the first time it's needed.
+	 * @return The facet index.
+	 */
+	public synchronized FacetIndex getFacetIndex() {
+		if (facetIndex == null) {
+			facetIndex = new FacetIndex(getAllResources());
+		}
+		return facetIndex;
+	}
+
+	/**
+	 * Gets the resources with a fingerprint. Resources with different
+	 * details can share one, so their details still need to be compared.
+	 * @param fingerprint The fingerprint of some details.
+	 * @return The resources with that fingerprint (usually none or one).
+	 */
+	public synchronized List<Resource> getResourcesWithFingerprint(
+			long fingerprint) {
+		if (fingerprints == null) {
+			fingerprints = new HashMap<>();
+			fingerprintsByID = new HashMap<>();
+			for (Resource resource : getAllResources()) {
+				addFingerprint(resource);
+			}
+		}
+		ArrayList<Resource> found = fingerprints.get(fingerprint);
+		return (found == null) ? Collections.emptyList() : found;
+	}
+
+	/**
+	 * Adds a resource under its current fingerprint, taking it out from
+	 * under its old one if it's been edited.
+	 * @param resource The new or edited resource.
+	 */
+	private void addFingerprint(Resource resource) {
+		Long oldFingerprint = fingerprintsByID.remove(resource.getResourceID());
+		if (oldFingerprint != null) {
+			ArrayList<Resource> resources = fingerprints.get(oldFingerprint);
+			resources.remove(resource);
+			if (resources.isEmpty()) {
+				fingerprints.remove(oldFingerprint);
+			}
+		}
+		long fingerprint = resource.getFingerprint();
+		ArrayList<Resource> resources = fingerprints.get(fingerprint);
+		if (resources == null) {
+			// Nearly always just the one resource.
+			resources = new ArrayList<>(1);
+			fingerprints.put(fingerprint, resources);
+		}
+		resources.add(resource);
+		fingerprintsByID.put(resource.getResourceID(), fingerprint);
+	}
+
+	/**
+	 * Gets every book, DVD and laptop in one list.
+	 * @return All the resources.
+	 */
+	private ArrayList<Resource> getAllResources() {
+		ArrayList<Resource> resources = new ArrayList<>();
+		resources.addAll(books);
+		resources.addAll(dvds);
+		resources.addAll(laptops);
+		return resources;
+	}
+
+	/**
+	 * Adds a new or edited resource to the search, facet and fingerprint
+	 * indexes that have been built.
+	 * @param resource The new or edited resource.
+	 */
+	private synchronized void updateIndexes(Resource resource) {
+		if (searchIndex != null) {
+			searchIndex.update(resource);
+		}
+		if (fuzzyIndex != null) {
+			fuzzyIndex.update(resource);
+		}
+		if (facetIndex != null) {
+			facetIndex.update(resource);
+		}
+		if (fingerprints != null) {
+			addFingerprint(resource);
+		}
+	}
+
+	/**
+	 * Gets the request that has been waiting the longest for a copy of
+	 * a resource.
+	 * @param resourceID The ID of the resource.
+	 * @param username The user to skip (e.g. the user returning a copy).
+	 * @return The next request, or null if there are none.
+	 */
+	public Request getNextWaitingRequest(int resourceID, String username) {
+		return holdQueues.getNextWaitingRequest(resourceID, username);
+	}
+
+	/**
+	 * Checks if any requests are waiting for a copy of a resource.
+	 * @param resourceID The ID of the resource.
+	 * @return True if there are any waiting requests, otherwise false.
+	 */
+	public boolean hasWaitingRequests(int resourceID) {
+		return holdQueues.hasWaitingRequests(resourceID);
+	}
+
+	/**
+	 * Gives a copy to a waiting request and reserves it for the user,
+	 * then saves the request. If the request was placed on another copy,
+	 * that copy's loan may no longer be needed by anyone (see
+	 * releaseDueDate).
+	 * @param request The waiting request.
+	 * @param copyID The ID of the copy (e.g. one that was just returned).
+	 */
+	public void reserveCopy(Request request, int copyID) {
+		int oldCopyID = request.getCopyID();
+		holdQueues.moveToCopy(request, copyID);
+		request.setReserved(true);
+		editRequest(request);
+		if (oldCopyID != copyID) {
+			releaseDueDate(oldCopyID, request.getResourceID());
+		}
+	}
+
+	/**
+	 * Takes the due date off a copy's active loan once no request needs
+	 * the copy back, i.e. its queue is empty and no one is waiting for
+	 * any copy of the resource. The due date was only set because a
+	 * request was placed on the copy, and that request has been given
+	 * another copy. A loan that is already overdue keeps its due date.
+	 * @param copyID The ID of the copy the request was placed on.
+	 * @param resourceID The ID of the copy's resource.
+	 */
+	private void releaseDueDate(int copyID, int resourceID) {
+		if (holdQueues.getQueueLength(copyID) > 0
+				|| holdQueues.hasWaitingRequests(resourceID)) {
+			return;
+		}
+		for (Loan loan : loanIndex.getCopyLoans(copyID)) {
+			// Overdue once the due date is before today.
+			if (!loan.isReturned() && loan.hasDueDate()
+					&& loan.getDueDay() >= Utility.today()) {
+				loan.clearDueDate();
+				editLoan(loan);
+			}
+		}
+	}
+
+	/**
+	 * Gets the number of unfilled requests for a copy.
+	 * @param copyID The ID of the copy.
+	 * @return The length of the copy's queue.
+	 */
+	public int getQueueLength(int copyID) {
+		return holdQueues.getQueueLength(copyID);
+	}
+
+	/**
+	 * Gets all the loans made by a user.
+	 * @param username The username of the user.
+	 * @return The user's loans, in ascending order of loan ID.
+	 */
+	public List<Loan> getUserLoans(String username) {
+		return loanIndex.getUserLoans(username);
+	}
+
+	/**
+	 * Gets all the loans of a copy.
+	 * @param copyID The ID of the copy.
+	 * @return The copy's loans, in ascending order of loan ID.
+	 */
+	public List<Loan> getCopyLoans(int copyID) {
+		return loanIndex.getCopyLoans(copyID);
+	}
+
+	/**
+	 * Gets the loans of a resource's copies that haven't been returned.
+	 * @param resourceID The ID of the resource.
+	 * @return The resource's active loans.
+	 */
+	public Collection<Loan> getActiveResourceLoans(int resourceID) {
+		return loanIndex.getActiveResourceLoans(resourceID);
+	}
+
+	/**
+	 * Gets all the loans that haven't been returned.
+	 * @return The active loans.
+	 */
+	public Collection<Loan> getActiveLoans() {
+		return loanIndex.getActiveLoans();
+	}
+
+	/**
+	 * Checks if a user has any overdue (unreturned) copies.
+	 * @param username The username of the user.
+	 * @return True if the user has an overdue loan, otherwise false.
+	 */
+	public boolean isOverdue(String username) {
+		return overdueTracker.isOverdue(username);
+	}
+
+	/**
+	 * Gets all the loans that are past their due date and haven't been
+	 * returned.
+	 * @return The overdue loans.
+	 */
+	public Collection<Loan> getOverdueLoans() {
+		return overdueTracker.getOverdueLoans();
+	}
+
+	/**
+	 * Gets the fine a user is building up on their overdue loans. This
+	 * isn't part of their balance until the loans are returned.
+	 * @param username The username of the user.
+	 * @return The user's provisional fine in GBP (£).
+	 */
+	public double getAccruingFine(String username) {
+		if (accruedDay != Utility.today()) {
+			accrueFines();
+		}
+		Double fine = accruingFines.get(username);
+		return (fine == null) ? 0 : fine;
+	}
+
+	/**
+	 * Works out the fines every user is building up on their overdue
+	 * loans. Runs once a day, when the fines are first needed.
+	 */
+	public void accrueFines() {
+		int today = Utility.today();
+		Loan[] overdueLoans = getOverdueLoans().toArray(new Loan[0]);
+		// The new totals replace the old ones in one go.
+		accruingFines = FineAccrual.accrue(overdueLoans, today);
+		accruedDay = today;
+	}
+
+	/**
+	 * Gets all the transactions in the system.
+	 * @return ArrayList of all transactions in ascending order of
+	 *         transaction ID.
+	 */
+	public ArrayList<Transaction> getTransactions() {
+		return transactions;
+	}
+
+	/**
+	 * Gets the username of the currently logged in user.
+	 * @return The current user's username.
+	 */
+	public String getCurrentUser() {
+		return currentUser;
+	}
+
+	/**
+	 * Waits until all the changes made so far are saved in the data files.
+	 */
+	public void flushChanges() {
+		FileHandling.flushChanges();
+	}
+
+	/**
+	 * Sets the currently logged in user and saves it. All the changes
+	 * made by the previous user are saved first.
+	 * @param currentUser Username of the current user.
+	 */
+	public void setCurrentUser(String currentUser) {
+		flushChanges();
+		this.currentUser = currentUser;
+		FileHandling.setCurrentUser(currentUser);
+	}
+
+	/**
+	 * Adds a new user or librarian and saves them.
+	 * @param newUser The new user.
+	 * @param userType Integer showing whether the user is staff or a member.
+	 */
+	public void createUser(User newUser, int userType) {
+		switch (userType) {
+			case 1:
+				librarians.put(newUser.getUsername(), (Librarian) newUser);
+				break;
+			case 2:
+				users.put(newUser.getUsername(), newUser);
+				break;
+		}
+		FileHandling.createUser(newUser.toStringDetail(), userType);
+	}
+
+	/**
+	 * Saves the changes made to a user or librarian.
+	 * @param editedUser The edited user.
+	 * @param userType Integer showing whether the user is staff or a member.
+	 */
+	public void editProfile(User editedUser, int userType) {
+		FileHandling.editProfile(editedUser.toStringDetail(), userType);
+	}
+
+	/**
+	 * Adds a new resource and saves it.
+	 * @param newResource The new book, DVD or laptop.
+	 */
+	public void createResource(Resource newResource) {
+		ResourceType resourceType = null;
+		switch (newResource.getType()) {
+			case "Book":
+				books.add((Book) newResource);
+				resourceType = ResourceType.BOOK;
+				break;
+			case "DVD":
+				dvds.add((DVD) newResource);
+				resourceType = ResourceType.DVD;
+				break;
+			case "Laptop":
+				laptops.add((Laptop) newResource);
+				resourceType = ResourceType.LAPTOP;
+				break;
+		}
+		updateIndexes(newResource);
+		FileHandling.createResource(newResource.toStringDetail(), resourceType);
+	}
+
+	/**
+	 * Saves the changes made to a resource.
+	 * @param editedResource The edited resource.
+	 */
+	public void editResource(Resource editedResource) {
+		updateIndexes(editedResource);
+		FileHandling.editResource(editedResource.toStringDetail(),
+				editedResource.getType());
+	}
+
+	/**
+	 * Adds a new copy and saves it.
+	 * @param newCopy The new copy.
+	 */
+	public void createCopy(Copy newCopy) {
+		copies.add(newCopy);
+		FileHandling.createCopy(newCopy);
+	}
+
+	/**
+	 * Saves the changes made to a copy.
+	 * @param editedCopy The edited copy.
+	 */
+	public void editCopy(Copy editedCopy) {
+		FileHandling.editCopy(editedCopy);
+	}
+
+	/**
+	 * Adds a new request and saves it.
+	 * @param newRequest The new request.
+	 */
+	public void makeRequest(Request newRequest) {
+		requests.add(newRequest);
+		holdQueues.add(newRequest);
+		FileHandling.makeRequest(newRequest.toStringDetail());
+	}
+
+	/**
+	 * Saves the changes made to a request.
+	 * @param editedRequest The edited request.
+	 */
+	public void editRequest(Request editedRequest) {
+		holdQueues.update(editedRequest);
+		FileHandling.editRequest(editedRequest.toStringDetail());
+	}
+
+	/**
+	 * Adds a new loan and saves it.
+	 * @param newLoan The new loan.
+	 */
+	public void createLoan(Loan newLoan) {
+		loans.add(newLoan);
+		loanIndex.add(newLoan);
+		overdueTracker.add(newLoan);
+		FileHandling.createLoan(newLoan);
+	}
+
+	/**
+	 * Saves the changes made to a loan.
+	 * @param editedLoan The edited loan.
+	 */
+	public void editLoan(Loan editedLoan) {
+		loanIndex.update(editedLoan);
+		overdueTracker.update(editedLoan);
+		if (editedLoan.isReturned()) {
+			removeAccruingFine(editedLoan);
+		}
+		FileHandling.editLoan(editedLoan);
+	}
+
+	/**
+	 * Takes a returned loan's fine out of its user's accruing fine, as
+	 * the fine is added to their balance instead.
+	 * @param returnedLoan The loan that was just returned.
+	 */
+	private void removeAccruingFine(Loan returnedLoan) {
+		if (!returnedLoan.hasDueDate()) {
+			return;
+		}
+		String username = returnedLoan.getUsername();
+		Double fine = accruingFines.get(username);
+		if (fine != null) {
+			double newFine = fine - FineAccrual.getFine(
+					accruedDay - returnedLoan.getDueDay(),
+					returnedLoan.getType());
+			newFine = Math.round(newFine * 100.0) / 100.0;
+			if (newFine <= 0) {
+				accruingFines.remove(username);
+			} else {
+				accruingFines.put(username, newFine);
+			}
+		}
+	}
+
+	/**
+	 * Adds a new transaction and saves it.
+	 * @param newTransaction The new transaction.
+	 */
+	public void makeTransaction(Transaction newTransaction) {
+		transactions.add(newTransaction);
+		FileHandling.makeTransaction(newTransaction.toStringDetail());
+	}
+}
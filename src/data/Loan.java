@@ -1,8 +1,5 @@
 package data;
 
-import static java.time.temporal.ChronoUnit.DAYS;
-import java.time.LocalDate;
-
 /**
  * The Loan class models a loan of a copy in the system.
  * Librarians can loan copies of a resource to users who request for them.
@@ -13,26 +10,28 @@ public class Loan implements Comparable<Loan>{
 	/** A unique ID for the Loan. */
 	private int loanID;
 	
-	/** The date the Loan was issued (YYYY-MM-DD). */
-	private String checkoutDate;
+	/** The date the Loan was issued (days since 1970-01-01). */
+	private int checkoutDay;
 	
-	/** The time the Loan was issued (HH:MM:SS). */
-	private String checkoutTime;
+	/** The time the Loan was issued (seconds since midnight). */
+	private int checkoutSecond;
 	
 	/** The date the Loan needs to be returned. It's set when the copy is 
 	 * requested and it's either the loan duration or the day after the 
-	 * request was made - (YYYY-MM-DD) - otherwise "".
+	 * request was made - (days since 1970-01-01) - otherwise NO_DATE.
 	 */
-	private String dueDate;
+	private int dueDay;
 	
 	/** Whether the Loan has been returned or not. */
 	private boolean returned;
 	
-	/** The date that the Loan was returned (YYYY-MM-DD). */
-	private String returnDate;
+	/** The date that the Loan was returned (days since 1970-01-01), 
+	 * otherwise NO_DATE. */
+	private int returnDay;
 	
-	/** The time that the Loan was returned (HH:MM:SS). */
-	private String returnTime;
+	/** The time that the Loan was returned (seconds since midnight), 
+	 * otherwise NO_TIME. */
+	private int returnSecond;
 	
 	/** The number of days past the due date for the returned Loan. */
 	private int daysOverdue;
@@ -75,19 +74,49 @@ public class Loan implements Comparable<Loan>{
 			int staffID, String checkoutDate, String checkoutTime, String dueDate,
 			boolean returned, String returnDate, String returnTime, int daysOverdue,
 			ResourceType type) {
+		// The dates and times are only read once, when the loan is made.
+		this(loanID, copyID, resourceID, username, staffID, 
+				Utility.toEpochDay(checkoutDate), 
+				Utility.toSecondOfDay(checkoutTime), 
+				Utility.toEpochDay(dueDate), returned, 
+				Utility.toEpochDay(returnDate), 
+				Utility.toSecondOfDay(returnTime), daysOverdue, type);
+	}
+	
+	/**
+	 * Constructor for the Loan class, with the dates as days since 
+	 * 1970-01-01 and the times as seconds since midnight.
+	 * @param loanID A unique ID for the Loan.
+	 * @param copyID The ID of the loaned copy.
+	 * @param resourceID The ID of the resource.
+	 * @param username The username of the user who the Loan was issued to.
+	 * @param staffID The ID of the librarian who authorised the Loan.
+	 * @param checkoutDay The date the Loan was issued.
+	 * @param checkoutSecond The time the loan was issued.
+	 * @param dueDay The date the Loan needs to be returned (or NO_DATE).
+	 * @param returned Whether the Loan has been returned or not.
+	 * @param returnDay The date that the Loan was returned (or NO_DATE).
+	 * @param returnSecond The time that the loan was returned (or NO_TIME).
+	 * @param daysOverdue The amount of days overdue an item is;
+	 * @param type The type of resource of the loaned copy.
+	 */
+	public Loan (int loanID, int copyID, int resourceID, String username, 
+			int staffID, int checkoutDay, int checkoutSecond, int dueDay,
+			boolean returned, int returnDay, int returnSecond, int daysOverdue,
+			ResourceType type) {
 		this.loanID = loanID;
 		this.copyID = copyID;
 		this.resourceID = resourceID;
 		this.username = username;
 		this.staffID = staffID;
-		this.checkoutDate = checkoutDate;
-		this.checkoutTime = checkoutTime;
+		this.checkoutDay = checkoutDay;
+		this.checkoutSecond = checkoutSecond;
 		this.type = type;
 		
-		this.dueDate = dueDate;
+		this.dueDay = dueDay;
 		this.returned = returned;
-		this.returnDate = returnDate;
-		this.returnTime = returnTime;
+		this.returnDay = returnDay;
+		this.returnSecond = returnSecond;
 		this.daysOverdue = daysOverdue;
 	}
 	
@@ -97,9 +126,9 @@ public class Loan implements Comparable<Loan>{
 	 */
 	public String toStringDetail() {
 		String strLoan = loanID + "," + copyID + "," + resourceID + 
-				"," + username + "," + staffID + "," + checkoutDate + 
-				"," + checkoutTime + "," + dueDate + "," + returned + 
-				"," + returnDate + "," + returnTime + "," + daysOverdue + 
+				"," + username + "," + staffID + "," + getCheckoutDate() + 
+				"," + getCheckoutTime() + "," + getDueDate() + "," + returned + 
+				"," + getReturnDate() + "," + getReturnTime() + "," + daysOverdue + 
 				"," + type + ",";
 		return strLoan;
 	}
@@ -149,7 +178,15 @@ public class Loan implements Comparable<Loan>{
 	 * @return The date the Loan was issued (YYYY-MM-DD).
 	 */
 	public String getCheckoutDate() {
-		return checkoutDate;
+		return Utility.formatDate(checkoutDay);
+	}
+	
+	/**
+	 * Gets the date that the Loan was issued.
+	 * @return The date the Loan was issued (days since 1970-01-01).
+	 */
+	public int getCheckoutDay() {
+		return checkoutDay;
 	}
 	
 	/**
@@ -157,39 +194,70 @@ public class Loan implements Comparable<Loan>{
 	 * @return The time the Loan was issued (HH:MM:SS).
 	 */
 	public String getCheckoutTime() {
-		return checkoutTime;
+		return Utility.formatTime(checkoutSecond);
+	}
+	
+	/**
+	 * Gets the time that the Loan was issued.
+	 * @return The time the Loan was issued (seconds since midnight).
+	 */
+	public int getCheckoutSecond() {
+		return checkoutSecond;
 	}
 	
 	/**
 	 * Gets the date that the Loan needs to be returned (YYYY-MM-DD).
-	 * @return The date the Loan needs to be returned (YYYY-MM-DD).
+	 * @return The date the Loan needs to be returned (YYYY-MM-DD), 
+	 *         or "" if it hasn't been set.
 	 */
 	public String getDueDate() {
-		return dueDate;
+		return Utility.formatDate(dueDay);
+	}
+	
+	/**
+	 * Gets the date that the Loan needs to be returned.
+	 * @return The date the Loan needs to be returned (days since 
+	 *         1970-01-01), or NO_DATE if it hasn't been set.
+	 */
+	public int getDueDay() {
+		return dueDay;
+	}
+	
+	/**
+	 * Checks whether the Loan has a due date.
+	 * @return True if a due date has been set, otherwise false.
+	 */
+	public boolean hasDueDate() {
+		return dueDay != Utility.NO_DATE;
 	}
 	
 	/**
 	 * Calculates the date that the Loan needs to be returned by using 
-	 * the copy's loan duration (YYYY-MM-DD).
+	 * the copy's loan duration.
 	 * @param duration The loan duration of the loaned copy.
 	 */
 	public void setDueDate(int duration) {
-		int daysPastDueDate = Utility.daysPastDate(this.checkoutDate);
+		int today = Utility.today();
+		int daysPastDueDate = today - checkoutDay;
 		
 		// Past the loan duration.
 		if (daysPastDueDate > duration) {
-			LocalDate today = LocalDate.now();
-			LocalDate tomorrow = today.plusDays(1); 
-			this.dueDate = tomorrow.toString();
+			this.dueDay = today + 1;
 		// If it's not past the loan duration, let them have it for at least
 		// the length of the loan duration.
 		} else {
-			LocalDate thisDate = LocalDate.parse(checkoutDate);
-			LocalDate dueDateLocal = thisDate.plusDays(duration); 
-			this.dueDate = dueDateLocal.toString();
+			this.dueDay = checkoutDay + duration;
 		}
 	}
 	
+	/**
+	 * Takes away the Loan's due date, as the copy is no longer needed by
+	 * anyone else.
+	 */
+	public void clearDueDate() {
+		this.dueDay = Utility.NO_DATE;
+	}
+	
 	/**
 	 * Checks whether the Loan has been returned or not.
 	 * @return Whether the Loan has been returned or not.
@@ -211,7 +279,16 @@ public class Loan implements Comparable<Loan>{
 	 * @return Returns a date (YYYY-MM-DD).
 	 */
 	public String getReturnDate() {
-		return returnDate;
+		return Utility.formatDate(returnDay);
+	}
+	
+	/**
+	 * Gets the date a user returned a loan.
+	 * @return The date (days since 1970-01-01), or NO_DATE if it 
+	 *         hasn't been returned.
+	 */
+	public int getReturnDay() {
+		return returnDay;
 	}
 	
 	/**
@@ -219,7 +296,7 @@ public class Loan implements Comparable<Loan>{
 	 * @param returnDate The date that the Loan was returned (YYYY-MM-DD).
 	 */
 	public void setReturnDate(String returnDate) {
-		this.returnDate = returnDate;
+		this.returnDay = Utility.toEpochDay(returnDate);
 	}
 	
 	/**
@@ -227,7 +304,16 @@ public class Loan implements Comparable<Loan>{
 	 * @return Returns a time (HH:MM:SS).
 	 */
 	public String getReturnTime() {
-		return returnTime;
+		return Utility.formatTime(returnSecond);
+	}
+	
+	/**
+	 * Gets the time a user returned a loan.
+	 * @return The time (seconds since midnight), or NO_TIME if it 
+	 *         hasn't been returned.
+	 */
+	public int getReturnSecond() {
+		return returnSecond;
 	}
 	
 	/**
@@ -235,7 +321,7 @@ public class Loan implements Comparable<Loan>{
 	 * @param returnTime The time that the Loan was returned (HH:MM:SS).
 	 */
 	public void setReturnTime(String returnTime) {
-		this.returnTime = returnTime;
+		this.returnSecond = Utility.toSecondOfDay(returnTime);
 	}
 	
 	/**
@@ -252,12 +338,10 @@ public class Loan implements Comparable<Loan>{
 	 * request queue.
 	 */
 	public void setDaysOverdue() {
-		if (this.dueDate.isEmpty()) {
+		if (!hasDueDate()) {
 			this.daysOverdue = 0;
 		} else {
-			LocalDate returnDateLoc = LocalDate.parse(returnDate);
-			LocalDate dueDateLoc = LocalDate.parse(dueDate);
-			int days = (int) DAYS.between(dueDateLoc, returnDateLoc);
+			int days = returnDay - dueDay;
 			if (days < 0) {
 				this.daysOverdue = 0;
 			} else {
@@ -280,12 +364,12 @@ public class Loan implements Comparable<Loan>{
 	 */
 	public String getDescription() {
 		String status = "Borrowed";
-		String date = checkoutDate;
-		String time = checkoutTime;
+		String date = getCheckoutDate();
+		String time = getCheckoutTime();
 		if (returned) {
 			status = "Returned";
-			date = returnDate;
-			time = returnTime;
+			date = getReturnDate();
+			time = getReturnTime();
 		} 
 		return "ID: " + loanID + " | Username: " + username + " | "
 				+ "Status: " + status + " | Date: " + date + " | "
@@ -299,7 +383,7 @@ public class Loan implements Comparable<Loan>{
 	 */
 	public String getOverdueDescription() {
 		// Calculate it because it's not returned.
-		int daysPastDueDate = Utility.daysPastDate(dueDate);
+		int daysPastDueDate = Utility.daysPastDate(dueDay);
 		return "Copy ID: " + copyID + " | Days Overdue: " + daysPastDueDate + 
 				" | Username: " + username;
 	}
@@ -311,7 +395,7 @@ public class Loan implements Comparable<Loan>{
 	 */
 	public String getBorrowedDescription() {
 		return "Username: " + username + " | Status: BORROWED | "
-				+ "Date: " + checkoutDate + " | Time: " + checkoutTime;
+				+ "Date: " + getCheckoutDate() + " | Time: " + getCheckoutTime();
 	}
 	
 	/**
@@ -321,7 +405,7 @@ public class Loan implements Comparable<Loan>{
 	 */
 	public String getReturnedDescription() {
 		return "Username: " + username + " | Status: RETURNED | "
-				+ "Date: " + returnDate + " | Time: " + returnTime;
+				+ "Date: " + getReturnDate() + " | Time: " + getReturnTime();
 			
 	}
 	
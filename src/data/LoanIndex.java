@@ -0,0 +1,126 @@
+package data;
+
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.LinkedHashSet;
+import java.util.List;
+
+/**
+ * The LoanIndex class finds loans by their username, copy ID or resource
+ * ID without looking through every loan ever made. It's kept up to date
+ * by the store as loans are created and returned. The loans for each key
+ * are kept in ascending order of loan ID, the same as the loan list.
+ * @author William King
+ */
+public class LoanIndex {
+	/** All the loans of each user, using the username as the key. */
+	private final HashMap<String, ArrayList<Loan>> byUsername = new HashMap<>();
+	/** All the loans of each copy, using the copy ID as the key. */
+	private final HashMap<Integer, ArrayList<Loan>> byCopyID = new HashMap<>();
+	/** The loans not yet returned for each resource, using the resource
+	 * ID as the key. */
+	private final HashMap<Integer, LinkedHashSet<Loan>> activeByResourceID =
+			new HashMap<>();
+	/** All the loans that haven't been returned. */
+	private final LinkedHashSet<Loan> activeLoans = new LinkedHashSet<>();
+
+	/**
+	 * Constructor for the LoanIndex class. Indexes the existing loans.
+	 * @param loans All the loans, in ascending order of loan ID.
+	 */
+	public LoanIndex(List<Loan> loans) {
+		for (Loan loan : loans) {
+			add(loan);
+		}
+	}
+
+	/**
+	 * Adds a new loan to the index.
+	 * @param loan The new loan.
+	 */
+	public void add(Loan loan) {
+		ArrayList<Loan> userLoans = byUsername.get(loan.getUsername());
+		if (userLoans == null) {
+			userLoans = new ArrayList<>();
+			byUsername.put(loan.getUsername(), userLoans);
+		}
+		userLoans.add(loan);
+
+		ArrayList<Loan> copyLoans = byCopyID.get(loan.getCopyID());
+		if (copyLoans == null) {
+			copyLoans = new ArrayList<>();
+			byCopyID.put(loan.getCopyID(), copyLoans);
+		}
+		copyLoans.add(loan);
+
+		if (!loan.isReturned()) {
+			activeLoans.add(loan);
+			LinkedHashSet<Loan> resourceLoans =
+					activeByResourceID.get(loan.getResourceID());
+			if (resourceLoans == null) {
+				resourceLoans = new LinkedHashSet<>();
+				activeByResourceID.put(loan.getResourceID(), resourceLoans);
+			}
+			resourceLoans.add(loan);
+		}
+	}
+
+	/**
+	 * Updates the index after a loan has been edited. A returned loan
+	 * is no longer active.
+	 * @param loan The edited loan.
+	 */
+	public void update(Loan loan) {
+		if (loan.isReturned() && activeLoans.remove(loan)) {
+			LinkedHashSet<Loan> resourceLoans =
+					activeByResourceID.get(loan.getResourceID());
+			resourceLoans.remove(loan);
+			if (resourceLoans.isEmpty()) {
+				activeByResourceID.remove(loan.getResourceID());
+			}
+		}
+	}
+
+	/**
+	 * Gets all the loans made by a user.
+	 * @param username The username of the user.
+	 * @return The user's loans, in ascending order of loan ID.
+	 */
+	public List<Loan> getUserLoans(String username) {
+		ArrayList<Loan> userLoans = byUsername.get(username);
+		return (userLoans == null) ? Collections.<Loan>emptyList()
+				: Collections.unmodifiableList(userLoans);
+	}
+
+	/**
+	 * Gets all the loans of a copy.
+	 * @param copyID The ID of the copy.
+	 * @return The copy's loans, in ascending order of loan ID.
+	 */
+	public List<Loan> getCopyLoans(int copyID) {
+		ArrayList<Loan> copyLoans = byCopyID.get(copyID);
+		return (copyLoans == null) ? Collections.<Loan>emptyList()
+				: Collections.unmodifiableList(copyLoans);
+	}
+
+	/**
+	 * Gets the loans of a resource's copies that haven't been returned.
+	 * @param resourceID The ID of the resource.
+	 * @return The resource's active loans.
+	 */
+	public Collection<Loan> getActiveResourceLoans(int resourceID) {
+		LinkedHashSet<Loan> resourceLoans = activeByResourceID.get(resourceID);
+		return (resourceLoans == null) ? Collections.<Loan>emptySet()
+				: Collections.unmodifiableSet(resourceLoans);
+	}
+
+	/**
+	 * Gets all the loans that haven't been returned.
+	 * @return The active loans.
+	 */
+	public Collection<Loan> getActiveLoans() {
+		return Collections.unmodifiableSet(activeLoans);
+	}
+}
@@ -26,6 +26,8 @@ public class Main extends Application {
 	 * @param args Takes a string of arguments.
 	 */
 	public static void main(String[] args) {
+		// Load the data files once, before any page is shown.
+		LibraryStore.getInstance();
 		// Run the program.
 		launch(args);
 	}
@@ -50,4 +52,14 @@ public class Main extends Application {
 			System.exit(-1);
 		}
 	}
-}
\ No newline at end of file
+	
+	/**
+	 * Saves any changes still waiting to be written, then a snapshot of 
+	 * the data when the system is closed, so it starts faster next time.
+	 */
+	@Override
+	public void stop() {
+		LibraryStore.getInstance().flushChanges();
+		LibraryStore.getInstance().saveSnapshot();
+	}
+}
@@ -0,0 +1,157 @@
+package data;
+
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.Collections;
+import java.util.Comparator;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.LinkedHashSet;
+import java.util.List;
+import java.util.PriorityQueue;
+
+/**
+ * The OverdueTracker class keeps track of which loans are overdue, so
+ * checking if a user has overdue copies doesn't look through their loans.
+ * Active loans with a due date wait in a queue ordered by due date. Once
+ * a day, the loans whose due date has passed are taken off the front of
+ * the queue and marked as overdue, and each user keeps a count of their
+ * overdue loans. Only the loans that have just become overdue are looked
+ * at, however many loans there are.
+ * @author William King
+ */
+public class OverdueTracker {
+	/** Orders loans by their due date (earliest first). */
+	private static final Comparator<Loan> DUE_DATE_ORDER =
+			Comparator.comparingInt(Loan::getDueDay)
+			.thenComparingInt(Loan::getLoanID);
+
+	/** The active loans that aren't overdue yet, by due date. Returned
+	 * loans are left in and skipped once they reach the front. */
+	private final PriorityQueue<Loan> dueQueue =
+			new PriorityQueue<>(DUE_DATE_ORDER);
+	/** The loans in the queue, so they aren't added twice. */
+	private final HashSet<Loan> queued = new HashSet<>();
+	/** The active loans that are overdue, in the order they became
+	 * overdue. */
+	private final LinkedHashSet<Loan> overdueLoans = new LinkedHashSet<>();
+	/** The number of overdue loans of each user, using the username as
+	 * the key. Users without any aren't in the map. */
+	private final HashMap<String, Integer> overdueCounts = new HashMap<>();
+	/** The day (days since 1970-01-01) the queue was last checked. */
+	private int checkedDay = Utility.NO_DATE;
+
+	/**
+	 * Constructor for the OverdueTracker class. Adds the active loans
+	 * that have a due date.
+	 * @param loans All the loans.
+	 */
+	public OverdueTracker(Collection<Loan> loans) {
+		for (Loan loan : loans) {
+			add(loan);
+		}
+	}
+
+	/**
+	 * Adds a loan once it has a due date (e.g. a new loan, or an active
+	 * loan that has just been given one). Returned loans and loans that
+	 * are already tracked are ignored.
+	 * @param loan The loan.
+	 */
+	public void add(Loan loan) {
+		if (loan.isReturned() || !loan.hasDueDate() || queued.contains(loan)
+				|| overdueLoans.contains(loan)) {
+			return;
+		}
+		// Only happens if the due date was set in the past.
+		if (loan.getDueDay() < checkedDay) {
+			markOverdue(loan);
+		} else {
+			dueQueue.add(loan);
+			queued.add(loan);
+		}
+	}
+
+	/**
+	 * Updates the tracker after a loan has been edited. A returned loan
+	 * is no longer overdue, a loan given a due date starts waiting, and
+	 * a loan whose due date was taken away stops waiting.
+	 * @param loan The edited loan.
+	 */
+	public void update(Loan loan) {
+		if (loan.isReturned()) {
+			// If it isn't overdue, it's skipped when it reaches the front.
+			if (overdueLoans.remove(loan)) {
+				String username = loan.getUsername();
+				int count = overdueCounts.get(username) - 1;
+				if (count == 0) {
+					overdueCounts.remove(username);
+				} else {
+					overdueCounts.put(username, count);
+				}
+			}
+		} else if (!loan.hasDueDate()) {
+			// Its place in the queue is out of date, so it's taken out now
+			// rather than skipped later.
+			if (queued.remove(loan)) {
+				dueQueue.remove(loan);
+			}
+		} else {
+			add(loan);
+		}
+	}
+
+	/**
+	 * Marks the loans whose due date has passed as overdue. Only does
+	 * anything the first time it's called on a new day.
+	 * @param today The current day (days since 1970-01-01).
+	 * @return The loans that have just become overdue.
+	 */
+	public List<Loan> checkDueDates(int today) {
+		if (today == checkedDay) {
+			return Collections.emptyList();
+		}
+		checkedDay = today;
+
+		// A loan is overdue once its due date is before today.
+		ArrayList<Loan> newlyOverdue = new ArrayList<>();
+		while (!dueQueue.isEmpty() && dueQueue.peek().getDueDay() < today) {
+			Loan loan = dueQueue.poll();
+			queued.remove(loan);
+			if (!loan.isReturned()) {
+				markOverdue(loan);
+				newlyOverdue.add(loan);
+			}
+		}
+		return newlyOverdue;
+	}
+
+	/**
+	 * Checks if a user has any overdue loans.
+	 * @param username The username of the user.
+	 * @return True if the user has an overdue loan, otherwise false.
+	 */
+	public boolean isOverdue(String username) {
+		checkDueDates(Utility.today());
+		return overdueCounts.containsKey(username);
+	}
+
+	/**
+	 * Gets all the overdue loans.
+	 * @return The overdue loans, in the order they became overdue.
+	 */
+	public Collection<Loan> getOverdueLoans() {
+		checkDueDates(Utility.today());
+		return Collections.unmodifiableSet(overdueLoans);
+	}
+
+	/**
+	 * Marks a loan as overdue and adds it to its user's count.
+	 * @param loan The loan.
+	 */
+	private void markOverdue(Loan loan) {
+		overdueLoans.add(loan);
+		Integer count = overdueCounts.get(loan.getUsername());
+		overdueCounts.put(loan.getUsername(), (count == null) ? 1 : count + 1);
+	}
+}
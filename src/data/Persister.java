@@ -0,0 +1,207 @@
+package data;
+
+import java.util.ArrayList;
+
+/**
+ * The Persister class saves changes to the data files in the background.
+ * The in-memory lists are updated straight away, and each committed unit
+ * of work is queued. A writer thread takes everything that's queued,
+ * combines it so each file is written once, and syncs it to disk.
+ * <p>
+ * How often the changes are synced is set with -Dtawelib.durability:
+ * <ul>
+ * <li>every-op: each unit of work is synced on its own, and the action
+ *     waits until it's on disk.</li>
+ * <li>group (default): changes are collected for -Dtawelib.commitInterval
+ *     milliseconds (default 50) after the first one, then synced together.</li>
+ * <li>idle: changes are synced once nothing new has been queued for the
+ *     commit interval.</li>
+ * </ul>
+ * @author William King
+ */
+public class Persister {
+	/**
+	 * The Durability enum lists how often changes are synced to disk.
+	 */
+	public enum Durability {
+		/** Each unit of work is synced on its own. */
+		EVERY_OP,
+		/** Changes are synced together every commit interval. */
+		GROUP_COMMIT,
+		/** Changes are synced once no more changes are being made. */
+		ON_IDLE
+	}
+
+	/** How often changes are synced to disk. */
+	private static final Durability DURABILITY =
+			getDurability(System.getProperty("tawelib.durability", "group"));
+	/** The time (in milliseconds) to collect changes before syncing. */
+	private static final long COMMIT_INTERVAL =
+			Long.getLong("tawelib.commitInterval", 50);
+
+	/** Guards the queue and the counters. */
+	private static final Object lock = new Object();
+	/** The units of work waiting to be saved. */
+	private static ArrayList<UnitOfWork> pending = new ArrayList<>();
+	/** The number of units of work queued so far. */
+	private static long queued;
+	/** The number of units of work saved so far. */
+	private static long saved;
+	/** The number of units of work that have to be saved straight away. */
+	private static long flushTarget;
+	/** When (in milliseconds) the first pending change was queued. */
+	private static long firstQueuedTime;
+	/** When (in milliseconds) the last pending change was queued. */
+	private static long lastQueuedTime;
+	/** The thread that saves the changes, started when first needed. */
+	private static Thread writer;
+
+	/**
+	 * Gets the durability from the name it's set with.
+	 * @param name every-op, group or idle.
+	 * @return The durability (group commit if the name isn't known).
+	 */
+	private static Durability getDurability(String name) {
+		switch (name.toLowerCase()) {
+			case "every-op":
+				return Durability.EVERY_OP;
+			case "idle":
+				return Durability.ON_IDLE;
+			default:
+				return Durability.GROUP_COMMIT;
+		}
+	}
+
+	/**
+	 * Gets how often changes are synced to disk.
+	 * @return The durability.
+	 */
+	public static Durability getDurability() {
+		return DURABILITY;
+	}
+
+	/**
+	 * Queues a committed unit of work to be saved by the writer thread.
+	 * @param work The unit of work.
+	 */
+	static void enqueue(UnitOfWork work) {
+		synchronized (lock) {
+			if (writer == null) {
+				writer = new Thread(Persister::run, "Persister");
+				writer.setDaemon(true);
+				writer.start();
+			}
+			long now = System.currentTimeMillis();
+			if (pending.isEmpty()) {
+				firstQueuedTime = now;
+			}
+			lastQueuedTime = now;
+			pending.add(work);
+			queued++;
+			lock.notifyAll();
+		}
+
+		// The action only finishes once its changes are on disk.
+		if (DURABILITY == Durability.EVERY_OP) {
+			flush();
+		}
+	}
+
+	/**
+	 * Waits until every change queued before this call has been saved and
+	 * synced to disk. Used before the system closes and when the logged
+	 * in user changes.
+	 */
+	public static void flush() {
+		synchronized (lock) {
+			long target = queued;
+			if (target > flushTarget) {
+				flushTarget = target;
+				lock.notifyAll();
+			}
+			boolean interrupted = false;
+			while (saved < target) {
+				try {
+					lock.wait();
+				} catch (InterruptedException e) {
+					interrupted = true;
+				}
+			}
+			if (interrupted) {
+				Thread.currentThread().interrupt();
+			}
+		}
+	}
+
+	/**
+	 * Runs the writer thread. Waits for changes, then saves them once the
+	 * durability allows it (or straight away if a flush is waiting).
+	 */
+	private static void run() {
+		while (true) {
+			ArrayList<UnitOfWork> batch;
+			long batchEnd;
+			synchronized (lock) {
+				try {
+					while (pending.isEmpty()) {
+						lock.wait();
+					}
+					long wait = getWaitTime();
+					while (wait > 0 && flushTarget <= saved) {
+						lock.wait(wait);
+						wait = getWaitTime();
+					}
+				} catch (InterruptedException e) {
+					// Save whatever is queued.
+				}
+				batch = pending;
+				pending = new ArrayList<>();
+				batchEnd = queued;
+			}
+
+			save(batch);
+
+			synchronized (lock) {
+				saved = batchEnd;
+				lock.notifyAll();
+			}
+		}
+	}
+
+	/**
+	 * Gets how long the writer thread should keep collecting changes.
+	 * @return The time left to wait in milliseconds (0 or less if the
+	 *         changes should be saved now).
+	 */
+	private static long getWaitTime() {
+		long now = System.currentTimeMillis();
+		switch (DURABILITY) {
+			case GROUP_COMMIT:
+				return firstQueuedTime + COMMIT_INTERVAL - now;
+			case ON_IDLE:
+				return lastQueuedTime + COMMIT_INTERVAL - now;
+			default:
+				return 0;
+		}
+	}
+
+	/**
+	 * Saves a batch of units of work and syncs them to disk.
+	 * @param batch The units of work, in the order they were committed.
+	 */
+	private static void save(ArrayList<UnitOfWork> batch) {
+		if (DURABILITY == Durability.EVERY_OP) {
+			for (UnitOfWork work : batch) {
+				work.save(true);
+			}
+			return;
+		}
+
+		// Combine the batch so each file is only written and synced once.
+		UnitOfWork combined = new UnitOfWork();
+		for (UnitOfWork work : batch) {
+			combined.mergeFrom(work);
+		}
+		combined.save(true);
+	}
+}
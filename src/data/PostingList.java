@@ -0,0 +1,93 @@
+package data;
+
+import java.util.Arrays;
+
+/**
+ * The PostingList class holds a sorted list of IDs (e.g. the resources a
+ * word appears in) for the search indexes. The IDs are kept in a plain
+ * int array rather than a list of Integers, so the lists take up little
+ * space and can be walked through quickly. Each ID can also have a
+ * weight (e.g. how much the word counts for in that resource).
+ * @author William King
+ */
+class PostingList {
+	/** The IDs in ascending order, with spare space at the end. */
+	int[] ids = new int[2];
+	/** The weight of each ID, by position. Only used once an ID has
+	 * been added with a weight. */
+	float[] weights;
+	/** The number of IDs in the list. */
+	int size;
+
+	/**
+	 * Adds an ID to the list, keeping it in order. New resources have
+	 * the highest ID, so they are usually added to the end.
+	 * @param id The ID.
+	 */
+	void add(int id) {
+		int pos = insert(id);
+		if (pos >= 0 && weights != null) {
+			weights[pos] = 0;
+		}
+	}
+
+	/**
+	 * Adds an ID with a weight to the list, keeping it in order.
+	 * @param id The ID.
+	 * @param weight The weight of the ID.
+	 */
+	void add(int id, float weight) {
+		if (weights == null) {
+			weights = new float[ids.length];
+		}
+		int pos = insert(id);
+		if (pos >= 0) {
+			weights[pos] = weight;
+		}
+	}
+
+	/**
+	 * Makes space for an ID in its place in the list.
+	 * @param id The ID.
+	 * @return The position of the ID, or -1 if it was already there.
+	 */
+	private int insert(int id) {
+		int pos = size;
+		if (size > 0 && ids[size - 1] >= id) {
+			pos = Arrays.binarySearch(ids, 0, size, id);
+			if (pos >= 0) {
+				return -1;
+			}
+			pos = -pos - 1;
+		}
+		if (size == ids.length) {
+			ids = Arrays.copyOf(ids, size * 2);
+			if (weights != null) {
+				weights = Arrays.copyOf(weights, size * 2);
+			}
+		}
+		System.arraycopy(ids, pos, ids, pos + 1, size - pos);
+		if (weights != null) {
+			System.arraycopy(weights, pos, weights, pos + 1, size - pos);
+		}
+		ids[pos] = id;
+		size++;
+		return pos;
+	}
+
+	/**
+	 * Removes an ID from the list.
+	 * @param id The ID.
+	 */
+	void remove(int id) {
+		int pos = Arrays.binarySearch(ids, 0, size, id);
+		if (pos >= 0) {
+			System.arraycopy(ids, pos + 1, ids, pos, size - pos - 1);
+			if (weights != null) {
+				System.arraycopy(weights, pos + 1, weights, pos,
+						size - pos - 1);
+			}
+			size--;
+		}
+	}
+}
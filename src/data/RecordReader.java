@@ -0,0 +1,460 @@
+package data;
+
+import java.io.Closeable;
+import java.io.FileInputStream;
+import java.io.FileNotFoundException;
+import java.io.IOException;
+import java.io.InputStream;
+import java.nio.charset.Charset;
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * The RecordReader class reads the records of a data file, where each
+ * record is on its own line and every field ends with a comma.
+ * It scans the raw bytes of the file and decodes numbers, booleans and
+ * enums straight from the bytes, so only the text fields create Strings.
+ * @author William King
+ */
+public class RecordReader implements Closeable {
+	/** The size of the buffer used to read the file (64KB). */
+	private static final int BUFFER_SIZE = 1 << 16;
+	/** Powers of ten that can be represented exactly as a double. */
+	private static final double[] POWERS_OF_TEN = {
+			1e0, 1e1, 1e2, 1e3, 1e4, 1e5, 1e6, 1e7, 1e8, 1e9, 1e10, 1e11,
+			1e12, 1e13, 1e14, 1e15, 1e16, 1e17, 1e18, 1e19, 1e20, 1e21, 1e22};
+	/** The largest whole number that can be stored exactly in a double. */
+	private static final long MAX_EXACT_DOUBLE = 1L << 53;
+	/** The character set that the data files are written in. */
+	private static final Charset CHARSET = Charset.defaultCharset();
+
+	/** The total number of bytes read by all readers. */
+	private static final AtomicLong totalBytes = new AtomicLong();
+	/** The total time spent reading by all readers (nanoseconds). */
+	private static final AtomicLong totalNanos = new AtomicLong();
+
+	/** The file being read. */
+	private final InputStream in;
+	/** The path of the file being read (used for error messages). */
+	private final String filePath;
+	/** Holds the bytes read from the file. */
+	private byte[] buffer = new byte[BUFFER_SIZE];
+	/** The position of the next byte to read in the buffer. */
+	private int pos;
+	/** The end of the bytes read into the buffer. */
+	private int limit;
+	/** The position of the end of the current line (the new line). */
+	private int lineEnd;
+	/** The end of the fields on the current line (ignoring '\r'). */
+	private int fieldLimit;
+	/** Whether a record is currently being read. */
+	private boolean inRecord;
+	/** Whether the whole file has been read into the buffer. */
+	private boolean endOfFile;
+	/** The number of bytes read from the file. */
+	private long bytesRead;
+	/** The time the reader was opened (nanoseconds). */
+	private final long startTime;
+
+	/**
+	 * Constructor for the RecordReader class. Opens the file for reading.
+	 * @param filePath The path of the data file.
+	 * @throws FileNotFoundException If the file does not exist.
+	 */
+	public RecordReader(String filePath) throws FileNotFoundException {
+		this(new FileInputStream(filePath), filePath);
+	}
+
+	/**
+	 * Constructor for the RecordReader class. Reads the records from a
+	 * stream of bytes.
+	 * @param in The stream holding the records.
+	 * @param filePath The path of the data file (used for error messages).
+	 */
+	public RecordReader(InputStream in, String filePath) {
+		this.in = in;
+		this.filePath = filePath;
+		this.startTime = System.nanoTime();
+	}
+
+	/**
+	 * Moves on to the next record, skipping anything left on the
+	 * current line and any blank lines.
+	 * @return True if there is another record, otherwise false.
+	 */
+	public boolean hasNextRecord() {
+		if (inRecord) {
+			pos = Math.min(lineEnd + 1, limit);
+			inRecord = false;
+		}
+
+		while (true) {
+			lineEnd = findLineEnd();
+			if (pos >= limit) {
+				return false;
+			}
+			fieldLimit = lineEnd;
+			if (fieldLimit > pos && buffer[fieldLimit - 1] == '\r') {
+				fieldLimit--;
+			}
+			// Skip blank lines.
+			if (fieldLimit == pos) {
+				pos = Math.min(lineEnd + 1, limit);
+			} else {
+				inRecord = true;
+				return true;
+			}
+		}
+	}
+
+	/**
+	 * Gets the ID of the current record (its first field) without
+	 * moving on to the next field.
+	 * @return The text of the record's first field.
+	 */
+	public String getRecordKey() {
+		int end = pos;
+		while (end < fieldLimit && buffer[end] != ',') {
+			end++;
+		}
+		return decode(pos, end);
+	}
+
+	/**
+	 * Reads the next field as a string.
+	 * @return The text of the field.
+	 */
+	public String nextString() {
+		int start = pos;
+		int end = nextFieldEnd();
+		return decode(start, end);
+	}
+
+	/**
+	 * Reads the next field as an integer.
+	 * @return The value of the field.
+	 */
+	public int nextInt() {
+		int start = pos;
+		int end = nextFieldEnd();
+		int i = start;
+		boolean negative = false;
+		if (i < end && (buffer[i] == '-' || buffer[i] == '+')) {
+			negative = buffer[i] == '-';
+			i++;
+		}
+		if (i == end) {
+			throw invalidField(start, end);
+		}
+
+		long value = 0;
+		for (; i < end; i++) {
+			int digit = buffer[i] - '0';
+			if (digit < 0 || digit > 9 || value > Integer.MAX_VALUE) {
+				throw invalidField(start, end);
+			}
+			value = value * 10 + digit;
+		}
+		if (negative) {
+			value = -value;
+		}
+		if (value > Integer.MAX_VALUE || value < Integer.MIN_VALUE) {
+			throw invalidField(start, end);
+		}
+		return (int) value;
+	}
+
+	/**
+	 * Reads the next field as a double.
+	 * @return The value of the field.
+	 */
+	public double nextDouble() {
+		int start = pos;
+		int end = nextFieldEnd();
+		int i = start;
+		boolean negative = false;
+		if (i < end && (buffer[i] == '-' || buffer[i] == '+')) {
+			negative = buffer[i] == '-';
+			i++;
+		}
+
+		// Most values are simple decimals (e.g. 25.0), which are read
+		// as a whole number and then divided by a power of ten.
+		long mantissa = 0;
+		int digits = 0;
+		int decimals = -1;
+		for (; i < end; i++) {
+			byte b = buffer[i];
+			if (b >= '0' && b <= '9') {
+				mantissa = mantissa * 10 + (b - '0');
+				digits++;
+				if (decimals >= 0) {
+					decimals++;
+				}
+				if (mantissa > MAX_EXACT_DOUBLE) {
+					break;
+				}
+			} else if (b == '.' && decimals < 0) {
+				decimals = 0;
+			} else {
+				break;
+			}
+		}
+
+		if (i == end && digits > 0 && decimals < POWERS_OF_TEN.length) {
+			double value = mantissa;
+			if (decimals > 0) {
+				value = value / POWERS_OF_TEN[decimals];
+			}
+			return negative ? -value : value;
+		}
+
+		// Anything else (e.g. exponents) is left to the standard parser.
+		try {
+			return Double.parseDouble(decode(start, end));
+		} catch (NumberFormatException e) {
+			throw invalidField(start, end);
+		}
+	}
+
+	/**
+	 * Reads the next field as a boolean (true or false, ignoring case).
+	 * @return The value of the field.
+	 */
+	public boolean nextBoolean() {
+		int start = pos;
+		int end = nextFieldEnd();
+		if (matchesIgnoreCase(start, end, "true")) {
+			return true;
+		} else if (matchesIgnoreCase(start, end, "false")) {
+			return false;
+		}
+		throw invalidField(start, end);
+	}
+
+	/**
+	 * Reads the next field as one of the values of an enum, such as
+	 * a ResourceType or LoanDuration.
+	 * @param <E> The type of enum.
+	 * @param values All of the enum's values.
+	 * @return The matching enum value, or null if it doesn't match any
+	 *         of them (e.g. "null").
+	 */
+	public <E extends Enum<E>> E nextEnum(E[] values) {
+		int start = pos;
+		int end = nextFieldEnd();
+		for (E value : values) {
+			if (matches(start, end, value.name())) {
+				return value;
+			}
+		}
+		return null;
+	}
+
+	/**
+	 * Reads the next field as a list of strings, e.g. the subtitle
+	 * languages of a DVD in the format 'lang;lang;lang'.
+	 * @param separator The character separating each item.
+	 * @return An array of each item (empty if the field is empty).
+	 */
+	public String[] nextStringList(char separator) {
+		int start = pos;
+		int end = nextFieldEnd();
+		if (start == end) {
+			return new String[0];
+		}
+
+		int count = 1;
+		for (int i = start; i < end; i++) {
+			if (buffer[i] == separator) {
+				count++;
+			}
+		}
+
+		String[] items = new String[count];
+		int itemStart = start;
+		int index = 0;
+		for (int i = start; i <= end; i++) {
+			if (i == end || buffer[i] == separator) {
+				items[index] = decode(itemStart, i);
+				index++;
+				itemStart = i + 1;
+			}
+		}
+		return items;
+	}
+
+	/**
+	 * Closes the file and adds the bytes read to the total throughput.
+	 */
+	public void close() {
+		totalBytes.addAndGet(bytesRead);
+		totalNanos.addAndGet(System.nanoTime() - startTime);
+		try {
+			in.close();
+		} catch (IOException e) {
+			System.out.println("Cannot close " + filePath);
+		}
+	}
+
+	/**
+	 * Gets the total number of bytes read by all the closed readers.
+	 * @return The total number of bytes read.
+	 */
+	public static long getTotalBytes() {
+		return totalBytes.get();
+	}
+
+	/**
+	 * Gets the average speed that the closed readers have parsed the
+	 * data files at.
+	 * @return The parse throughput in megabytes per second.
+	 */
+	public static double getThroughput() {
+		long nanos = totalNanos.get();
+		if (nanos == 0) {
+			return 0;
+		}
+		double megabytes = totalBytes.get() / (1024.0 * 1024.0);
+		return megabytes / (nanos / 1e9);
+	}
+
+	/**
+	 * Finds the end of the field starting at the current position and
+	 * moves past its comma.
+	 * @return The position of the end of the field.
+	 */
+	private int nextFieldEnd() {
+		int i = pos;
+		while (i < fieldLimit && buffer[i] != ',') {
+			i++;
+		}
+		// Move past the comma (if there is one).
+		pos = (i < fieldLimit) ? i + 1 : fieldLimit;
+		return i;
+	}
+
+	/**
+	 * Finds the end of the line starting at the current position,
+	 * reading more of the file into the buffer if needed.
+	 * @return The position of the new line, or the end of the buffer
+	 *         if it's the last line of the file.
+	 */
+	private int findLineEnd() {
+		int i = pos;
+		while (true) {
+			while (i < limit) {
+				if (buffer[i] == '\n') {
+					return i;
+				}
+				i++;
+			}
+			if (endOfFile) {
+				return limit;
+			}
+			// Keep the unread bytes and read more of the file.
+			int scanned = i - pos;
+			fill();
+			i = pos + scanned;
+		}
+	}
+
+	/**
+	 * Moves the unread bytes to the start of the buffer and fills the
+	 * rest of it from the file. The buffer is made bigger if a single
+	 * line doesn't fit in it.
+	 */
+	private void fill() {
+		int remaining = limit - pos;
+		if (remaining == buffer.length) {
+			byte[] bigger = new byte[buffer.length * 2];
+			System.arraycopy(buffer, pos, bigger, 0, remaining);
+			buffer = bigger;
+		} else {
+			System.arraycopy(buffer, pos, buffer, 0, remaining);
+		}
+		pos = 0;
+		limit = remaining;
+
+		try {
+			int read = in.read(buffer, limit, buffer.length - limit);
+			if (read < 0) {
+				endOfFile = true;
+			} else {
+				limit += read;
+				bytesRead += read;
+			}
+		} catch (IOException e) {
+			System.out.println("Cannot read " + filePath);
+			System.exit(-1);
+		}
+	}
+
+	/**
+	 * Creates a string from a section of the buffer.
+	 * @param start The start of the section.
+	 * @param end The end of the section.
+	 * @return The section as a string.
+	 */
+	private String decode(int start, int end) {
+		// Most fields are plain ASCII, which doesn't need decoding.
+		for (int i = start; i < end; i++) {
+			if (buffer[i] < 0) {
+				return new String(buffer, start, end - start, CHARSET);
+			}
+		}
+		char[] chars = new char[end - start];
+		for (int i = start; i < end; i++) {
+			chars[i - start] = (char) buffer[i];
+		}
+		return new String(chars);
+	}
+
+	/**
+	 * Checks if a section of the buffer matches the text exactly.
+	 * @param start The start of the section.
+	 * @param end The end of the section.
+	 * @param text The text to compare with (ASCII).
+	 * @return True if they match, otherwise false.
+	 */
+	private boolean matches(int start, int end, String text) {
+		if (end - start != text.length()) {
+			return false;
+		}
+		for (int i = start; i < end; i++) {
+			if (buffer[i] != text.charAt(i - start)) {
+				return false;
+			}
+		}
+		return true;
+	}
+
+	/**
+	 * Checks if a section of the buffer matches the text, ignoring case.
+	 * @param start The start of the section.
+	 * @param end The end of the section.
+	 * @param text The text to compare with (lower case ASCII letters).
+	 * @return True if they match, otherwise false.
+	 */
+	private boolean matchesIgnoreCase(int start, int end, String text) {
+		if (end - start != text.length()) {
+			return false;
+		}
+		for (int i = start; i < end; i++) {
+			if ((buffer[i] | 0x20) != text.charAt(i - start)) {
+				return false;
+			}
+		}
+		return true;
+	}
+
+	/**
+	 * Creates an exception for a field that couldn't be read.
+	 * @param start The start of the field.
+	 * @param end The end of the field.
+	 * @return The exception to throw.
+	 */
+	private NumberFormatException invalidField(int start, int end) {
+		return new NumberFormatException("Invalid field '"
+				+ decode(start, end) + "' in " + filePath);
+	}
+}
@@ -0,0 +1,107 @@
+package data;
+
+import java.io.BufferedReader;
+import java.io.BufferedWriter;
+import java.io.File;
+import java.io.IOException;
+import java.io.Writer;
+import java.nio.channels.Channels;
+import java.nio.channels.FileChannel;
+import java.nio.charset.Charset;
+import java.nio.file.Files;
+import java.nio.file.StandardCopyOption;
+import java.nio.file.StandardOpenOption;
+import java.util.Map;
+
+/**
+ * The RecordRewriter class writes a new version of a data file with some
+ * of its records replaced. The data file is read one line at a time, so
+ * only one record is held in memory however big the file is. Records are
+ * matched by their ID (the first field, e.g. the username or loan ID)
+ * rather than their full text. The new version is written to a temporary
+ * file, which is then swapped in so the data file is never half written.
+ * @author William King
+ */
+public class RecordRewriter {
+	/** The size of the buffers used to read and write the files. */
+	private static final int BUFFER_SIZE = 64 * 1024;
+
+	/**
+	 * Writes a new version of a data file to a temporary file next to it.
+	 * Each record with a changed version is replaced, and any changed
+	 * records not in the data file are added to the end. The changes that
+	 * are used are removed from the map.
+	 * @param filePath The path of the data file.
+	 * @param changes The changed records, using their ID as the key.
+	 * @return The temporary file, synced to disk.
+	 * @throws IOException If either file can't be read or written.
+	 */
+	public static File writeTemp(String filePath, Map<String, String> changes)
+			throws IOException {
+		File dataFile = new File(filePath);
+		File tempFile = new File(filePath + ".tmp");
+		Charset charset = Charset.defaultCharset();
+
+		try (FileChannel output = FileChannel.open(tempFile.toPath(),
+				StandardOpenOption.CREATE, StandardOpenOption.WRITE,
+				StandardOpenOption.TRUNCATE_EXISTING)) {
+			Writer writer = new BufferedWriter(
+					Channels.newWriter(output, charset.newEncoder(), -1),
+					BUFFER_SIZE);
+
+			if (dataFile.exists()) {
+				try (FileChannel input = FileChannel.open(dataFile.toPath(),
+						StandardOpenOption.READ)) {
+					BufferedReader reader = new BufferedReader(
+							Channels.newReader(input, charset.newDecoder(), -1),
+							BUFFER_SIZE);
+					// Copy each record, replacing those that have been changed.
+					String line = reader.readLine();
+					while (line != null) {
+						if (!line.trim().isEmpty()) {
+							String changed = changes.remove(Journal.getKey(line));
+							writeLine(writer, changed == null ? line : changed);
+						}
+						line = reader.readLine();
+					}
+				}
+			}
+			// Anything left is a new record.
+			for (String record : changes.values()) {
+				writeLine(writer, record);
+			}
+			changes.clear();
+
+			writer.flush();
+			output.force(true);
+		} catch (IOException e) {
+			tempFile.delete();
+			throw e;
+		}
+		return tempFile;
+	}
+
+	/**
+	 * Swaps a temporary file in as the data file, in one step.
+	 * @param tempFile The temporary file written by writeTemp.
+	 * @param filePath The path of the data file.
+	 * @throws IOException If the file can't be moved.
+	 */
+	public static void swap(File tempFile, String filePath) throws IOException {
+		Files.move(tempFile.toPath(), new File(filePath).toPath(),
+				StandardCopyOption.REPLACE_EXISTING,
+				StandardCopyOption.ATOMIC_MOVE);
+	}
+
+	/**
+	 * Writes a record followed by a new line.
+	 * @param writer The writer.
+	 * @param record The details of the record.
+	 * @throws IOException If it can't be written.
+	 */
+	private static void writeLine(Writer writer, String record)
+			throws IOException {
+		writer.write(record);
+		writer.write(System.lineSeparator());
+	}
+}
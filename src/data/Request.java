@@ -19,8 +19,8 @@ public class Request implements Comparable<Request> {
 	/** The username of the user who made the request. */
 	private String username;
 	
-	/** The date the request was made in format YYYY-MM-DD. */
-	private String requestDate;
+	/** The date the request was made (days since 1970-01-01). */
+	private int requestDay;
 	
 	/** A boolean to hold a value whether the request has been filled or not. */
 	private boolean requestFilled;
@@ -42,8 +42,28 @@ public class Request implements Comparable<Request> {
 	 */
 	public Request(int requestID, int copyID, int resourceID, String username,
 			String requestDate, boolean requestFilled, boolean reserved) {
+		// The date is only read once, when the request is made.
+		this(requestID, copyID, resourceID, username, 
+				Utility.toEpochDay(requestDate), requestFilled, reserved);
+	}
+	
+	/**
+	 * Constructor for the Request class, with the date as days since
+	 * 1970-01-01.
+	 * @param requestID The unique ID for the request.
+	 * @param copyID The ID of the requested copy.
+	 * @param resourceID The ID of the resource copy.
+	 * @param username The ID of the user who made the request.
+	 * @param requestDay The date that the request was made.
+	 * @param requestFilled Whether the request copy has been given to
+	 *                      the user or not.
+	 * @param reserved Whether the requested copy was reserved for the
+	 *                 user or not.
+	 */
+	public Request(int requestID, int copyID, int resourceID, String username,
+			int requestDay, boolean requestFilled, boolean reserved) {
 		this.requestID = requestID;
-		this.requestDate = requestDate;
+		this.requestDay = requestDay;
 		this.requestFilled = requestFilled;
 		this.resourceID = resourceID;
 		this.username = username;
@@ -57,7 +77,7 @@ public class Request implements Comparable<Request> {
 	 */
 	public String toStringDetail() {
 		String strRequest = requestID + "," + copyID + "," + resourceID + 
-				"," + username + "," + requestDate + "," + requestFilled + 
+				"," + username + "," + getRequestDate() + "," + requestFilled + 
 				"," + reserved + ",";
 		return strRequest;
 	}
@@ -78,6 +98,14 @@ public class Request implements Comparable<Request> {
 		return copyID;
 	}
 	
+	/**
+	 * Sets the ID of the requested copy.
+	 * @param copyID The ID of the copy given to the request.
+	 */
+	public void setCopyID(int copyID) {
+		this.copyID = copyID;
+	}
+	
 	/**
 	 * Gets the ID of the resource copy.
 	 * @return The ID of the resource copy.
@@ -99,7 +127,15 @@ public class Request implements Comparable<Request> {
 	 * @return The date when the request was made.
 	 */
 	public String getRequestDate() {
-		return requestDate;
+		return Utility.formatDate(requestDay);
+	}
+	
+	/**
+	 * Gets the date that the request was made.
+	 * @return The date when the request was made (days since 1970-01-01).
+	 */
+	public int getRequestDay() {
+		return requestDay;
 	}
 	
 	/**
@@ -152,7 +188,7 @@ public class Request implements Comparable<Request> {
 	public String getDescription() {
 		String requestDescription = "Request ID: " + requestID + " | "
 				+ "Resource ID: " + resourceID + " | Request Date: " 
-				+ requestDate;
+				+ getRequestDate();
 		return requestDescription;
 	}
 	
@@ -22,12 +22,6 @@ abstract public class Resource implements Comparable<Resource> {
 	/** The total number of copies of a resource. */
 	protected int numberOfCopies;
 	
-	/** The fine incurred per day for a late return in GBP (£). */
-	protected double finePerDay = 2.0;
-	
-	/** The maximum fine this resource can incur in GBP (£). */
-	protected double maxFine = 25.0;
-	
 	/**
 	 * Constructor for the Resource class.
 	 * @param resourceID A unique resource ID.
@@ -56,6 +50,36 @@ abstract public class Resource implements Comparable<Resource> {
 		return strSearch;
 	}
 	
+	/**
+	 * Gets a fingerprint of the resource's details, which is the same for
+	 * any two resources of the same type with the same details. Used to
+	 * find duplicate resources quickly.
+	 * THIS METHOD SHOULD BE OVERRIDDEN.
+	 * @return The fingerprint of the resource's details.
+	 */
+	public long getFingerprint() {
+		System.out.println("You forgot to override getFingerprint method.");
+		return fingerprint(getType(), resourceTitle, year + "", thumbnail);
+	}
+	
+	/**
+	 * Works out a fingerprint of some details, as a 64 bit FNV-1a hash.
+	 * The length of each detail is hashed too, so details can't run into 
+	 * each other (e.g. "ab","c" and "a","bc" are different).
+	 * @param details The details, starting with the type of resource.
+	 * @return The fingerprint of the details.
+	 */
+	protected static long fingerprint(String... details) {
+		long hash = 0xcbf29ce484222325L;
+		for (String detail : details) {
+			hash = (hash ^ detail.length()) * 0x100000001b3L;
+			for (int i = 0; i < detail.length(); i++) {
+				hash = (hash ^ detail.charAt(i)) * 0x100000001b3L;
+			}
+		}
+		return hash;
+	}
+	
 	/**
 	 * Gets a string of the resource's full details. Mainly for file saving.
 	 * THIS METHOD SHOULD BE OVERRIDDEN.
@@ -149,20 +173,18 @@ abstract public class Resource implements Comparable<Resource> {
 	
 	
 	/**
-	 * Gets the fine per day of the resource in GBP (£).
-	 * @return finePerDay The fine per day in GBP (£).
+	 * Gets the fine per day of the resource in GBP (£). Each type of
+	 * resource has its own (e.g. Book.FINE_PER_DAY).
+	 * @return The fine per day in GBP (£).
 	 */
-	public double getFinePerDay() {
-		return finePerDay;
-	}
+	public abstract double getFinePerDay();
 	
 	/**
-	 * Gets the maximum fine that the resource can incur in GBP (£).
+	 * Gets the maximum fine that the resource can incur in GBP (£). Each
+	 * type of resource has its own (e.g. Book.MAX_FINE).
 	 * @return The maximum fine this resource can incur in GBP (£).
 	 */
-	public double getMaxFine() {
-		return maxFine;
-	}
+	public abstract double getMaxFine();
 	
 	/**
 	 * Gets the type of resource this is.
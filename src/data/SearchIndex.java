@@ -0,0 +1,746 @@
+package data;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collection;
+import java.util.Comparator;
+import java.util.HashMap;
+import java.util.LinkedHashMap;
+import java.util.LinkedHashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.PriorityQueue;
+import java.util.SortedMap;
+import java.util.TreeMap;
+import java.util.function.Predicate;
+
+/**
+ * The SearchIndex class finds resources by the words in their details,
+ * without looking through every resource. Each word (in lower case) has a
+ * sorted list of the IDs of the resources it appears in, so a search only
+ * looks at the lists of the words that were searched for.
+ * <p>
+ * A search matches the resources that have every word in it. The last
+ * word only has to be the start of a word (as it may still be being
+ * typed). Words can be split into groups with "or" (or "|"), in which case
+ * resources matching any of the groups are found. The index is updated as
+ * resources are created and edited. Searches can be run from any thread.
+ * <p>
+ * The resources found can be ranked with BM25, which scores a resource
+ * higher when it has more of the searched words, when those words are
+ * rare across the library, and when its details are short. A word in the
+ * title counts for more than one in the author or director, which counts
+ * for more than one in the genre.
+ * @author William King
+ */
+public class SearchIndex {
+	/** The word that splits a search into groups. */
+	private static final String OR = "or";
+	/** How much a word in the title counts for when ranking. */
+	private static final float TITLE_BOOST = 3.0f;
+	/** How much a word in the author or director counts for. */
+	private static final float PERSON_BOOST = 2.0f;
+	/** How much a word in the genre counts for. */
+	private static final float GENRE_BOOST = 1.5f;
+	/** How much a word in any of the other details counts for. */
+	private static final float OTHER_BOOST = 1.0f;
+	/** How quickly more of the same word stops raising the score (BM25's
+	 * k1). */
+	private static final double K1 = 1.2;
+	/** How much longer details lower the score (BM25's b). Kept low, so
+	 * a short resource doesn't beat one with the word in a better
+	 * detail. */
+	private static final double B = 0.3;
+	/** Orders scored resources worst first, so the worst can be dropped.
+	 * Each is held as {score, resource ID}, and equal scores keep the
+	 * lower ID. */
+	private static final Comparator<double[]> WORST_FIRST = (first, second) ->
+			(first[0] != second[0]) ? Double.compare(first[0], second[0])
+					: Double.compare(second[1], first[1]);
+
+	/** The resources each word appears in, using the word as the key. */
+	private final HashMap<String, PostingList> postings = new HashMap<>();
+	/** The same lists in alphabetical order of word, so the words
+	 * starting with some letters can be found. */
+	private final TreeMap<String, PostingList> sortedWords = new TreeMap<>();
+	/** Every indexed resource with the words it was indexed under, using
+	 * the resource ID as the key. */
+	private final HashMap<Integer, IndexedResource> indexed = new HashMap<>();
+	/** The total weight of each resource's words, using the resource ID
+	 * as the position. */
+	private float[] lengths = new float[0];
+	/** The total weight of every resource's words, for the average. */
+	private double totalLength;
+	/** Goes up each time a resource is added or edited. */
+	private int version;
+
+	/**
+	 * Constructor for the SearchIndex class. Indexes the resources.
+	 * @param resources All the resources.
+	 */
+	public SearchIndex(Collection<? extends Resource> resources) {
+		for (Resource resource : resources) {
+			add(resource);
+		}
+	}
+
+	/**
+	 * Adds a new resource to the index.
+	 * @param resource The new resource.
+	 */
+	public synchronized void add(Resource resource) {
+		int resourceID = resource.getResourceID();
+		IndexedResource entry = new IndexedResource(resource);
+		for (int i = 0; i < entry.words.length; i++) {
+			PostingList list = postings.get(entry.words[i]);
+			if (list == null) {
+				list = new PostingList();
+				postings.put(entry.words[i], list);
+				sortedWords.put(entry.words[i], list);
+			}
+			list.add(resourceID, entry.weights[i]);
+		}
+		if (resourceID >= lengths.length) {
+			lengths = Arrays.copyOf(lengths,
+					Math.max(resourceID + 1, lengths.length * 2));
+		}
+		lengths[resourceID] = entry.length;
+		indexed.put(resourceID, entry);
+		totalLength += entry.length;
+		version++;
+	}
+
+	/**
+	 * Updates the index after a resource has been edited.
+	 * @param resource The edited resource.
+	 */
+	public synchronized void update(Resource resource) {
+		int resourceID = resource.getResourceID();
+		IndexedResource old = indexed.remove(resourceID);
+		if (old != null) {
+			totalLength -= old.length;
+			for (String word : old.words) {
+				PostingList list = postings.get(word);
+				list.remove(resourceID);
+				if (list.size == 0) {
+					postings.remove(word);
+					sortedWords.remove(word);
+				}
+			}
+		}
+		add(resource);
+	}
+
+	/**
+	 * Finds the resources matching a search.
+	 * @param query The words to search for.
+	 * @return The matching resources, in ascending order of resource ID.
+	 */
+	public synchronized List<Resource> search(String query) {
+		return getResources(searchIDs(query));
+	}
+
+	/**
+	 * Gets the resources with the given IDs.
+	 * @param resourceIDs The IDs of the resources.
+	 * @return The resources, in the same order as the IDs.
+	 */
+	public synchronized List<Resource> getResources(int[] resourceIDs) {
+		ArrayList<Resource> found = new ArrayList<>(resourceIDs.length);
+		for (int resourceID : resourceIDs) {
+			found.add(indexed.get(resourceID).resource);
+		}
+		return found;
+	}
+
+	/**
+	 * Gets the version of the index, which changes whenever a resource is
+	 * added or edited.
+	 * @return The version.
+	 */
+	public synchronized int getVersion() {
+		return version;
+	}
+
+	/**
+	 * Checks if the results of one search can be narrowed down to get
+	 * the results of another, instead of searching again. This works
+	 * when the new search only adds to the end of the old one (e.g. more
+	 * letters or more words) and neither of them has "or" groups.
+	 * @param oldQuery The previous search.
+	 * @param newQuery The new search.
+	 * @return True if the new results are all in the old results.
+	 */
+	public static boolean canNarrow(String oldQuery, String newQuery) {
+		return split(oldQuery).length > 0
+				&& newQuery.toLowerCase().startsWith(oldQuery.toLowerCase())
+				&& !hasGroups(oldQuery) && !hasGroups(newQuery);
+	}
+
+	/**
+	 * Finds the resources from a previous search that also match a new
+	 * one, by checking the words of each resource. Only used when
+	 * canNarrow allows it.
+	 * @param resourceIDs The IDs found by the previous search.
+	 * @param query The new search.
+	 * @return The IDs of the resources that match, in the same order.
+	 */
+	public synchronized int[] narrowIDs(int[] resourceIDs, String query) {
+		String[] queryWords = split(query);
+		int[] found = new int[resourceIDs.length];
+		int size = 0;
+		for (int resourceID : resourceIDs) {
+			IndexedResource entry = indexed.get(resourceID);
+			if (entry != null && hasAllWords(entry.words, queryWords)) {
+				found[size++] = resourceID;
+			}
+		}
+		return Arrays.copyOf(found, size);
+	}
+
+	/**
+	 * Finds the IDs of the resources matching a search.
+	 * @param query The words to search for.
+	 * @return The IDs of the matching resources, in ascending order.
+	 */
+	public synchronized int[] searchIDs(String query) {
+		String[] words = split(query.replace("|", " " + OR + " "));
+
+		// Split the words into groups, separated by "or". An "or" at the
+		// end may be the start of a word that's still being typed.
+		ArrayList<ArrayList<String>> groups = new ArrayList<>();
+		ArrayList<String> group = new ArrayList<>();
+		for (int i = 0; i < words.length; i++) {
+			String word = words[i];
+			if (word.equals(OR) && i < words.length - 1) {
+				if (!group.isEmpty()) {
+					groups.add(group);
+					group = new ArrayList<>();
+				}
+			} else {
+				group.add(word);
+			}
+		}
+		if (!group.isEmpty()) {
+			groups.add(group);
+		}
+
+		int[] found = new int[0];
+		for (int i = 0; i < groups.size(); i++) {
+			// Only the very last word may be unfinished.
+			boolean isLastGroup = (i == groups.size() - 1);
+			found = union(found, matchAll(groups.get(i), isLastGroup));
+		}
+		return found;
+	}
+
+	/**
+	 * Ranks the resources found by a search, best match first. The scores
+	 * are added up one searched word at a time, by going through the
+	 * word's list alongside the resources found. Only the best few are
+	 * kept in a small heap, so a search matching lots of resources never
+	 * sorts them all or looks at most of them.
+	 * @param resourceIDs The IDs found by the search, in ascending order.
+	 * @param query The search.
+	 * @param filter Which of the resources to keep (e.g. only books).
+	 * @param limit The most resources to return.
+	 * @return The best matching resources, best first.
+	 */
+	public synchronized List<Resource> rank(int[] resourceIDs, String query,
+			Predicate<Resource> filter, int limit) {
+		// The searched words, without the "or"s between groups. The last
+		// word only has to be the start of a word.
+		String[] words = split(query.replace("|", " " + OR + " "));
+		LinkedHashSet<String> exact = new LinkedHashSet<>();
+		for (int i = 0; i < words.length - 1; i++) {
+			if (!words[i].equals(OR)) {
+				exact.add(words[i]);
+			}
+		}
+		String prefix = (words.length > 0) ? words[words.length - 1] : null;
+		exact.remove(prefix);
+
+		double averageLength = indexed.isEmpty() ? 1
+				: Math.max(totalLength / indexed.size(), 1);
+		double[] scores = new double[resourceIDs.length];
+		int[] positions = null;
+		if (resourceIDs.length > lengths.length / 256) {
+			// With lots of resources found, it's quicker to look up the
+			// position of each one by its ID than to search for it.
+			positions = new int[lengths.length];
+			for (int i = 0; i < resourceIDs.length; i++) {
+				positions[resourceIDs[i]] = i + 1;
+			}
+		}
+		for (String word : exact) {
+			PostingList list = postings.get(word);
+			if (list != null) {
+				addScores(list, resourceIDs, positions, scores, false,
+						averageLength);
+			}
+		}
+		if (prefix != null) {
+			// Use the best of the words it's the start of.
+			double[] prefixScores = new double[resourceIDs.length];
+			for (PostingList list : sortedWords.subMap(prefix,
+					prefix + Character.MAX_VALUE).values()) {
+				addScores(list, resourceIDs, positions, prefixScores, true,
+						averageLength);
+			}
+			for (int i = 0; i < scores.length; i++) {
+				scores[i] += prefixScores[i];
+			}
+		}
+
+		PriorityQueue<double[]> best = new PriorityQueue<>(WORST_FIRST);
+		for (int i = 0; i < resourceIDs.length && limit > 0; i++) {
+			if (best.size() == limit) {
+				double[] worst = best.peek();
+				if (scores[i] < worst[0]
+						|| (scores[i] == worst[0] && resourceIDs[i] > worst[1])) {
+					continue;
+				}
+			}
+			// Only resources good enough to be kept are checked.
+			IndexedResource entry = indexed.get(resourceIDs[i]);
+			if (entry != null && filter.test(entry.resource)) {
+				if (best.size() == limit) {
+					best.poll();
+				}
+				best.add(new double[] {scores[i], resourceIDs[i]});
+			}
+		}
+
+		// Only the best resources are looked up, best first.
+		Resource[] ranked = new Resource[best.size()];
+		for (int i = ranked.length - 1; i >= 0; i--) {
+			ranked[i] = indexed.get((int) best.poll()[1]).resource;
+		}
+		return Arrays.asList(ranked);
+	}
+
+	/**
+	 * Adds the BM25 score of one word to the resources found that have
+	 * it. Each resource with the word is looked up by its ID if there's a
+	 * table of positions. Otherwise the shorter of the two lists is gone
+	 * through, finding each ID in the other by jumping ahead from the
+	 * last one found.
+	 * @param list The resources with the word.
+	 * @param resourceIDs The IDs found by the search, in ascending order.
+	 * @param positions The position (plus one) of each resource found,
+	 *        using the resource ID as the position, or null.
+	 * @param scores The score of each resource found, by position.
+	 * @param keepBest If the higher score should be kept, instead of
+	 *        adding them.
+	 * @param averageLength The average total weight of a resource's words.
+	 */
+	private void addScores(PostingList list, int[] resourceIDs,
+			int[] positions, double[] scores, boolean keepBest,
+			double averageLength) {
+		double idf = Math.log(1 + (indexed.size() - list.size + 0.5)
+				/ (list.size + 0.5));
+		int from = 0;
+		if (positions != null) {
+			for (int j = 0; j < list.size; j++) {
+				int i = positions[list.ids[j]] - 1;
+				if (i >= 0) {
+					addScore(scores, i, idf, list.weights[j],
+							lengths[list.ids[j]], keepBest, averageLength);
+				}
+			}
+		} else if (list.size < resourceIDs.length) {
+			for (int j = 0; j < list.size && from < resourceIDs.length; j++) {
+				int i = gallop(resourceIDs, from, resourceIDs.length,
+						list.ids[j]);
+				if (i >= 0) {
+					addScore(scores, i, idf, list.weights[j],
+							lengths[list.ids[j]], keepBest, averageLength);
+					from = i + 1;
+				} else {
+					from = -i - 1;
+				}
+			}
+		} else {
+			for (int i = 0; i < resourceIDs.length && from < list.size; i++) {
+				int j = gallop(list.ids, from, list.size, resourceIDs[i]);
+				if (j >= 0) {
+					addScore(scores, i, idf, list.weights[j],
+							lengths[resourceIDs[i]], keepBest, averageLength);
+					from = j + 1;
+				} else {
+					from = -j - 1;
+				}
+			}
+		}
+	}
+
+	/**
+	 * Finds an ID in part of a sorted list, looking 1, 2, 4, 8... places
+	 * ahead until it's been passed and then doing a binary search. This
+	 * is quicker than a binary search of the whole part when the ID is
+	 * near the start.
+	 * @param ids The sorted IDs.
+	 * @param from The position to start looking from.
+	 * @param to The position after the end of the part.
+	 * @param id The ID to find.
+	 * @return The position of the ID, or (-(where it would go) - 1) if
+	 *         it isn't there, the same as Arrays.binarySearch.
+	 */
+	private static int gallop(int[] ids, int from, int to, int id) {
+		int step = 1;
+		int end = from;
+		while (end < to && ids[end] < id) {
+			from = end + 1;
+			end = from + step;
+			step *= 2;
+		}
+		return Arrays.binarySearch(ids, from, Math.min(end + 1, to), id);
+	}
+
+	/**
+	 * Adds the BM25 score of one word in a resource to its score.
+	 * @param scores The score of each resource found, by position.
+	 * @param i The position of the resource.
+	 * @param idf How rare the word is across the library.
+	 * @param weight How much the word counts for in the resource.
+	 * @param length The total weight of the resource's words.
+	 * @param keepBest If the higher score should be kept, instead of
+	 *        adding them.
+	 * @param averageLength The average total weight of a resource's words.
+	 */
+	private static void addScore(double[] scores, int i, double idf,
+			float weight, float length, boolean keepBest,
+			double averageLength) {
+		double norm = K1 * (1 - B + B * length / averageLength);
+		double score = idf * weight * (K1 + 1) / (weight + norm);
+		scores[i] = keepBest ? Math.max(scores[i], score) : scores[i] + score;
+	}
+
+	/**
+	 * Checks if a search is split into groups with "or".
+	 * @param query The search.
+	 * @return True if it has more than one group.
+	 */
+	private static boolean hasGroups(String query) {
+		if (query.contains("|")) {
+			return true;
+		}
+		String[] words = split(query);
+		for (int i = 0; i < words.length - 1; i++) {
+			if (words[i].equals(OR)) {
+				return true;
+			}
+		}
+		return false;
+	}
+
+	/**
+	 * Checks if a resource has every word of a search. The last word
+	 * only has to be the start of one of the resource's words.
+	 * @param words The words of the resource.
+	 * @param queryWords The words of the search.
+	 * @return True if the resource matches, otherwise false.
+	 */
+	private static boolean hasAllWords(String[] words, String[] queryWords) {
+		for (int i = 0; i < queryWords.length; i++) {
+			boolean isLast = (i == queryWords.length - 1);
+			boolean found = false;
+			for (int j = 0; j < words.length && !found; j++) {
+				found = isLast ? words[j].startsWith(queryWords[i])
+						: words[j].equals(queryWords[i]);
+			}
+			if (!found) {
+				return false;
+			}
+		}
+		return true;
+	}
+
+	/**
+	 * Finds the resources that have every word in a group.
+	 * @param words The words in the group.
+	 * @param lastIsPrefix If the last word only has to be the start of
+	 *        a word.
+	 * @return The IDs of the matching resources, in ascending order.
+	 */
+	private int[] matchAll(ArrayList<String> words, boolean lastIsPrefix) {
+		ArrayList<PostingList> lists = new ArrayList<>();
+		for (int i = 0; i < words.size(); i++) {
+			PostingList list;
+			if (lastIsPrefix && i == words.size() - 1) {
+				list = getPrefixList(words.get(i));
+			} else {
+				list = postings.get(words.get(i));
+			}
+			if (list == null || list.size == 0) {
+				return new int[0];
+			}
+			lists.add(list);
+		}
+
+		// Start with the shortest list, so every step is as quick as it
+		// can be.
+		lists.sort(Comparator.comparingInt(list -> list.size));
+		int[] found = lists.get(0).ids;
+		int size = lists.get(0).size;
+		for (int i = 1; i < lists.size() && size > 0; i++) {
+			int[] matched = new int[size];
+			size = intersect(found, size, lists.get(i), matched);
+			found = matched;
+		}
+		return Arrays.copyOf(found, size);
+	}
+
+	/**
+	 * Gets the resources with a word starting with some letters.
+	 * @param prefix The start of the word.
+	 * @return The IDs of the resources, or null if there are none.
+	 */
+	private PostingList getPrefixList(String prefix) {
+		SortedMap<String, PostingList> matches =
+				sortedWords.subMap(prefix, prefix + Character.MAX_VALUE);
+		if (matches.size() <= 1) {
+			return matches.isEmpty() ? null : matches.values().iterator().next();
+		}
+
+		int total = 0;
+		int maxID = 0;
+		for (PostingList list : matches.values()) {
+			total += list.size;
+			maxID = Math.max(maxID, list.ids[list.size - 1]);
+		}
+		PostingList combined = new PostingList();
+		if (total < maxID / 64) {
+			// A few IDs are quicker to sort.
+			combined.ids = new int[total];
+			for (PostingList list : matches.values()) {
+				System.arraycopy(list.ids, 0, combined.ids, combined.size,
+						list.size);
+				combined.size += list.size;
+			}
+			// A resource can have more than one of the words.
+			Arrays.sort(combined.ids);
+			combined.size = removeDuplicates(combined.ids);
+		} else {
+			// Lots of IDs are quicker to mark off in a bitmap of every ID, 
+			// which also removes the repeats.
+			long[] bits = new long[(maxID >> 6) + 1];
+			for (PostingList list : matches.values()) {
+				for (int i = 0; i < list.size; i++) {
+					bits[list.ids[i] >> 6] |= 1L << list.ids[i];
+				}
+			}
+			combined.ids = new int[total];
+			for (int word = 0; word < bits.length; word++) {
+				long value = bits[word];
+				while (value != 0) {
+					combined.ids[combined.size++] = (word << 6)
+							+ Long.numberOfTrailingZeros(value);
+					value &= value - 1;
+				}
+			}
+		}
+		return combined;
+	}
+
+	/**
+	 * Finds the IDs in both a sorted list and a posting list.
+	 * @param small The shorter list.
+	 * @param smallSize The number of IDs in the shorter list.
+	 * @param large The longer list.
+	 * @param result Where to put the IDs found in both.
+	 * @return The number of IDs found in both.
+	 */
+	private static int intersect(int[] small, int smallSize,
+			PostingList large, int[] result) {
+		int[] ids = large.ids;
+		int size = 0;
+		if (large.size > smallSize * 8) {
+			// Jump through the long list with a binary search.
+			int from = 0;
+			for (int i = 0; i < smallSize && from < large.size; i++) {
+				int pos = Arrays.binarySearch(ids, from, large.size, small[i]);
+				if (pos >= 0) {
+					result[size++] = small[i];
+					from = pos + 1;
+				} else {
+					from = -pos - 1;
+				}
+			}
+		} else {
+			// Walk through both lists side by side.
+			int i = 0;
+			int j = 0;
+			while (i < smallSize && j < large.size) {
+				if (small[i] < ids[j]) {
+					i++;
+				} else if (small[i] > ids[j]) {
+					j++;
+				} else {
+					result[size++] = small[i];
+					i++;
+					j++;
+				}
+			}
+		}
+		return size;
+	}
+
+	/**
+	 * Finds the IDs in either of two sorted lists.
+	 * @param first The first list.
+	 * @param second The second list.
+	 * @return The IDs in either list, in ascending order.
+	 */
+	private static int[] union(int[] first, int[] second) {
+		if (first.length == 0) {
+			return second;
+		}
+		int[] result = new int[first.length + second.length];
+		int size = 0;
+		int i = 0;
+		int j = 0;
+		while (i < first.length || j < second.length) {
+			if (j == second.length
+					|| (i < first.length && first[i] < second[j])) {
+				result[size++] = first[i++];
+			} else if (i == first.length || second[j] < first[i]) {
+				result[size++] = second[j++];
+			} else {
+				result[size++] = first[i++];
+				j++;
+			}
+		}
+		return Arrays.copyOf(result, size);
+	}
+
+	/**
+	 * Removes repeated IDs from a sorted list, moving the rest to the
+	 * front.
+	 * @param ids The sorted IDs.
+	 * @return The number of IDs left.
+	 */
+	private static int removeDuplicates(int[] ids) {
+		int size = 0;
+		for (int i = 0; i < ids.length; i++) {
+			if (size == 0 || ids[size - 1] != ids[i]) {
+				ids[size++] = ids[i];
+			}
+		}
+		return size;
+	}
+
+	/**
+	 * Gets the words a resource is indexed under and how much each counts
+	 * for. These come from its ID, title and year, then its author,
+	 * director, publisher, genre, ISBN, manufacturer, model, operating
+	 * system and language.
+	 * @param resource The resource.
+	 * @return The weight of each distinct word in lower case, in the
+	 *         order they were first found.
+	 */
+	private static LinkedHashMap<String, Float> getWords(Resource resource) {
+		LinkedHashMap<String, Float> words = new LinkedHashMap<>();
+		addWords(words, resource.getResourceID() + "", OTHER_BOOST);
+		addWords(words, resource.getResourceTitle(), TITLE_BOOST);
+		addWords(words, resource.getYear() + "", OTHER_BOOST);
+		switch (resource.getType()) {
+			case "Book":
+				Book book = (Book) resource;
+				addWords(words, book.getAuthor(), PERSON_BOOST);
+				addWords(words, book.getPublisher(), OTHER_BOOST);
+				addWords(words, book.getGenre(), GENRE_BOOST);
+				addWords(words, book.getISBN(), OTHER_BOOST);
+				// So the ISBN can be searched without its dashes.
+				addWords(words, book.getISBN().replace("-", ""), OTHER_BOOST);
+				addWords(words, book.getLanguage(), OTHER_BOOST);
+				break;
+			case "DVD":
+				DVD dvd = (DVD) resource;
+				addWords(words, dvd.getDirector(), PERSON_BOOST);
+				addWords(words, dvd.getLanguage(), OTHER_BOOST);
+				break;
+			case "Laptop":
+				Laptop laptop = (Laptop) resource;
+				addWords(words, laptop.getManufacturer(), OTHER_BOOST);
+				addWords(words, laptop.getModel(), OTHER_BOOST);
+				addWords(words, laptop.getOperatingSystem(), OTHER_BOOST);
+				break;
+		}
+		return words;
+	}
+
+	/**
+	 * Adds the words of one of a resource's details to its words. Each
+	 * time a word appears, the detail's boost is added to its weight.
+	 * @param words The resource's words so far.
+	 * @param field The detail.
+	 * @param boost How much a word in this detail counts for.
+	 */
+	private static void addWords(LinkedHashMap<String, Float> words,
+			String field, float boost) {
+		for (String word : split(field)) {
+			words.merge(word, boost, Float::sum);
+		}
+	}
+
+	/**
+	 * Splits some text into words in lower case. Anything that isn't a
+	 * letter or digit separates words.
+	 * @param text The text.
+	 * @return The words.
+	 */
+	public static String[] split(String text) {
+		ArrayList<String> words = new ArrayList<>();
+		int start = -1;
+		for (int i = 0; i <= text.length(); i++) {
+			boolean isWordChar = i < text.length()
+					&& Character.isLetterOrDigit(text.charAt(i));
+			if (isWordChar && start < 0) {
+				start = i;
+			} else if (!isWordChar && start >= 0) {
+				words.add(text.substring(start, i).toLowerCase());
+				start = -1;
+			}
+		}
+		return words.toArray(new String[0]);
+	}
+
+	/**
+	 * The IndexedResource class holds a resource with the words it was
+	 * indexed under, so they can be removed when it's edited and used to
+	 * rank it.
+	 */
+	private static class IndexedResource {
+		/** The resource. */
+		final Resource resource;
+		/** The distinct words in lower case. */
+		final String[] words;
+		/** How much each word counts for: the boost of each detail it
+		 * appears in, added up. */
+		final float[] weights;
+		/** The total weight of all the words. */
+		final float length;
+
+		/**
+		 * Constructor for the IndexedResource class. Gets the resource's
+		 * words.
+		 * @param resource The resource.
+		 */
+		IndexedResource(Resource resource) {
+			this.resource = resource;
+			LinkedHashMap<String, Float> found = getWords(resource);
+			words = new String[found.size()];
+			weights = new float[found.size()];
+			float total = 0;
+			int i = 0;
+			for (Map.Entry<String, Float> word : found.entrySet()) {
+				words[i] = word.getKey();
+				weights[i] = word.getValue();
+				total += weights[i];
+				i++;
+			}
+			length = total;
+		}
+	}
+}
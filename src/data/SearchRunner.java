@@ -0,0 +1,140 @@
+package data;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.ScheduledFuture;
+import java.util.concurrent.TimeUnit;
+import java.util.function.BiConsumer;
+import java.util.function.Predicate;
+
+import javafx.application.Platform;
+
+/**
+ * The SearchRunner class runs the resource search of a page as the user
+ * types, without holding up the page. Each search waits a short time
+ * (-Dtawelib.searchDelay milliseconds, default 150) in case another key
+ * is pressed, then runs on a background thread. A newer search cancels
+ * any older one that hasn't finished, so only the latest results are
+ * shown. When the search only adds to the end of the previous one, the
+ * previous results are narrowed down instead of searching everything
+ * again. A search can also allow spelling mistakes, which uses the fuzzy
+ * index instead. Only the best matches are shown, best first, and they
+ * are handed back to the page in one go.
+ * @author William King
+ */
+public class SearchRunner {
+	/** The time (in milliseconds) to wait for more typing. */
+	private static final long SEARCH_DELAY =
+			Long.getLong("tawelib.searchDelay", 150);
+	/** The most resources shown for one search. */
+	private static final int RESULTS_SHOWN = 100;
+	/** The thread that runs the searches of every page. */
+	private static final ScheduledExecutorService executor =
+			Executors.newSingleThreadScheduledExecutor(task -> {
+				Thread thread = new Thread(task, "Search");
+				thread.setDaemon(true);
+				return thread;
+			});
+
+	/** The search waiting to run or running, if any. */
+	private ScheduledFuture<?> pending;
+	/** Goes up with each new search, so older ones know to stop. */
+	private volatile int generation;
+	/** The previous search that finished (only used on the search
+	 * thread). */
+	private String lastQuery = "";
+	/** The IDs found by the previous search. */
+	private int[] lastIDs = new int[0];
+	/** The version of the index the previous search used. */
+	private int lastVersion = -1;
+
+	/**
+	 * Starts a new search, cancelling any that haven't finished. Must be
+	 * called on the JavaFX thread.
+	 * @param query The words to search for.
+	 * @param fuzzy True if the search can have spelling mistakes.
+	 * @param filter Which of the matching resources to keep (e.g. only
+	 *        books). It's run on the search thread, so it mustn't look
+	 *        at the page.
+	 * @param onResults Given the resources found and their short
+	 *        descriptions, on the JavaFX thread.
+	 */
+	public void search(String query, boolean fuzzy,
+			Predicate<Resource> filter,
+			BiConsumer<List<Resource>, List<String>> onResults) {
+		cancel();
+		int thisSearch = generation;
+		pending = executor.schedule(() -> run(thisSearch, query, fuzzy,
+				filter, onResults), SEARCH_DELAY, TimeUnit.MILLISECONDS);
+	}
+
+	/**
+	 * Cancels the current search, so its results are never shown. Must
+	 * be called on the JavaFX thread.
+	 */
+	public void cancel() {
+		generation++;
+		if (pending != null) {
+			pending.cancel(false);
+			pending = null;
+		}
+	}
+
+	/**
+	 * Runs a search on the search thread and hands the results back,
+	 * unless a newer search has been started.
+	 * @param thisSearch The generation of this search.
+	 * @param query The words to search for.
+	 * @param fuzzy True if the search can have spelling mistakes.
+	 * @param filter Which of the matching resources to keep.
+	 * @param onResults Given the results on the JavaFX thread.
+	 */
+	private void run(int thisSearch, String query, boolean fuzzy,
+			Predicate<Resource> filter,
+			BiConsumer<List<Resource>, List<String>> onResults) {
+		if (thisSearch != generation) {
+			return;
+		}
+		ArrayList<Resource> found = new ArrayList<>();
+		if (fuzzy) {
+			found.addAll(LibraryStore.getInstance().getFuzzyIndex()
+					.search(query, filter));
+			// The next normal search can't narrow these down.
+			lastQuery = "";
+			lastVersion = -1;
+		} else {
+			SearchIndex index = LibraryStore.getInstance().getSearchIndex();
+			int version = index.getVersion();
+			int[] resourceIDs;
+			if (version == lastVersion
+					&& SearchIndex.canNarrow(lastQuery, query)) {
+				resourceIDs = index.narrowIDs(lastIDs, query);
+			} else {
+				resourceIDs = index.searchIDs(query);
+			}
+			lastQuery = query;
+			lastIDs = resourceIDs;
+			lastVersion = version;
+			if (thisSearch != generation) {
+				return;
+			}
+			found.addAll(index.rank(resourceIDs, query, filter,
+					RESULTS_SHOWN));
+		}
+
+		ArrayList<String> descriptions = new ArrayList<>();
+		for (Resource resource : found) {
+			descriptions.add(resource.toString());
+		}
+
+		Platform.runLater(() -> {
+			// A newer search may have started while this one finished.
+			if (thisSearch == generation) {
+				pending = null;
+				onResults.accept(found, descriptions);
+			}
+		});
+	}
+}
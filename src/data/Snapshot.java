@@ -0,0 +1,905 @@
+package data;
+
+import java.io.BufferedOutputStream;
+import java.io.DataOutputStream;
+import java.io.File;
+import java.io.FileOutputStream;
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Paths;
+import java.nio.file.StandardCopyOption;
+import java.nio.file.StandardOpenOption;
+import java.time.LocalDate;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.function.Function;
+import java.util.function.Predicate;
+import java.util.function.ToDoubleFunction;
+import java.util.function.ToIntFunction;
+import java.util.zip.CRC32;
+import java.util.zip.CheckedOutputStream;
+
+/**
+ * The Snapshot class holds a copy of all the data files in a compact
+ * binary file, so the system can start without parsing the text files.
+ * Each field is stored as a column of numbers: IDs and amounts as int and
+ * long arrays, dates as days since 1970-01-01, times as seconds of the day
+ * and strings as positions in a table of every distinct string. The file
+ * ends with a checksum, and it records the size and last modified time of
+ * each data file, so it's only used if none of them have changed since.
+ * The text files are still the main copy of the data.
+ * @author William King
+ */
+public class Snapshot {
+	/** Marks the start of a snapshot file. */
+	private static final int MAGIC = 0x5457534E;
+	/** The version of the snapshot layout. */
+	private static final int VERSION = 1;
+	/** Stored in place of an empty date. */
+	private static final int NO_DATE = Utility.NO_DATE;
+
+	/** All the users in the system, using their username as the key. */
+	private final LinkedHashMap<String, User> users;
+	/** All the librarians in the system, using their username as the key. */
+	private final LinkedHashMap<String, Librarian> librarians;
+	/** All the books in the system. */
+	private final ArrayList<Book> books;
+	/** All the DVDs in the system. */
+	private final ArrayList<DVD> dvds;
+	/** All the laptops in the system. */
+	private final ArrayList<Laptop> laptops;
+	/** All the copies in the system. */
+	private final ArrayList<Copy> copies;
+	/** All the requests in the system. */
+	private final ArrayList<Request> requests;
+	/** All the loans in the system. */
+	private final ArrayList<Loan> loans;
+	/** All the transactions in the system. */
+	private final ArrayList<Transaction> transactions;
+
+	/**
+	 * Constructor for the Snapshot class.
+	 * @param users All the users in the system.
+	 * @param librarians All the librarians in the system.
+	 * @param books All the books in the system.
+	 * @param dvds All the DVDs in the system.
+	 * @param laptops All the laptops in the system.
+	 * @param copies All the copies in the system.
+	 * @param requests All the requests in the system.
+	 * @param loans All the loans in the system.
+	 * @param transactions All the transactions in the system.
+	 */
+	public Snapshot(LinkedHashMap<String, User> users,
+			LinkedHashMap<String, Librarian> librarians, ArrayList<Book> books,
+			ArrayList<DVD> dvds, ArrayList<Laptop> laptops,
+			ArrayList<Copy> copies, ArrayList<Request> requests,
+			ArrayList<Loan> loans, ArrayList<Transaction> transactions) {
+		this.users = users;
+		this.librarians = librarians;
+		this.books = books;
+		this.dvds = dvds;
+		this.laptops = laptops;
+		this.copies = copies;
+		this.requests = requests;
+		this.loans = loans;
+		this.transactions = transactions;
+	}
+
+	/**
+	 * Gets all the users in the snapshot.
+	 * @return LinkedHashMap of all users.
+	 */
+	public LinkedHashMap<String, User> getUsers() {
+		return users;
+	}
+
+	/**
+	 * Gets all the librarians in the snapshot.
+	 * @return LinkedHashMap of all librarians.
+	 */
+	public LinkedHashMap<String, Librarian> getLibrarians() {
+		return librarians;
+	}
+
+	/**
+	 * Gets all the books in the snapshot.
+	 * @return ArrayList of all books.
+	 */
+	public ArrayList<Book> getBooks() {
+		return books;
+	}
+
+	/**
+	 * Gets all the DVDs in the snapshot.
+	 * @return ArrayList of all DVDs.
+	 */
+	public ArrayList<DVD> getDVDs() {
+		return dvds;
+	}
+
+	/**
+	 * Gets all the laptops in the snapshot.
+	 * @return ArrayList of all laptops.
+	 */
+	public ArrayList<Laptop> getLaptops() {
+		return laptops;
+	}
+
+	/**
+	 * Gets all the copies in the snapshot.
+	 * @return ArrayList of all copies.
+	 */
+	public ArrayList<Copy> getCopies() {
+		return copies;
+	}
+
+	/**
+	 * Gets all the requests in the snapshot.
+	 * @return ArrayList of all requests.
+	 */
+	public ArrayList<Request> getRequests() {
+		return requests;
+	}
+
+	/**
+	 * Gets all the loans in the snapshot.
+	 * @return ArrayList of all loans.
+	 */
+	public ArrayList<Loan> getLoans() {
+		return loans;
+	}
+
+	/**
+	 * Gets all the transactions in the snapshot.
+	 * @return ArrayList of all transactions.
+	 */
+	public ArrayList<Transaction> getTransactions() {
+		return transactions;
+	}
+
+	/**
+	 * Writes the snapshot to a file. It's written to a temporary file
+	 * first, then swapped in.
+	 * @param filePath The path of the snapshot file.
+	 * @param sourceFiles The data files that the snapshot is a copy of.
+	 * @throws IOException If the file can't be written.
+	 */
+	public void write(String filePath, File[] sourceFiles) throws IOException {
+		Encoder encoder = new Encoder();
+
+		List<User> userList = new ArrayList<>(users.values());
+		encoder.count(userList);
+		encodeUserFields(encoder, userList);
+
+		List<Librarian> librarianList = new ArrayList<>(librarians.values());
+		encoder.count(librarianList);
+		encodeUserFields(encoder, librarianList);
+		encoder.ints(librarianList, Librarian::getStaffID);
+		encoder.dates(librarianList, Librarian::getEmploymentDate);
+
+		encoder.count(books);
+		encodeResourceFields(encoder, books);
+		encoder.strings(books, Book::getAuthor);
+		encoder.strings(books, Book::getPublisher);
+		encoder.strings(books, Book::getGenre);
+		encoder.strings(books, Book::getISBN);
+		encoder.strings(books, Book::getLanguage);
+
+		encoder.count(dvds);
+		encodeResourceFields(encoder, dvds);
+		encoder.strings(dvds, DVD::getDirector);
+		encoder.doubles(dvds, DVD::getRuntime);
+		encoder.strings(dvds, DVD::getLanguage);
+		encoder.strings(dvds, dvd -> String.join(";", dvd.getSubLang()));
+
+		encoder.count(laptops);
+		encodeResourceFields(encoder, laptops);
+		encoder.strings(laptops, Laptop::getManufacturer);
+		encoder.strings(laptops, Laptop::getModel);
+		encoder.strings(laptops, Laptop::getOperatingSystem);
+
+		encoder.count(copies);
+		encoder.ints(copies, Copy::getCopyID);
+		encoder.ints(copies, Copy::getResourceID);
+		encoder.booleans(copies, Copy::isAvailable);
+		encoder.enums(copies, Copy::getResourceType);
+		encoder.enums(copies, Copy::getLoanDurationType);
+
+		encoder.count(requests);
+		encoder.ints(requests, Request::getRequestID);
+		encoder.ints(requests, Request::getCopyID);
+		encoder.ints(requests, Request::getResourceID);
+		encoder.strings(requests, Request::getUsername);
+		encoder.ints(requests, Request::getRequestDay);
+		encoder.booleans(requests, Request::getRequestFilled);
+		encoder.booleans(requests, Request::isReserved);
+
+		encoder.count(loans);
+		encoder.ints(loans, Loan::getLoanID);
+		encoder.ints(loans, Loan::getCopyID);
+		encoder.ints(loans, Loan::getResourceID);
+		encoder.strings(loans, Loan::getUsername);
+		encoder.ints(loans, Loan::getStaffID);
+		encoder.ints(loans, Loan::getCheckoutDay);
+		encoder.ints(loans, Loan::getCheckoutSecond);
+		encoder.ints(loans, Loan::getDueDay);
+		encoder.booleans(loans, Loan::isReturned);
+		encoder.ints(loans, Loan::getReturnDay);
+		encoder.ints(loans, Loan::getReturnSecond);
+		encoder.ints(loans, Loan::getDaysOverdue);
+		encoder.enums(loans, Loan::getType);
+
+		encoder.count(transactions);
+		encoder.ints(transactions, Transaction::getTransactionID);
+		encoder.ints(transactions, Transaction::getResourceID);
+		encoder.strings(transactions, Transaction::getUsername);
+		encoder.doubles(transactions, Transaction::getAmount);
+		encoder.ints(transactions, Transaction::getDaysOverdue);
+		encoder.ints(transactions, Transaction::getDay);
+		encoder.ints(transactions, Transaction::getSecond);
+		encoder.enums(transactions, Transaction::getType);
+		encoder.booleans(transactions, Transaction::isFine);
+
+		File tempFile = new File(filePath + ".tmp");
+		FileOutputStream fileOutput = new FileOutputStream(tempFile);
+		BufferedOutputStream buffered = new BufferedOutputStream(fileOutput);
+		CRC32 checksum = new CRC32();
+		DataOutputStream out = new DataOutputStream(
+				new CheckedOutputStream(buffered, checksum));
+		try {
+			out.writeInt(MAGIC);
+			out.writeInt(VERSION);
+			writeStamps(out, sourceFiles);
+			encoder.writeTo(out);
+			out.flush();
+			// The checksum covers everything before it.
+			new DataOutputStream(buffered).writeLong(checksum.getValue());
+			buffered.flush();
+			fileOutput.getFD().sync();
+		} finally {
+			out.close();
+		}
+		Files.move(tempFile.toPath(), Paths.get(filePath),
+				StandardCopyOption.REPLACE_EXISTING,
+				StandardCopyOption.ATOMIC_MOVE);
+	}
+
+	/**
+	 * Reads a snapshot file.
+	 * @param filePath The path of the snapshot file.
+	 * @param sourceFiles The data files that the snapshot is a copy of.
+	 * @return The snapshot, or null if there isn't one, it's damaged or
+	 *         any of the data files have changed since it was written.
+	 * @throws IOException If the file can't be read.
+	 */
+	public static Snapshot read(String filePath, File[] sourceFiles)
+			throws IOException {
+		if (!new File(filePath).exists()) {
+			return null;
+		}
+
+		// Read into memory rather than mapped, as a mapped file can't be
+		// replaced on Windows until the mapping is garbage collected.
+		ByteBuffer buffer;
+		FileChannel channel = FileChannel.open(Paths.get(filePath),
+				StandardOpenOption.READ);
+		try {
+			long size = channel.size();
+			if (size > Integer.MAX_VALUE) {
+				return null;
+			}
+			buffer = ByteBuffer.allocate((int) size);
+			while (buffer.hasRemaining()) {
+				if (channel.read(buffer) < 0) {
+					return null; // Cut short while being read.
+				}
+			}
+			buffer.flip();
+		} finally {
+			channel.close();
+		}
+
+		// Check the checksum before reading anything.
+		if (buffer.capacity() < 16) {
+			return null;
+		}
+		int bodySize = buffer.capacity() - 8;
+		ByteBuffer body = buffer.duplicate();
+		body.limit(bodySize);
+		CRC32 checksum = new CRC32();
+		checksum.update(body);
+		if (checksum.getValue() != buffer.getLong(bodySize)) {
+			return null;
+		}
+
+		buffer.limit(bodySize);
+		if (buffer.getInt() != MAGIC || buffer.getInt() != VERSION
+				|| !readStamps(buffer, sourceFiles)) {
+			return null;
+		}
+		return new Decoder(buffer).decode();
+	}
+
+	/**
+	 * Adds the fields that users and librarians share.
+	 * @param <T> The type of user.
+	 * @param encoder The encoder to add them to.
+	 * @param list The users.
+	 */
+	private static <T extends User> void encodeUserFields(Encoder encoder,
+			List<T> list) {
+		encoder.strings(list, User::getUsername);
+		encoder.strings(list, User::getFirstName);
+		encoder.strings(list, User::getSurname);
+		encoder.strings(list, User::getMobileNumber);
+		encoder.strings(list, User::getAddress1);
+		encoder.strings(list, User::getAddress2);
+		encoder.strings(list, User::getCity);
+		encoder.strings(list, User::getPostcode);
+		encoder.strings(list, User::getProfilePicture);
+		encoder.doubles(list, User::getFine);
+	}
+
+	/**
+	 * Adds the fields that all resources share.
+	 * @param <T> The type of resource.
+	 * @param encoder The encoder to add them to.
+	 * @param list The resources.
+	 */
+	private static <T extends Resource> void encodeResourceFields(
+			Encoder encoder, List<T> list) {
+		encoder.ints(list, Resource::getResourceID);
+		encoder.strings(list, Resource::getResourceTitle);
+		encoder.ints(list, Resource::getYear);
+		encoder.strings(list, Resource::getThumbnail);
+		encoder.ints(list, Resource::getNumberOfCopies);
+	}
+
+	/**
+	 * Writes the size and last modified time of each data file.
+	 * @param out The stream to write to.
+	 * @param sourceFiles The data files.
+	 * @throws IOException If the stream can't be written.
+	 */
+	private static void writeStamps(DataOutputStream out, File[] sourceFiles)
+			throws IOException {
+		out.writeInt(sourceFiles.length);
+		for (File file : sourceFiles) {
+			byte[] path = file.getPath().getBytes(StandardCharsets.UTF_8);
+			out.writeInt(path.length);
+			out.write(path);
+			out.writeLong(file.exists() ? file.length() : -1);
+			out.writeLong(file.lastModified());
+		}
+	}
+
+	/**
+	 * Checks that none of the data files have changed since the
+	 * snapshot was written.
+	 * @param buffer The snapshot, positioned at the data file details.
+	 * @param sourceFiles The data files.
+	 * @return True if none have changed, otherwise false.
+	 */
+	private static boolean readStamps(ByteBuffer buffer, File[] sourceFiles) {
+		if (buffer.getInt() != sourceFiles.length) {
+			return false;
+		}
+		for (File file : sourceFiles) {
+			byte[] path = new byte[buffer.getInt()];
+			buffer.get(path);
+			long length = buffer.getLong();
+			long lastModified = buffer.getLong();
+			if (!file.getPath().equals(new String(path, StandardCharsets.UTF_8))
+					|| length != (file.exists() ? file.length() : -1)
+					|| lastModified != file.lastModified()) {
+				return false;
+			}
+		}
+		return true;
+	}
+
+	/**
+	 * The Encoder class turns the fields of each record into columns,
+	 * building the table of strings as it goes.
+	 */
+	private static class Encoder {
+		/** Each column (int[], long[] or byte[]) in the order added. */
+		private final ArrayList<Object> columns = new ArrayList<>();
+		/** The position of each distinct string in the string table. */
+		private final HashMap<String, Integer> stringIDs = new HashMap<>();
+		/** The table of distinct strings. */
+		private final ArrayList<String> strings = new ArrayList<>();
+		/** Dates that have already been converted. */
+		private final HashMap<String, Integer> converted = new HashMap<>();
+
+		/**
+		 * Adds the number of records in a section.
+		 * @param records The records.
+		 */
+		void count(List<?> records) {
+			columns.add(new int[] {records.size()});
+		}
+
+		/**
+		 * Adds a column of whole numbers.
+		 * @param <T> The type of record.
+		 * @param records The records.
+		 * @param field Gets the field from a record.
+		 */
+		<T> void ints(List<T> records, ToIntFunction<? super T> field) {
+			int[] column = new int[records.size()];
+			for (int i = 0; i < column.length; i++) {
+				column[i] = field.applyAsInt(records.get(i));
+			}
+			columns.add(column);
+		}
+
+		/**
+		 * Adds a column of decimal numbers.
+		 * @param <T> The type of record.
+		 * @param records The records.
+		 * @param field Gets the field from a record.
+		 */
+		<T> void doubles(List<T> records, ToDoubleFunction<? super T> field) {
+			long[] column = new long[records.size()];
+			for (int i = 0; i < column.length; i++) {
+				column[i] = Double.doubleToLongBits(
+						field.applyAsDouble(records.get(i)));
+			}
+			columns.add(column);
+		}
+
+		/**
+		 * Adds a column of booleans.
+		 * @param <T> The type of record.
+		 * @param records The records.
+		 * @param field Gets the field from a record.
+		 */
+		<T> void booleans(List<T> records, Predicate<? super T> field) {
+			byte[] column = new byte[records.size()];
+			for (int i = 0; i < column.length; i++) {
+				column[i] = (byte) (field.test(records.get(i)) ? 1 : 0);
+			}
+			columns.add(column);
+		}
+
+		/**
+		 * Adds a column of enum values (-1 for null).
+		 * @param <T> The type of record.
+		 * @param records The records.
+		 * @param field Gets the field from a record.
+		 */
+		<T> void enums(List<T> records, Function<? super T, Enum<?>> field) {
+			byte[] column = new byte[records.size()];
+			for (int i = 0; i < column.length; i++) {
+				Enum<?> value = field.apply(records.get(i));
+				column[i] = (byte) (value == null ? -1 : value.ordinal());
+			}
+			columns.add(column);
+		}
+
+		/**
+		 * Adds a column of strings, stored as their position in the
+		 * string table.
+		 * @param <T> The type of record.
+		 * @param records The records.
+		 * @param field Gets the field from a record.
+		 */
+		<T> void strings(List<T> records, Function<? super T, String> field) {
+			int[] column = new int[records.size()];
+			for (int i = 0; i < column.length; i++) {
+				String value = field.apply(records.get(i));
+				Integer id = stringIDs.get(value);
+				if (id == null) {
+					id = strings.size();
+					stringIDs.put(value, id);
+					strings.add(value);
+				}
+				column[i] = id;
+			}
+			columns.add(column);
+		}
+
+		/**
+		 * Adds a column of dates (YYYY-MM-DD), stored as days since
+		 * 1970-01-01.
+		 * @param <T> The type of record.
+		 * @param records The records.
+		 * @param field Gets the field from a record.
+		 */
+		<T> void dates(List<T> records, Function<? super T, String> field) {
+			int[] column = new int[records.size()];
+			for (int i = 0; i < column.length; i++) {
+				String date = field.apply(records.get(i));
+				if (date.isEmpty()) {
+					column[i] = NO_DATE;
+				} else {
+					Integer epochDay = converted.get(date);
+					if (epochDay == null) {
+						epochDay = (int) LocalDate.parse(date).toEpochDay();
+						converted.put(date, epochDay);
+					}
+					column[i] = epochDay;
+				}
+			}
+			columns.add(column);
+		}
+
+		/**
+		 * Writes the string table followed by every column.
+		 * @param out The stream to write to.
+		 * @throws IOException If the stream can't be written.
+		 */
+		void writeTo(DataOutputStream out) throws IOException {
+			out.writeInt(strings.size());
+			for (String value : strings) {
+				byte[] bytes = value.getBytes(StandardCharsets.UTF_8);
+				out.writeInt(bytes.length);
+				out.write(bytes);
+			}
+
+			// Numbers are copied into a byte array so each column is
+			// written in one go.
+			for (Object column : columns) {
+				if (column instanceof int[]) {
+					int[] values = (int[]) column;
+					ByteBuffer bytes = ByteBuffer.allocate(values.length * 4);
+					bytes.asIntBuffer().put(values);
+					out.writeInt(values.length);
+					out.write(bytes.array());
+				} else if (column instanceof long[]) {
+					long[] values = (long[]) column;
+					ByteBuffer bytes = ByteBuffer.allocate(values.length * 8);
+					bytes.asLongBuffer().put(values);
+					out.writeInt(values.length);
+					out.write(bytes.array());
+				} else {
+					byte[] values = (byte[]) column;
+					out.writeInt(values.length);
+					out.write(values);
+				}
+			}
+		}
+	}
+
+	/**
+	 * The Decoder class reads the columns of a snapshot and rebuilds
+	 * each record.
+	 */
+	private static class Decoder {
+		/** The resource types, in the order of their stored values. */
+		private static final ResourceType[] RESOURCE_TYPES =
+				ResourceType.values();
+		/** The loan durations, in the order of their stored values. */
+		private static final LoanDuration[] LOAN_DURATIONS =
+				LoanDuration.values();
+
+		/** The snapshot being read. */
+		private final ByteBuffer buffer;
+		/** The table of distinct strings. */
+		private String[] strings;
+		/** Dates that have already been turned back into strings. */
+		private final HashMap<Integer, String> dates = new HashMap<>();
+
+		/**
+		 * Constructor for the Decoder class.
+		 * @param buffer The snapshot, positioned at the string table.
+		 */
+		Decoder(ByteBuffer buffer) {
+			this.buffer = buffer;
+		}
+
+		/**
+		 * Reads every section of the snapshot.
+		 * @return The snapshot.
+		 */
+		Snapshot decode() {
+			strings = new String[buffer.getInt()];
+			for (int i = 0; i < strings.length; i++) {
+				byte[] bytes = new byte[buffer.getInt()];
+				buffer.get(bytes);
+				strings[i] = new String(bytes, StandardCharsets.UTF_8);
+			}
+
+			LinkedHashMap<String, User> users = new LinkedHashMap<>();
+			int count = count();
+			UserColumns u = new UserColumns();
+			for (int i = 0; i < count; i++) {
+				User user = new User(strings[u.usernames[i]],
+						strings[u.firstNames[i]], strings[u.surnames[i]],
+						strings[u.mobileNumbers[i]], strings[u.addresses1[i]],
+						strings[u.addresses2[i]], strings[u.cities[i]],
+						strings[u.postcodes[i]], strings[u.profilePictures[i]],
+						Double.longBitsToDouble(u.fines[i]));
+				users.put(user.getUsername(), user);
+			}
+
+			LinkedHashMap<String, Librarian> librarians = new LinkedHashMap<>();
+			count = count();
+			u = new UserColumns();
+			int[] staffIDs = ints();
+			int[] employmentDates = ints();
+			for (int i = 0; i < count; i++) {
+				Librarian librarian = new Librarian(strings[u.usernames[i]],
+						strings[u.firstNames[i]], strings[u.surnames[i]],
+						strings[u.mobileNumbers[i]], strings[u.addresses1[i]],
+						strings[u.addresses2[i]], strings[u.cities[i]],
+						strings[u.postcodes[i]], strings[u.profilePictures[i]],
+						Double.longBitsToDouble(u.fines[i]), staffIDs[i],
+						date(employmentDates[i]));
+				librarians.put(librarian.getUsername(), librarian);
+			}
+
+			ArrayList<Book> books = new ArrayList<>();
+			count = count();
+			ResourceColumns resourceColumns = new ResourceColumns();
+			int[] authors = ints();
+			int[] publishers = ints();
+			int[] genres = ints();
+			int[] isbns = ints();
+			int[] languages = ints();
+			for (int i = 0; i < count; i++) {
+				books.add(new Book(resourceColumns.resourceIDs[i],
+						strings[resourceColumns.titles[i]],
+						resourceColumns.years[i],
+						strings[resourceColumns.thumbnails[i]],
+						resourceColumns.numberOfCopies[i], strings[authors[i]],
+						strings[publishers[i]], strings[genres[i]],
+						strings[isbns[i]], strings[languages[i]]));
+			}
+
+			ArrayList<DVD> dvds = new ArrayList<>();
+			count = count();
+			resourceColumns = new ResourceColumns();
+			int[] directors = ints();
+			long[] runtimes = longs();
+			languages = ints();
+			int[] subLangs = ints();
+			for (int i = 0; i < count; i++) {
+				String subLang = strings[subLangs[i]];
+				dvds.add(new DVD(resourceColumns.resourceIDs[i],
+						strings[resourceColumns.titles[i]],
+						resourceColumns.years[i],
+						strings[resourceColumns.thumbnails[i]],
+						resourceColumns.numberOfCopies[i], strings[directors[i]],
+						Double.longBitsToDouble(runtimes[i]),
+						strings[languages[i]],
+						subLang.isEmpty() ? new String[0] : subLang.split(";")));
+			}
+
+			ArrayList<Laptop> laptops = new ArrayList<>();
+			count = count();
+			resourceColumns = new ResourceColumns();
+			int[] manufacturers = ints();
+			int[] models = ints();
+			int[] operatingSystems = ints();
+			for (int i = 0; i < count; i++) {
+				laptops.add(new Laptop(resourceColumns.resourceIDs[i],
+						strings[resourceColumns.titles[i]],
+						resourceColumns.years[i],
+						strings[resourceColumns.thumbnails[i]],
+						resourceColumns.numberOfCopies[i],
+						strings[manufacturers[i]], strings[models[i]],
+						strings[operatingSystems[i]]));
+			}
+
+			ArrayList<Copy> copies = new ArrayList<>();
+			count = count();
+			int[] copyIDs = ints();
+			int[] resourceIDs = ints();
+			byte[] available = bytes();
+			byte[] types = bytes();
+			byte[] durations = bytes();
+			for (int i = 0; i < count; i++) {
+				copies.add(new Copy(copyIDs[i], resourceIDs[i],
+						available[i] != 0, value(RESOURCE_TYPES, types[i]),
+						value(LOAN_DURATIONS, durations[i])));
+			}
+
+			ArrayList<Request> requests = new ArrayList<>();
+			count = count();
+			int[] requestIDs = ints();
+			copyIDs = ints();
+			resourceIDs = ints();
+			int[] usernames = ints();
+			int[] requestDates = ints();
+			byte[] filled = bytes();
+			byte[] reserved = bytes();
+			for (int i = 0; i < count; i++) {
+				requests.add(new Request(requestIDs[i], copyIDs[i],
+						resourceIDs[i], strings[usernames[i]],
+						requestDates[i], filled[i] != 0,
+						reserved[i] != 0));
+			}
+
+			ArrayList<Loan> loans = new ArrayList<>(count());
+			int[] loanIDs = ints();
+			copyIDs = ints();
+			resourceIDs = ints();
+			usernames = ints();
+			staffIDs = ints();
+			int[] checkoutDates = ints();
+			int[] checkoutTimes = ints();
+			int[] dueDates = ints();
+			byte[] returned = bytes();
+			int[] returnDates = ints();
+			int[] returnTimes = ints();
+			int[] daysOverdue = ints();
+			types = bytes();
+			for (int i = 0; i < loanIDs.length; i++) {
+				loans.add(new Loan(loanIDs[i], copyIDs[i], resourceIDs[i],
+						strings[usernames[i]], staffIDs[i],
+						checkoutDates[i], checkoutTimes[i],
+						dueDates[i], returned[i] != 0,
+						returnDates[i], returnTimes[i],
+						daysOverdue[i], value(RESOURCE_TYPES, types[i])));
+			}
+
+			ArrayList<Transaction> transactions = new ArrayList<>(count());
+			int[] transactionIDs = ints();
+			resourceIDs = ints();
+			usernames = ints();
+			long[] amounts = longs();
+			daysOverdue = ints();
+			int[] transactionDates = ints();
+			int[] transactionTimes = ints();
+			types = bytes();
+			byte[] fines = bytes();
+			for (int i = 0; i < transactionIDs.length; i++) {
+				transactions.add(new Transaction(transactionIDs[i],
+						resourceIDs[i], strings[usernames[i]],
+						Double.longBitsToDouble(amounts[i]), daysOverdue[i],
+						transactionDates[i], transactionTimes[i],
+						value(RESOURCE_TYPES, types[i]), fines[i] != 0));
+			}
+
+			return new Snapshot(users, librarians, books, dvds, laptops,
+					copies, requests, loans, transactions);
+		}
+
+		/**
+		 * Reads the number of records in a section.
+		 * @return The number of records.
+		 */
+		private int count() {
+			return ints()[0];
+		}
+
+		/**
+		 * Reads a column of whole numbers.
+		 * @return The column.
+		 */
+		private int[] ints() {
+			int[] column = new int[buffer.getInt()];
+			buffer.asIntBuffer().get(column);
+			buffer.position(buffer.position() + column.length * 4);
+			return column;
+		}
+
+		/**
+		 * Reads a column of long numbers.
+		 * @return The column.
+		 */
+		private long[] longs() {
+			long[] column = new long[buffer.getInt()];
+			buffer.asLongBuffer().get(column);
+			buffer.position(buffer.position() + column.length * 8);
+			return column;
+		}
+
+		/**
+		 * Reads a column of bytes.
+		 * @return The column.
+		 */
+		private byte[] bytes() {
+			byte[] column = new byte[buffer.getInt()];
+			buffer.get(column);
+			return column;
+		}
+
+		/**
+		 * Turns a stored date back into a string (YYYY-MM-DD).
+		 * @param epochDay The days since 1970-01-01.
+		 * @return The date, or "" if there wasn't one.
+		 */
+		private String date(int epochDay) {
+			if (epochDay == NO_DATE) {
+				return "";
+			}
+			String date = dates.get(epochDay);
+			if (date == null) {
+				date = LocalDate.ofEpochDay(epochDay).toString();
+				dates.put(epochDay, date);
+			}
+			return date;
+		}
+
+		/**
+		 * Gets the enum value that was stored.
+		 * @param <E> The type of enum.
+		 * @param values All of the enum's values.
+		 * @param ordinal The stored position of the value.
+		 * @return The enum value, or null if none was stored.
+		 */
+		private <E> E value(E[] values, byte ordinal) {
+			return (ordinal < 0 || ordinal >= values.length) ? null
+					: values[ordinal];
+		}
+
+		/**
+		 * The UserColumns class holds the columns that users and
+		 * librarians share.
+		 */
+		private class UserColumns {
+			/** The string table position of each username. */
+			private final int[] usernames;
+			/** The string table position of each first name. */
+			private final int[] firstNames;
+			/** The string table position of each surname. */
+			private final int[] surnames;
+			/** The string table position of each mobile number. */
+			private final int[] mobileNumbers;
+			/** The string table position of each address line 1. */
+			private final int[] addresses1;
+			/** The string table position of each address line 2. */
+			private final int[] addresses2;
+			/** The string table position of each city. */
+			private final int[] cities;
+			/** The string table position of each postcode. */
+			private final int[] postcodes;
+			/** The string table position of each profile picture. */
+			private final int[] profilePictures;
+			/** The fine of each user. */
+			private final long[] fines;
+
+			/**
+			 * Constructor for the UserColumns class. Reads the columns.
+			 */
+			UserColumns() {
+				usernames = ints();
+				firstNames = ints();
+				surnames = ints();
+				mobileNumbers = ints();
+				addresses1 = ints();
+				addresses2 = ints();
+				cities = ints();
+				postcodes = ints();
+				profilePictures = ints();
+				fines = longs();
+			}
+		}
+
+		/**
+		 * The ResourceColumns class holds the columns that all
+		 * resources share.
+		 */
+		private class ResourceColumns {
+			/** The ID of each resource. */
+			private final int[] resourceIDs;
+			/** The string table position of each title. */
+			private final int[] titles;
+			/** The year of each resource. */
+			private final int[] years;
+			/** The string table position of each thumbnail. */
+			private final int[] thumbnails;
+			/** The number of copies of each resource. */
+			private final int[] numberOfCopies;
+
+			/**
+			 * Constructor for the ResourceColumns class. Reads the columns.
+			 */
+			ResourceColumns() {
+				resourceIDs = ints();
+				titles = ints();
+				years = ints();
+				thumbnails = ints();
+				numberOfCopies = ints();
+			}
+		}
+	}
+}
@@ -0,0 +1,168 @@
+package data;
+
+import java.awt.Graphics2D;
+import java.awt.RenderingHints;
+import java.awt.image.BufferedImage;
+import java.io.File;
+import java.io.IOException;
+
+import javax.imageio.ImageIO;
+
+/**
+ * The Thumbnails class keeps smaller copies of the resource thumbnail
+ * images, so a page doesn't have to decode a large photo just to fill a
+ * small image view. Each image has a copy at the size of the image views
+ * on the resource pages (150 x 150), saved as a PNG under
+ * DataFiles/ThumbnailCache. The copies are made when an image is picked
+ * for a resource, and can be made for every existing image by running
+ * this class:
+ * <pre>java data.Thumbnails [-force]</pre>
+ * @author William King
+ */
+public class Thumbnails {
+	/** The directory to the thumbnail images for the resources. */
+	public static final String RESOURCE_IMAGE_PATH =
+			"DataFiles/ResourceThumbnails/";
+	/** The directory the smaller copies are saved in. */
+	private static final String CACHE_PATH = "DataFiles/ThumbnailCache/";
+	/** The most pixels across or down of a copy. */
+	private static final int COPY_PIXELS = 150;
+
+	/**
+	 * Makes the smaller copies for every resource thumbnail image.
+	 * @param args "-force" to remake copies that are already up to date.
+	 */
+	public static void main(String[] args) {
+		boolean force = args.length > 0 && args[0].equals("-force");
+		File[] images = new File(RESOURCE_IMAGE_PATH).listFiles();
+		if (images == null) {
+			System.out.println("Cannot find " + RESOURCE_IMAGE_PATH);
+			System.exit(-1);
+		}
+		int made = 0;
+		for (File image : images) {
+			if (image.isFile() && (force || !isUpToDate(image))) {
+				if (generate(image)) {
+					made++;
+				}
+			}
+		}
+		System.out.println("Made thumbnails for " + made + " of "
+				+ images.length + " images.");
+	}
+
+	/**
+	 * Makes the smaller copy of a resource thumbnail image, unless it's
+	 * already up to date.
+	 * @param image The image file.
+	 * @return True if the copy is up to date, false if the image couldn't
+	 *         be read or the copy couldn't be saved.
+	 */
+	public static synchronized boolean generate(File image) {
+		if (isUpToDate(image)) {
+			return true;
+		}
+		try {
+			BufferedImage original = ImageIO.read(image);
+			if (original == null) {
+				System.out.println("Cannot read " + image.getPath());
+				return false;
+			}
+			File copy = getCopyFile(image);
+			copy.getParentFile().mkdirs();
+			// Written under another name first, so a half written copy is
+			// never loaded.
+			File temp = new File(copy.getPath() + ".tmp");
+			ImageIO.write(scale(original, COPY_PIXELS), "png", temp);
+			if (!temp.renameTo(copy)) {
+				copy.delete();
+				temp.renameTo(copy);
+			}
+		} catch (IOException e) {
+			// The page can still show the original image.
+			System.out.println("Cannot make thumbnails for " + image.getPath());
+			return false;
+		}
+		return true;
+	}
+
+	/**
+	 * Gets the up to date copy of an image, if it's big enough for the
+	 * size the image will be shown at.
+	 * @param image The image file.
+	 * @param width The width it will be shown at.
+	 * @param height The height it will be shown at.
+	 * @return The copy, or the image itself if it isn't a resource
+	 *         thumbnail or there isn't a big enough copy.
+	 */
+	public static File getCopy(File image, double width, double height) {
+		if (isResourceImage(image) && Math.max(width, height) <= COPY_PIXELS
+				&& isUpToDate(image)) {
+			return getCopyFile(image);
+		}
+		return image;
+	}
+
+	/**
+	 * Checks if the copy of an image is newer than the image.
+	 * @param image The image file.
+	 * @return True if the copy doesn't need to be made again.
+	 */
+	private static boolean isUpToDate(File image) {
+		// lastModified is 0 for a file that doesn't exist.
+		return getCopyFile(image).lastModified() >= image.lastModified();
+	}
+
+	/**
+	 * Checks if an image is one of the resource thumbnail images.
+	 * @param image The image file.
+	 * @return True if it's in the resource thumbnail directory.
+	 */
+	private static boolean isResourceImage(File image) {
+		File folder = image.getAbsoluteFile().getParentFile();
+		return folder != null && folder.equals(
+				new File(RESOURCE_IMAGE_PATH).getAbsoluteFile());
+	}
+
+	/**
+	 * Gets where the copy of an image is saved.
+	 * @param image The image file.
+	 * @return The copy's file.
+	 */
+	private static File getCopyFile(File image) {
+		return new File(CACHE_PATH + image.getName() + ".png");
+	}
+
+	/**
+	 * Shrinks an image to fit in a square, keeping its shape. Large
+	 * images are halved a step at a time so the result isn't grainy.
+	 * Small images are kept at their size.
+	 * @param image The image.
+	 * @param pixels The width and height of the square.
+	 * @return The shrunk image.
+	 */
+	private static BufferedImage scale(BufferedImage image, int pixels) {
+		double ratio = Math.min(1.0, (double) pixels
+				/ Math.max(image.getWidth(), image.getHeight()));
+		int targetWidth = Math.max(1, (int) Math.round(image.getWidth() * ratio));
+		int targetHeight = Math.max(1,
+				(int) Math.round(image.getHeight() * ratio));
+
+		BufferedImage current = image;
+		int width = image.getWidth();
+		int height = image.getHeight();
+		do {
+			width = Math.max(targetWidth, width / 2);
+			height = Math.max(targetHeight, height / 2);
+			BufferedImage next = new BufferedImage(width, height,
+					BufferedImage.TYPE_INT_ARGB);
+			Graphics2D graphics = next.createGraphics();
+			graphics.setRenderingHint(RenderingHints.KEY_INTERPOLATION,
+					RenderingHints.VALUE_INTERPOLATION_BILINEAR);
+			graphics.drawImage(current, 0, 0, width, height, null);
+			graphics.dispose();
+			current = next;
+		} while (width != targetWidth || height != targetHeight);
+		return current;
+	}
+}
@@ -22,11 +22,11 @@ public class Transaction implements Comparable<Transaction> {
 	/** The number of days overdue for the loan (that the user was fined for). */
 	private int daysOverdue;
 	
-	/** The date that the transaction was carried out (YYYY-MM-DD). */
-	private String date;
+	/** The date that the transaction was carried out (days since 1970-01-01). */
+	private int day;
 	
-	/** The time that the transaction was carried out (HH:MM:SS). */
-	private String time;
+	/** The time that the transaction was carried out (seconds since midnight). */
+	private int second;
 	
 	/** The type of resource that the user was fined for. */
 	private ResourceType type;
@@ -49,13 +49,35 @@ public class Transaction implements Comparable<Transaction> {
 	public Transaction(int transactionID, int resourceID, String username, 
 			double amount, int daysOverdue, String date, String time, 
 			ResourceType type, boolean isFine) {
+		// The date and time are only read once, when the transaction is made.
+		this(transactionID, resourceID, username, amount, daysOverdue, 
+				Utility.toEpochDay(date), Utility.toSecondOfDay(time), 
+				type, isFine);
+	}
+	
+	/**
+	 * Constructor for the Transaction class, with the date as days since
+	 * 1970-01-01 and the time as seconds since midnight.
+	 * @param transactionID The unique ID for the transaction.
+	 * @param resourceID The ID of the resource that caused the fine.
+	 * @param username The username of the user who the transaction is issued for.
+	 * @param amount The amount of money involved in the transaction (GBP).
+	 * @param daysOverdue The number of days overdue for the loan (for fines).
+	 * @param day The date that the transaction was carried out.
+	 * @param second The time that the transaction was carried out.
+	 * @param type The type of resource that the user was fined for.
+	 * @param isFine Checks if the transaction is a fine or not (or payment).
+	 */
+	public Transaction(int transactionID, int resourceID, String username, 
+			double amount, int daysOverdue, int day, int second, 
+			ResourceType type, boolean isFine) {
 		this.transactionID = transactionID;
 		this.resourceID = resourceID;
 		this.username = username;
 		this.amount = amount;
 		this.daysOverdue = daysOverdue;
-		this.date = date;
-		this.time = time;
+		this.day = day;
+		this.second = second;
 		this.type = type;
 		this.isFine = isFine;
 	}
@@ -67,7 +89,7 @@ public class Transaction implements Comparable<Transaction> {
 	public String toStringDetail() {
 		String strTransaction = transactionID + "," + resourceID + 
 				"," + username + "," + amount + "," + daysOverdue + 
-				"," + date + "," + time + "," + type + "," + isFine + ",";
+				"," + getDate() + "," + getTime() + "," + type + "," + isFine + ",";
 		return strTransaction;
 	}
 	
@@ -116,7 +138,15 @@ public class Transaction implements Comparable<Transaction> {
 	 * @return The date that the transaction was carried out (YYYY-MM-DD).
 	 */
 	public String getDate() {
-		return date;
+		return Utility.formatDate(day);
+	}
+	
+	/**
+	 * Gets the date that the transaction was carried out.
+	 * @return The date (days since 1970-01-01).
+	 */
+	public int getDay() {
+		return day;
 	}
 	
 	/**
@@ -124,7 +154,15 @@ public class Transaction implements Comparable<Transaction> {
 	 * @return The time that the transaction was carried out (HH:MM:SS).
 	 */
 	public String getTime() {
-		return time;
+		return Utility.formatTime(second);
+	}
+	
+	/**
+	 * Gets the time that the transaction was carried out.
+	 * @return The time (seconds since midnight).
+	 */
+	public int getSecond() {
+		return second;
 	}
 	
 	/**
@@ -148,7 +186,7 @@ public class Transaction implements Comparable<Transaction> {
 	 * @return Description of a fine transaction.
 	 */
 	public String getFineDescription() {
-		String strFineDesc = "FINE - Date: " + date + " | Time: " + time 
+		String strFineDesc = "FINE - Date: " + getDate() + " | Time: " + getTime() 
 				+ " | Amount: £" + amount + " | Days Overdue: " + daysOverdue 
 				+ " | Resource ID: " + resourceID + " | Type: " + type;
 		return strFineDesc;
@@ -159,8 +197,8 @@ public class Transaction implements Comparable<Transaction> {
 	 * @return Description of a payment transaction.
 	 */
 	public String getPaymentDescription() {
-		String strPaymentDesc = "PAYMENT - Date: " + date + " | Time: " 
-				+ time + " | Amount: £" + amount;
+		String strPaymentDesc = "PAYMENT - Date: " + getDate() + " | Time: " 
+				+ getTime() + " | Amount: £" + amount;
 		return strPaymentDesc;
 	}
 
@@ -0,0 +1,174 @@
+package data;
+
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.util.ArrayList;
+import java.util.LinkedHashMap;
+import java.util.Map;
+
+/**
+ * The UnitOfWork class collects all the records changed by one action
+ * (e.g. returning a loan), so they're saved together. When the work is
+ * committed, it's passed to the Persister, which writes each file once
+ * with all of its changed records and then syncs it to disk, instead of
+ * once per change. If the same record is changed more than once, only
+ * the latest version is written.
+ * @author William King
+ */
+public class UnitOfWork {
+	/** The unit of work being collected on each thread. */
+	private static final ThreadLocal<UnitOfWork> current = new ThreadLocal<>();
+
+	/** The changed records to add to each journal, using the key of
+	 * each record as the key. */
+	private final LinkedHashMap<Journal, LinkedHashMap<String, String>>
+			journalRecords = new LinkedHashMap<>();
+	/** The changed records (as bytes) to write to each fixed width file,
+	 * using the ID of each record as the key. */
+	private final LinkedHashMap<FixedWidthFile<?>, LinkedHashMap<Integer, byte[]>>
+			fixedWidthRecords = new LinkedHashMap<>();
+	/** The number of times the work has been started but not committed. */
+	private int depth;
+
+	/**
+	 * Constructor for the UnitOfWork class.
+	 */
+	UnitOfWork() {
+	}
+
+	/**
+	 * Starts collecting changes on this thread. If a unit of work has
+	 * already been started, the changes are added to that one instead.
+	 * @return The unit of work to commit once the action is finished.
+	 */
+	public static UnitOfWork begin() {
+		UnitOfWork work = current.get();
+		if (work == null) {
+			work = new UnitOfWork();
+			current.set(work);
+		}
+		work.depth++;
+		return work;
+	}
+
+	/**
+	 * Gets the unit of work being collected on this thread.
+	 * @return The unit of work, or null if none has been started.
+	 */
+	public static UnitOfWork getCurrent() {
+		return current.get();
+	}
+
+	/**
+	 * Adds a new or edited record to be added to a journal.
+	 * @param journal The journal of the data file.
+	 * @param record The details of the record.
+	 */
+	public void add(Journal journal, String record) {
+		LinkedHashMap<String, String> records = journalRecords.get(journal);
+		if (records == null) {
+			records = new LinkedHashMap<>();
+			journalRecords.put(journal, records);
+		}
+		String key = Journal.getKey(record);
+		// Keep the records in the order they were last changed.
+		records.remove(key);
+		records.put(key, record);
+	}
+
+	/**
+	 * Adds a new or edited record to be written to a fixed width file.
+	 * The record is turned into bytes straight away, so later changes to
+	 * the object don't affect what's saved.
+	 * @param <T> The type of record.
+	 * @param file The fixed width file.
+	 * @param record The record.
+	 */
+	public <T> void add(FixedWidthFile<T> file, T record) {
+		addEncoded(file, file.encode(record));
+	}
+
+	/**
+	 * Adds a record that has already been turned into bytes.
+	 * @param file The fixed width file.
+	 * @param record The bytes of the record.
+	 */
+	private void addEncoded(FixedWidthFile<?> file, byte[] record) {
+		LinkedHashMap<Integer, byte[]> records = fixedWidthRecords.get(file);
+		if (records == null) {
+			records = new LinkedHashMap<>();
+			fixedWidthRecords.put(file, records);
+		}
+		// The ID is always the first field.
+		Integer id = ByteBuffer.wrap(record).getInt();
+		records.remove(id);
+		records.put(id, record);
+	}
+
+	/**
+	 * Finishes the unit of work and passes the collected changes to the
+	 * Persister to be saved. If this unit of work was started inside
+	 * another, the changes are saved when the outer one is committed.
+	 */
+	public void commit() {
+		depth--;
+		if (depth > 0) {
+			return;
+		}
+		current.remove();
+		if (!isEmpty()) {
+			Persister.enqueue(this);
+		}
+	}
+
+	/**
+	 * Checks if no changes have been collected.
+	 * @return True if there are no changes, otherwise false.
+	 */
+	boolean isEmpty() {
+		return journalRecords.isEmpty() && fixedWidthRecords.isEmpty();
+	}
+
+	/**
+	 * Adds all the changes from another unit of work to this one, so
+	 * they can be saved together.
+	 * @param other The other unit of work.
+	 */
+	void mergeFrom(UnitOfWork other) {
+		for (Map.Entry<Journal, LinkedHashMap<String, String>> entry
+				: other.journalRecords.entrySet()) {
+			for (String record : entry.getValue().values()) {
+				add(entry.getKey(), record);
+			}
+		}
+		for (Map.Entry<FixedWidthFile<?>, LinkedHashMap<Integer, byte[]>> entry
+				: other.fixedWidthRecords.entrySet()) {
+			for (byte[] record : entry.getValue().values()) {
+				addEncoded(entry.getKey(), record);
+			}
+		}
+	}
+
+	/**
+	 * Writes all the collected changes. Each file is written once.
+	 * @param sync Whether to wait until the changes are stored on disk.
+	 */
+	void save(boolean sync) {
+		for (Map.Entry<Journal, LinkedHashMap<String, String>> entry
+				: journalRecords.entrySet()) {
+			entry.getKey().appendAll(
+					new ArrayList<>(entry.getValue().values()), sync);
+		}
+		for (Map.Entry<FixedWidthFile<?>, LinkedHashMap<Integer, byte[]>> entry
+				: fixedWidthRecords.entrySet()) {
+			FixedWidthFile<?> file = entry.getKey();
+			try {
+				file.writeEncoded(
+						new ArrayList<>(entry.getValue().values()), sync);
+			} catch (IOException e) {
+				System.out.println("Cannot write to " + file.getFilePath());
+				System.exit(-1);
+			}
+		}
+	}
+}
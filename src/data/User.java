@@ -6,6 +6,9 @@ package data;
  * @author William King
  */
 public class User {
+	/** The longest username (in bytes) a user can have, so that it fits
+	 * in a fixed width loan. */
+	public static final int MAX_USERNAME_BYTES = 64;
 	
 	/** A unique name of a user. */
 	protected String username;
@@ -1,14 +1,10 @@
 package data;
 
-import java.util.ArrayList;
 import java.util.Arrays;
 import java.util.LinkedHashMap;
 import java.time.LocalDate;
 import java.time.LocalTime;
 
-import static java.time.temporal.ChronoUnit.DAYS;
-import static java.time.temporal.ChronoUnit.SECONDS;
-
 /**
  * The Utility class holds commonly used methods / functions that are used 
  * within different classes such as validation etc.
@@ -16,49 +12,10 @@ import static java.time.temporal.ChronoUnit.SECONDS;
  */
 public class Utility {
 	
-	/** A regular expression that holds a dash and, lower and 
-	 * upper case letters. */
-	private static String alphabet = "[a-zA-Z ]+";
-	/** A regular expression that holds digits from 0-9. */
-	private static String digits = "[0-9]+";
-	
-	/** A regular expression for someone's name and city. */
-	private static String nameRegex = "[a-zA-Z-' ]+";
-	/** A regular expression for an address. */
-	private static String addressRegex = "[0-9a-zA-Z-' ]+";
-	/** A regular expression for a postcode. */
-	private static String postcodeRegex = "[0-9A-Z ]+";
-	/** A regular expression for a mobile number. */
-	private static String phoneRegex = "[0-9+ ]+";
-	
-	/** A regular expression for holding numbers and letters. */
-	private static String alphaNumRegex = "[0-9a-zA-Z ]+";
-	/** A regular expression for the laptop model. */
-	private static String modelRegex = "[0-9a-zA-Z- ]+";
-	
-	/**
-	 * Checks if all the required fields have data in them.
-	 * @param firstName The entered first name.
-	 * @param surname The entered surname.
-	 * @param mobileNumber The entered mobile number.
-	 * @param address1 The entered address line 1.
-	 * @param city The entered city.
-	 * @param postcode The entered postcode.
-	 * @return Whether all the required fields are filled or not.
-	 */
-	public static boolean isFieldFilledUser(String firstName, String surname, 
-			String mobileNumber, String address1, String city, 
-			String postcode) {
-		// If any of the required fields are empty. 
-		if (firstName.isEmpty() || surname.isEmpty() || 
-				mobileNumber.isEmpty() || address1.isEmpty() || 
-				city.isEmpty() || postcode.isEmpty()) {
-			return false;
-		//If all required fields are filled.
-		} else {
-			return true;
-		}
-	}
+	/** Marks a date that hasn't been set (e.g. a loan with no due date). */
+	public static final int NO_DATE = Integer.MIN_VALUE;
+	/** Marks a time that hasn't been set. */
+	public static final int NO_TIME = -1;
 	
 	/**
 	 * Checks if the required fields for a book has data in them.
@@ -158,16 +115,21 @@ public class Utility {
 	 * @param genre The entered genre.
 	 * @param language The entered language.
 	 * @param isbn The entered ISBN.
-	 * @param bookList The array list of all current books.
 	 * @return Whether the book being created has the same details as
 	 *         an already existing book in the library.
 	 */
 	public static boolean isBookExist(String resourceTitle, int year, 
 			String imageName, String author, String publisher, String genre,
-			String language, String isbn, ArrayList<Book> bookList) {
-		boolean bookExist = false;
-		//Searches through all the existing books.
-		for (Book thisBook : bookList) {
+			String language, String isbn) {
+		long fingerprint = Book.fingerprintOf(resourceTitle, year, imageName,
+				author, publisher, genre, language, isbn);
+		// Only the books with the same fingerprint need to be compared.
+		for (Resource thisResource : LibraryStore.getInstance()
+				.getResourcesWithFingerprint(fingerprint)) {
+			if (!(thisResource instanceof Book)) {
+				continue;
+			}
+			Book thisBook = (Book) thisResource;
 			if (thisBook.getResourceTitle().equals(resourceTitle) && 
 					thisBook.getYear() == year &&
 					thisBook.getAuthor().equals(author) &&
@@ -176,10 +138,10 @@ public class Utility {
 					thisBook.getLanguage().equals(language) &&
 					thisBook.getThumbnail().equals(imageName) &&
 					thisBook.getISBN().equals(isbn)) {
-				bookExist = true;
+				return true;
 			} 
 		}
-		return bookExist;
+		return false;
 	}
 	
 	/**
@@ -192,28 +154,32 @@ public class Utility {
 	 * @param runtime The entered runtime.
 	 * @param subLang The entered subtitle language.
 	 * @param language The entered language.
-	 * @param dvdList The array list of all current DVDs.
 	 * @return Whether the DVD being created has the same details as
 	 *         an already existing DVD in the library.
 	 */
 	public static boolean isDVDExist(String resourceTitle, int year, 
 			String imageName, String director, double runtime, String[] subLang, 
-			String language, ArrayList <DVD> dvdList) {
-		String strSubLang = Arrays.toString(subLang);
-		boolean dvdExist = false;
-		//Searches through all the existing DVDs.
-		for (DVD thisDVD : dvdList) {
+			String language) {
+		long fingerprint = DVD.fingerprintOf(resourceTitle, year, imageName,
+				director, runtime, subLang, language);
+		// Only the DVDs with the same fingerprint need to be compared.
+		for (Resource thisResource : LibraryStore.getInstance()
+				.getResourcesWithFingerprint(fingerprint)) {
+			if (!(thisResource instanceof DVD)) {
+				continue;
+			}
+			DVD thisDVD = (DVD) thisResource;
 			if (thisDVD.getResourceTitle().equals(resourceTitle) &&
 					thisDVD.getYear() == year &&
 					thisDVD.getDirector().equals(director) &&
 					thisDVD.getRuntime() == runtime &&
-					Arrays.toString(thisDVD.getSubLang()).equals(strSubLang) &&
+					Arrays.equals(thisDVD.getSubLang(), subLang) &&
 					thisDVD.getLanguage().equals(language) &&
 					thisDVD.getThumbnail().equals(imageName)) {
-				dvdExist = true;
+				return true;
 			}
 		}
-		return dvdExist;
+		return false;
 	}
 	
 	/**
@@ -225,66 +191,31 @@ public class Utility {
 	 * @param manufacturer The entered manufacturer.
 	 * @param model The entered model.
 	 * @param operatingSystem The entered operating system.
-	 * @param laptopList The array list of all current laptops.
 	 * @return Whether the laptop being created has the same details as
 	 *         an already existing laptop in the library.
 	 */
 	public static boolean isLaptopExist(String resourceTitle, int year,
 			String imageName, String manufacturer, String model, 
-			String operatingSystem, ArrayList<Laptop> laptopList) {
-		boolean laptopExist = false;
-		//Searches through all the existing laptops.
-		for (Laptop thisLaptop : laptopList) {
+			String operatingSystem) {
+		long fingerprint = Laptop.fingerprintOf(resourceTitle, year, 
+				imageName, manufacturer, model, operatingSystem);
+		// Only the laptops with the same fingerprint need to be compared.
+		for (Resource thisResource : LibraryStore.getInstance()
+				.getResourcesWithFingerprint(fingerprint)) {
+			if (!(thisResource instanceof Laptop)) {
+				continue;
+			}
+			Laptop thisLaptop = (Laptop) thisResource;
 			if (thisLaptop.getResourceTitle().equals(resourceTitle) &&
 					thisLaptop.getYear() == year &&
 					thisLaptop.getManufacturer().equals(manufacturer) &&
 					thisLaptop.getModel().equals(model) &&
 					thisLaptop.getOperatingSystem().equals(operatingSystem) &&
 					thisLaptop.getThumbnail().equals(imageName)) {
-				laptopExist = true;
+				return true;
 			}
 		}
-		return laptopExist;
-	}
-	
-	/**
-	 * Checks if the passed down fields matches with their respective regex for
-	 * the user.
-	 * @param firstName The entered first name.
-	 * @param surname The entered surname.
-	 * @param mobileNum The entered mobile number.
-	 * @param address1 The entered address line 1.
-	 * @param address2 The entered address line 2.
-	 * @param city The entered city.
-	 * @return If the passed down fields matches with their regex or not.
-	 */
-	public static boolean isAlphaUser(String firstName, String surname, 
-			String mobileNum, String address1, String address2, String city) {
-		// If the selected fields has only letters or dashes.
-		if (firstName.matches(nameRegex) && surname.matches(nameRegex) 
-				&& mobileNum.matches(phoneRegex) 
-				&& address1.matches(addressRegex) 
-				&& (address2.matches(addressRegex) || address2.equals("N/A")) 
-				&& city.matches(nameRegex)) {
-			return true;
-		// If any of the fields that SHOULD NOT contain non-alphabetical
-		// have non-alphabetical characters.
-		} else {
-			return false;
-		}
-	}
-	
-	/**
-	 * Checks if the entered postcode for a user has valid characters.
-	 * @param postcode The entered postcode.
-	 * @return If the postcode has valid characters or not.
-	 */
-	public static boolean isPostcodeValid(String postcode) {
-		if (postcode.matches(postcodeRegex)) {
-			return true;
-		} else {
-			return false;
-		}
+		return false;
 	}
 	
 	/**
@@ -294,7 +225,7 @@ public class Utility {
 	 *         or not.
 	 */
 	public static boolean isAlphaLanguage(String lang) {
-		if (lang.matches(alphabet)) {
+		if (Validator.Rule.ALPHABET.matches(lang)) {
 			return true;
 		} else {
 			return false;
@@ -313,9 +244,11 @@ public class Utility {
 	 */
 	public static boolean isAlphaBook(String author, String publisher, 
 			String genre, String language) {
-		if (author.matches(nameRegex) && publisher.matches(alphabet) && 
-				(genre.matches(alphabet) || genre.isEmpty()) && 
-				(language.matches(alphabet) || language.isEmpty())) {
+		if (Validator.Rule.NAME.matches(author) && 
+				Validator.Rule.ALPHABET.matches(publisher) && 
+				(Validator.Rule.ALPHABET.matches(genre) || genre.isEmpty()) && 
+				(Validator.Rule.ALPHABET.matches(language) 
+						|| language.isEmpty())) {
 			return true;
 		} else {
 			return false;
@@ -331,8 +264,9 @@ public class Utility {
 	 *         alphabetical characters or not.
 	 */
 	public static boolean isAlphaDVD(String director, String language) {
-		if (director.matches(nameRegex) && 
-				(language.matches(alphabet) || language.isEmpty())) {
+		if (Validator.Rule.NAME.matches(director) && 
+				(Validator.Rule.ALPHABET.matches(language) 
+						|| language.isEmpty())) {
 			return true;
 		} else {
 			return false;
@@ -351,10 +285,10 @@ public class Utility {
 	 */
 	public static boolean isAlphaLaptop(String resourceTitle, 
 			String operatingSystem, String model, String manufacturer) {
-		if (resourceTitle.matches(alphaNumRegex) && 
-				operatingSystem.matches(alphaNumRegex) && 
-				model.matches(modelRegex) &&
-				manufacturer.matches(alphabet)) {
+		if (Validator.Rule.ALPHA_NUM.matches(resourceTitle) && 
+				Validator.Rule.ALPHA_NUM.matches(operatingSystem) && 
+				Validator.Rule.MODEL.matches(model) &&
+				Validator.Rule.ALPHABET.matches(manufacturer)) {
 			return true;
 		} else {
 			return false;
@@ -368,7 +302,7 @@ public class Utility {
 	 */
 	public static boolean isInt(String value) {
 		// If it's an optional field, allow it to be empty.
-		if (value.matches(digits) || value.isEmpty()) {
+		if (Validator.Rule.DIGITS.matches(value) || value.isEmpty()) {
 			return true;
 		} else {
 			return false;
@@ -381,51 +315,116 @@ public class Utility {
 	 * @return If the entered value is a parsable double or not.
 	 */
 	public static boolean isDouble(String value) {
-		// Will catch a NumberFormatException if the entered 
-		// value is not a double (by parsing it as a double).
-		try {
-			double newDouble = Double.parseDouble(value);
-		} catch (Exception NumberFormatException) {
-			return false;
-		}	
-		return true;
+		// Checks the characters rather than parsing it and catching a
+		// NumberFormatException.
+		return Validator.isDecimal(value);
 	}
 	
 	/**
 	 * Gets the number of days past since the entered date.
-	 * @param origionalDate The original date as a string (YYYY-MM-DD).
+	 * @param epochDay The original date as days since 1970-01-01.
 	 * @return An integer of days past since the entered date.
 	 */
-	public static int daysPastDate(String originalDate) {
-		LocalDate today = LocalDate.now();
-		LocalDate thisDate = LocalDate.parse(originalDate);
-		int daysBetween = (int) DAYS.between(thisDate, today);
-		return daysBetween;
+	public static int daysPastDate(int epochDay) {
+		return today() - epochDay;
 	}
 	
 	/**
-	 * Gets the number of days past between two entered dates.
-	 * @param firstDate The first date as a string (YYYY-MM-DD).
-	 * @param secondDate The second date as a string (YYYY-MM-DD).
-	 * @return An integer of days between the entered dates.
+	 * Gets today's date.
+	 * @return Today's date as days since 1970-01-01.
 	 */
-	public static int daysBetweenDates(String firstDate, String secondDate) {
-		LocalDate locFirstDate = LocalDate.parse(firstDate);
-		LocalDate locSecondDate = LocalDate.parse(secondDate);
-		int daysBetween = (int) DAYS.between(locFirstDate, locSecondDate);
-		return daysBetween;
+	public static int today() {
+		return (int) LocalDate.now().toEpochDay();
 	}
 	
 	/**
-	 * Gets the number of seconds between two entered times.
-	 * @param firstTime The first time as a string (HH:MM:SS).
-	 * @param secondTime The second time as a string (HH:MM:SS).
-	 * @return An integer of seconds between the entered times.
+	 * Turns a date into the number of days since 1970-01-01, so dates 
+	 * can be compared and subtracted as whole numbers.
+	 * @param date The date as a string (YYYY-MM-DD), or "" if there isn't one.
+	 * @return The days since 1970-01-01, or NO_DATE if there isn't one.
 	 */
-	public static int secondsBetweenTimes(String firstTime, String secondTime) {
-		LocalTime locFirstTime = LocalTime.parse(firstTime);
-		LocalTime locSecondTime = LocalTime.parse(secondTime);
-		int minutesBetween = (int) SECONDS.between(locFirstTime, locSecondTime);
-		return minutesBetween;
+	public static int toEpochDay(String date) {
+		if (date.isEmpty()) {
+			return NO_DATE;
+		}
+		// Dates are almost always in the exact format, which is quicker 
+		// to read by hand.
+		if (date.length() == 10 && date.charAt(4) == '-' 
+				&& date.charAt(7) == '-') {
+			int year = readDigits(date, 0, 4);
+			int month = readDigits(date, 5, 7);
+			int day = readDigits(date, 8, 10);
+			if (year >= 0 && month >= 0 && day >= 0) {
+				return (int) LocalDate.of(year, month, day).toEpochDay();
+			}
+		}
+		return (int) LocalDate.parse(date).toEpochDay();
+	}
+	
+	/**
+	 * Turns a time into the number of seconds since midnight.
+	 * @param time The time as a string (HH:MM:SS or HH:MM), or "" if 
+	 *             there isn't one.
+	 * @return The seconds since midnight, or NO_TIME if there isn't one.
+	 */
+	public static int toSecondOfDay(String time) {
+		if (time.isEmpty()) {
+			return NO_TIME;
+		}
+		if ((time.length() == 5 || time.length() == 8) 
+				&& time.charAt(2) == ':') {
+			int hour = readDigits(time, 0, 2);
+			int minute = readDigits(time, 3, 5);
+			int second = (time.length() == 8 && time.charAt(5) == ':') 
+					? readDigits(time, 6, 8) : (time.length() == 5 ? 0 : -1);
+			if (hour >= 0 && hour < 24 && minute >= 0 && minute < 60 
+					&& second >= 0 && second < 60) {
+				return hour * 3600 + minute * 60 + second;
+			}
+		}
+		return LocalTime.parse(time).toSecondOfDay();
+	}
+	
+	/**
+	 * Turns a number of days since 1970-01-01 back into a date.
+	 * @param epochDay The days since 1970-01-01, or NO_DATE.
+	 * @return The date as a string (YYYY-MM-DD), or "" if there isn't one.
+	 */
+	public static String formatDate(int epochDay) {
+		if (epochDay == NO_DATE) {
+			return "";
+		}
+		return LocalDate.ofEpochDay(epochDay).toString();
+	}
+	
+	/**
+	 * Turns a number of seconds since midnight back into a time.
+	 * @param secondOfDay The seconds since midnight, or NO_TIME.
+	 * @return The time as a string (HH:MM:SS), or "" if there isn't one.
+	 */
+	public static String formatTime(int secondOfDay) {
+		if (secondOfDay == NO_TIME) {
+			return "";
+		}
+		return LocalTime.ofSecondOfDay(secondOfDay).toString();
+	}
+	
+	/**
+	 * Reads a whole number made up only of digits from part of a string.
+	 * @param text The string.
+	 * @param start The start of the number.
+	 * @param end The end of the number.
+	 * @return The number, or -1 if it contains anything but digits.
+	 */
+	private static int readDigits(String text, int start, int end) {
+		int value = 0;
+		for (int i = start; i < end; i++) {
+			int digit = text.charAt(i) - '0';
+			if (digit < 0 || digit > 9) {
+				return -1;
+			}
+			value = value * 10 + digit;
+		}
+		return value;
 	}
 }
\ No newline at end of file
@@ -0,0 +1,453 @@
+package data;
+
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * The Validator class checks entered or imported details against the
+ * rules for each field (e.g. a surname can only have letters, dashes,
+ * apostrophes and spaces). The character rules are checked with a lookup
+ * table made once for each rule, so no regular expressions are compiled
+ * and nothing is created while a value is checked. A whole batch of
+ * records can be checked in one go, giving an error code for each field
+ * of each record.
+ * @author William King
+ */
+public class Validator {
+
+	/**
+	 * The characters a value is allowed to have. The regular expression
+	 * each rule replaces is shown next to it.
+	 */
+	public enum Rule {
+		/** Anything is allowed. */
+		ANY(null, Error.NONE),
+		/** Letters and spaces ([a-zA-Z ]+). */
+		ALPHABET("abcdefghijklmnopqrstuvwxyzABCDEFGHIJKLMNOPQRSTUVWXYZ ",
+				Error.NOT_ALPHA),
+		/** Digits only ([0-9]+). */
+		DIGITS("0123456789", Error.NOT_INTEGER),
+		/** Someone's name or a city ([a-zA-Z-' ]+). */
+		NAME("abcdefghijklmnopqrstuvwxyzABCDEFGHIJKLMNOPQRSTUVWXYZ-' ",
+				Error.NOT_ALPHA),
+		/** An address ([0-9a-zA-Z-' ]+). */
+		ADDRESS("0123456789abcdefghijklmnopqrstuvwxyz"
+				+ "ABCDEFGHIJKLMNOPQRSTUVWXYZ-' ", Error.NOT_ALPHA),
+		/** A postcode ([0-9A-Z ]+). */
+		POSTCODE("0123456789ABCDEFGHIJKLMNOPQRSTUVWXYZ ",
+				Error.INVALID_POSTCODE),
+		/** A mobile number ([0-9+ ]+). */
+		PHONE("0123456789+ ", Error.NOT_ALPHA),
+		/** Numbers and letters ([0-9a-zA-Z ]+). */
+		ALPHA_NUM("0123456789abcdefghijklmnopqrstuvwxyz"
+				+ "ABCDEFGHIJKLMNOPQRSTUVWXYZ ", Error.NOT_ALPHA),
+		/** A laptop model ([0-9a-zA-Z- ]+). */
+		MODEL("0123456789abcdefghijklmnopqrstuvwxyz"
+				+ "ABCDEFGHIJKLMNOPQRSTUVWXYZ- ", Error.NOT_ALPHA),
+		/** A decimal number (e.g. 1.5 or -2). */
+		DECIMAL(null, Error.NOT_DECIMAL);
+
+		/** Whether each ASCII character is allowed, or null if the rule
+		 * isn't a set of characters. */
+		private final boolean[] allowed;
+		/** The error given when a value breaks the rule. */
+		private final Error error;
+
+		/**
+		 * Constructor for the Rule enum.
+		 * @param characters The characters allowed, or null.
+		 * @param error The error given when a value breaks the rule.
+		 */
+		Rule(String characters, Error error) {
+			this.error = error;
+			if (characters == null) {
+				this.allowed = null;
+			} else {
+				this.allowed = new boolean[128];
+				for (int i = 0; i < characters.length(); i++) {
+					allowed[characters.charAt(i)] = true;
+				}
+			}
+		}
+
+		/**
+		 * Checks if a value follows the rule. An empty value never does
+		 * (other than for ANY), as each regular expression needed at
+		 * least one character.
+		 * @param value The value.
+		 * @return True if the value follows the rule, otherwise false.
+		 */
+		public boolean matches(String value) {
+			if (this == ANY) {
+				return true;
+			} else if (this == DECIMAL) {
+				return isDecimal(value);
+			} else if (value.isEmpty()) {
+				return false;
+			}
+			for (int i = 0; i < value.length(); i++) {
+				char character = value.charAt(i);
+				if (character >= 128 || !allowed[character]) {
+					return false;
+				}
+			}
+			return true;
+		}
+
+		/**
+		 * Gets the error given when a value breaks the rule.
+		 * @return The error.
+		 */
+		public Error getError() {
+			return error;
+		}
+	}
+
+	/**
+	 * The problem found with a field.
+	 */
+	public enum Error {
+		/** The field is fine. */
+		NONE,
+		/** A required field was left empty. */
+		MISSING,
+		/** The field has characters it isn't allowed to have. */
+		NOT_ALPHA,
+		/** The field isn't a whole number. */
+		NOT_INTEGER,
+		/** The field isn't a decimal number. */
+		NOT_DECIMAL,
+		/** The postcode has characters it isn't allowed to have. */
+		INVALID_POSTCODE,
+		/** The record doesn't have one value for each field, so none of
+		 * its fields could be checked. */
+		WRONG_FIELD_COUNT
+	}
+
+	/** The fields of a user, in the order they are given in a record. */
+	public static final Field[] USER_FIELDS = {
+		new Field("First Name", Rule.NAME, true),
+		new Field("Surname", Rule.NAME, true),
+		new Field("Mobile Number", Rule.PHONE, true),
+		new Field("Address Line 1", Rule.ADDRESS, true),
+		new Field("Address Line 2", Rule.ADDRESS, false, "N/A"),
+		new Field("City", Rule.NAME, true),
+		new Field("Postcode", Rule.POSTCODE, true)
+	};
+
+	/** The fields of a book, in the order they are given in a record. */
+	public static final Field[] BOOK_FIELDS = {
+		new Field("Title", Rule.ANY, true),
+		new Field("Year", Rule.DIGITS, true),
+		new Field("Author", Rule.NAME, true),
+		new Field("Publisher", Rule.ALPHABET, true),
+		new Field("Genre", Rule.ALPHABET, false),
+		new Field("Language", Rule.ALPHABET, false),
+		new Field("ISBN", Rule.DIGITS, false)
+	};
+
+	/** The fields of a DVD, in the order they are given in a record. */
+	public static final Field[] DVD_FIELDS = {
+		new Field("Title", Rule.ANY, true),
+		new Field("Year", Rule.DIGITS, true),
+		new Field("Director", Rule.NAME, true),
+		new Field("Runtime", Rule.DECIMAL, true),
+		new Field("Language", Rule.ALPHABET, false)
+	};
+
+	/** The fields of a laptop, in the order they are given in a record. */
+	public static final Field[] LAPTOP_FIELDS = {
+		new Field("Title", Rule.ALPHA_NUM, true),
+		new Field("Year", Rule.DIGITS, true),
+		new Field("Manufacturer", Rule.ALPHABET, true),
+		new Field("Model", Rule.MODEL, true),
+		new Field("Operating System", Rule.ALPHA_NUM, true)
+	};
+
+	/**
+	 * Checks a batch of records (e.g. users being imported).
+	 * @param fields The fields each record has, e.g. USER_FIELDS.
+	 * @param records The records, each with a value for every field in
+	 *        the same order.
+	 * @return The error code for each field of each record. Every field
+	 *         of a record with the wrong number of values is given
+	 *         WRONG_FIELD_COUNT.
+	 */
+	public static Report validate(Field[] fields, List<String[]> records) {
+		Report report = new Report(fields, records.size());
+		for (int i = 0; i < records.size(); i++) {
+			String[] record = records.get(i);
+			for (int j = 0; j < fields.length; j++) {
+				if (record.length != fields.length) {
+					report.setError(i, j, Error.WRONG_FIELD_COUNT);
+				} else {
+					report.setError(i, j, fields[j].check(record[j]));
+				}
+			}
+		}
+		return report;
+	}
+
+	/**
+	 * Checks if a value is a decimal number: an optional sign, digits
+	 * with an optional decimal point, then an optional exponent (e.g.
+	 * 1.5e3). Leading and trailing spaces are ignored.
+	 * @param value The value.
+	 * @return True if the value is a decimal number, otherwise false.
+	 */
+	public static boolean isDecimal(String value) {
+		int start = 0;
+		int end = value.length();
+		while (start < end && value.charAt(start) <= ' ') {
+			start++;
+		}
+		while (end > start && value.charAt(end - 1) <= ' ') {
+			end--;
+		}
+		int i = start;
+		if (i < end && (value.charAt(i) == '+' || value.charAt(i) == '-')) {
+			i++;
+		}
+		int digits = 0;
+		while (i < end && isDigit(value.charAt(i))) {
+			i++;
+			digits++;
+		}
+		if (i < end && value.charAt(i) == '.') {
+			i++;
+			while (i < end && isDigit(value.charAt(i))) {
+				i++;
+				digits++;
+			}
+		}
+		if (digits == 0) {
+			return false;
+		}
+		if (i < end && (value.charAt(i) == 'e' || value.charAt(i) == 'E')) {
+			i++;
+			if (i < end && (value.charAt(i) == '+'
+					|| value.charAt(i) == '-')) {
+				i++;
+			}
+			int exponentDigits = 0;
+			while (i < end && isDigit(value.charAt(i))) {
+				i++;
+				exponentDigits++;
+			}
+			if (exponentDigits == 0) {
+				return false;
+			}
+		}
+		return i == end;
+	}
+
+	/**
+	 * Checks if a character is a digit from 0-9.
+	 * @param character The character.
+	 * @return True if it's a digit, otherwise false.
+	 */
+	private static boolean isDigit(char character) {
+		return character >= '0' && character <= '9';
+	}
+
+	/**
+	 * The Field class holds the rule for one field of a record and
+	 * whether it has to be filled in.
+	 */
+	public static class Field {
+		/** The name of the field, as shown to the librarian. */
+		private final String name;
+		/** The characters the field is allowed to have. */
+		private final Rule rule;
+		/** Whether the field has to be filled in. */
+		private final boolean isRequired;
+		/** A value that counts as the field being left empty, or null. */
+		private final String emptyValue;
+
+		/**
+		 * Constructor for the Field class.
+		 * @param name The name of the field.
+		 * @param rule The characters the field is allowed to have.
+		 * @param isRequired Whether the field has to be filled in.
+		 */
+		public Field(String name, Rule rule, boolean isRequired) {
+			this(name, rule, isRequired, null);
+		}
+
+		/**
+		 * Constructor for the Field class, for a field that is saved with
+		 * a placeholder when it's empty (e.g. "N/A").
+		 * @param name The name of the field.
+		 * @param rule The characters the field is allowed to have.
+		 * @param isRequired Whether the field has to be filled in.
+		 * @param emptyValue The placeholder for an empty field.
+		 */
+		public Field(String name, Rule rule, boolean isRequired,
+				String emptyValue) {
+			this.name = name;
+			this.rule = rule;
+			this.isRequired = isRequired;
+			this.emptyValue = emptyValue;
+		}
+
+		/**
+		 * Checks a value of the field.
+		 * @param value The value.
+		 * @return The problem with the value, or NONE.
+		 */
+		public Error check(String value) {
+			if (value == null || value.isEmpty() || value.equals(emptyValue)) {
+				return isRequired ? Error.MISSING : Error.NONE;
+			}
+			return rule.matches(value) ? Error.NONE : rule.getError();
+		}
+
+		/**
+		 * Gets the name of the field.
+		 * @return The name of the field.
+		 */
+		public String getName() {
+			return name;
+		}
+
+		/**
+		 * Gets the rule for the field.
+		 * @return The characters the field is allowed to have.
+		 */
+		public Rule getRule() {
+			return rule;
+		}
+
+		/**
+		 * Gets whether the field has to be filled in.
+		 * @return True if the field is required.
+		 */
+		public boolean isRequired() {
+			return isRequired;
+		}
+	}
+
+	/**
+	 * The Report class holds the error code for each field of each record
+	 * in a batch. The codes are kept in one array rather than an object
+	 * per record.
+	 */
+	public static class Report {
+		/** Every error, by its code. */
+		private static final Error[] ERRORS = Error.values();
+		
+		/** The fields of each record. */
+		private final Field[] fields;
+		/** The number of records checked. */
+		private final int recordCount;
+		/** The error code of each field, record by record. */
+		private final byte[] errors;
+		/** The number of records with at least one error. */
+		private int invalidCount = 0;
+
+		/**
+		 * Constructor for the Report class. Every field starts as NONE.
+		 * @param fields The fields of each record.
+		 * @param recordCount The number of records.
+		 */
+		private Report(Field[] fields, int recordCount) {
+			this.fields = fields;
+			this.recordCount = recordCount;
+			this.errors = new byte[fields.length * recordCount];
+		}
+
+		/**
+		 * Sets the error of a field of a record.
+		 * @param record The position of the record in the batch.
+		 * @param field The position of the field.
+		 * @param error The error.
+		 */
+		private void setError(int record, int field, Error error) {
+			if (error != Error.NONE) {
+				if (isValid(record)) {
+					invalidCount++;
+				}
+				errors[record * fields.length + field] = (byte) error.ordinal();
+			}
+		}
+
+		/**
+		 * Gets the error of a field of a record.
+		 * @param record The position of the record in the batch.
+		 * @param field The position of the field.
+		 * @return The error, or NONE.
+		 */
+		public Error getError(int record, int field) {
+			return ERRORS[errors[record * fields.length + field]];
+		}
+
+		/**
+		 * Checks if any field of a record has an error.
+		 * @param record The position of the record in the batch.
+		 * @param error The error to look for.
+		 * @return True if at least one field has the error.
+		 */
+		public boolean hasError(int record, Error error) {
+			int start = record * fields.length;
+			for (int i = start; i < start + fields.length; i++) {
+				if (errors[i] == error.ordinal()) {
+					return true;
+				}
+			}
+			return false;
+		}
+
+		/**
+		 * Checks if a record has no errors.
+		 * @param record The position of the record in the batch.
+		 * @return True if every field of the record is fine.
+		 */
+		public boolean isValid(int record) {
+			int start = record * fields.length;
+			for (int i = start; i < start + fields.length; i++) {
+				if (errors[i] != 0) {
+					return false;
+				}
+			}
+			return true;
+		}
+
+		/**
+		 * Gets the records with at least one error.
+		 * @return The positions of the records, in order.
+		 */
+		public List<Integer> getInvalidRecords() {
+			ArrayList<Integer> invalid = new ArrayList<>();
+			for (int i = 0; i < recordCount; i++) {
+				if (!isValid(i)) {
+					invalid.add(i);
+				}
+			}
+			return invalid;
+		}
+
+		/**
+		 * Gets the number of records with at least one error.
+		 * @return The number of invalid records.
+		 */
+		public int getInvalidCount() {
+			return invalidCount;
+		}
+
+		/**
+		 * Gets the number of records checked.
+		 * @return The number of records.
+		 */
+		public int getRecordCount() {
+			return recordCount;
+		}
+
+		/**
+		 * Gets the fields of each record.
+		 * @return The fields.
+		 */
+		public Field[] getFields() {
+			return fields;
+		}
+	}
+}